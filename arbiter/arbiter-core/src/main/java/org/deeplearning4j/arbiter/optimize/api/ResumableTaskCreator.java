@@ -0,0 +1,37 @@
+package org.deeplearning4j.arbiter.optimize.api;
+
+import org.deeplearning4j.arbiter.optimize.api.data.DataProvider;
+import org.deeplearning4j.arbiter.optimize.api.saving.ResultReference;
+import org.deeplearning4j.arbiter.optimize.api.score.ScoreFunction;
+import org.deeplearning4j.arbiter.optimize.runner.IOptimizationRunner;
+import org.deeplearning4j.arbiter.optimize.runner.listener.StatusListener;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * A {@link TaskCreator} that can train a candidate for a given number of epochs, optionally continuing from a model
+ * that was previously saved via the {@link org.deeplearning4j.arbiter.optimize.api.saving.ResultSaver}.<br>
+ * Used by schedulers that train candidates in stages, such as
+ * {@link org.deeplearning4j.arbiter.optimize.runner.LocalSuccessiveHalvingRunner}
+ *
+ * @author Alex Black
+ */
+public interface ResumableTaskCreator extends TaskCreator {
+
+    /**
+     * Generate a callable that trains the candidate for the specified number of epochs
+     *
+     * @param candidate       Candidate (model) configuration to be trained
+     * @param dataProvider    DataProvider, for the data
+     * @param scoreFunction   Score function to be used to evaluate the model
+     * @param statusListeners Status listeners, that can be used for callbacks (to UI, for example)
+     * @param numEpochs       Number of epochs to train for. Any early stopping configuration of the candidate is ignored
+     * @param resumeFrom      Result to continue training from. If null: train a new model from scratch
+     * @return A callable that returns an OptimizationResult, once training is complete. The returned result should
+     * include a ResultReference, for the model to be resumed later
+     */
+    Callable<OptimizationResult> create(Candidate candidate, DataProvider dataProvider, ScoreFunction scoreFunction,
+                                        List<StatusListener> statusListeners, IOptimizationRunner runner,
+                                        int numEpochs, ResultReference resumeFrom);
+}
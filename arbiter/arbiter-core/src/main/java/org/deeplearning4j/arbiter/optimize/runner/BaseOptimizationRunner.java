@@ -182,7 +182,7 @@ public abstract class BaseOptimizationRunner implements IOptimizationRunner {
     }
 
 
-    private CandidateInfo processFailedCandidates(Candidate<?> candidate) {
+    protected CandidateInfo processFailedCandidates(Candidate<?> candidate) {
         //In case the candidate fails during the creation of the candidate
 
         long time = System.currentTimeMillis();
@@ -336,7 +336,7 @@ public abstract class BaseOptimizationRunner implements IOptimizationRunner {
         return list;
     }
 
-    private boolean terminate() {
+    protected boolean terminate() {
         for (TerminationCondition c : config.getTerminationConditions()) {
             if (c.terminate(this)) {
                 log.info("BaseOptimizationRunner global termination condition hit: {}", c);
@@ -0,0 +1,537 @@
+package org.deeplearning4j.arbiter.optimize.runner;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.arbiter.optimize.api.*;
+import org.deeplearning4j.arbiter.optimize.api.data.DataProvider;
+import org.deeplearning4j.arbiter.optimize.api.saving.ResultReference;
+import org.deeplearning4j.arbiter.optimize.api.score.ScoreFunction;
+import org.deeplearning4j.arbiter.optimize.api.termination.TerminationCondition;
+import org.deeplearning4j.arbiter.optimize.config.OptimizationConfiguration;
+import org.deeplearning4j.arbiter.optimize.runner.listener.StatusListener;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LocalSuccessiveHalvingRunner: execute hyperparameter optimization locally, using asynchronous successive halving
+ * (ASHA - Li et al., "A System for Massively Parallel Hyperparameter Tuning", 2018) and optionally Hyperband-style
+ * brackets.<br>
+ * Instead of training every candidate to completion, candidates are trained in rungs: rung k trains for a total of
+ * minEpochs * reductionFactor^k epochs (limited to maxEpochs). Whenever a worker becomes free, the highest rung
+ * candidate that is in the top 1/reductionFactor of the completed candidates for its rung (according to the
+ * {@link ScoreFunction}) is promoted to the next rung, and training continues from its saved model. If no candidate
+ * can be promoted, a new candidate is started instead. Consequently, all maxConcurrentTasks workers are kept busy,
+ * and most of the budget is spent on the most promising candidates.<br>
+ * With numBrackets > 1, new candidates are assigned to brackets in turn; bracket s starts candidates at rung s,
+ * which guards against candidates that are slow to start (Hyperband, Li et al. 2016).<br>
+ * <br>
+ * Requirements: a {@link ResumableTaskCreator}, and a {@link org.deeplearning4j.arbiter.optimize.api.saving.ResultSaver}
+ * in the OptimizationConfiguration (used to resume promoted candidates).<br>
+ * Termination conditions stop new candidates from being started. By default, candidates that were already started
+ * can still be promoted after that - set completePromotions(false) to stop immediately instead.<br>
+ * Note that {@link #numCandidatesCompleted()} counts the candidates that completed at least one rung.
+ *
+ * @author Alex Black
+ */
+@Slf4j
+public class LocalSuccessiveHalvingRunner extends BaseOptimizationRunner {
+    private static final int POLLING_FREQUENCY = 1;
+    private static final TimeUnit POLLING_FREQUENCY_UNIT = TimeUnit.SECONDS;
+
+    private final int maxConcurrentTasks;
+    @Getter
+    private final int minEpochs;
+    @Getter
+    private final int maxEpochs;
+    @Getter
+    private final int reductionFactor;
+    @Getter
+    private final int numBrackets;
+    private final boolean completePromotions;
+    private final int[] rungEpochs;
+
+    private ResumableTaskCreator taskCreator;
+    private ListeningExecutorService executor;
+    @Setter
+    private long shutdownMaxWaitMS = 2L * 24 * 60 * 60 * 1000;
+
+    private final List<Bracket> brackets = new ArrayList<>();
+    private final Map<Future<OptimizationResult>, Job> running = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> resultIndices = new HashMap<>();
+    private int nextBracket = 0;
+    @Getter
+    private long totalEpochs = 0;
+
+    private LocalSuccessiveHalvingRunner(Builder builder) {
+        super(builder.config);
+        OptimizationConfiguration config = builder.config;
+        if (builder.maxConcurrentTasks <= 0)
+            throw new IllegalArgumentException("maxConcurrentTasks must be > 0 (got: " + builder.maxConcurrentTasks + ")");
+        if (builder.minEpochs <= 0 || builder.maxEpochs < builder.minEpochs)
+            throw new IllegalArgumentException("Invalid epochs: must have 0 < minEpochs <= maxEpochs (got minEpochs="
+                    + builder.minEpochs + ", maxEpochs=" + builder.maxEpochs + ")");
+        if (builder.reductionFactor < 2)
+            throw new IllegalArgumentException("reductionFactor must be >= 2 (got: " + builder.reductionFactor + ")");
+        if (config.getResultSaver() == null)
+            throw new IllegalStateException("A ResultSaver is required for successive halving: models of promoted " +
+                    "candidates are resumed from their saved state. Set a ResultSaver in the OptimizationConfiguration");
+
+        this.maxConcurrentTasks = builder.maxConcurrentTasks;
+        this.minEpochs = builder.minEpochs;
+        this.maxEpochs = builder.maxEpochs;
+        this.reductionFactor = builder.reductionFactor;
+        this.completePromotions = builder.completePromotions;
+
+        List<Integer> epochs = new ArrayList<>();
+        long e = minEpochs;
+        while (e < maxEpochs) {
+            epochs.add((int) e);
+            e *= reductionFactor;
+        }
+        epochs.add(maxEpochs);
+        this.rungEpochs = new int[epochs.size()];
+        for (int i = 0; i < rungEpochs.length; i++)
+            rungEpochs[i] = epochs.get(i);
+
+        if (builder.numBrackets <= 0 || builder.numBrackets > rungEpochs.length)
+            throw new IllegalArgumentException("numBrackets must be between 1 and the number of rungs ("
+                    + rungEpochs.length + " for minEpochs=" + minEpochs + ", maxEpochs=" + maxEpochs
+                    + ", reductionFactor=" + reductionFactor + "), got " + builder.numBrackets);
+        this.numBrackets = builder.numBrackets;
+        for (int s = 0; s < numBrackets; s++)
+            brackets.add(new Bracket(s, rungEpochs.length));
+
+        TaskCreator tc = builder.taskCreator;
+        if (tc == null) {
+            Class<? extends ParameterSpace> psClass = config.getCandidateGenerator().getParameterSpace().getClass();
+            tc = TaskCreatorProvider.defaultTaskCreatorFor(psClass);
+            if (tc == null) {
+                throw new IllegalStateException("No TaskCreator was provided and a default TaskCreator cannot be " +
+                        "inferred for ParameterSpace class " + psClass.getName() + ". Please provide a " +
+                        "ResumableTaskCreator via the builder");
+            }
+        }
+        if (!(tc instanceof ResumableTaskCreator))
+            throw new IllegalStateException("TaskCreator must be a ResumableTaskCreator for successive halving (got: "
+                    + tc.getClass().getName() + ")");
+        this.taskCreator = (ResumableTaskCreator) tc;
+
+        ExecutorService exec = Executors.newFixedThreadPool(maxConcurrentTasks, new ThreadFactory() {
+            private AtomicLong counter = new AtomicLong(0);
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = Executors.defaultThreadFactory().newThread(r);
+                t.setDaemon(true);
+                t.setName("LocalSuccessiveHalvingExecutor-" + counter.getAndIncrement());
+                return t;
+            }
+        });
+        executor = MoreExecutors.listeningDecorator(exec);
+
+        init();
+    }
+
+    /**
+     * @return Total number of epochs for each rung: minEpochs * reductionFactor^k, with the last rung being maxEpochs
+     */
+    public int[] getRungEpochs() {
+        return rungEpochs.clone();
+    }
+
+    @Override
+    public void execute() {
+        log.info("{}: execution started - rung epochs: {}, brackets: {}", getClass().getSimpleName(),
+                Arrays.toString(rungEpochs), numBrackets);
+        config.setExecutionStartTime(System.currentTimeMillis());
+        for (StatusListener listener : statusListeners) {
+            listener.onInitialization(this);
+        }
+        for (TerminationCondition c : config.getTerminationConditions()) {
+            c.initialize(this);
+        }
+
+        List<Future<OptimizationResult>> tempList = new ArrayList<>(100);
+        boolean terminated = false;
+        while (true) {
+            if (!running.isEmpty()) {
+                Future<OptimizationResult> future = null;
+                try {
+                    future = completedFutures.poll(POLLING_FREQUENCY, POLLING_FREQUENCY_UNIT);
+                } catch (InterruptedException e) {
+                    //No op
+                }
+                if (future != null) {
+                    tempList.add(future);
+                }
+            }
+            completedFutures.drainTo(tempList);
+
+            for (Future<OptimizationResult> f : tempList) {
+                queuedFutures.remove(f);
+                processRungResult(f);
+            }
+            if (tempList.size() > 0) {
+                for (StatusListener sl : statusListeners) {
+                    sl.onRunnerStatusChange(this);
+                }
+            }
+            tempList.clear();
+
+            if (!terminated && terminate()) {
+                terminated = true;
+                if (!completePromotions) {
+                    break;
+                }
+                log.info("No new candidates will be started; completing promotions of {} started candidates",
+                        totalCandidateCount.get());
+            }
+
+            //Fill all free slots: promotions first, then new candidates
+            while (running.size() < maxConcurrentTasks) {
+                Job job = nextPromotion();
+                if (job == null && !terminated) {
+                    job = nextNewCandidate();
+                }
+                if (job == null) {
+                    break;
+                }
+                submit(job);
+            }
+
+            if (running.isEmpty() && completedFutures.isEmpty()
+                    && (terminated || !config.getCandidateGenerator().hasMoreCandidates())) {
+                //Nothing running, nothing to promote, and no new candidates
+                break;
+            }
+        }
+
+        shutdown(true);
+
+        completedFutures.drainTo(tempList);
+        for (Future<OptimizationResult> f : tempList) {
+            queuedFutures.remove(f);
+            processRungResult(f);
+        }
+        tempList.clear();
+
+        log.info("Successive halving runner: execution complete. Candidates: {}, total epochs: {}",
+                totalCandidateCount.get(), totalEpochs);
+        for (StatusListener listener : statusListeners) {
+            listener.onShutdown(this);
+        }
+    }
+
+    private void submit(Job job) {
+        int prevEpochs = (job.rung == job.bracket.firstRung ? 0 : rungEpochs[job.rung - 1]);
+        int epochs = rungEpochs[job.rung] - prevEpochs;
+        totalEpochs += epochs;
+
+        Callable<OptimizationResult> task = taskCreator.create(job.candidate, config.getDataProvider(),
+                config.getScoreFunction(), statusListeners, this, epochs, job.resumeFrom);
+        final ListenableFuture<OptimizationResult> f = executor.submit(task);
+        running.put(f, job);
+        queuedFutures.add(f);
+        f.addListener(new Runnable() {
+            @Override
+            public void run() {
+                completedFutures.add(f);
+            }
+        }, futureListenerExecutor);
+
+        CandidateInfo prev = currentStatus.get(job.candidate.getIndex());
+        CandidateInfo status = new CandidateInfo(job.candidate.getIndex(),
+                (job.resumeFrom == null ? CandidateStatus.Created : CandidateStatus.Running),
+                (prev == null ? null : prev.getScore()),
+                (prev == null ? System.currentTimeMillis() : prev.getCreatedTime()),
+                (prev == null ? null : prev.getStartTime()), null, job.candidate.getFlatParameters(), null);
+        currentStatus.put(job.candidate.getIndex(), status);
+        for (StatusListener listener : statusListeners) {
+            listener.onCandidateStatusChange(status, this, null);
+        }
+    }
+
+    /**
+     * @return A job for a new candidate, or null if the candidate generator is exhausted
+     */
+    private Job nextNewCandidate() {
+        while (config.getCandidateGenerator().hasMoreCandidates()) {
+            Candidate candidate = config.getCandidateGenerator().getCandidate();
+            if (candidate.getException() != null) {
+                CandidateInfo status = processFailedCandidates(candidate);
+                for (StatusListener listener : statusListeners) {
+                    listener.onCandidateStatusChange(status, this, null);
+                }
+                continue;
+            }
+            totalCandidateCount.getAndIncrement();
+            Bracket b = brackets.get(nextBracket);
+            nextBracket = (nextBracket + 1) % numBrackets;
+            return new Job(candidate, b, b.firstRung, null);
+        }
+        return null;
+    }
+
+    /**
+     * ASHA promotion rule: starting from the highest rung, find a candidate that is in the top 1/reductionFactor of
+     * the completed candidates in its rung, and hasn't yet been promoted
+     */
+    private Job nextPromotion() {
+        final boolean minimize = config.getScoreFunction().minimize();
+        Comparator<RungEntry> c = new Comparator<RungEntry>() {
+            @Override
+            public int compare(RungEntry o1, RungEntry o2) {
+                return minimize ? Double.compare(o1.score, o2.score) : Double.compare(o2.score, o1.score);
+            }
+        };
+
+        for (int k = rungEpochs.length - 2; k >= 0; k--) {
+            for (Bracket b : brackets) {
+                if (k < b.firstRung) {
+                    continue;
+                }
+                List<RungEntry> rung = b.rungs.get(k);
+                int numPromotable = rung.size() / reductionFactor;
+                if (numPromotable == 0) {
+                    continue;
+                }
+                List<RungEntry> sorted = new ArrayList<>(rung);
+                Collections.sort(sorted, c);
+                for (int i = 0; i < numPromotable; i++) {
+                    RungEntry e = sorted.get(i);
+                    if (!e.promoted) {
+                        e.promoted = true;
+                        log.debug("Promoting candidate {} to rung {} ({} epochs)", e.candidate.getIndex(), k + 1,
+                                rungEpochs[k + 1]);
+                        return new Job(e.candidate, b, k + 1, e.resultReference);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void processRungResult(Future<OptimizationResult> future) {
+        Job job = running.remove(future);
+        long currentTime = System.currentTimeMillis();
+        OptimizationResult result;
+        try {
+            result = future.get(100, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Unexpected InterruptedException thrown for task", e);
+        } catch (ExecutionException e) {
+            log.warn("Task failed", e);
+            numCandidatesFailed.getAndIncrement();
+            return;
+        } catch (TimeoutException e) {
+            throw new RuntimeException(e);
+        }
+
+        CandidateInfo status = currentStatus.get(result.getIndex());
+        boolean finalRung = (job != null && job.rung == rungEpochs.length - 1);
+        CandidateStatus newCandidateStatus = result.getCandidateInfo().getCandidateStatus();
+        CandidateInfo newStatus = new CandidateInfo(result.getIndex(), newCandidateStatus, result.getScore(),
+                status.getCreatedTime(),
+                (status.getStartTime() != null ? status.getStartTime() : result.getCandidateInfo().getStartTime()),
+                currentTime, status.getFlatParams(), result.getCandidateInfo().getExceptionStackTrace());
+        currentStatus.put(result.getIndex(), newStatus);
+
+        if (newCandidateStatus == CandidateStatus.Failed) {
+            log.info("Task {} failed during execution: {}", result.getIndex(),
+                    result.getCandidateInfo().getExceptionStackTrace());
+            numCandidatesFailed.getAndIncrement();
+            return;
+        }
+
+        config.getCandidateGenerator().reportResults(result);
+
+        Double score = result.getScore();
+        log.info("Completed task {} rung {} ({} epochs{}), score = {}", result.getIndex(),
+                (job == null ? "-" : job.rung), (job == null ? "-" : rungEpochs[job.rung]),
+                (finalRung ? ", final" : ""), score);
+
+        if (job != null && score != null && !Double.isNaN(score)) {
+            job.bracket.rungs.get(job.rung).add(new RungEntry(job.candidate, score, result.getResultReference()));
+        }
+
+        boolean minimize = config.getScoreFunction().minimize();
+        if (score != null && (bestScore == null
+                || ((minimize && score < bestScore) || (!minimize && score > bestScore)))) {
+            log.info("New best score: {}, model {} (prev={}, model {})", score, result.getIndex(), bestScore,
+                    bestScoreCandidateIndex.get());
+            bestScore = score;
+            bestScoreTime = System.currentTimeMillis();
+            bestScoreCandidateIndex.set(result.getIndex());
+        }
+        if (job == null || job.resumeFrom == null) {
+            numCandidatesCompleted.getAndIncrement();
+        }
+
+        //Keep only the latest result for each candidate
+        ResultReference resultReference = result.getResultReference();
+        if (resultReference != null) {
+            Integer idx = resultIndices.get(result.getIndex());
+            if (idx == null) {
+                resultIndices.put(result.getIndex(), allResults.size());
+                allResults.add(resultReference);
+            } else {
+                allResults.set(idx, resultReference);
+            }
+        }
+    }
+
+    @Override
+    protected int maxConcurrentTasks() {
+        return maxConcurrentTasks;
+    }
+
+    @Override
+    protected ListenableFuture<OptimizationResult> execute(Candidate candidate, DataProvider dataProvider,
+                    ScoreFunction scoreFunction) {
+        return execute(Collections.singletonList(candidate), dataProvider, scoreFunction).get(0);
+    }
+
+    @Override
+    protected List<ListenableFuture<OptimizationResult>> execute(List<Candidate> candidates, DataProvider dataProvider,
+                    ScoreFunction scoreFunction) {
+        List<ListenableFuture<OptimizationResult>> list = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            Callable<OptimizationResult> task = taskCreator.create(candidate, dataProvider, scoreFunction,
+                    statusListeners, this, rungEpochs[0], null);
+            list.add(executor.submit(task));
+        }
+        return list;
+    }
+
+    @Override
+    public void shutdown(boolean awaitTermination) {
+        if (awaitTermination) {
+            try {
+                executor.shutdown();
+                executor.awaitTermination(shutdownMaxWaitMS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        } else {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class Bracket {
+        private final int firstRung;
+        private final List<List<RungEntry>> rungs;
+
+        private Bracket(int firstRung, int numRungs) {
+            this.firstRung = firstRung;
+            this.rungs = new ArrayList<>(numRungs);
+            for (int i = 0; i < numRungs; i++) {
+                rungs.add(new ArrayList<RungEntry>());
+            }
+        }
+    }
+
+    private static class RungEntry {
+        private final Candidate candidate;
+        private final double score;
+        private final ResultReference resultReference;
+        private boolean promoted;
+
+        private RungEntry(Candidate candidate, double score, ResultReference resultReference) {
+            this.candidate = candidate;
+            this.score = score;
+            this.resultReference = resultReference;
+            //Can't resume without a saved model
+            this.promoted = (resultReference == null);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Job {
+        private final Candidate candidate;
+        private final Bracket bracket;
+        private final int rung;
+        private final ResultReference resumeFrom;
+    }
+
+    public static class Builder {
+        private OptimizationConfiguration config;
+        private TaskCreator taskCreator;
+        private int maxConcurrentTasks = LocalOptimizationRunner.DEFAULT_MAX_CONCURRENT_TASKS;
+        private int minEpochs = 1;
+        private int maxEpochs;
+        private int reductionFactor = 3;
+        private int numBrackets = 1;
+        private boolean completePromotions = true;
+
+        /**
+         * @param config    Optimization configuration. Must include a ResultSaver
+         * @param maxEpochs Maximum number of epochs to train any candidate for
+         */
+        public Builder(OptimizationConfiguration config, int maxEpochs) {
+            this.config = config;
+            this.maxEpochs = maxEpochs;
+        }
+
+        /**
+         * Task creator to use. Must be a {@link ResumableTaskCreator}. If not set, the default task creator for the
+         * parameter space is used
+         */
+        public Builder taskCreator(TaskCreator taskCreator) {
+            this.taskCreator = taskCreator;
+            return this;
+        }
+
+        /**
+         * Maximum number of candidates to train concurrently. Default: 1
+         */
+        public Builder maxConcurrentTasks(int maxConcurrentTasks) {
+            this.maxConcurrentTasks = maxConcurrentTasks;
+            return this;
+        }
+
+        /**
+         * Number of epochs for the first rung. Default: 1
+         */
+        public Builder minEpochs(int minEpochs) {
+            this.minEpochs = minEpochs;
+            return this;
+        }
+
+        /**
+         * Reduction factor (eta): only the top 1/reductionFactor of each rung is promoted, and each rung trains
+         * for reductionFactor times as many epochs as the previous one. Default: 3
+         */
+        public Builder reductionFactor(int reductionFactor) {
+            this.reductionFactor = reductionFactor;
+            return this;
+        }
+
+        /**
+         * Number of Hyperband brackets. Default: 1 (i.e., plain successive halving)
+         */
+        public Builder numBrackets(int numBrackets) {
+            this.numBrackets = numBrackets;
+            return this;
+        }
+
+        /**
+         * If true (default): once a termination condition is hit, no new candidates are started, but candidates that
+         * were already started can still be promoted. If false: stop immediately
+         */
+        public Builder completePromotions(boolean completePromotions) {
+            this.completePromotions = completePromotions;
+            return this;
+        }
+
+        public LocalSuccessiveHalvingRunner build() {
+            return new LocalSuccessiveHalvingRunner(this);
+        }
+    }
+}
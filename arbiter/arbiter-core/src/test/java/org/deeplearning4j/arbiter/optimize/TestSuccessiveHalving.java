@@ -0,0 +1,143 @@
+package org.deeplearning4j.arbiter.optimize;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.deeplearning4j.arbiter.optimize.api.*;
+import org.deeplearning4j.arbiter.optimize.api.data.DataProvider;
+import org.deeplearning4j.arbiter.optimize.api.data.DataSetIteratorFactoryProvider;
+import org.deeplearning4j.arbiter.optimize.api.saving.InMemoryResultSaver;
+import org.deeplearning4j.arbiter.optimize.api.saving.ResultReference;
+import org.deeplearning4j.arbiter.optimize.api.score.ScoreFunction;
+import org.deeplearning4j.arbiter.optimize.api.termination.MaxCandidatesCondition;
+import org.deeplearning4j.arbiter.optimize.config.OptimizationConfiguration;
+import org.deeplearning4j.arbiter.optimize.generator.GridSearchCandidateGenerator;
+import org.deeplearning4j.arbiter.optimize.runner.CandidateInfo;
+import org.deeplearning4j.arbiter.optimize.runner.CandidateStatus;
+import org.deeplearning4j.arbiter.optimize.runner.IOptimizationRunner;
+import org.deeplearning4j.arbiter.optimize.runner.LocalSuccessiveHalvingRunner;
+import org.deeplearning4j.arbiter.optimize.runner.listener.StatusListener;
+import org.deeplearning4j.arbiter.optimize.runner.listener.impl.LoggingStatusListener;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Successive halving on the Branin function, where the "model" improves with the number of epochs trained
+ */
+public class TestSuccessiveHalving {
+
+    @Test
+    public void testSuccessiveHalving() throws Exception {
+        for (int numBrackets : new int[] {1, 2}) {
+            Map<String, Object> commands = new HashMap<>();
+            commands.put(DataSetIteratorFactoryProvider.FACTORY_KEY, new HashMap<>());
+
+            CandidateGenerator candidateGenerator = new GridSearchCandidateGenerator(new TestGridSearch.BraninSpace(),
+                            4, GridSearchCandidateGenerator.Mode.RandomOrder, commands);
+            OptimizationConfiguration configuration = new OptimizationConfiguration.Builder()
+                            .candidateGenerator(candidateGenerator).scoreFunction(new EpochBraninScoreFunction())
+                            .modelSaver(new InMemoryResultSaver())
+                            .terminationConditions(new MaxCandidatesCondition(100)).build();
+
+            EpochBraninTaskCreator taskCreator = new EpochBraninTaskCreator();
+            LocalSuccessiveHalvingRunner runner = new LocalSuccessiveHalvingRunner.Builder(configuration, 8)
+                            .taskCreator(taskCreator).minEpochs(1).reductionFactor(2).numBrackets(numBrackets)
+                            .maxConcurrentTasks(4).build();
+            assertArrayEquals(new int[] {1, 2, 4, 8}, runner.getRungEpochs());
+
+            runner.addListeners(new LoggingStatusListener());
+            runner.execute();
+
+            assertEquals(16, runner.numCandidatesTotal());
+            assertEquals(0, runner.numCandidatesFailed());
+
+            //Candidates should have been stopped early
+            assertEquals(taskCreator.totalEpochs.get(), runner.getTotalEpochs());
+            assertTrue(runner.getTotalEpochs() < 16 * 8);
+
+            //One result per candidate, trained for the total number of epochs of one of the rungs
+            List<ResultReference> results = runner.getResults();
+            assertEquals(16, results.size());
+            Set<Integer> seen = new HashSet<>();
+            int numMaxEpochs = 0;
+            EpochBraninModel best = null;
+            for (ResultReference r : results) {
+                EpochBraninModel m = (EpochBraninModel) r.getResultModel();
+                assertTrue(seen.add(r.getResult().getIndex()));
+                assertTrue(String.valueOf(m.getEpochs()), Arrays.asList(1, 2, 4, 8).contains(m.getEpochs()));
+                if (m.getEpochs() == 8)
+                    numMaxEpochs++;
+                if (r.getResult().getIndex() == runner.bestScoreCandidateIndex())
+                    best = m;
+            }
+            //Once all promotions are complete, the best candidate must have reached the last rung: it is in the top
+            //half of every rung it completes
+            assertTrue(numMaxEpochs >= 1);
+            assertNotNull(best);
+            assertEquals(8, best.getEpochs());
+        }
+    }
+
+    @AllArgsConstructor
+    @Data
+    public static class EpochBraninModel implements Serializable {
+        private TestGridSearch.BraninConfig config;
+        private int epochs;
+    }
+
+    public static class EpochBraninScoreFunction extends TestGridSearch.BraninScoreFunction {
+        @Override
+        public double score(Object m, DataProvider data, Map<String, Object> dataParameters) {
+            EpochBraninModel model = (EpochBraninModel) m;
+            return super.score(model.getConfig(), data, dataParameters) + 10.0 / model.getEpochs();
+        }
+
+        @Override
+        public List<Class<?>> getSupportedModelTypes() {
+            return Collections.<Class<?>>singletonList(EpochBraninModel.class);
+        }
+    }
+
+    public static class EpochBraninTaskCreator implements ResumableTaskCreator {
+        private final AtomicInteger totalEpochs = new AtomicInteger();
+
+        @Override
+        public Callable<OptimizationResult> create(Candidate candidate, DataProvider dataProvider,
+                        ScoreFunction scoreFunction, List<StatusListener> statusListeners, IOptimizationRunner runner) {
+            return create(candidate, dataProvider, scoreFunction, statusListeners, runner, 1, null);
+        }
+
+        @Override
+        public Callable<OptimizationResult> create(final Candidate c, DataProvider dataProvider,
+                        final ScoreFunction scoreFunction, List<StatusListener> statusListeners,
+                        final IOptimizationRunner runner, final int numEpochs, final ResultReference resumeFrom) {
+            return new Callable<OptimizationResult>() {
+                @Override
+                public OptimizationResult call() throws Exception {
+                    int prevEpochs = 0;
+                    if (resumeFrom != null) {
+                        EpochBraninModel prev = (EpochBraninModel) resumeFrom.getResultModel();
+                        assertEquals(c.getIndex(), resumeFrom.getResult().getIndex());
+                        prevEpochs = prev.getEpochs();
+                    }
+                    Thread.sleep(5 * numEpochs);
+                    totalEpochs.addAndGet(numEpochs);
+
+                    EpochBraninModel model = new EpochBraninModel((TestGridSearch.BraninConfig) c.getValue(),
+                                    prevEpochs + numEpochs);
+                    double score = scoreFunction.score(model, null, null);
+                    CandidateInfo ci = new CandidateInfo(c.getIndex(), CandidateStatus.Complete, score,
+                                    System.currentTimeMillis(), null, null, null, null);
+                    OptimizationResult result = new OptimizationResult(c, score, c.getIndex(), null, ci, null);
+                    result.setResultReference(runner.getConfiguration().getResultSaver().saveModel(result, model));
+                    return result;
+                }
+            };
+        }
+    }
+}
@@ -88,11 +88,12 @@ public class LocalFileNetResultReference implements ResultReference {
 
     @Override
     public Object getResultModel() throws IOException {
+        //Updater state is loaded also, so training can be continued from the saved model (successive halving etc)
         Model m;
         if (isGraph) {
-            m = ModelSerializer.restoreComputationGraph(modelFile, false);
+            m = ModelSerializer.restoreComputationGraph(modelFile, true);
         } else {
-            m = ModelSerializer.restoreMultiLayerNetwork(modelFile, false);
+            m = ModelSerializer.restoreMultiLayerNetwork(modelFile, true);
         }
         return m;
     }
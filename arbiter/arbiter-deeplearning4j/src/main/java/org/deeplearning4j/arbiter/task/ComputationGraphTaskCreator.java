@@ -27,7 +27,7 @@ import org.deeplearning4j.arbiter.GraphConfiguration;
 import org.deeplearning4j.arbiter.listener.DL4JArbiterStatusReportingListener;
 import org.deeplearning4j.arbiter.optimize.api.Candidate;
 import org.deeplearning4j.arbiter.optimize.api.OptimizationResult;
-import org.deeplearning4j.arbiter.optimize.api.TaskCreator;
+import org.deeplearning4j.arbiter.optimize.api.ResumableTaskCreator;
 import org.deeplearning4j.arbiter.optimize.api.data.DataProvider;
 import org.deeplearning4j.arbiter.optimize.api.evaluation.ModelEvaluator;
 import org.deeplearning4j.arbiter.optimize.api.saving.ResultReference;
@@ -61,7 +61,7 @@ import java.util.concurrent.Callable;
 @AllArgsConstructor
 @NoArgsConstructor
 @Slf4j
-public class ComputationGraphTaskCreator implements TaskCreator {
+public class ComputationGraphTaskCreator implements ResumableTaskCreator {
 
     private ModelEvaluator modelEvaluator;
     @Getter
@@ -81,6 +81,16 @@ public class ComputationGraphTaskCreator implements TaskCreator {
                 taskListener, runner);
     }
 
+    @Override
+    public Callable<OptimizationResult> create(Candidate candidate, DataProvider dataProvider,
+                                               ScoreFunction scoreFunction, List<StatusListener> statusListeners,
+                                               IOptimizationRunner runner, int numEpochs, ResultReference resumeFrom) {
+        GraphLearningTask task = (GraphLearningTask) create(candidate, dataProvider, scoreFunction, statusListeners, runner);
+        task.numEpochs = numEpochs;
+        task.resumeFrom = resumeFrom;
+        return task;
+    }
+
     @AllArgsConstructor
     private static class GraphLearningTask implements Callable<OptimizationResult> {
 
@@ -91,6 +101,9 @@ public class ComputationGraphTaskCreator implements TaskCreator {
         private List<StatusListener> listeners;
         private TaskListener taskListener;
         private IOptimizationRunner runner;
+        //Set when training in stages: train for a fixed number of epochs, optionally continuing from a saved model
+        private Integer numEpochs;
+        private ResultReference resumeFrom;
 
         private long startTime;
 
@@ -150,9 +163,14 @@ public class ComputationGraphTaskCreator implements TaskCreator {
             CandidateInfo ci = new CandidateInfo(candidate.getIndex(), CandidateStatus.Running, null, startTime, startTime,
                     null, candidate.getFlatParameters(), null);
 
-            //Create network
-            ComputationGraph net = new ComputationGraph(((GraphConfiguration) candidate.getValue()).getConfiguration());
-            net.init();
+            //Create network, or continue training a previously saved one. Cloned, as the saved model may be held in memory
+            ComputationGraph net;
+            if (resumeFrom != null) {
+                net = ((ComputationGraph) resumeFrom.getResultModel()).clone();
+            } else {
+                net = new ComputationGraph(((GraphConfiguration) candidate.getValue()).getConfiguration());
+                net.init();
+            }
 
             if(taskListener != null){
                 net = taskListener.preProcess(net, candidate);
@@ -169,7 +187,7 @@ public class ComputationGraphTaskCreator implements TaskCreator {
             EarlyStoppingConfiguration<ComputationGraph> esConfig =
                     ((GraphConfiguration) candidate.getValue()).getEarlyStoppingConfiguration();
             EarlyStoppingResult<ComputationGraph> esResult = null;
-            if (esConfig != null) {
+            if (esConfig != null && numEpochs == null) {
                 EarlyStoppingGraphTrainer trainer = new EarlyStoppingGraphTrainer(esConfig, net, iterator, null);
                 esResult = trainer.fit();
                 net = esResult.getBestModel(); //Can return null if failed OR if
@@ -187,7 +205,7 @@ public class ComputationGraphTaskCreator implements TaskCreator {
 
             } else {
                 //Fixed number of epochs
-                int nEpochs = ((GraphConfiguration) candidate.getValue()).getNumEpochs();
+                int nEpochs = (numEpochs != null ? numEpochs : ((GraphConfiguration) candidate.getValue()).getNumEpochs());
                 for (int i = 0; i < nEpochs; i++) {
                     net.fit(iterator);
                 }
@@ -196,7 +214,7 @@ public class ComputationGraphTaskCreator implements TaskCreator {
             Nd4j.getExecutioner().commit();
 
             Object additionalEvaluation = null;
-            if (esConfig != null && esResult.getTerminationReason() != EarlyStoppingResult.TerminationReason.Error) {
+            if (esResult != null && esResult.getTerminationReason() != EarlyStoppingResult.TerminationReason.Error) {
                 additionalEvaluation =
                         (modelEvaluator != null ? modelEvaluator.evaluateModel(net, dataProvider) : null);
             }
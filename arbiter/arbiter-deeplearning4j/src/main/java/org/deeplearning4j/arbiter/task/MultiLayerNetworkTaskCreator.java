@@ -28,7 +28,7 @@ import org.deeplearning4j.arbiter.DL4JConfiguration;
 import org.deeplearning4j.arbiter.listener.DL4JArbiterStatusReportingListener;
 import org.deeplearning4j.arbiter.optimize.api.Candidate;
 import org.deeplearning4j.arbiter.optimize.api.OptimizationResult;
-import org.deeplearning4j.arbiter.optimize.api.TaskCreator;
+import org.deeplearning4j.arbiter.optimize.api.ResumableTaskCreator;
 import org.deeplearning4j.arbiter.optimize.api.data.DataProvider;
 import org.deeplearning4j.arbiter.optimize.api.evaluation.ModelEvaluator;
 import org.deeplearning4j.arbiter.optimize.api.saving.ResultReference;
@@ -61,7 +61,7 @@ import java.util.concurrent.Callable;
 @AllArgsConstructor
 @NoArgsConstructor
 @Slf4j
-public class MultiLayerNetworkTaskCreator implements TaskCreator {
+public class MultiLayerNetworkTaskCreator implements ResumableTaskCreator {
 
     private ModelEvaluator modelEvaluator;
     @Getter
@@ -82,6 +82,16 @@ public class MultiLayerNetworkTaskCreator implements TaskCreator {
     }
 
 
+    @Override
+    public Callable<OptimizationResult> create(Candidate candidate, DataProvider dataProvider,
+                                               ScoreFunction scoreFunction, List<StatusListener> statusListeners,
+                                               IOptimizationRunner runner, int numEpochs, ResultReference resumeFrom) {
+        DL4JLearningTask task = (DL4JLearningTask) create(candidate, dataProvider, scoreFunction, statusListeners, runner);
+        task.numEpochs = numEpochs;
+        task.resumeFrom = resumeFrom;
+        return task;
+    }
+
     private static class DL4JLearningTask implements Callable<OptimizationResult> {
 
         private Candidate candidate;
@@ -91,6 +101,9 @@ public class MultiLayerNetworkTaskCreator implements TaskCreator {
         private List<StatusListener> listeners;
         private TaskListener taskListener;
         private IOptimizationRunner runner;
+        //Set when training in stages: train for a fixed number of epochs, optionally continuing from a saved model
+        private Integer numEpochs;
+        private ResultReference resumeFrom;
 
         private long startTime;
 
@@ -145,15 +158,19 @@ public class MultiLayerNetworkTaskCreator implements TaskCreator {
             }
         }
 
-        private OptimizationResult callHelper() {
+        private OptimizationResult callHelper() throws IOException {
             startTime = System.currentTimeMillis();
             CandidateInfo ci = new CandidateInfo(candidate.getIndex(), CandidateStatus.Running, null,
                     startTime, startTime, null, candidate.getFlatParameters(), null);
 
-            //Create network
-            MultiLayerNetwork net = new MultiLayerNetwork(
-                            ((DL4JConfiguration) candidate.getValue()).getMultiLayerConfiguration());
-            net.init();
+            //Create network, or continue training a previously saved one. Cloned, as the saved model may be held in memory
+            MultiLayerNetwork net;
+            if (resumeFrom != null) {
+                net = ((MultiLayerNetwork) resumeFrom.getResultModel()).clone();
+            } else {
+                net = new MultiLayerNetwork(((DL4JConfiguration) candidate.getValue()).getMultiLayerConfiguration());
+                net.init();
+            }
 
             if(taskListener != null){
                 net = taskListener.preProcess(net, candidate);
@@ -171,7 +188,7 @@ public class MultiLayerNetworkTaskCreator implements TaskCreator {
             EarlyStoppingConfiguration<MultiLayerNetwork> esConfig =
                             ((DL4JConfiguration) candidate.getValue()).getEarlyStoppingConfiguration();
             EarlyStoppingResult<MultiLayerNetwork> esResult = null;
-            if (esConfig != null) {
+            if (esConfig != null && numEpochs == null) {
                 EarlyStoppingTrainer trainer = new EarlyStoppingTrainer(esConfig, net, dataSetIterator, null);
                 esResult = trainer.fit();
                 net = esResult.getBestModel(); //Can return null if failed OR if
@@ -189,7 +206,7 @@ public class MultiLayerNetworkTaskCreator implements TaskCreator {
 
             } else {
                 //Fixed number of epochs
-                int nEpochs = ((DL4JConfiguration) candidate.getValue()).getNumEpochs();
+                int nEpochs = (numEpochs != null ? numEpochs : ((DL4JConfiguration) candidate.getValue()).getNumEpochs());
                 for (int i = 0; i < nEpochs; i++) {
                     net.fit(dataSetIterator);
                 }
@@ -197,7 +214,7 @@ public class MultiLayerNetworkTaskCreator implements TaskCreator {
             }
 
             Object additionalEvaluation = null;
-            if (esConfig != null && esResult.getTerminationReason() != EarlyStoppingResult.TerminationReason.Error) {
+            if (esResult != null && esResult.getTerminationReason() != EarlyStoppingResult.TerminationReason.Error) {
                 additionalEvaluation =
                                 (modelEvaluator != null ? modelEvaluator.evaluateModel(net, dataProvider) : null);
             }
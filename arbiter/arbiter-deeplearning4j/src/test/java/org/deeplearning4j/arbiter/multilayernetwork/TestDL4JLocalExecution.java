@@ -19,6 +19,7 @@ package org.deeplearning4j.arbiter.multilayernetwork;
 
 import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.arbiter.MultiLayerSpace;
+import org.deeplearning4j.arbiter.conf.updater.AdamSpace;
 import org.deeplearning4j.arbiter.conf.updater.SgdSpace;
 import org.deeplearning4j.arbiter.evaluator.multilayer.ClassificationEvaluator;
 import org.deeplearning4j.arbiter.layers.DenseLayerSpace;
@@ -26,8 +27,10 @@ import org.deeplearning4j.arbiter.layers.OCNNLayerSpace;
 import org.deeplearning4j.arbiter.layers.OutputLayerSpace;
 import org.deeplearning4j.arbiter.optimize.api.Candidate;
 import org.deeplearning4j.arbiter.optimize.api.CandidateGenerator;
+import org.deeplearning4j.arbiter.optimize.api.OptimizationResult;
 import org.deeplearning4j.arbiter.optimize.api.data.DataProvider;
 import org.deeplearning4j.arbiter.optimize.api.data.DataSetIteratorFactoryProvider;
+import org.deeplearning4j.arbiter.optimize.api.saving.ResultReference;
 import org.deeplearning4j.arbiter.optimize.api.termination.MaxCandidatesCondition;
 import org.deeplearning4j.arbiter.optimize.api.termination.MaxTimeCondition;
 import org.deeplearning4j.arbiter.optimize.generator.GridSearchCandidateGenerator;
@@ -41,28 +44,41 @@ import org.deeplearning4j.arbiter.optimize.runner.LocalOptimizationRunner;
 import org.deeplearning4j.arbiter.saver.local.FileModelSaver;
 import org.deeplearning4j.arbiter.scoring.impl.TestSetLossScoreFunction;
 import org.deeplearning4j.arbiter.task.MultiLayerNetworkTaskCreator;
+import org.deeplearning4j.arbiter.task.TaskListener;
 import org.deeplearning4j.arbiter.util.TestDataFactoryProviderMnist;
 import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
 import org.deeplearning4j.earlystopping.EarlyStoppingConfiguration;
 import org.deeplearning4j.earlystopping.saver.InMemoryModelSaver;
 import org.deeplearning4j.earlystopping.scorecalc.DataSetLossCalculator;
 import org.deeplearning4j.earlystopping.termination.MaxEpochsTerminationCondition;
+import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
 import org.deeplearning4j.nn.conf.inputs.InputType;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.*;
+
 @Slf4j
 public class TestDL4JLocalExecution {
 
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
 
     @Test
     @org.junit.Ignore
@@ -281,4 +297,69 @@ public class TestDL4JLocalExecution {
         // runner.execute();
         System.out.println("----- COMPLETE -----");
     }
+
+    @Test
+    public void testResumeKeepsUpdaterState() throws Exception {
+        //Successive halving: a promoted candidate continues training from the saved model, including updater state
+        MultiLayerSpace mls = new MultiLayerSpace.Builder()
+                        .updater(new AdamSpace(new ContinuousParameterSpace(0.001, 0.01)))
+                        .addLayer(new DenseLayerSpace.Builder().nIn(4).nOut(5).activation(Activation.TANH).build())
+                        .addLayer(new OutputLayerSpace.Builder().nIn(5).nOut(3).activation(Activation.SOFTMAX)
+                                        .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                        .pretrain(false).backprop(true).build();
+
+        CandidateGenerator candidateGenerator = new RandomSearchGenerator(mls);
+        OptimizationConfiguration configuration = new OptimizationConfiguration.Builder()
+                        .candidateGenerator(candidateGenerator).dataProvider(new IrisDataProvider())
+                        .modelSaver(new FileModelSaver(testDir.newFolder()))
+                        .scoreFunction(new TestSetLossScoreFunction())
+                        .terminationConditions(new MaxCandidatesCondition(1)).build();
+
+        MultiLayerNetworkTaskCreator taskCreator = new MultiLayerNetworkTaskCreator();
+        IOptimizationRunner runner = new LocalOptimizationRunner(configuration, taskCreator);
+        Candidate candidate = candidateGenerator.getCandidate();
+
+        OptimizationResult first = taskCreator.create(candidate, configuration.getDataProvider(),
+                        configuration.getScoreFunction(), null, runner, 1, null).call();
+        assertNotNull(first.getScore());
+        ResultReference saved = first.getResultReference();
+        INDArray savedState = ((MultiLayerNetwork) saved.getResultModel()).getUpdater().getStateViewArray();
+        assertNotNull(savedState);
+        assertNotEquals(0.0, savedState.amaxNumber().doubleValue(), 0.0);
+
+        final List<INDArray> resumedState = new ArrayList<>();
+        taskCreator.setTaskListener(new TaskListener() {
+            @Override
+            public <T extends Model> T preProcess(T model, Candidate candidate) {
+                resumedState.add(((MultiLayerNetwork) model).getUpdater().getStateViewArray().dup());
+                return model;
+            }
+
+            @Override
+            public void postProcess(Model model, Candidate candidate) {}
+        });
+
+        OptimizationResult second = taskCreator.create(candidate, configuration.getDataProvider(),
+                        configuration.getScoreFunction(), null, runner, 1, saved).call();
+        assertNotNull(second.getScore());
+        assertEquals(1, resumedState.size());
+        assertEquals(savedState, resumedState.get(0));
+    }
+
+    public static class IrisDataProvider implements DataProvider {
+        @Override
+        public Object trainData(Map<String, Object> dataParameters) {
+            return new IrisDataSetIterator(30, 150);
+        }
+
+        @Override
+        public Object testData(Map<String, Object> dataParameters) {
+            return new IrisDataSetIterator(150, 150);
+        }
+
+        @Override
+        public Class<?> getDataType() {
+            return DataSetIterator.class;
+        }
+    }
 }
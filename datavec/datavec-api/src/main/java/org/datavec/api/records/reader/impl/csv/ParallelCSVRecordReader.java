@@ -0,0 +1,641 @@
+package org.datavec.api.records.reader.impl.csv;
+
+import org.apache.commons.io.IOUtils;
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.metadata.RecordMetaDataURI;
+import org.datavec.api.records.reader.BaseRecordReader;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.split.InputStreamInputSplit;
+import org.datavec.api.split.StringSplit;
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CSV record reader that parses input in parallel.<br>
+ * Each file is split into byte ranges of approximately chunkSize bytes. Ranges are aligned to line boundaries
+ * on the fly (a line belongs to the range its first byte falls into), so no pre-scan of the file is required.
+ * Ranges are parsed on a fixed thread pool, with a bounded number of chunks in flight.<br>
+ * <br>
+ * If a {@link Schema} is provided, values are parsed directly into IntWritable/LongWritable/FloatWritable/
+ * DoubleWritable/BooleanWritable according to the column type (empty values become NullWritable), otherwise
+ * Text values are returned, same as {@link CSVRecordReader}.<br>
+ * With preserveOrder = false, chunks are returned in order of completion instead of order within the input.<br>
+ * <br>
+ * Notes:<br>
+ * - Quoted values spanning multiple lines are not supported (same as CSVRecordReader)<br>
+ * - Empty lines are skipped<br>
+ * - Input is expected to be UTF-8 encoded<br>
+ * - Local files are read with positioned reads; other locations are loaded into memory first
+ *
+ * @author raver119@gmail.com
+ */
+public class ParallelCSVRecordReader extends BaseRecordReader {
+    public static final long DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final int skipNumLines;
+    private final char delimiter;
+    private final char quote;
+    private final Schema schema;
+    private final ColumnType[] columnTypes;
+    private final int numThreads;
+    private final long chunkSize;
+    private final boolean preserveOrder;
+
+    private InputSplit split;
+    private Configuration conf;
+    private List<Chunk> chunks;
+    private int nextChunk;
+
+    private ExecutorService executor;
+    private Queue<Future<ParsedChunk>> ordered;
+    private CompletionService<ParsedChunk> completion;
+    private List<Future<ParsedChunk>> inFlight = new ArrayList<>();
+
+    private List<List<Writable>> current;
+    private int currentIdx;
+    private URI currentUri;
+
+    protected ParallelCSVRecordReader(Builder builder) {
+        this.skipNumLines = builder.skipNumLines;
+        this.delimiter = builder.delimiter;
+        this.quote = builder.quote;
+        this.schema = builder.schema;
+        this.numThreads = builder.numThreads;
+        this.chunkSize = builder.chunkSize;
+        this.preserveOrder = builder.preserveOrder;
+
+        if (schema != null) {
+            columnTypes = new ColumnType[schema.numColumns()];
+            for (int i = 0; i < columnTypes.length; i++)
+                columnTypes[i] = schema.getType(i);
+        } else {
+            columnTypes = null;
+        }
+    }
+
+    /**
+     * Reader with default settings: comma delimiter, no skipped lines, Text values,
+     * one thread per available processor, and records returned in input order
+     */
+    public ParallelCSVRecordReader() {
+        this(new Builder());
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        this.split = split;
+        this.chunks = new ArrayList<>();
+
+        if (split instanceof StringSplit) {
+            planChunks(null, null, ((StringSplit) split).getData().getBytes(StandardCharsets.UTF_8));
+        } else if (split instanceof InputStreamInputSplit) {
+            InputStream is = ((InputStreamInputSplit) split).getIs();
+            planChunks(null, null, IOUtils.toByteArray(is));
+        } else {
+            URI[] locations = split.locations();
+            if (locations == null)
+                throw new UnsupportedOperationException("Unknown input split: " + split);
+
+            for (URI uri : locations) {
+                if ("file".equals(uri.getScheme())) {
+                    planChunks(uri, new File(uri), null);
+                } else {
+                    try (InputStream is = uri.toURL().openStream()) {
+                        planChunks(uri, null, IOUtils.toByteArray(is));
+                    }
+                }
+            }
+        }
+
+        restart();
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        this.conf = conf;
+        initialize(split);
+    }
+
+    private void planChunks(URI uri, File file, byte[] data) throws IOException {
+        Source source = new Source(file, data);
+        long size = source.size();
+
+        //Header lines are skipped once here, so that chunks can be split independently
+        long dataStart = 0;
+        if (skipNumLines > 0) {
+            try (RandomAccessFile raf = file == null ? null : new RandomAccessFile(file, "r")) {
+                LineScanner scanner = new LineScanner(source, raf == null ? null : raf.getChannel(), 0,
+                                new byte[READ_BUFFER_SIZE]);
+                int skipped = 0;
+                while (skipped < skipNumLines && scanner.skipLine())
+                    skipped++;
+                dataStart = scanner.position();
+            }
+        }
+
+        for (long start = dataStart; start < size; start += chunkSize) {
+            chunks.add(new Chunk(uri, source, start, Math.min(start + chunkSize, size), start == dataStart));
+        }
+    }
+
+    private void restart() {
+        if (executor == null) {
+            final AtomicInteger cnt = new AtomicInteger(0);
+            executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "ParallelCSVRecordReader thread " + cnt.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+
+        for (Future<ParsedChunk> f : inFlight)
+            f.cancel(true);
+        inFlight.clear();
+
+        ordered = new LinkedList<>();
+        completion = new ExecutorCompletionService<>(executor);
+        nextChunk = 0;
+        current = null;
+        currentIdx = 0;
+        currentUri = null;
+    }
+
+    /**
+     * Keep up to 2 chunks per thread in flight, to bound memory use
+     */
+    private void submitChunks() {
+        while (inFlight.size() < 2 * numThreads && nextChunk < chunks.size()) {
+            Callable<ParsedChunk> task = new ParseTask(chunks.get(nextChunk++));
+            Future<ParsedChunk> f;
+            if (preserveOrder) {
+                f = executor.submit(task);
+                ordered.add(f);
+            } else {
+                f = completion.submit(task);
+            }
+            inFlight.add(f);
+        }
+    }
+
+    private boolean advance() {
+        if (chunks == null)
+            throw new IllegalStateException("Cannot read records: reader has not been initialized");
+
+        while (current == null || currentIdx >= current.size()) {
+            submitChunks();
+            if (inFlight.isEmpty())
+                return false;
+
+            Future<ParsedChunk> f;
+            try {
+                f = preserveOrder ? ordered.poll() : completion.take();
+                inFlight.remove(f);
+                ParsedChunk parsed = f.get();
+                current = parsed.records;
+                currentUri = parsed.uri;
+                currentIdx = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Error parsing CSV data", e.getCause());
+            }
+            submitChunks();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean batchesSupported() {
+        return true;
+    }
+
+    @Override
+    public List<List<Writable>> next(int num) {
+        List<List<Writable>> ret = new ArrayList<>(num);
+        while (ret.size() < num && advance()) {
+            int n = Math.min(num - ret.size(), current.size() - currentIdx);
+            ret.addAll(current.subList(currentIdx, currentIdx + n));
+            currentIdx += n;
+        }
+        return ret;
+    }
+
+    @Override
+    public List<Writable> next() {
+        if (!advance())
+            throw new NoSuchElementException("No next element found!");
+        List<Writable> ret = current.get(currentIdx++);
+        invokeListeners(ret);
+        return ret;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return advance();
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+
+    @Override
+    public void reset() {
+        if (split == null)
+            throw new UnsupportedOperationException("Cannot reset without first initializing");
+        restart();
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return !(split instanceof InputStreamInputSplit);
+    }
+
+    @Override
+    public List<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
+        throw new UnsupportedOperationException("Reading CSV data from DataInputStream not supported for ParallelCSVRecordReader");
+    }
+
+    @Override
+    public Record nextRecord() {
+        List<Writable> next = next();
+        return new org.datavec.api.records.impl.Record(next,
+                        new RecordMetaDataURI(currentUri, ParallelCSVRecordReader.class));
+    }
+
+    @Override
+    public Record loadFromMetaData(RecordMetaData recordMetaData) throws IOException {
+        throw new UnsupportedOperationException(
+                        "Loading from metadata not supported for ParallelCSVRecordReader: use CSVRecordReader instead");
+    }
+
+    @Override
+    public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        throw new UnsupportedOperationException(
+                        "Loading from metadata not supported for ParallelCSVRecordReader: use CSVRecordReader instead");
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        inFlight.clear();
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+
+    protected List<Writable> parseLine(String line, SerializableCSVParser parser) throws IOException {
+        String[] split;
+        if (line.indexOf(quote) < 0 && line.indexOf(SerializableCSVParser.DEFAULT_ESCAPE_CHARACTER) < 0) {
+            //Fast path: no quotes or escapes, so a plain split is equivalent to parsing
+            split = splitLine(line);
+        } else {
+            split = parser.parseLine(line);
+        }
+
+        List<Writable> ret = new ArrayList<>(split.length);
+        if (columnTypes == null) {
+            for (String s : split)
+                ret.add(new Text(s));
+            return ret;
+        }
+
+        if (split.length != columnTypes.length)
+            throw new IllegalStateException("Invalid line: expected " + columnTypes.length + " values, got "
+                            + split.length + ": \"" + line + "\"");
+
+        for (int i = 0; i < split.length; i++) {
+            String s = split[i];
+            if (columnTypes[i] != ColumnType.String && columnTypes[i] != ColumnType.Categorical) {
+                s = s.trim();
+                if (s.isEmpty()) {
+                    ret.add(NullWritable.INSTANCE);
+                    continue;
+                }
+            }
+
+            switch (columnTypes[i]) {
+                case Integer:
+                    ret.add(new IntWritable(Integer.parseInt(s)));
+                    break;
+                case Long:
+                    ret.add(new LongWritable(Long.parseLong(s)));
+                    break;
+                case Double:
+                    ret.add(new DoubleWritable(Double.parseDouble(s)));
+                    break;
+                case Float:
+                    ret.add(new FloatWritable(Float.parseFloat(s)));
+                    break;
+                case Boolean:
+                    ret.add(new BooleanWritable(Boolean.parseBoolean(s)));
+                    break;
+                default:
+                    ret.add(new Text(s));
+            }
+        }
+        return ret;
+    }
+
+    private String[] splitLine(String line) {
+        int count = 1;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == delimiter)
+                count++;
+        }
+
+        String[] ret = new String[count];
+        int start = 0;
+        int idx = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == delimiter) {
+                ret[idx++] = line.substring(start, i);
+                start = i + 1;
+            }
+        }
+        ret[idx] = line.substring(start);
+        return ret;
+    }
+
+    private class ParseTask implements Callable<ParsedChunk> {
+        private final Chunk chunk;
+
+        private ParseTask(Chunk chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public ParsedChunk call() throws Exception {
+            //Parser keeps state between calls, so it can't be shared between threads
+            SerializableCSVParser parser = new SerializableCSVParser(delimiter, quote);
+            byte[] buffer = BUFFERS.get();
+            File file = chunk.source.file;
+            try (RandomAccessFile raf = file == null ? null : new RandomAccessFile(file, "r")) {
+                LineScanner scanner = new LineScanner(chunk.source, raf == null ? null : raf.getChannel(),
+                                chunk.start, buffer);
+
+                //Partial line at the start of the chunk belongs to the previous chunk
+                if (!chunk.first) {
+                    scanner.seek(chunk.start - 1);
+                    if (!scanner.skipLine())
+                        return new ParsedChunk(chunk.uri, Collections.<List<Writable>>emptyList());
+                }
+
+                List<List<Writable>> records = new ArrayList<>();
+                while (scanner.position() < chunk.end) {
+                    String line = scanner.nextLine();
+                    if (line == null)
+                        break;
+                    if (line.isEmpty())
+                        continue;
+                    records.add(parseLine(line, parser));
+                }
+                return new ParsedChunk(chunk.uri, records);
+            }
+        }
+    }
+
+    private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[READ_BUFFER_SIZE];
+        }
+    };
+
+    private static class ParsedChunk {
+        private final URI uri;
+        private final List<List<Writable>> records;
+
+        private ParsedChunk(URI uri, List<List<Writable>> records) {
+            this.uri = uri;
+            this.records = records;
+        }
+    }
+
+    private static class Chunk {
+        private final URI uri;
+        private final Source source;
+        private final long start;
+        private final long end;
+        private final boolean first;
+
+        private Chunk(URI uri, Source source, long start, long end, boolean first) {
+            this.uri = uri;
+            this.source = source;
+            this.start = start;
+            this.end = end;
+            this.first = first;
+        }
+    }
+
+    /**
+     * Either a local file, read with positioned reads, or an in-memory byte array
+     */
+    private static class Source {
+        private final File file;
+        private final byte[] data;
+
+        private Source(File file, byte[] data) {
+            this.file = file;
+            this.data = data;
+        }
+
+        private long size() {
+            return file != null ? file.length() : data.length;
+        }
+
+        private int read(FileChannel channel, long position, byte[] buffer) throws IOException {
+            if (data != null) {
+                if (position >= data.length)
+                    return -1;
+                int n = (int) Math.min(buffer.length, data.length - position);
+                System.arraycopy(data, (int) position, buffer, 0, n);
+                return n;
+            }
+
+            ByteBuffer bb = ByteBuffer.wrap(buffer);
+            int total = 0;
+            while (bb.hasRemaining()) {
+                int n = channel.read(bb, position + total);
+                if (n < 0)
+                    break;
+                total += n;
+            }
+            return total == 0 ? -1 : total;
+        }
+    }
+
+    /**
+     * Reads lines from a source, starting at the given position, using the provided (reused) buffer
+     */
+    private static class LineScanner {
+        private final Source source;
+        private final FileChannel channel;
+        private final byte[] buffer;
+        private long bufferStart;
+        private int bufferLength;
+        private int bufferPos;
+        private ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+
+        private LineScanner(Source source, FileChannel channel, long start, byte[] buffer) {
+            this.source = source;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.bufferStart = start;
+        }
+
+        private long position() {
+            return bufferStart + bufferPos;
+        }
+
+        private void seek(long position) {
+            bufferStart = position;
+            bufferLength = 0;
+            bufferPos = 0;
+        }
+
+        private boolean fill() throws IOException {
+            bufferStart += bufferLength;
+            bufferPos = 0;
+            bufferLength = Math.max(source.read(channel, bufferStart, buffer), 0);
+            return bufferLength > 0;
+        }
+
+        /**
+         * Skip up to and including the next line break
+         * @return false if the end of the source was reached first
+         */
+        private boolean skipLine() throws IOException {
+            while (true) {
+                if (bufferPos >= bufferLength && !fill())
+                    return false;
+                while (bufferPos < bufferLength) {
+                    if (buffer[bufferPos++] == '\n')
+                        return true;
+                }
+            }
+        }
+
+        /**
+         * @return next line without the line break, or null if the end of the source was reached
+         */
+        private String nextLine() throws IOException {
+            line.reset();
+            boolean any = false;
+            while (true) {
+                if (bufferPos >= bufferLength && !fill())
+                    break;
+                any = true;
+                int start = bufferPos;
+                while (bufferPos < bufferLength && buffer[bufferPos] != '\n')
+                    bufferPos++;
+                line.write(buffer, start, bufferPos - start);
+                if (bufferPos < bufferLength) {
+                    //Found line break
+                    bufferPos++;
+                    break;
+                }
+            }
+
+            if (!any)
+                return null;
+
+            String s = new String(line.toByteArray(), StandardCharsets.UTF_8);
+            return s.endsWith("\r") ? s.substring(0, s.length() - 1) : s;
+        }
+    }
+
+    public static class Builder {
+        private int skipNumLines = 0;
+        private char delimiter = CSVRecordReader.DEFAULT_DELIMITER;
+        private char quote = CSVRecordReader.DEFAULT_QUOTE;
+        private Schema schema;
+        private int numThreads = Runtime.getRuntime().availableProcessors();
+        private long chunkSize = DEFAULT_CHUNK_SIZE;
+        private boolean preserveOrder = true;
+
+        /**
+         * @param skipNumLines Number of lines to skip at the start of each file
+         */
+        public Builder skipNumLines(int skipNumLines) {
+            this.skipNumLines = skipNumLines;
+            return this;
+        }
+
+        public Builder delimiter(char delimiter) {
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        public Builder quote(char quote) {
+            this.quote = quote;
+            return this;
+        }
+
+        /**
+         * @param schema Schema used to parse values into typed writables. If not set, Text values are returned
+         */
+        public Builder schema(Schema schema) {
+            this.schema = schema;
+            return this;
+        }
+
+        public Builder numThreads(int numThreads) {
+            this.numThreads = numThreads;
+            return this;
+        }
+
+        /**
+         * @param chunkSize Approximate size of the byte range parsed by one task
+         */
+        public Builder chunkSize(long chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * @param preserveOrder If true (default), records are returned in input order. If false, chunks are
+         *                      returned as soon as they are parsed
+         */
+        public Builder preserveOrder(boolean preserveOrder) {
+            this.preserveOrder = preserveOrder;
+            return this;
+        }
+
+        public ParallelCSVRecordReader build() {
+            if (numThreads < 1)
+                throw new IllegalArgumentException("Number of threads should be positive: " + numThreads);
+            if (chunkSize < 1)
+                throw new IllegalArgumentException("Chunk size should be positive: " + chunkSize);
+            return new ParallelCSVRecordReader(this);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.datavec.api.records.reader.impl;
+
+import org.apache.commons.io.FileUtils;
+import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
+import org.datavec.api.records.reader.impl.csv.ParallelCSVRecordReader;
+import org.datavec.api.split.FileSplit;
+import org.datavec.api.split.StringSplit;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ParallelCSVRecordReaderTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    private File writeCsv(int numLines) throws Exception {
+        Random r = new Random(12345);
+        StringBuilder sb = new StringBuilder();
+        sb.append("id,name,value,count\n");
+        for (int i = 0; i < numLines; i++) {
+            String name = (i % 7 == 0 ? "\"n, " + i + "\"" : "n" + i);
+            sb.append(i).append(",").append(name).append(",").append(r.nextDouble()).append(",")
+                            .append(r.nextInt(1000) * 1000000L).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        File f = testDir.newFile();
+        FileUtils.writeStringToFile(f, sb.toString(), StandardCharsets.UTF_8);
+        return f;
+    }
+
+    private static List<List<Writable>> readAll(org.datavec.api.records.reader.RecordReader rr) {
+        List<List<Writable>> ret = new ArrayList<>();
+        while (rr.hasNext())
+            ret.add(rr.next());
+        return ret;
+    }
+
+    @Test
+    public void testSameAsCSVRecordReader() throws Exception {
+        File f = writeCsv(1000);
+
+        CSVRecordReader expRR = new CSVRecordReader(1, ',');
+        expRR.initialize(new FileSplit(f));
+        List<List<Writable>> expected = readAll(expRR);
+
+        //Small chunks: many lines cross chunk boundaries
+        for (long chunkSize : new long[] {1, 17, 100, 4096, 1 << 20}) {
+            ParallelCSVRecordReader rr = new ParallelCSVRecordReader.Builder().skipNumLines(1).numThreads(4)
+                            .chunkSize(chunkSize).build();
+            rr.initialize(new FileSplit(f));
+            assertEquals("chunkSize=" + chunkSize, expected, readAll(rr));
+
+            rr.reset();
+            List<List<Writable>> batched = new ArrayList<>();
+            while (rr.hasNext())
+                batched.addAll(rr.next(33));
+            assertEquals(expected, batched);
+            rr.close();
+        }
+    }
+
+    @Test
+    public void testSchemaAndUnordered() throws Exception {
+        File f = writeCsv(500);
+        Schema schema = new Schema.Builder().addColumnInteger("id").addColumnString("name")
+                        .addColumnDouble("value").addColumnLong("count").build();
+
+        CSVRecordReader expRR = new CSVRecordReader(1, ',');
+        expRR.initialize(new FileSplit(f));
+        List<List<Writable>> expected = readAll(expRR);
+
+        ParallelCSVRecordReader rr = new ParallelCSVRecordReader.Builder().skipNumLines(1).schema(schema)
+                        .numThreads(3).chunkSize(250).preserveOrder(false).build();
+        rr.initialize(new FileSplit(f));
+        List<List<Writable>> actual = readAll(rr);
+        rr.close();
+
+        assertEquals(expected.size(), actual.size());
+        Collections.sort(actual, new Comparator<List<Writable>>() {
+            @Override
+            public int compare(List<Writable> o1, List<Writable> o2) {
+                return Integer.compare(o1.get(0).toInt(), o2.get(0).toInt());
+            }
+        });
+
+        for (int i = 0; i < expected.size(); i++) {
+            List<Writable> e = expected.get(i);
+            List<Writable> a = actual.get(i);
+            assertTrue(a.get(0) instanceof IntWritable);
+            assertTrue(a.get(2) instanceof DoubleWritable);
+            assertTrue(a.get(3) instanceof LongWritable);
+            assertEquals(e.get(0).toInt(), a.get(0).toInt());
+            assertEquals(e.get(1).toString(), a.get(1).toString());
+            assertEquals(e.get(2).toDouble(), a.get(2).toDouble(), 0.0);
+            assertEquals(e.get(3).toLong(), a.get(3).toLong());
+        }
+    }
+
+    @Test
+    public void testStringSplitAndEmptyValues() throws Exception {
+        Schema schema = new Schema.Builder().addColumnInteger("a").addColumnDouble("b").build();
+        ParallelCSVRecordReader rr = new ParallelCSVRecordReader.Builder().schema(schema).numThreads(2).build();
+        rr.initialize(new StringSplit("1,\n\n3,4.5"));
+
+        List<List<Writable>> out = readAll(rr);
+        assertEquals(2, out.size());
+        assertEquals(Arrays.<Writable>asList(new IntWritable(1), NullWritable.INSTANCE), out.get(0));
+        assertEquals(Arrays.<Writable>asList(new IntWritable(3), new DoubleWritable(4.5)), out.get(1));
+        rr.close();
+    }
+}
@@ -0,0 +1,176 @@
+package org.datavec.arrow.recordreader;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.apache.arrow.vector.*;
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.metadata.RecordMetaDataIndex;
+import org.datavec.api.records.reader.BaseRecordReader;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+import org.datavec.api.writable.batch.NDArrayRecordBatch;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Record reader over an in-memory {@link ArrowWritableRecordBatch}, i.e. output of a columnar TransformProcess execution.<br>
+ * Batches returned by {@link #next(int)} are {@link NDArrayRecordBatch} instances with one [num, 1] column vector
+ * per column, built directly from Arrow vectors: RecordReaderDataSetIterator consumes them without creating
+ * Writable objects. Only numerical, boolean and time columns are supported in batch mode.
+ *
+ * @author raver119@gmail.com
+ */
+public class ArrowColumnarRecordReader extends BaseRecordReader {
+
+    @Getter
+    private final ArrowWritableRecordBatch batch;
+    private int cursor = 0;
+    private Configuration conf;
+
+    public ArrowColumnarRecordReader(@NonNull ArrowWritableRecordBatch batch) {
+        this.batch = batch;
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        //No op: data is already in memory
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        initialize(split);
+    }
+
+    @Override
+    public boolean batchesSupported() {
+        return true;
+    }
+
+    @Override
+    public List<List<Writable>> next(int num) {
+        if (!hasNext())
+            throw new IllegalStateException("No more records in this reader");
+
+        int n = Math.min(num, batch.size() - cursor);
+        int offset = batch.getOffset() + cursor;
+        Schema schema = batch.getSchema();
+        List<INDArray> columns = new ArrayList<>(schema.numColumns());
+        for (int c = 0; c < schema.numColumns(); c++) {
+            double[] data = new double[n];
+            FieldVector v = batch.getList().get(c);
+            for (int i = 0; i < n; i++)
+                data[i] = getDouble(v, offset + i, schema.getName(c));
+            columns.add(Nd4j.create(data, new int[] {n, 1}));
+        }
+
+        cursor += n;
+        return new NDArrayRecordBatch(columns);
+    }
+
+    private static double getDouble(FieldVector v, int row, String column) {
+        if (v.isNull(row))
+            throw new IllegalStateException("Missing value in column \"" + column + "\", row " + row);
+
+        if (v instanceof Float8Vector)
+            return ((Float8Vector) v).get(row);
+        else if (v instanceof Float4Vector)
+            return ((Float4Vector) v).get(row);
+        else if (v instanceof IntVector)
+            return ((IntVector) v).get(row);
+        else if (v instanceof BigIntVector)
+            return ((BigIntVector) v).get(row);
+        else if (v instanceof BitVector)
+            return ((BitVector) v).get(row);
+        else if (v instanceof TimeStampMilliVector)
+            return ((TimeStampMilliVector) v).get(row);
+
+        throw new UnsupportedOperationException("Unable to convert column \"" + column + "\" of type "
+                        + v.getClass().getSimpleName() + " to an array: convert it to a numerical column first");
+    }
+
+    @Override
+    public List<Writable> next() {
+        if (!hasNext())
+            throw new IllegalStateException("No more records in this reader");
+        List<Writable> record = batch.get(cursor++);
+        invokeListeners(record);
+        return record;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor < batch.size();
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+
+    @Override
+    public void reset() {
+        cursor = 0;
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return true;
+    }
+
+    @Override
+    public List<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
+        throw new UnsupportedOperationException(
+                        "Generating records from DataInputStream not supported for ArrowColumnarRecordReader");
+    }
+
+    @Override
+    public Record nextRecord() {
+        List<Writable> next = next();
+        return new org.datavec.api.records.impl.Record(next,
+                        new RecordMetaDataIndex(cursor - 1, null, ArrowColumnarRecordReader.class));
+    }
+
+    @Override
+    public Record loadFromMetaData(RecordMetaData recordMetaData) throws IOException {
+        return loadFromMetaData(Collections.singletonList(recordMetaData)).get(0);
+    }
+
+    @Override
+    public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        List<Record> out = new ArrayList<>(recordMetaDatas.size());
+        for (RecordMetaData m : recordMetaDatas) {
+            if (!(m instanceof RecordMetaDataIndex))
+                throw new IllegalArgumentException("Expected RecordMetaDataIndex; got: " + m);
+
+            int idx = (int) ((RecordMetaDataIndex) m).getIndex();
+            out.add(new org.datavec.api.records.impl.Record(batch.get(idx),
+                            new RecordMetaDataIndex(idx, null, ArrowColumnarRecordReader.class)));
+        }
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        batch.close();
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+}
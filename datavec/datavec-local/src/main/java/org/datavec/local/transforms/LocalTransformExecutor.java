@@ -43,6 +43,9 @@ import static java.util.stream.Collectors.toList;
 
 /**
  * Local transform executor
+ *
+ * See {@link org.datavec.local.transforms.columnar.ColumnarTransformExecutor} for executing
+ * non-sequence TransformProcesses directly on Arrow columns
  */
 @Slf4j
 public class LocalTransformExecutor {
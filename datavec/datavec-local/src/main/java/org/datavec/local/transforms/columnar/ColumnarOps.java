@@ -0,0 +1,345 @@
+package org.datavec.local.transforms.columnar;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.*;
+import org.apache.arrow.vector.util.TransferPair;
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.Transform;
+import org.datavec.api.transform.condition.Condition;
+import org.datavec.api.transform.condition.column.DoubleColumnCondition;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
+import org.datavec.api.transform.condition.column.LongColumnCondition;
+import org.datavec.api.transform.filter.ConditionFilter;
+import org.datavec.api.transform.filter.Filter;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.transform.column.RemoveColumnsTransform;
+import org.datavec.api.transform.transform.column.RenameColumnsTransform;
+import org.datavec.api.transform.transform.column.ReorderColumnsTransform;
+import org.datavec.api.transform.transform.doubletransform.DoubleMathOpTransform;
+import org.datavec.api.transform.transform.doubletransform.MinMaxNormalizer;
+import org.datavec.api.transform.transform.doubletransform.StandardizeNormalizer;
+import org.datavec.api.transform.transform.integer.IntegerMathOpTransform;
+import org.datavec.api.transform.transform.longtransform.LongMathOpTransform;
+import org.datavec.arrow.ArrowConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Column-at-a-time implementations of the transforms and filters supported by
+ * {@link ColumnarTransformExecutor}. Every method works on primitive values of the Arrow vectors
+ * directly, and returns null if the step can't be executed in columnar form
+ * (in which case the executor falls back to the Writable implementation of that step)
+ *
+ * @author raver119@gmail.com
+ */
+class ColumnarOps {
+
+    private ColumnarOps() {
+        //No instances
+    }
+
+    /**
+     * Execute a transform over the given columns
+     *
+     * @return output columns, or null if the transform isn't supported
+     */
+    static List<FieldVector> transform(Transform t, Schema inputSchema, Schema outputSchema, List<FieldVector> columns,
+                    BufferAllocator allocator) {
+        if (t instanceof RemoveColumnsTransform || t instanceof ReorderColumnsTransform) {
+            return selectColumns(inputSchema, outputSchema, columns);
+        } else if (t instanceof RenameColumnsTransform) {
+            return renameColumns(outputSchema, columns, allocator);
+        } else if (t instanceof DoubleMathOpTransform) {
+            final DoubleMathOpTransform op = (DoubleMathOpTransform) t;
+            return mapDouble(inputSchema.getIndexOfColumn(op.getColumnName()), columns, allocator, new DoubleOp() {
+                @Override
+                public double apply(double x) {
+                    return doubleOp(op.getMathOp(), x, op.getScalar());
+                }
+            });
+        } else if (t instanceof MinMaxNormalizer) {
+            final MinMaxNormalizer n = (MinMaxNormalizer) t;
+            return mapDouble(inputSchema.getIndexOfColumn(n.getColumnName()), columns, allocator, new DoubleOp() {
+                @Override
+                public double apply(double x) {
+                    return Double.isNaN(x) ? 0 : n.getRatio() * (x - n.getMin()) + n.getNewMin();
+                }
+            });
+        } else if (t instanceof StandardizeNormalizer) {
+            final StandardizeNormalizer n = (StandardizeNormalizer) t;
+            return mapDouble(inputSchema.getIndexOfColumn(n.getColumnName()), columns, allocator, new DoubleOp() {
+                @Override
+                public double apply(double x) {
+                    return (x - n.getMean()) / n.getStdev();
+                }
+            });
+        } else if (t instanceof IntegerMathOpTransform) {
+            IntegerMathOpTransform op = (IntegerMathOpTransform) t;
+            FieldVector v = columns.get(inputSchema.getIndexOfColumn(op.getColumnName()));
+            if (!(v instanceof IntVector) || v.getNullCount() > 0)
+                return null;
+
+            IntVector iv = (IntVector) v;
+            int n = iv.getValueCount();
+            for (int i = 0; i < n; i++)
+                iv.set(i, intOp(op.getMathOp(), iv.get(i), op.getScalar()));
+            return columns;
+        } else if (t instanceof LongMathOpTransform) {
+            LongMathOpTransform op = (LongMathOpTransform) t;
+            FieldVector v = columns.get(inputSchema.getIndexOfColumn(op.getColumnName()));
+            if (!(v instanceof BigIntVector) || v.getNullCount() > 0)
+                return null;
+
+            BigIntVector lv = (BigIntVector) v;
+            int n = lv.getValueCount();
+            for (int i = 0; i < n; i++)
+                lv.set(i, longOp(op.getMathOp(), lv.get(i), op.getScalar()));
+            return columns;
+        }
+
+        return null;
+    }
+
+    /**
+     * Evaluate a filter over the given columns
+     *
+     * @return indices of the rows to keep, or null if the filter isn't supported
+     */
+    static int[] filter(Filter f, Schema schema, List<FieldVector> columns) {
+        if (!(f instanceof ConditionFilter))
+            return null;
+
+        Condition c = ((ConditionFilter) f).getCondition();
+        int numRows = columns.isEmpty() ? 0 : columns.get(0).getValueCount();
+        int[] keep = new int[numRows];
+        int cnt = 0;
+
+        if (c instanceof DoubleColumnCondition) {
+            DoubleColumnCondition dc = (DoubleColumnCondition) c;
+            FieldVector v = columns.get(schema.getIndexOfColumn(dc.getColumnName()));
+            if (!isNumeric(v) || v.getNullCount() > 0)
+                return null;
+
+            double value = dc.getValue() == null ? Double.NaN : dc.getValue();
+            for (int i = 0; i < numRows; i++) {
+                if (!dc.getOp().apply(getDouble(v, i), value, dc.getSet()))
+                    keep[cnt++] = i;
+            }
+        } else if (c instanceof IntegerColumnCondition) {
+            IntegerColumnCondition ic = (IntegerColumnCondition) c;
+            FieldVector v = columns.get(schema.getIndexOfColumn(ic.getColumnName()));
+            if (!(v instanceof IntVector) || v.getNullCount() > 0)
+                return null;
+
+            IntVector iv = (IntVector) v;
+            int value = ic.getValue() == null ? 0 : ic.getValue();
+            for (int i = 0; i < numRows; i++) {
+                if (!ic.getOp().apply(iv.get(i), value, ic.getSet()))
+                    keep[cnt++] = i;
+            }
+        } else if (c instanceof LongColumnCondition) {
+            LongColumnCondition lc = (LongColumnCondition) c;
+            FieldVector v = columns.get(schema.getIndexOfColumn(lc.getColumnName()));
+            if (!(v instanceof BigIntVector) || v.getNullCount() > 0)
+                return null;
+
+            BigIntVector lv = (BigIntVector) v;
+            long value = lc.getValue() == null ? 0 : lc.getValue();
+            for (int i = 0; i < numRows; i++) {
+                if (!lc.getOp().apply(lv.get(i), value, lc.getSet()))
+                    keep[cnt++] = i;
+            }
+        } else {
+            return null;
+        }
+
+        if (cnt == keep.length)
+            return keep;
+
+        int[] ret = new int[cnt];
+        System.arraycopy(keep, 0, ret, 0, cnt);
+        return ret;
+    }
+
+    /**
+     * Gather the specified rows of every column into new vectors. Input vectors are released.
+     */
+    static List<FieldVector> compact(List<FieldVector> columns, int[] rows, BufferAllocator allocator) {
+        List<FieldVector> ret = new ArrayList<>(columns.size());
+        for (FieldVector v : columns) {
+            TransferPair tp = v.getTransferPair(allocator);
+            FieldVector out = (FieldVector) tp.getTo();
+            out.allocateNew();
+            for (int i = 0; i < rows.length; i++)
+                tp.copyValueSafe(rows[i], i);
+            out.setValueCount(rows.length);
+            v.close();
+            ret.add(out);
+        }
+        return ret;
+    }
+
+    static boolean isNumeric(FieldVector v) {
+        return v instanceof Float8Vector || v instanceof Float4Vector || v instanceof IntVector
+                        || v instanceof BigIntVector;
+    }
+
+    static double getDouble(FieldVector v, int i) {
+        if (v instanceof Float8Vector)
+            return ((Float8Vector) v).get(i);
+        else if (v instanceof Float4Vector)
+            return ((Float4Vector) v).get(i);
+        else if (v instanceof IntVector)
+            return ((IntVector) v).get(i);
+        else if (v instanceof BigIntVector)
+            return ((BigIntVector) v).get(i);
+
+        throw new IllegalArgumentException("Unsupported vector type: " + v.getClass().getSimpleName());
+    }
+
+    static long getLong(FieldVector v, int i) {
+        if (v instanceof IntVector)
+            return ((IntVector) v).get(i);
+        else if (v instanceof BigIntVector)
+            return ((BigIntVector) v).get(i);
+
+        throw new IllegalArgumentException("Unsupported vector type: " + v.getClass().getSimpleName());
+    }
+
+    private interface DoubleOp {
+        double apply(double x);
+    }
+
+    /**
+     * Applies op to a numeric column, producing a double column (in place, if the column is already double)
+     */
+    private static List<FieldVector> mapDouble(int column, List<FieldVector> columns, BufferAllocator allocator,
+                    DoubleOp op) {
+        FieldVector in = columns.get(column);
+        if (!isNumeric(in) || in.getNullCount() > 0)
+            return null;
+
+        int n = in.getValueCount();
+        Float8Vector out = in instanceof Float8Vector ? (Float8Vector) in
+                        : ArrowConverter.doubleVectorOf(allocator, in.getField().getName(), n);
+        for (int i = 0; i < n; i++)
+            out.set(i, op.apply(getDouble(in, i)));
+
+        if (out != in) {
+            in.close();
+            columns.set(column, out);
+        }
+        return columns;
+    }
+
+    private static List<FieldVector> selectColumns(Schema inputSchema, Schema outputSchema, List<FieldVector> columns) {
+        List<String> outNames = outputSchema.getColumnNames();
+        List<FieldVector> ret = new ArrayList<>(outNames.size());
+        boolean[] used = new boolean[columns.size()];
+        for (String name : outNames) {
+            int idx = inputSchema.getIndexOfColumn(name);
+            used[idx] = true;
+            ret.add(columns.get(idx));
+        }
+
+        for (int i = 0; i < used.length; i++) {
+            if (!used[i])
+                columns.get(i).close();
+        }
+        return ret;
+    }
+
+    private static List<FieldVector> renameColumns(Schema outputSchema, List<FieldVector> columns,
+                    BufferAllocator allocator) {
+        List<FieldVector> ret = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            FieldVector v = columns.get(i);
+            String name = outputSchema.getName(i);
+            if (name.equals(v.getField().getName())) {
+                ret.add(v);
+            } else {
+                //Buffers are handed over to the new vector, no data is copied
+                TransferPair tp = v.getTransferPair(name, allocator);
+                tp.transfer();
+                ret.add((FieldVector) tp.getTo());
+            }
+        }
+        return ret;
+    }
+
+    private static double doubleOp(MathOp op, double x, double scalar) {
+        switch (op) {
+            case Add:
+                return x + scalar;
+            case Subtract:
+                return x - scalar;
+            case Multiply:
+                return x * scalar;
+            case Divide:
+                return x / scalar;
+            case Modulus:
+                return x % scalar;
+            case ReverseSubtract:
+                return scalar - x;
+            case ReverseDivide:
+                return scalar / x;
+            case ScalarMin:
+                return Math.min(x, scalar);
+            case ScalarMax:
+                return Math.max(x, scalar);
+            default:
+                throw new IllegalStateException("Unknown or not implemented math op: " + op);
+        }
+    }
+
+    private static int intOp(MathOp op, int x, int scalar) {
+        switch (op) {
+            case Add:
+                return x + scalar;
+            case Subtract:
+                return x - scalar;
+            case Multiply:
+                return x * scalar;
+            case Divide:
+                return x / scalar;
+            case Modulus:
+                return x % scalar;
+            case ReverseSubtract:
+                return scalar - x;
+            case ReverseDivide:
+                return scalar / x;
+            case ScalarMin:
+                return Math.min(x, scalar);
+            case ScalarMax:
+                return Math.max(x, scalar);
+            default:
+                throw new IllegalStateException("Unknown or not implemented math op: " + op);
+        }
+    }
+
+    private static long longOp(MathOp op, long x, long scalar) {
+        switch (op) {
+            case Add:
+                return x + scalar;
+            case Subtract:
+                return x - scalar;
+            case Multiply:
+                return x * scalar;
+            case Divide:
+                return x / scalar;
+            case Modulus:
+                return x % scalar;
+            case ReverseSubtract:
+                return scalar - x;
+            case ReverseDivide:
+                return scalar / x;
+            case ScalarMin:
+                return Math.min(x, scalar);
+            case ScalarMax:
+                return Math.max(x, scalar);
+            default:
+                throw new IllegalStateException("Unknown or not implemented math op: " + op);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package org.datavec.local.transforms.columnar;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.datavec.api.transform.ReduceOp;
+import org.datavec.api.transform.reduce.IAssociativeReducer;
+import org.datavec.api.transform.reduce.Reducer;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.datavec.arrow.ArrowConverter;
+
+import java.util.*;
+
+/**
+ * Columnar implementation of {@link Reducer}, for the subset of reductions that can be computed
+ * with a single pass over primitive column values: Min, Max, Sum, Mean, Count, TakeFirst and TakeLast
+ * on Integer, Long and Double columns.<br>
+ * Rows are grouped once, and every reduced column is then aggregated directly from its Arrow vector.
+ * Only the reduced rows (one per key) are materialized.
+ *
+ * @author raver119@gmail.com
+ */
+class ColumnarReducer {
+
+    private static final EnumSet<ReduceOp> SUPPORTED = EnumSet.of(ReduceOp.Min, ReduceOp.Max, ReduceOp.Sum,
+                    ReduceOp.Mean, ReduceOp.Count, ReduceOp.TakeFirst, ReduceOp.TakeLast);
+
+    private ColumnarReducer() {
+        //No instances
+    }
+
+    /**
+     * @return reduced columns, or null if the reducer isn't supported
+     */
+    static List<FieldVector> reduce(IAssociativeReducer r, Schema inputSchema, Schema outputSchema,
+                    List<FieldVector> columns, BufferAllocator allocator) {
+        if (!(r instanceof Reducer))
+            return null;
+
+        Reducer reducer = (Reducer) r;
+        if ((reducer.getCustomReductions() != null && !reducer.getCustomReductions().isEmpty())
+                        || (reducer.getConditionalReductions() != null && !reducer.getConditionalReductions().isEmpty())
+                        || (reducer.getIgnoreInvalidInColumns() != null && !reducer.getIgnoreInvalidInColumns().isEmpty()))
+            return null;
+
+        List<String> keyColumns = reducer.getKeyColumns();
+        Set<String> keys = keyColumns == null ? Collections.<String>emptySet() : new HashSet<>(keyColumns);
+        int nCols = inputSchema.numColumns();
+
+        //Check that everything is supported before doing any work
+        List<List<ReduceOp>> ops = new ArrayList<>(nCols);
+        for (int c = 0; c < nCols; c++) {
+            String name = inputSchema.getName(c);
+            if (keys.contains(name)) {
+                ops.add(null);
+                continue;
+            }
+
+            List<ReduceOp> lop = reducer.getOpMap().containsKey(name) ? reducer.getOpMap().get(name)
+                            : Collections.singletonList(reducer.getDefaultOp());
+            FieldVector v = columns.get(c);
+            if (!(v instanceof IntVector || v instanceof BigIntVector || v instanceof Float8Vector)
+                            || v.getNullCount() > 0)
+                return null;
+            for (ReduceOp op : lop) {
+                if (op == null || !SUPPORTED.contains(op))
+                    return null;
+            }
+            ops.add(lop);
+        }
+
+        //Assign group index to each row, in order of first appearance of the key
+        int numRows = columns.isEmpty() ? 0 : columns.get(0).getValueCount();
+        int[] groupOf = new int[numRows];
+        int[] keyIdx = keyColumns == null ? new int[0] : inputSchema.getIndexOfColumns(keyColumns);
+        Map<String, Integer> groupIds = new HashMap<>();
+        List<Integer> firstRows = new ArrayList<>();
+        for (int i = 0; i < numRows; i++) {
+            String key = groupKey(keyIdx, inputSchema, columns, i);
+            Integer g = groupIds.get(key);
+            if (g == null) {
+                g = firstRows.size();
+                groupIds.put(key, g);
+                firstRows.add(i);
+            }
+            groupOf[i] = g;
+        }
+
+        int numGroups = firstRows.size();
+        List<List<Writable>> out = new ArrayList<>(numGroups);
+        for (int g = 0; g < numGroups; g++)
+            out.add(new ArrayList<Writable>(outputSchema.numColumns()));
+
+        for (int c = 0; c < nCols; c++) {
+            FieldVector v = columns.get(c);
+            if (ops.get(c) == null) {
+                for (int g = 0; g < numGroups; g++)
+                    out.get(g).add(ArrowConverter.fromEntry(firstRows.get(g), v, inputSchema.getType(c)));
+                continue;
+            }
+
+            for (ReduceOp op : ops.get(c)) {
+                Writable[] reduced = v instanceof Float8Vector ? reduceDouble(op, (Float8Vector) v, groupOf, numGroups)
+                                : reduceLong(op, v, groupOf, numGroups);
+                for (int g = 0; g < numGroups; g++)
+                    out.get(g).add(reduced[g]);
+            }
+        }
+
+        for (FieldVector v : columns)
+            v.close();
+
+        return ArrowConverter.toArrowColumns(allocator, outputSchema, out);
+    }
+
+    private static String groupKey(int[] keyIdx, Schema schema, List<FieldVector> columns, int row) {
+        if (keyIdx.length == 0)
+            return "";
+        if (keyIdx.length == 1)
+            return ArrowConverter.fromEntry(row, columns.get(keyIdx[0]), schema.getType(keyIdx[0])).toString();
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keyIdx.length; i++) {
+            if (i > 0)
+                sb.append("_");
+            sb.append(ArrowConverter.fromEntry(row, columns.get(keyIdx[i]), schema.getType(keyIdx[i])).toString());
+        }
+        return sb.toString();
+    }
+
+    private static Writable[] reduceDouble(ReduceOp op, Float8Vector v, int[] groupOf, int numGroups) {
+        double[] acc = new double[numGroups];
+        long[] count = new long[numGroups];
+        for (int i = 0; i < groupOf.length; i++) {
+            int g = groupOf[i];
+            double x = v.get(i);
+            long n = ++count[g];
+            switch (op) {
+                case Min:
+                    acc[g] = n == 1 ? x : Math.min(acc[g], x);
+                    break;
+                case Max:
+                    acc[g] = n == 1 ? x : Math.max(acc[g], x);
+                    break;
+                case Sum:
+                    acc[g] = n == 1 ? x : acc[g] + x;
+                    break;
+                case Mean:
+                    acc[g] = n == 1 ? x : acc[g] + (x - acc[g]) / n;
+                    break;
+                case TakeFirst:
+                    if (n == 1)
+                        acc[g] = x;
+                    break;
+                case TakeLast:
+                    acc[g] = x;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        Writable[] ret = new Writable[numGroups];
+        for (int g = 0; g < numGroups; g++)
+            ret[g] = op == ReduceOp.Count ? new LongWritable(count[g]) : new DoubleWritable(acc[g]);
+        return ret;
+    }
+
+    private static Writable[] reduceLong(ReduceOp op, FieldVector v, int[] groupOf, int numGroups) {
+        boolean isInt = v instanceof IntVector;
+        long[] acc = new long[numGroups];
+        double[] mean = new double[numGroups];
+        long[] count = new long[numGroups];
+        for (int i = 0; i < groupOf.length; i++) {
+            int g = groupOf[i];
+            long x = ColumnarOps.getLong(v, i);
+            long n = ++count[g];
+            switch (op) {
+                case Min:
+                    acc[g] = n == 1 ? x : Math.min(acc[g], x);
+                    break;
+                case Max:
+                    acc[g] = n == 1 ? x : Math.max(acc[g], x);
+                    break;
+                case Sum:
+                    acc[g] = n == 1 ? x : acc[g] + x;
+                    break;
+                case Mean:
+                    mean[g] = n == 1 ? x : mean[g] + (x - mean[g]) / n;
+                    break;
+                case TakeFirst:
+                    if (n == 1)
+                        acc[g] = x;
+                    break;
+                case TakeLast:
+                    acc[g] = x;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        Writable[] ret = new Writable[numGroups];
+        for (int g = 0; g < numGroups; g++) {
+            if (op == ReduceOp.Count)
+                ret[g] = new LongWritable(count[g]);
+            else if (op == ReduceOp.Mean)
+                ret[g] = new DoubleWritable(mean[g]);
+            else
+                //Integer sums overflow the same way as in the Writable implementation
+                ret[g] = isInt ? new IntWritable((int) acc[g]) : new LongWritable(acc[g]);
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,194 @@
+package org.datavec.local.transforms.columnar;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.datavec.api.transform.DataAction;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.transform.schema.SequenceSchema;
+import org.datavec.api.writable.Writable;
+import org.datavec.arrow.ArrowConverter;
+import org.datavec.arrow.recordreader.ArrowWritableRecordBatch;
+import org.datavec.local.transforms.LocalTransformExecutor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Columnar TransformProcess executor.<br>
+ * Unlike {@link LocalTransformExecutor}, data is kept as Arrow vectors between steps, and
+ * supported steps are executed over primitive column values without creating a Writable per cell:
+ * <ul>
+ *     <li>removeColumns, renameColumn(s), reorderColumns: no data is copied</li>
+ *     <li>double/integer/long math ops, min-max and standardize normalization</li>
+ *     <li>filters on double, integer and long column conditions</li>
+ *     <li>Reducer with Min, Max, Sum, Mean, Count, TakeFirst, TakeLast ops</li>
+ * </ul>
+ * Any other step (or a supported step on a column containing missing values) is executed by
+ * {@link LocalTransformExecutor} over the current batch, and the result is converted back to columns.<br>
+ * TransformProcesses that produce or consume sequences are executed by {@link LocalTransformExecutor} entirely.<br>
+ * <br>
+ * The result can be fed to RecordReaderDataSetIterator via
+ * {@link org.datavec.arrow.recordreader.ArrowColumnarRecordReader}
+ *
+ * @author raver119@gmail.com
+ */
+@Slf4j
+public class ColumnarTransformExecutor {
+
+    private static BufferAllocator bufferAllocator = new RootAllocator(Long.MAX_VALUE);
+
+    private ColumnarTransformExecutor() {
+        //No instances
+    }
+
+    /**
+     * Execute the specified TransformProcess with the given input data
+     *
+     * @param inputWritables   Input data to process
+     * @param transformProcess TransformProcess to execute. Must return non-sequence data
+     * @return Processed data, as Arrow columns
+     */
+    public static ArrowWritableRecordBatch execute(List<List<Writable>> inputWritables,
+                    TransformProcess transformProcess) {
+        Schema schema = transformProcess.getInitialSchema();
+        if (inputWritables.isEmpty())
+            return asBatch(inputWritables, transformProcess.getFinalSchema());
+        if (!isColumnar(transformProcess))
+            return asBatch(LocalTransformExecutor.execute(inputWritables, transformProcess),
+                            transformProcess.getFinalSchema());
+
+        List<List<Writable>> filtered = new ArrayList<>(inputWritables.size());
+        for (List<Writable> record : inputWritables) {
+            if (record.size() == schema.numColumns())
+                filtered.add(record);
+        }
+        if (filtered.size() != inputWritables.size())
+            log.warn("Filtered out " + (inputWritables.size() - filtered.size()) + " values");
+
+        return execute(ArrowConverter.toArrowColumns(bufferAllocator, schema, filtered), transformProcess);
+    }
+
+    /**
+     * Execute the specified TransformProcess over Arrow columns.<br>
+     * Note: vectors of the input batch are reused, and may be modified or released during execution
+     *
+     * @param input            Input data to process. Schema should be equal to the TransformProcess initial schema
+     * @param transformProcess TransformProcess to execute. Must return non-sequence data
+     * @return Processed data, as Arrow columns
+     */
+    public static ArrowWritableRecordBatch execute(ArrowWritableRecordBatch input, TransformProcess transformProcess) {
+        if (input.getOffset() != 0 || input.size() != input.getList().get(0).getValueCount()) {
+            //View over part of the vectors: take only the rows of this batch
+            int[] rows = new int[input.size()];
+            for (int i = 0; i < rows.length; i++)
+                rows[i] = input.getOffset() + i;
+            return execute(ColumnarOps.compact(input.getList(), rows, bufferAllocator), transformProcess);
+        }
+
+        return execute(input.getList(), transformProcess);
+    }
+
+    private static ArrowWritableRecordBatch execute(List<FieldVector> input, TransformProcess transformProcess) {
+        if (transformProcess.getFinalSchema() instanceof SequenceSchema)
+            throw new IllegalStateException("Cannot return sequence data with this method");
+
+        Schema schema = transformProcess.getInitialSchema();
+        if (input.size() != schema.numColumns())
+            throw new IllegalStateException("Input data number of columns (" + input.size()
+                            + ") does not match the number of columns for the transform process ("
+                            + schema.numColumns() + ")");
+
+        if (!isColumnar(transformProcess)) {
+            return asBatch(LocalTransformExecutor.execute(new ArrowWritableRecordBatch(input, schema),
+                            transformProcess), transformProcess.getFinalSchema());
+        }
+
+        List<FieldVector> columns = new ArrayList<>(input);
+        for (DataAction d : transformProcess.getActionList()) {
+            Schema outputSchema = outputSchema(d, schema);
+            List<FieldVector> result = null;
+            if (d.getTransform() != null) {
+                result = ColumnarOps.transform(d.getTransform(), schema, outputSchema, columns, bufferAllocator);
+            } else if (d.getFilter() != null) {
+                int[] keep = ColumnarOps.filter(d.getFilter(), schema, columns);
+                if (keep != null)
+                    result = keep.length == numRows(columns) ? columns
+                                    : ColumnarOps.compact(columns, keep, bufferAllocator);
+            } else if (d.getReducer() != null) {
+                result = ColumnarReducer.reduce(d.getReducer(), schema, outputSchema, columns, bufferAllocator);
+            }
+
+            if (result == null)
+                result = fallback(d, schema, outputSchema, columns);
+
+            columns = result;
+            schema = outputSchema;
+        }
+
+        return new ArrowWritableRecordBatch(columns, schema);
+    }
+
+    /**
+     * Execute a single step with {@link LocalTransformExecutor}
+     */
+    private static List<FieldVector> fallback(DataAction d, Schema inputSchema, Schema outputSchema,
+                    List<FieldVector> columns) {
+        List<FieldVector> ret;
+        if (numRows(columns) == 0) {
+            ret = ArrowConverter.toArrowColumns(bufferAllocator, outputSchema, Collections.<List<Writable>>emptyList());
+        } else {
+            TransformProcess step = new TransformProcess(inputSchema, Collections.singletonList(d));
+            List<List<Writable>> out = LocalTransformExecutor.execute(new ArrowWritableRecordBatch(columns, inputSchema),
+                            step);
+            ret = out instanceof ArrowWritableRecordBatch ? ((ArrowWritableRecordBatch) out).getList()
+                            : ArrowConverter.toArrowColumns(bufferAllocator, outputSchema, out);
+        }
+
+        for (FieldVector v : columns)
+            v.close();
+        return ret;
+    }
+
+    private static Schema outputSchema(DataAction d, Schema inputSchema) {
+        if (d.getTransform() != null)
+            return d.getTransform().transform(inputSchema);
+        else if (d.getFilter() != null)
+            return inputSchema;
+        else if (d.getReducer() != null)
+            return d.getReducer().transform(inputSchema);
+        else if (d.getCalculateSortedRank() != null)
+            return d.getCalculateSortedRank().transform(inputSchema);
+
+        throw new IllegalStateException("Unsupported action for columnar execution: " + d);
+    }
+
+    /**
+     * @return true if all steps of the TransformProcess operate on non-sequence data
+     */
+    private static boolean isColumnar(TransformProcess transformProcess) {
+        if (transformProcess.getInitialSchema() instanceof SequenceSchema
+                        || transformProcess.getFinalSchema() instanceof SequenceSchema)
+            return false;
+
+        for (DataAction d : transformProcess.getActionList()) {
+            if (d.getTransform() == null && d.getFilter() == null && d.getReducer() == null
+                            && d.getCalculateSortedRank() == null)
+                return false;
+        }
+        return true;
+    }
+
+    private static int numRows(List<FieldVector> columns) {
+        return columns.isEmpty() ? 0 : columns.get(0).getValueCount();
+    }
+
+    private static ArrowWritableRecordBatch asBatch(List<List<Writable>> data, Schema schema) {
+        if (data instanceof ArrowWritableRecordBatch)
+            return (ArrowWritableRecordBatch) data;
+        return new ArrowWritableRecordBatch(ArrowConverter.toArrowColumns(bufferAllocator, schema, data), schema);
+    }
+}
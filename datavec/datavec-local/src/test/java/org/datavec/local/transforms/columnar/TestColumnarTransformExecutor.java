@@ -0,0 +1,152 @@
+package org.datavec.local.transforms.columnar;
+
+import org.datavec.api.transform.MathOp;
+import org.datavec.api.transform.ReduceOp;
+import org.datavec.api.transform.TransformProcess;
+import org.datavec.api.transform.condition.ConditionOp;
+import org.datavec.api.transform.condition.column.DoubleColumnCondition;
+import org.datavec.api.transform.condition.column.IntegerColumnCondition;
+import org.datavec.api.transform.reduce.Reducer;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.*;
+import org.datavec.api.writable.batch.NDArrayRecordBatch;
+import org.datavec.arrow.recordreader.ArrowColumnarRecordReader;
+import org.datavec.arrow.recordreader.ArrowWritableRecordBatch;
+import org.datavec.local.transforms.LocalTransformExecutor;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestColumnarTransformExecutor {
+
+    private static Schema schema() {
+        return new Schema.Builder().addColumnInteger("id").addColumnCategorical("cat", "a", "b", "c")
+                        .addColumnDouble("x").addColumnLong("y").build();
+    }
+
+    private static List<List<Writable>> data(int n) {
+        Random r = new Random(12345);
+        String[] states = {"a", "b", "c"};
+        List<List<Writable>> ret = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            ret.add(Arrays.<Writable>asList(new IntWritable(i), new Text(states[r.nextInt(3)]),
+                            new DoubleWritable(r.nextDouble() * 10), new LongWritable(r.nextInt(100))));
+        }
+        return ret;
+    }
+
+    private static List<List<Writable>> sorted(List<List<Writable>> in) {
+        List<List<Writable>> ret = new ArrayList<>();
+        for (List<Writable> l : in)
+            ret.add(new ArrayList<>(l));
+        Collections.sort(ret, new Comparator<List<Writable>>() {
+            @Override
+            public int compare(List<Writable> o1, List<Writable> o2) {
+                return o1.get(0).toString().compareTo(o2.get(0).toString());
+            }
+        });
+        return ret;
+    }
+
+    @Test
+    public void testColumnarTransformsAndFilters() {
+        TransformProcess tp = new TransformProcess.Builder(schema())
+                        .doubleMathOp("x", MathOp.Multiply, 2.0)
+                        .longMathOp("y", MathOp.Add, 5)
+                        .integerMathOp("id", MathOp.Add, 1)
+                        .filter(new DoubleColumnCondition("x", ConditionOp.LessThan, 4.0))
+                        .filter(new IntegerColumnCondition("id", ConditionOp.InSet,
+                                        new HashSet<>(Arrays.asList(3, 7, 11))))
+                        .renameColumn("x", "x2")
+                        .reorderColumns("y", "x2")
+                        .build();
+
+        List<List<Writable>> input = data(200);
+        List<List<Writable>> expected = LocalTransformExecutor.execute(input, tp);
+        ArrowWritableRecordBatch actual = ColumnarTransformExecutor.execute(input, tp);
+
+        assertEquals(tp.getFinalSchema(), actual.getSchema());
+        assertTrue(expected.size() > 0 && expected.size() < 200);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals(expected.get(i), actual.get(i));
+    }
+
+    @Test
+    public void testFallback() {
+        //categoricalToInteger and the categorical filter have no columnar implementation
+        TransformProcess tp = new TransformProcess.Builder(schema())
+                        .categoricalToInteger("cat")
+                        .doubleMathOp("x", MathOp.Subtract, 1.0)
+                        .removeColumns("y")
+                        .build();
+
+        List<List<Writable>> input = data(50);
+        List<List<Writable>> expected = LocalTransformExecutor.execute(input, tp);
+        ArrowWritableRecordBatch actual = ColumnarTransformExecutor.execute(input, tp);
+
+        assertEquals(tp.getFinalSchema(), actual.getSchema());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertEquals(expected.get(i), actual.get(i));
+    }
+
+    @Test
+    public void testReduce() {
+        TransformProcess tp = new TransformProcess.Builder(schema())
+                        .removeColumns("id")
+                        .reduce(new Reducer.Builder(ReduceOp.TakeFirst).keyColumns("cat")
+                                        .meanColumns("x").sumColumns("y").maxColumn("x").countColumns("y")
+                                        .build())
+                        .build();
+
+        List<List<Writable>> input = data(100);
+        List<List<Writable>> expected = sorted(LocalTransformExecutor.execute(input, tp));
+        List<List<Writable>> actual = sorted(ColumnarTransformExecutor.execute(input, tp));
+
+        assertEquals(3, expected.size());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            List<Writable> e = expected.get(i);
+            List<Writable> a = actual.get(i);
+            assertEquals(e.size(), a.size());
+            for (int j = 0; j < e.size(); j++) {
+                if (e.get(j) instanceof DoubleWritable)
+                    assertEquals(e.get(j).toDouble(), a.get(j).toDouble(), 1e-9);
+                else
+                    assertEquals(e.get(j), a.get(j));
+            }
+        }
+    }
+
+    @Test
+    public void testRecordReader() throws Exception {
+        TransformProcess tp = new TransformProcess.Builder(schema())
+                        .removeColumns("cat")
+                        .build();
+
+        List<List<Writable>> input = data(10);
+        ArrowColumnarRecordReader rr = new ArrowColumnarRecordReader(ColumnarTransformExecutor.execute(input, tp));
+        assertTrue(rr.batchesSupported());
+
+        List<List<Writable>> first = rr.next(4);
+        assertTrue(first instanceof NDArrayRecordBatch);
+        List<INDArray> arrays = ((NDArrayRecordBatch) first).getArrays();
+        assertEquals(3, arrays.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, arrays.get(0).getInt(i, 0));
+            assertEquals(input.get(i).get(2).toDouble(), arrays.get(1).getDouble(i, 0), 1e-5);
+            assertEquals(input.get(i).get(3).toDouble(), arrays.get(2).getDouble(i, 0), 1e-5);
+        }
+
+        List<INDArray> rest = ((NDArrayRecordBatch) rr.next(100)).getArrays();
+        assertEquals(6, rest.get(0).size(0));
+        assertFalse(rr.hasNext());
+
+        rr.reset();
+        assertEquals(Arrays.<Writable>asList(new IntWritable(0), input.get(0).get(2), input.get(0).get(3)), rr.next());
+    }
+}
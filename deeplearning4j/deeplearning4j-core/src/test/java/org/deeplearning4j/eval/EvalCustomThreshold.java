@@ -46,7 +46,7 @@ public class EvalCustomThreshold extends BaseDL4JTest {
             assertEquals(e.f1(), e2.f1(), 1e-6);
             assertEquals(e.precision(), e2.precision(), 1e-6);
             assertEquals(e.recall(), e2.recall(), 1e-6);
-            assertEquals(e.confusion, e2.confusion);
+            assertEquals(e.getConfusion(), e2.getConfusion());
         }
 
         //Check with decision threshold of 0.25
@@ -69,7 +69,7 @@ public class EvalCustomThreshold extends BaseDL4JTest {
         assertEquals(ex2.f1(), e025.f1(), 1e-6);
         assertEquals(ex2.precision(), e025.precision(), 1e-6);
         assertEquals(ex2.recall(), e025.recall(), 1e-6);
-        assertEquals(ex2.confusion, e025.confusion);
+        assertEquals(ex2.getConfusion(), e025.getConfusion());
 
 
         //Check the same thing, but the single binary output case:
@@ -81,7 +81,7 @@ public class EvalCustomThreshold extends BaseDL4JTest {
         assertEquals(ex2.f1(), e025v2.f1(), 1e-6);
         assertEquals(ex2.precision(), e025v2.precision(), 1e-6);
         assertEquals(ex2.recall(), e025v2.recall(), 1e-6);
-        assertEquals(ex2.confusion, e025v2.confusion);
+        assertEquals(ex2.getConfusion(), e025v2.getConfusion());
     }
 
     @Test
@@ -111,7 +111,7 @@ public class EvalCustomThreshold extends BaseDL4JTest {
             assertEquals(e.f1(), e2.f1(), 1e-6);
             assertEquals(e.precision(), e2.precision(), 1e-6);
             assertEquals(e.recall(), e2.recall(), 1e-6);
-            assertEquals(e.confusion, e2.confusion);
+            assertEquals(e.getConfusion(), e2.getConfusion());
         }
 
         //Manual checks:
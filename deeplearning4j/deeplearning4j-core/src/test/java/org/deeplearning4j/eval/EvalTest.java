@@ -757,15 +757,15 @@ public class EvalTest extends BaseDL4JTest {
         apply(e, 3, one, two);
         apply(e, 4, two, two);
 
-        assertEquals(3, e.confusion.getCount(0, 0));
-        assertEquals(1, e.confusion.getCount(0, 1));
-        assertEquals(0, e.confusion.getCount(0, 2));
-        assertEquals(2, e.confusion.getCount(1, 0));
-        assertEquals(2, e.confusion.getCount(1, 1));
-        assertEquals(1, e.confusion.getCount(1, 2));
-        assertEquals(0, e.confusion.getCount(2, 0));
-        assertEquals(3, e.confusion.getCount(2, 1));
-        assertEquals(4, e.confusion.getCount(2, 2));
+        assertEquals(3, e.getConfusion().getCount(0, 0));
+        assertEquals(1, e.getConfusion().getCount(0, 1));
+        assertEquals(0, e.getConfusion().getCount(0, 2));
+        assertEquals(2, e.getConfusion().getCount(1, 0));
+        assertEquals(2, e.getConfusion().getCount(1, 1));
+        assertEquals(1, e.getConfusion().getCount(1, 2));
+        assertEquals(0, e.getConfusion().getCount(2, 0));
+        assertEquals(3, e.getConfusion().getCount(2, 1));
+        assertEquals(4, e.getConfusion().getCount(2, 2));
 
         double beta = 3.5;
         double[] prec = new double[3];
@@ -1286,4 +1286,89 @@ public class EvalTest extends BaseDL4JTest {
 
 
     }
+
+    @Test
+    public void testDenseConfusionAccumulation(){
+        Nd4j.getRandom().setSeed(12345);
+        int nClasses = 7;
+        int nExamples = 50;
+
+        Evaluation batched = new Evaluation(nClasses, 3);
+        Evaluation single = new Evaluation(nClasses);
+        for( int b=0; b<4; b++ ){
+            INDArray labels = Nd4j.zeros(nExamples, nClasses);
+            Random r = new Random(12345 + b);
+            for( int i=0; i<nExamples; i++ ){
+                labels.putScalar(i, r.nextInt(nClasses), 1.0);
+            }
+            INDArray probs = Nd4j.rand(nExamples, nClasses);
+            batched.eval(labels, probs);
+
+            INDArray actual = Nd4j.argMax(labels, 1);
+            INDArray predicted = Nd4j.argMax(probs, 1);
+            for( int i=0; i<nExamples; i++ ){
+                single.eval(predicted.getInt(i), actual.getInt(i));
+            }
+        }
+
+        //Map based confusion matrix is materialized lazily, but must match per-example accumulation
+        assertEquals(single.getConfusion(), batched.getConfusion());
+        for( int i=0; i<nClasses; i++ ){
+            assertEquals(single.truePositives().get(i), batched.truePositives().get(i));
+            assertEquals(single.falsePositives().get(i), batched.falsePositives().get(i));
+            assertEquals(single.falseNegatives().get(i), batched.falseNegatives().get(i));
+            assertEquals(single.trueNegatives().get(i), batched.trueNegatives().get(i));
+        }
+        assertEquals(single.accuracy(), batched.accuracy(), 1e-10);
+        assertEquals(single.f1(), batched.f1(), 1e-10);
+        assertTrue(batched.topNAccuracy() >= batched.accuracy());
+
+        //Pending counts must be included in JSON, and survive merging
+        Evaluation fromJson = Evaluation.fromJson(batched.toJson());
+        assertEquals(batched.getConfusion(), fromJson.getConfusion());
+
+        Evaluation e1 = new Evaluation();
+        Evaluation e2 = new Evaluation();
+        INDArray labels = Nd4j.create(new double[][]{{1,0,0},{0,1,0},{0,0,1},{0,1,0}});
+        INDArray probs = Nd4j.create(new double[][]{{0.8,0.1,0.1},{0.6,0.3,0.1},{0.1,0.2,0.7},{0.2,0.7,0.1}});
+        e1.eval(labels, probs);
+        e2.eval(labels, probs);
+        e1.merge(e2);
+        assertEquals(2, e1.getConfusion().getCount(0, 0));
+        assertEquals(2, e1.getConfusion().getCount(1, 0));
+        assertEquals(2, e1.getConfusion().getCount(1, 1));
+        assertEquals(2, e1.getConfusion().getCount(2, 2));
+        assertEquals(0.75, e1.accuracy(), 1e-10);
+    }
+
+    @Test
+    public void testConfusionManyClasses(){
+        //nClasses^2 overflows an int: counts must go directly to the confusion matrix, without a dense buffer
+        int nClasses = 50000;
+        int nExamples = 4;
+
+        Evaluation e = new Evaluation(nClasses);
+        for( int b=0; b<2; b++ ){
+            INDArray labels = Nd4j.zeros(nExamples, nClasses);
+            INDArray probs = Nd4j.zeros(nExamples, nClasses);
+            labels.putScalar(0, 0, 1.0);
+            probs.putScalar(0, 0, 1.0);
+            labels.putScalar(1, nClasses-1, 1.0);
+            probs.putScalar(1, nClasses-1, 1.0);
+            labels.putScalar(2, 46341, 1.0);
+            probs.putScalar(2, 1, 1.0);
+            labels.putScalar(3, 1, 1.0);
+            probs.putScalar(3, 46341, 1.0);
+            e.eval(labels, probs);
+        }
+
+        ConfusionMatrix<Integer> cm = e.getConfusion();
+        assertEquals(2, cm.getCount(0, 0));
+        assertEquals(2, cm.getCount(nClasses-1, nClasses-1));
+        assertEquals(2, cm.getCount(46341, 1));
+        assertEquals(2, cm.getCount(1, 46341));
+        assertEquals(0, cm.getCount(1, 1));
+        assertEquals(8, e.getNumRowCounter());
+        assertEquals(0.5, e.accuracy(), 1e-10);
+    }
 }
@@ -1034,4 +1034,71 @@ public class ROCTest extends BaseDL4JTest {
         }
     }
 
+    @Test
+    public void testRocStreaming(){
+        Nd4j.getRandom().setSeed(12345);
+
+        ROC exact = new ROC();
+        ROC streaming = ROC.streaming(1000);
+        ROC s1 = ROC.streaming(1000);
+        ROC s2 = ROC.streaming(1000);
+
+        for( int i=0; i<20; i++ ){
+            INDArray labels = Nd4j.getExecutioner().exec(new BernoulliDistribution(Nd4j.createUninitialized(50, 1), 0.5));
+            //Predictions correlated with labels, so AUC is well above 0.5
+            INDArray out = Nd4j.rand(50, 1).muli(0.7).addi(labels.mul(0.3));
+
+            exact.eval(labels, out);
+            streaming.eval(labels, out);
+            if(i % 2 == 0){
+                s1.eval(labels, out);
+            } else {
+                s2.eval(labels, out);
+            }
+        }
+
+        assertEquals(exact.getCountActualPositive(), streaming.getCountActualPositive());
+        assertEquals(exact.getCountActualNegative(), streaming.getCountActualNegative());
+
+        double bound = streaming.calculateAUCErrorBound();
+        assertTrue(bound > 0.0 && bound < 0.01);
+        assertEquals(exact.calculateAUC(), streaming.calculateAUC(), bound + 1e-9);
+        assertEquals(exact.calculateAUCPR(), streaming.calculateAUCPR(), 0.01);
+
+        //Merging is exact in streaming mode
+        s1.merge(s2);
+        assertEquals(streaming, s1);
+        assertEquals(streaming.calculateAUC(), s1.calculateAUC(), 1e-12);
+
+        //Bucket counts are retained in JSON, so deserialized instances can still be merged
+        ROC fromJson = BaseEvaluation.fromJson(streaming.toJson(), ROC.class);
+        assertEquals(streaming, fromJson);
+        fromJson.merge(ROC.streaming(1000));
+        assertEquals(streaming.calculateAUC(), fromJson.calculateAUC(), 1e-12);
+
+        try {
+            streaming.merge(ROC.streaming(10));
+            fail("Expected exception");
+        } catch (UnsupportedOperationException e){
+            //Expected
+        }
+
+        ROCMultiClass rmc = ROCMultiClass.streaming(100);
+        ROCMultiClass rmcExact = new ROCMultiClass();
+        ROCBinary rb = ROCBinary.streaming(100);
+        ROCBinary rbExact = new ROCBinary();
+        for( int i=0; i<5; i++ ){
+            INDArray labels = Nd4j.getExecutioner().exec(new BernoulliDistribution(Nd4j.createUninitialized(20, 3), 0.5));
+            INDArray out = Nd4j.rand(20, 3);
+            rmc.eval(labels, out);
+            rmcExact.eval(labels, out);
+            rb.eval(labels, out);
+            rbExact.eval(labels, out);
+        }
+        for( int i=0; i<3; i++ ){
+            assertEquals(rmcExact.calculateAUC(i), rmc.calculateAUC(i), rmc.getUnderlying()[i].calculateAUCErrorBound() + 1e-9);
+            assertEquals(rbExact.calculateAUC(i), rb.calculateAUC(i), rb.getUnderlying()[i].calculateAUCErrorBound() + 1e-9);
+        }
+    }
+
 }
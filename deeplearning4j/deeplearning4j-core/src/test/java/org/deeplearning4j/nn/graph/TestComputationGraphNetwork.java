@@ -1719,4 +1719,50 @@ public class TestComputationGraphNetwork extends BaseDL4JTest {
             assertEquals(s, exp.get(s), allowed);
         }
     }
+
+    @Test
+    public void testParallelInference(){
+        for(WorkspaceMode wsm : new WorkspaceMode[]{WorkspaceMode.NONE, WorkspaceMode.ENABLED}) {
+            ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder()
+                    .seed(12345)
+                    .inferenceWorkspaceMode(wsm)
+                    .activation(Activation.TANH)
+                    .graphBuilder()
+                    .addInputs("in1", "in2")
+                    .layer("0", new DenseLayer.Builder().nOut(10).build(), "in1")
+                    .layer("1", new DenseLayer.Builder().nOut(10).build(), "in2")
+                    .layer("2", new DenseLayer.Builder().nOut(10).build(), "0")
+                    .layer("3", new DenseLayer.Builder().nOut(10).build(), "1")
+                    .layer("4", new DenseLayer.Builder().nOut(10).build(), "1")
+                    .layer("5", new ActivationLayer.Builder().activation(Activation.RELU).build(), "1")  //May modify input in-place
+                    .addVertex("add", new ElementWiseVertex(ElementWiseVertex.Op.Add), "3", "4")
+                    .layer("6", new DenseLayer.Builder().nOut(10).build(), "2", "add", "5")
+                    .layer("out1", new OutputLayer.Builder().nOut(3).activation(Activation.SOFTMAX).build(), "6")
+                    .layer("out2", new OutputLayer.Builder().nOut(4).activation(Activation.IDENTITY)
+                            .lossFunction(LossFunctions.LossFunction.MSE).build(), "2")
+                    .setOutputs("out1", "out2")
+                    .setInputTypes(InputType.feedForward(5), InputType.feedForward(6))
+                    .build();
+
+            ComputationGraph cg = new ComputationGraph(conf);
+            cg.init();
+
+            INDArray in1 = Nd4j.rand(3, 5);
+            INDArray in2 = Nd4j.rand(3, 6);
+            INDArray[] expected = cg.output(in1, in2);
+
+            cg.setInferenceParallelism(4);
+            assertEquals(4, cg.getInferenceParallelism());
+            for (int i = 0; i < 10; i++) {
+                INDArray[] actual = cg.output(in1, in2);
+                assertArrayEquals(expected, actual);
+                for (INDArray arr : actual) {
+                    assertFalse(arr.isAttached());
+                }
+            }
+
+            cg.setInferenceParallelism(0);
+            assertArrayEquals(expected, cg.output(in1, in2));
+        }
+    }
 }
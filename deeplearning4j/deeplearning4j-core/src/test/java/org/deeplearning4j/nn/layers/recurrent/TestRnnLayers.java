@@ -14,6 +14,7 @@ import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.primitives.Pair;
 import org.nd4j.linalg.primitives.Triple;
 
@@ -22,6 +23,7 @@ import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 public class TestRnnLayers extends BaseDL4JTest {
 
@@ -124,4 +126,57 @@ public class TestRnnLayers extends BaseDL4JTest {
         }
     }
 
+    @Test
+    public void testFusedLstmInference(){
+        for(String s : new String[]{"graves", "lstm"}) {
+            for (Activation gateAct : new Activation[]{Activation.SIGMOID, Activation.HARDSIGMOID}) {
+                MultiLayerNetwork[] nets = new MultiLayerNetwork[2];
+                for (int i = 0; i < 2; i++) {
+                    boolean fused = (i == 1);
+                    Layer layer;
+                    if (s.equals("graves")) {
+                        layer = new GravesLSTM.Builder().activation(Activation.TANH).gateActivationFunction(gateAct)
+                                .fusedInference(fused).nIn(5).nOut(8).build();
+                    } else {
+                        layer = new org.deeplearning4j.nn.conf.layers.LSTM.Builder().activation(Activation.TANH)
+                                .gateActivationFunction(gateAct).fusedInference(fused).nIn(5).nOut(8).build();
+                    }
+                    MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                            .seed(12345)
+                            .list()
+                            .layer(layer)
+                            .layer(new RnnOutputLayer.Builder().activation(Activation.TANH).nIn(8).nOut(3).build())
+                            .build();
+                    nets[i] = new MultiLayerNetwork(conf);
+                    nets[i].init();
+                }
+                MultiLayerNetwork net = nets[0];
+                MultiLayerNetwork fused = nets[1];
+                assertEquals(net.params(), fused.params());
+
+                String msg = s + " - " + gateAct;
+                for (int tsLength : new int[]{1, 7, 50}) {
+                    INDArray f = Nd4j.rand(new int[]{4, 5, tsLength});
+                    INDArray exp = net.output(f);
+                    INDArray act = fused.output(f);
+                    assertTrue(msg, exp.equalsWithEps(act, 1e-5));
+                }
+
+                //rnnTimeStep: state is carried between calls
+                INDArray f = Nd4j.rand(new int[]{4, 5, 12});
+                INDArray exp = net.output(f);
+                INDArray first = fused.rnnTimeStep(f.get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.interval(0, 5)));
+                INDArray second = fused.rnnTimeStep(f.get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.interval(5, 12)));
+                assertTrue(msg, exp.get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.interval(0, 5)).equalsWithEps(first, 1e-5));
+                assertTrue(msg, exp.get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.interval(5, 12)).equalsWithEps(second, 1e-5));
+                fused.rnnClearPreviousState();
+
+                //Training is unaffected
+                INDArray l = TestUtils.randomOneHotTimeSeries(4, 3, 12, 12345);
+                net.fit(f, l);
+                fused.fit(f, l);
+                assertEquals(msg, net.params(), fused.params());
+            }
+        }
+    }
 }
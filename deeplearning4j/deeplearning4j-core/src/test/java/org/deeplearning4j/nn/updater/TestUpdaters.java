@@ -4,6 +4,7 @@ package org.deeplearning4j.nn.updater;
 import org.apache.commons.math3.util.FastMath;
 import org.deeplearning4j.BaseDL4JTest;
 import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.api.Updater;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
@@ -705,6 +706,74 @@ public class TestUpdaters extends BaseDL4JTest {
         assertTrue(newUpdater == net.getUpdater()); //Should be identical object
     }
 
+    @Test
+    public void testParallelUpdaterBlocks() {
+        for (boolean graph : new boolean[] {false, true}) {
+            Nd4j.getRandom().setSeed(12345);
+            INDArray f = Nd4j.rand(5, 10);
+            INDArray l = Nd4j.rand(5, 10);
+
+            Model[] models = new Model[2];
+            for (int i = 0; i < 2; i++) {
+                NeuralNetConfiguration.Builder b = new NeuralNetConfiguration.Builder().seed(12345).l2(1e-3);
+                if (graph) {
+                    ComputationGraphConfiguration conf = b.graphBuilder().addInputs("in")
+                                    .addLayer("l0", new DenseLayer.Builder().nIn(10).nOut(10)
+                                                    .updater(new Adam(0.5)).biasUpdater(new Sgd(0.1)).build(), "in")
+                                    .addLayer("l1", new DenseLayer.Builder().nIn(10).nOut(200)
+                                                    .updater(new AdaDelta()).build(), "l0")
+                                    .addLayer("l2", new DenseLayer.Builder().nIn(200).nOut(10)
+                                                    .updater(new RmsProp(0.1)).build(), "l1")
+                                    .addLayer("l3", new OutputLayer.Builder().nIn(10).nOut(10)
+                                                    .updater(new Nesterovs(0.1, 0.9)).build(), "l2")
+                                    .setOutputs("l3").build();
+                    ComputationGraph net = new ComputationGraph(conf);
+                    net.init();
+                    models[i] = net;
+                } else {
+                    MultiLayerConfiguration conf = b.list()
+                                    .layer(0, new DenseLayer.Builder().nIn(10).nOut(10)
+                                                    .updater(new Adam(0.5)).biasUpdater(new Sgd(0.1)).build())
+                                    .layer(1, new DenseLayer.Builder().nIn(10).nOut(200)
+                                                    .updater(new AdaDelta()).build())
+                                    .layer(2, new DenseLayer.Builder().nIn(200).nOut(10)
+                                                    .updater(new RmsProp(0.1)).build())
+                                    .layer(3, new OutputLayer.Builder().nIn(10).nOut(10)
+                                                    .updater(new Nesterovs(0.1, 0.9)).build())
+                                    .build();
+                    MultiLayerNetwork net = new MultiLayerNetwork(conf);
+                    net.init();
+                    models[i] = net;
+                }
+            }
+
+            //Second model: apply updater blocks concurrently. Layers 1 and 2 are large enough to stay on calling
+            //thread, the other blocks are packed into at least 2 chunks - all but the last go to the updater pool
+            BaseMultiLayerUpdater<?> u = graph ? ((ComputationGraph) models[1]).getUpdater()
+                            : (MultiLayerUpdater) ((MultiLayerNetwork) models[1]).getUpdater();
+            assertTrue(u.getUpdaterBlocks().size() > 2);
+            u.setParallelism(4);
+            u.setLargeBlockThreshold(1000);
+
+            assertEquals(models[0].params(), models[1].params());
+            for (int iter = 0; iter < 5; iter++) {
+                for (Model m : models) {
+                    if (graph)
+                        ((ComputationGraph) m).fit(new INDArray[] {f}, new INDArray[] {l});
+                    else
+                        ((MultiLayerNetwork) m).fit(f, l);
+                }
+                assertEquals(models[0].params(), models[1].params());
+            }
+            assertTrue(u.getPooledChunks() >= 5);
+
+            //Updater state must also match the sequentially applied updater
+            INDArray seqState = graph ? ((ComputationGraph) models[0]).getUpdater().getStateViewArray()
+                            : ((MultiLayerNetwork) models[0]).getUpdater().getStateViewArray();
+            assertEquals(seqState, u.getStateViewArray());
+        }
+    }
+
     @Test
     public void testPretrain() {
 
@@ -22,8 +22,7 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 public class TestCheckpointListener extends BaseDL4JTest {
 
@@ -226,4 +225,79 @@ public class TestCheckpointListener extends BaseDL4JTest {
 
         assertEquals(5, l.availableCheckpoints().size());
     }
+
+    @Test
+    public void testCheckpointListenerAsync() throws Exception {
+        for(boolean compress : new boolean[]{true, false}) {
+            File f = tempDir.newFolder();
+            Pair<MultiLayerNetwork, DataSetIterator> p = getNetAndData();
+            MultiLayerNetwork net = p.getFirst();
+            DataSetIterator iter = p.getSecond();
+
+            CheckpointListener l = new CheckpointListener.Builder(f)
+                    .keepLast(3)
+                    .saveEveryNIterations(5)
+                    .saveAsync(true)
+                    .compress(compress)
+                    .build();
+            net.setListeners(l);
+
+            for (int i = 0; i < 20; i++) {   //40 iterations total
+                net.fit(iter);
+            }
+            l.waitForPendingCheckpoint();
+
+            //Same as synchronous case: saved at iterations 5, 10, ..., 35 - keep only 25, 30, 35
+            Set<Integer> ns = new HashSet<>();
+            for (File f2 : f.listFiles()) {
+                assertFalse(f2.getName(), f2.getName().endsWith(".tmp"));
+                if (!f2.getPath().endsWith(".zip")) {
+                    continue;
+                }
+                MultiLayerNetwork n = ModelSerializer.restoreMultiLayerNetwork(f2, true);
+                ns.add(n.getIterationCount());
+            }
+
+            assertEquals(ns.toString(), 3, ns.size());
+            assertTrue(ns.containsAll(Arrays.asList(25, 30, 35)));
+            assertEquals(3, l.availableCheckpoints().size());
+
+            //Snapshot is taken at the time of the checkpoint: params should differ from the current (later) params
+            MultiLayerNetwork last = l.loadCheckpointMLN(l.lastCheckpoint());
+            assertEquals(35, last.getIterationCount());
+            assertEquals(net.params().length(), last.params().length());
+            assertNotEquals(net.params(), last.params());
+        }
+    }
+
+    @Test
+    public void testCheckpointListenerAsyncClose() throws Exception {
+        File f = tempDir.newFolder();
+        Pair<MultiLayerNetwork, DataSetIterator> p = getNetAndData();
+        MultiLayerNetwork net = p.getFirst();
+        DataSetIterator iter = p.getSecond();
+
+        CheckpointListener l = new CheckpointListener.Builder(f)
+                .keepAll()
+                .saveEveryNIterations(5)
+                .saveAsync(true)
+                .build();
+        net.setListeners(l);
+
+        for (int i = 0; i < 5; i++) {   //10 iterations total: saved at 5
+            net.fit(iter);
+        }
+        //Pending checkpoint is written before close returns
+        l.close();
+        assertEquals(1, l.availableCheckpoints().size());
+        assertEquals(0, l.lastCheckpoint().getCheckpointNum());
+
+        //Still usable after close: writer thread is started again
+        for (int i = 0; i < 5; i++) {   //Saved at 10, 15
+            net.fit(iter);
+        }
+        l.close();
+        assertEquals(3, l.availableCheckpoints().size());
+        assertEquals(2, l.lastCheckpoint().getCheckpointNum());
+    }
 }
@@ -15,6 +15,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
@@ -22,6 +23,7 @@ import org.nd4j.linalg.dataset.api.preprocessor.Normalizer;
 import org.nd4j.linalg.dataset.api.preprocessor.NormalizerMinMaxScaler;
 import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.learning.config.Adam;
 import org.nd4j.linalg.learning.config.Sgd;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 import org.nd4j.linalg.primitives.Pair;
@@ -113,6 +115,93 @@ public class ModelSerializerTest extends BaseDL4JTest {
     }
 
 
+    @Test
+    public void testWriteMappableModel() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                        .updater(new Adam(0.01)).activation(Activation.TANH).weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new DenseLayer.Builder().nIn(5).nOut(20).build())
+                        .layer(1, new OutputLayer.Builder().lossFunction(LossFunctions.LossFunction.MSE).nIn(20)
+                                        .nOut(6).build())
+                        .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+        net.fit(Nd4j.rand(3, 5), Nd4j.rand(3, 6));
+
+        File tempFile = tempDir.newFile();
+        ModelSerializer.writeModelMappable(net, tempFile, true);
+
+        MultiLayerNetwork network = ModelSerializer.restoreMultiLayerNetwork(tempFile, true);
+        assertEquals(net.getLayerWiseConfigurations().toJson(), network.getLayerWiseConfigurations().toJson());
+        assertEquals(net.params(), network.params());
+        assertEquals(net.getUpdater().getStateViewArray(), network.getUpdater().getStateViewArray());
+
+        network = ModelSerializer.restoreMultiLayerNetwork(tempFile, false);
+        assertEquals(net.params(), network.params());
+        INDArray in = Nd4j.rand(3, 5);
+        assertEquals(net.output(in), network.output(in));
+
+        try (InputStream is = new FileInputStream(tempFile)) {
+            network = ModelSerializer.restoreMultiLayerNetwork(is, true);
+        }
+        assertEquals(net.params(), network.params());
+
+        ComputationGraphConfiguration config = new NeuralNetConfiguration.Builder().updater(new Adam(0.01))
+                        .graphBuilder().addInputs("in")
+                        .addLayer("dense", new DenseLayer.Builder().nIn(4).nOut(2).build(), "in")
+                        .addLayer("out", new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).nIn(2).nOut(3)
+                                        .build(), "dense")
+                        .setOutputs("out").build();
+        ComputationGraph cg = new ComputationGraph(config);
+        cg.init();
+        cg.fit(new IrisDataSetIterator(150, 150));
+
+        File cgFile = tempDir.newFile();
+        ModelSerializer.writeModelMappable(cg, cgFile, true);
+        ComputationGraph restored = ModelSerializer.restoreComputationGraph(cgFile);
+        assertEquals(cg.getConfiguration().toJson(), restored.getConfiguration().toJson());
+        assertEquals(cg.params(), restored.params());
+        assertEquals(cg.getUpdater().getStateViewArray(), restored.getUpdater().getStateViewArray());
+    }
+
+    @Test
+    public void testWriteMappableModelChunks() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                        .updater(new Adam(0.01)).activation(Activation.TANH).weightInit(WeightInit.XAVIER).list()
+                        .layer(0, new DenseLayer.Builder().nIn(5).nOut(20).build())
+                        .layer(1, new OutputLayer.Builder().lossFunction(LossFunctions.LossFunction.MSE).nIn(20)
+                                        .nOut(6).build())
+                        .build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        //Tiny chunks, so that writing and mapping are done in several chunks, as for models above 2GB
+        long chunkBytes = ModelSerializer.rawChunkBytes;
+        ModelSerializer.rawChunkBytes = 100;
+        try {
+            File tempFile = tempDir.newFile();
+            ModelSerializer.writeModelMappable(net, tempFile, true);
+
+            MultiLayerNetwork network = ModelSerializer.restoreMultiLayerNetwork(tempFile, true);
+            assertEquals(net.params(), network.params());
+            assertEquals(net.getUpdater().getStateViewArray(), network.getUpdater().getStateViewArray());
+
+            try (InputStream is = new FileInputStream(tempFile)) {
+                network = ModelSerializer.restoreMultiLayerNetwork(is, false);
+            }
+            assertEquals(net.params(), network.params());
+
+            //Double values restored as float
+            Nd4j.setDataType(DataBuffer.Type.FLOAT);
+            network = ModelSerializer.restoreMultiLayerNetwork(tempFile, false);
+            assertEquals(DataBuffer.Type.FLOAT, network.params().data().dataType());
+            assertArrayEquals(net.params().data().asFloat(), network.params().data().asFloat(), 0.0f);
+        } finally {
+            ModelSerializer.rawChunkBytes = chunkBytes;
+        }
+    }
+
     @Test
     public void testWriteCGModel() throws Exception {
         ComputationGraphConfiguration config = new NeuralNetConfiguration.Builder()
@@ -5,8 +5,10 @@ import lombok.Setter;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.serde.binary.MappedDataSetSerde;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.Random;
 
@@ -20,6 +22,8 @@ import java.util.Random;
  * - Combining and splitting of DataSets (disabled by default, or if batchSize == -1. If enabled, DataSet objects will
  * be split or combined as required to ensure the specified minibatch size is returned. In other words, the saved
  * DataSet objects can have a different number of examples vs. those returned by the iterator.<br>
+ * Files written with {@link MappedDataSetSerde#write(DataSet, File)} are detected automatically, and are memory-mapped
+ * instead of being deserialized, i.e. no data is copied when DataSets are returned unmodified.<br>
  *
  * @author Alex BLack
  */
@@ -129,6 +133,14 @@ public class FileDataSetIterator extends BaseFileIterator<DataSet, DataSetPrePro
 
     @Override
     protected DataSet load(File f) {
+        if (MappedDataSetSerde.isMappedFormat(f)) {
+            try {
+                return MappedDataSetSerde.readDataSet(f);
+            } catch (IOException e) {
+                throw new RuntimeException("Error mapping DataSet from file: " + f, e);
+            }
+        }
+
         DataSet ds = new DataSet();
         ds.load(f);
         return ds;
@@ -3,6 +3,7 @@ package org.deeplearning4j.datasets.iterator.file;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
 import org.nd4j.linalg.dataset.api.MultiDataSetPreProcessor;
 import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
+import org.nd4j.serde.binary.MappedDataSetSerde;
 
 import java.io.File;
 import java.io.IOException;
@@ -19,6 +20,8 @@ import java.util.Random;
  * - Combining and splitting of MultiDataSets (disabled by default, or if batchSize == -1. If enabled, MultiDataSet
  * objects will be split or combined as required to ensure the specified minibatch size is returned. In other words, the
  * saved MultiDataSet objects can have a different number of examples vs. those returned by the iterator.<br>
+ * Files written with {@link MappedDataSetSerde#write(MultiDataSet, File)} are detected automatically, and are
+ * memory-mapped instead of being deserialized, i.e. no data is copied when MultiDataSets are returned unmodified.<br>
  *
  * @author Alex BLack
  */
@@ -125,6 +128,14 @@ public class FileMultiDataSetIterator extends BaseFileIterator<MultiDataSet, Mul
 
     @Override
     protected MultiDataSet load(File f) {
+        if (MappedDataSetSerde.isMappedFormat(f)) {
+            try {
+                return MappedDataSetSerde.readMultiDataSet(f);
+            } catch (IOException e) {
+                throw new RuntimeException("Error mapping MultiDataSet from file: " + f, e);
+            }
+        }
+
         MultiDataSet mds = new org.nd4j.linalg.dataset.MultiDataSet();
         try {
             mds.load(f);
@@ -4,6 +4,7 @@ import org.deeplearning4j.graph.api.Edge;
 import org.deeplearning4j.graph.api.Vertex;
 import org.deeplearning4j.graph.data.impl.DelimitedEdgeLineProcessor;
 import org.deeplearning4j.graph.data.impl.WeightedEdgeLineProcessor;
+import org.deeplearning4j.graph.graph.CSRGraph;
 import org.deeplearning4j.graph.graph.Graph;
 import org.deeplearning4j.graph.vertexfactory.StringVertexFactory;
 import org.deeplearning4j.graph.vertexfactory.VertexFactory;
@@ -172,4 +173,73 @@ public class GraphLoader {
 
         return graph;
     }
+
+    /**Load a graph from an edge list file into {@link CSRGraph}, stored on heap.
+     * @see #loadCSRGraph(String, int, String, boolean, boolean, File, String...)
+     */
+    public static CSRGraph<String> loadCSRGraph(String path, int numVertices, String delim, boolean directed,
+                    boolean weighted, String... ignoreLinesStartingWith) throws IOException {
+        return loadCSRGraph(path, numVertices, delim, directed, weighted, null, ignoreLinesStartingWith);
+    }
+
+    /**Load a graph from an edge list file into {@link CSRGraph}. Unlike other methods of this class, no Edge objects
+     * are created: the file is read twice, first to count the degree of each vertex, then to fill CSR arrays.
+     * This keeps memory usage close to the size of CSR arrays, which makes it suitable for very large graphs.<br>
+     * Lines are of the format {@code fromIndex<delim>toIndex} for unweighted graphs, or
+     * {@code fromIndex<delim>toIndex<delim>edgeWeight} for weighted graphs. Multiple edges are allowed.
+     * @param path Path to the edge list file
+     * @param numVertices The number of vertices in the graph
+     * @param delim The delimiter used in the file (typically: "," or " " etc)
+     * @param directed whether the edges should be treated as directed (true) or undirected (false)
+     * @param weighted whether lines contain edge weights
+     * @param mappedFile If not null, graph will be written to this file and memory-mapped instead of stored on heap.
+     *                   It can later be reopened via {@link CSRGraph#open(File, VertexFactory)}
+     * @param ignoreLinesStartingWith Starting characters for comment lines. May be null. For example: "//" or "#"
+     * @return The graph
+     * @throws IOException
+     */
+    public static CSRGraph<String> loadCSRGraph(String path, int numVertices, String delim, boolean directed,
+                    boolean weighted, File mappedFile, String... ignoreLinesStartingWith) throws IOException {
+        CSRGraph.Builder builder = new CSRGraph.Builder(numVertices, directed, weighted);
+        if (mappedFile != null)
+            builder.mappedFile(mappedFile);
+
+        int expectedLength = weighted ? 3 : 2;
+        for (int pass = 0; pass < 2; pass++) {
+            if (pass == 1)
+                builder.allocate();
+
+            try (BufferedReader br = new BufferedReader(new FileReader(new File(path)))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (skipLine(line, ignoreLinesStartingWith))
+                        continue;
+
+                    String[] split = line.split(delim);
+                    if (split.length != expectedLength)
+                        throw new IllegalArgumentException("Invalid line: expected " + expectedLength
+                                        + " values separated by \"" + delim + "\"; received \"" + line + "\"");
+
+                    int from = Integer.parseInt(split[0]);
+                    int to = Integer.parseInt(split[1]);
+                    if (pass == 0)
+                        builder.countEdge(from, to);
+                    else
+                        builder.addEdge(from, to, weighted ? Float.parseFloat(split[2]) : 1.0f);
+                }
+            }
+        }
+
+        return builder.build(new StringVertexFactory());
+    }
+
+    private static boolean skipLine(String line, String[] ignoreLinesStartingWith) {
+        if (ignoreLinesStartingWith != null) {
+            for (String s : ignoreLinesStartingWith) {
+                if (line.startsWith(s))
+                    return true;
+            }
+        }
+        return false;
+    }
 }
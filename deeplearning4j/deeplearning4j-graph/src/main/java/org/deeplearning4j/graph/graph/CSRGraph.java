@@ -0,0 +1,429 @@
+package org.deeplearning4j.graph.graph;
+
+import org.deeplearning4j.graph.api.BaseGraph;
+import org.deeplearning4j.graph.api.Edge;
+import org.deeplearning4j.graph.api.Vertex;
+import org.deeplearning4j.graph.exception.NoEdgesException;
+import org.deeplearning4j.graph.vertexfactory.VertexFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/** Immutable graph, where adjacency is stored in compressed sparse row (CSR) format: one offsets array of
+ * numVertices + 1 longs, one targets array of ints and (optionally) one weights array of floats.
+ * Outgoing edges of vertex i are stored at positions offsets[i] (inclusive) to offsets[i+1] (exclusive).
+ * Undirected edges are stored once for each direction.<br>
+ * No objects are kept per vertex or per edge: {@link Vertex} and {@link Edge} instances are created on request, and
+ * random walks over this graph use primitive accessors such as {@link #getTarget(long)} instead.<br>
+ * Storage is either on-heap, or memory-mapped from a file (see {@link #save(File)} and {@link #open(File, VertexFactory)}),
+ * which allows graphs larger than available heap. Edge values are weights, or 1.0 for unweighted graphs.<br>
+ * Use {@link Builder} to create new graphs.
+ *
+ * @param <V> Type parameter for vertices (type of objects attached to each vertex)
+ * @author raver119@gmail.com
+ */
+public class CSRGraph<V> extends BaseGraph<V, Float> {
+    private static final int MAGIC = 0x43535247;
+    private static final int VERSION = 1;
+    private static final int FLAG_DIRECTED = 1;
+    private static final int FLAG_WEIGHTED = 2;
+    private static final int HEADER_SIZE = 32;
+
+    private final int numVertices;
+    private final long numEdges;
+    private final boolean directed;
+    private final ChunkedBuffer offsets;
+    private final ChunkedBuffer targets;
+    private final ChunkedBuffer weights;
+    private final VertexFactory<V> vertexFactory;
+
+    protected CSRGraph(int numVertices, long numEdges, boolean directed, ChunkedBuffer offsets,
+                    ChunkedBuffer targets, ChunkedBuffer weights, VertexFactory<V> vertexFactory) {
+        this.numVertices = numVertices;
+        this.numEdges = numEdges;
+        this.directed = directed;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.vertexFactory = vertexFactory;
+    }
+
+    @Override
+    public int numVertices() {
+        return numVertices;
+    }
+
+    /** Number of stored edges. Undirected edges are counted twice, once for each direction */
+    public long numEdges() {
+        return numEdges;
+    }
+
+    public boolean isDirected() {
+        return directed;
+    }
+
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    /** Position of the first outgoing edge of the vertex. Outgoing edges of the vertex are stored at positions
+     * getOffset(vertex) (inclusive) to getOffset(vertex + 1) (exclusive)
+     */
+    public long getOffset(int vertex) {
+        return offsets.getLong(vertex);
+    }
+
+    /** Index of the vertex, edge at the given position leads to */
+    public int getTarget(long edge) {
+        return targets.getInt(edge);
+    }
+
+    /** Weight of the edge at the given position, or 1.0 for unweighted graphs */
+    public float getWeight(long edge) {
+        return weights == null ? 1.0f : weights.getFloat(edge);
+    }
+
+    @Override
+    public Vertex<V> getVertex(int idx) {
+        if (idx < 0 || idx >= numVertices)
+            throw new IllegalArgumentException("Invalid index: " + idx);
+        return vertexFactory.create(idx);
+    }
+
+    @Override
+    public List<Vertex<V>> getVertices(int[] indexes) {
+        List<Vertex<V>> out = new ArrayList<>(indexes.length);
+        for (int i : indexes)
+            out.add(getVertex(i));
+        return out;
+    }
+
+    @Override
+    public List<Vertex<V>> getVertices(int from, int to) {
+        if (to < from || from < 0 || to >= numVertices)
+            throw new IllegalArgumentException("Invalid range: from=" + from + ", to=" + to);
+        List<Vertex<V>> out = new ArrayList<>(to - from + 1);
+        for (int i = from; i <= to; i++)
+            out.add(getVertex(i));
+        return out;
+    }
+
+    @Override
+    public void addEdge(Edge<Float> edge) {
+        throw new UnsupportedOperationException("CSRGraph is immutable: use CSRGraph.Builder to add edges");
+    }
+
+    @Override
+    public List<Edge<Float>> getEdgesOut(int vertex) {
+        checkVertex(vertex);
+        long start = offsets.getLong(vertex);
+        long end = offsets.getLong(vertex + 1);
+        if (start == end)
+            return Collections.emptyList();
+
+        List<Edge<Float>> out = new ArrayList<>((int) (end - start));
+        for (long e = start; e < end; e++)
+            out.add(new Edge<>(vertex, targets.getInt(e), getWeight(e), directed));
+        return out;
+    }
+
+    @Override
+    public int getVertexDegree(int vertex) {
+        checkVertex(vertex);
+        return (int) (offsets.getLong(vertex + 1) - offsets.getLong(vertex));
+    }
+
+    /** Same as {@link #getRandomConnectedVertex(int, Random)}, but returns index of the vertex instead of Vertex object.
+     * Random number generator is used the same way, so both methods return the same vertex for the same rng state
+     */
+    public int getRandomConnectedVertexIndex(int vertex, Random rng) throws NoEdgesException {
+        checkVertex(vertex);
+        long start = offsets.getLong(vertex);
+        int degree = (int) (offsets.getLong(vertex + 1) - start);
+        if (degree == 0)
+            throw new NoEdgesException("Cannot generate random connected vertex: vertex " + vertex
+                            + " has no outgoing/undirected edges");
+        return targets.getInt(start + rng.nextInt(degree));
+    }
+
+    @Override
+    public Vertex<V> getRandomConnectedVertex(int vertex, Random rng) throws NoEdgesException {
+        return vertexFactory.create(getRandomConnectedVertexIndex(vertex, rng));
+    }
+
+    @Override
+    public List<Vertex<V>> getConnectedVertices(int vertex) {
+        int[] indices = getConnectedVertexIndices(vertex);
+        List<Vertex<V>> list = new ArrayList<>(indices.length);
+        for (int i : indices)
+            list.add(vertexFactory.create(i));
+        return list;
+    }
+
+    @Override
+    public int[] getConnectedVertexIndices(int vertex) {
+        checkVertex(vertex);
+        long start = offsets.getLong(vertex);
+        int[] out = new int[(int) (offsets.getLong(vertex + 1) - start)];
+        for (int i = 0; i < out.length; i++)
+            out[i] = targets.getInt(start + i);
+        return out;
+    }
+
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= numVertices)
+            throw new IllegalArgumentException("Invalid vertex index: " + vertex);
+    }
+
+    /** Save this graph to the file, in the format that can be memory-mapped via {@link #open(File, VertexFactory)}
+     * @param file file to write graph to
+     * @throws IOException
+     */
+    public void save(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(0);
+            FileChannel channel = raf.getChannel();
+            ByteBuffer header = header(numVertices, numEdges, directed, weights != null);
+            while (header.hasRemaining())
+                channel.write(header);
+
+            offsets.writeTo(channel);
+            targets.writeTo(channel);
+            if (weights != null)
+                weights.writeTo(channel);
+        }
+    }
+
+    /** Open graph previously written by {@link #save(File)} or built with {@link Builder#mappedFile(File)}.
+     * The file is memory-mapped (read-only), so graph data is not loaded onto heap.
+     * @param file graph file
+     * @param vertexFactory Used to create vertices
+     * @return graph backed by the file
+     * @throws IOException
+     */
+    public static <V> CSRGraph<V> open(File file, VertexFactory<V> vertexFactory) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining())
+                if (channel.read(header, header.position()) < 0)
+                    throw new IOException("Unexpected end of file: " + file);
+            header.flip();
+
+            if (header.getInt() != MAGIC)
+                throw new IOException("File " + file + " is not a CSRGraph file");
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported CSRGraph file version: " + version);
+
+            int flags = header.getInt();
+            int numVertices = header.getInt();
+            long numEdges = header.getLong();
+            boolean weighted = (flags & FLAG_WEIGHTED) != 0;
+
+            long offsetsBytes = (numVertices + 1L) * 8;
+            long targetsBytes = numEdges * 4;
+            long expected = HEADER_SIZE + offsetsBytes + targetsBytes + (weighted ? targetsBytes : 0);
+            if (channel.size() < expected)
+                throw new IOException("CSRGraph file is truncated: expected " + expected + " bytes, got "
+                                + channel.size());
+
+            FileChannel.MapMode mode = FileChannel.MapMode.READ_ONLY;
+            ChunkedBuffer offsets = ChunkedBuffer.map(channel, HEADER_SIZE, offsetsBytes, mode);
+            ChunkedBuffer targets = ChunkedBuffer.map(channel, HEADER_SIZE + offsetsBytes, targetsBytes, mode);
+            ChunkedBuffer weights = weighted
+                            ? ChunkedBuffer.map(channel, HEADER_SIZE + offsetsBytes + targetsBytes, targetsBytes, mode)
+                            : null;
+
+            return new CSRGraph<>(numVertices, numEdges, (flags & FLAG_DIRECTED) != 0, offsets, targets, weights,
+                            vertexFactory);
+        }
+    }
+
+    private static ByteBuffer header(int numVertices, long numEdges, boolean directed, boolean weighted) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt((directed ? FLAG_DIRECTED : 0) | (weighted ? FLAG_WEIGHTED : 0));
+        header.putInt(numVertices);
+        header.putLong(numEdges);
+        header.putLong(0L);
+        header.flip();
+        return header;
+    }
+
+    @Override
+    public String toString() {
+        return "CSRGraph(numVertices=" + numVertices + ", numEdges=" + numEdges + ", directed=" + directed
+                        + ", weighted=" + (weights != null) + ")";
+    }
+
+    /** Builder for {@link CSRGraph}. Since CSR storage is allocated once, edges are provided in two passes:<br>
+     * 1. every edge is passed to {@link #countEdge(int, int)}<br>
+     * 2. {@link #allocate()} is called, and then every edge is passed to {@link #addEdge(int, int, float)}, in any order<br>
+     * Both passes must see the same edges. Outgoing edges of each vertex keep the order they were added in.
+     * Multiple edges between the same pair of vertices are allowed.
+     */
+    public static class Builder {
+        private final int numVertices;
+        private final boolean directed;
+        private final boolean weighted;
+        private File mappedFile;
+
+        private int[] degrees;
+        private long numEdges;
+        private ChunkedBuffer offsets;
+        private ChunkedBuffer targets;
+        private ChunkedBuffer weights;
+        private RandomAccessFile file;
+
+        /**
+         * @param numVertices number of vertices in the graph
+         * @param directed whether edges are directed (true) or undirected (false)
+         * @param weighted whether weights should be stored for edges
+         */
+        public Builder(int numVertices, boolean directed, boolean weighted) {
+            if (numVertices <= 0)
+                throw new IllegalArgumentException("Number of vertices should be positive: " + numVertices);
+            this.numVertices = numVertices;
+            this.directed = directed;
+            this.weighted = weighted;
+            this.degrees = new int[numVertices];
+        }
+
+        /** If set, graph will be written to this file and memory-mapped, instead of being stored on heap.
+         * Resulting file can later be opened via {@link CSRGraph#open(File, VertexFactory)}
+         */
+        public Builder mappedFile(File file) {
+            if (offsets != null)
+                throw new IllegalStateException("mappedFile() should be called before allocate()");
+            this.mappedFile = file;
+            return this;
+        }
+
+        /** First pass: account for an edge */
+        public Builder countEdge(int from, int to) {
+            if (offsets != null)
+                throw new IllegalStateException("countEdge() can't be called after allocate()");
+            checkEdge(from, to);
+
+            degrees[from]++;
+            numEdges++;
+            if (!directed) {
+                degrees[to]++;
+                numEdges++;
+            }
+            return this;
+        }
+
+        /** Allocate storage for all edges counted so far */
+        public Builder allocate() throws IOException {
+            if (offsets != null)
+                throw new IllegalStateException("allocate() was already called");
+
+            long offsetsBytes = (numVertices + 1L) * 8;
+            long targetsBytes = numEdges * 4;
+            if (mappedFile != null) {
+                file = new RandomAccessFile(mappedFile, "rw");
+                file.setLength(0);
+                file.setLength(HEADER_SIZE + offsetsBytes + targetsBytes + (weighted ? targetsBytes : 0));
+
+                FileChannel channel = file.getChannel();
+                channel.write(header(numVertices, numEdges, directed, weighted), 0);
+
+                FileChannel.MapMode mode = FileChannel.MapMode.READ_WRITE;
+                offsets = ChunkedBuffer.map(channel, HEADER_SIZE, offsetsBytes, mode);
+                targets = ChunkedBuffer.map(channel, HEADER_SIZE + offsetsBytes, targetsBytes, mode);
+                if (weighted)
+                    weights = ChunkedBuffer.map(channel, HEADER_SIZE + offsetsBytes + targetsBytes, targetsBytes,
+                                    mode);
+            } else {
+                offsets = ChunkedBuffer.allocate(offsetsBytes);
+                targets = ChunkedBuffer.allocate(targetsBytes);
+                if (weighted)
+                    weights = ChunkedBuffer.allocate(targetsBytes);
+            }
+
+            // prefix sum over degrees. degrees array is reused as per-vertex fill position afterwards
+            long offset = 0;
+            for (int i = 0; i < numVertices; i++) {
+                offsets.putLong(i, offset);
+                offset += degrees[i];
+                degrees[i] = 0;
+            }
+            offsets.putLong(numVertices, offset);
+            return this;
+        }
+
+        /** Second pass: add an unweighted edge */
+        public Builder addEdge(int from, int to) {
+            return addEdge(from, to, 1.0f);
+        }
+
+        /** Second pass: add an edge. Weight is ignored if the graph isn't weighted */
+        public Builder addEdge(int from, int to, float weight) {
+            if (offsets == null)
+                throw new IllegalStateException("allocate() should be called before addEdge()");
+            checkEdge(from, to);
+
+            put(from, to, weight);
+            if (!directed)
+                put(to, from, weight);
+            return this;
+        }
+
+        private void put(int from, int to, float weight) {
+            long position = offsets.getLong(from) + degrees[from];
+            if (position >= offsets.getLong(from + 1))
+                throw new IllegalStateException("More edges were added for vertex " + from
+                                + " than were counted during first pass");
+
+            degrees[from]++;
+            targets.putInt(position, to);
+            if (weights != null)
+                weights.putFloat(position, weight);
+        }
+
+        private void checkEdge(int from, int to) {
+            if (from < 0 || from >= numVertices || to < 0 || to >= numVertices)
+                throw new IllegalArgumentException("Invalid edge: " + from + " -> " + to
+                                + ", from/to indexes out of range");
+        }
+
+        /** Build the graph. All counted edges should be added by now
+         * @param vertexFactory Used to create vertices
+         */
+        public <V> CSRGraph<V> build(VertexFactory<V> vertexFactory) throws IOException {
+            if (offsets == null)
+                allocate();
+
+            for (int i = 0; i < numVertices; i++) {
+                if (offsets.getLong(i) + degrees[i] != offsets.getLong(i + 1))
+                    throw new IllegalStateException("Edges added for vertex " + i
+                                    + " don't match edges counted during first pass");
+            }
+
+            if (file != null) {
+                offsets.force();
+                targets.force();
+                if (weights != null)
+                    weights.force();
+                file.close();
+                file = null;
+            }
+
+            CSRGraph<V> graph = new CSRGraph<>(numVertices, numEdges, directed, offsets, targets, weights,
+                            vertexFactory);
+            degrees = null;
+            return graph;
+        }
+    }
+}
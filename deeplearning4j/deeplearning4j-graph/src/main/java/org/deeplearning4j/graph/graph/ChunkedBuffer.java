@@ -0,0 +1,124 @@
+package org.deeplearning4j.graph.graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Fixed-size buffer of primitives addressable with long indices, split into {@link ByteBuffer} chunks of up to 1GB,
+ * so it isn't limited by 2GB size of a single ByteBuffer. Chunks are either on-heap, or mapped from a file.<br>
+ * Chunk size is a multiple of 8, so no int/long/float value ever spans across two chunks.
+ *
+ * @author raver119@gmail.com
+ */
+class ChunkedBuffer {
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final ByteBuffer[] chunks;
+    private final long length;
+
+    private ChunkedBuffer(ByteBuffer[] chunks, long length) {
+        this.chunks = chunks;
+        this.length = length;
+    }
+
+    private static int numChunks(long bytes) {
+        return (int) ((bytes + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+    }
+
+    /**
+     * This method allocates new on-heap buffer of the given size
+     *
+     * @param bytes size of the buffer, in bytes
+     * @return
+     */
+    static ChunkedBuffer allocate(long bytes) {
+        ByteBuffer[] chunks = new ByteBuffer[numChunks(bytes)];
+        for (int i = 0; i < chunks.length; i++) {
+            int size = (int) Math.min(CHUNK_SIZE, bytes - i * CHUNK_SIZE);
+            chunks[i] = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        return new ChunkedBuffer(chunks, bytes);
+    }
+
+    /**
+     * This method maps a region of the file. Mapping stays valid after the channel is closed.
+     *
+     * @param channel file channel
+     * @param position region offset within the file, in bytes
+     * @param bytes region size, in bytes
+     * @param mode map mode
+     * @return
+     * @throws IOException
+     */
+    static ChunkedBuffer map(FileChannel channel, long position, long bytes, FileChannel.MapMode mode)
+                    throws IOException {
+        ByteBuffer[] chunks = new ByteBuffer[numChunks(bytes)];
+        for (int i = 0; i < chunks.length; i++) {
+            long size = Math.min(CHUNK_SIZE, bytes - i * CHUNK_SIZE);
+            chunks[i] = channel.map(mode, position + i * CHUNK_SIZE, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        return new ChunkedBuffer(chunks, bytes);
+    }
+
+    long length() {
+        return length;
+    }
+
+    int getInt(long index) {
+        long offset = index << 2;
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getInt((int) (offset & CHUNK_MASK));
+    }
+
+    void putInt(long index, int value) {
+        long offset = index << 2;
+        chunks[(int) (offset >>> CHUNK_SHIFT)].putInt((int) (offset & CHUNK_MASK), value);
+    }
+
+    long getLong(long index) {
+        long offset = index << 3;
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & CHUNK_MASK));
+    }
+
+    void putLong(long index, long value) {
+        long offset = index << 3;
+        chunks[(int) (offset >>> CHUNK_SHIFT)].putLong((int) (offset & CHUNK_MASK), value);
+    }
+
+    float getFloat(long index) {
+        long offset = index << 2;
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getFloat((int) (offset & CHUNK_MASK));
+    }
+
+    void putFloat(long index, float value) {
+        long offset = index << 2;
+        chunks[(int) (offset >>> CHUNK_SHIFT)].putFloat((int) (offset & CHUNK_MASK), value);
+    }
+
+    /**
+     * This method writes whole buffer to the channel, at its current position
+     */
+    void writeTo(FileChannel channel) throws IOException {
+        for (ByteBuffer chunk : chunks) {
+            ByteBuffer buffer = chunk.duplicate();
+            buffer.clear();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    /**
+     * This method flushes changes to the underlying file, if this buffer is file-backed
+     */
+    void force() {
+        for (ByteBuffer chunk : chunks)
+            if (chunk instanceof MappedByteBuffer)
+                ((MappedByteBuffer) chunk).force();
+    }
+}
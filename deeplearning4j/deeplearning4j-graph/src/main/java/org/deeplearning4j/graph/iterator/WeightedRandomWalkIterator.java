@@ -5,6 +5,7 @@ import org.deeplearning4j.graph.api.IGraph;
 import org.deeplearning4j.graph.api.IVertexSequence;
 import org.deeplearning4j.graph.api.NoEdgeHandling;
 import org.deeplearning4j.graph.exception.NoEdgesException;
+import org.deeplearning4j.graph.graph.CSRGraph;
 import org.deeplearning4j.graph.graph.VertexSequence;
 
 import java.util.List;
@@ -17,12 +18,14 @@ import java.util.Random;
  * Because the edge values are used to determine the probabilities of selecting an edge, the {@code WeightedRandomWalkIterator}
  * can only be used on graphs with an edge type that extends the {@link java.lang.Number} class (i.e., Integer, Double, etc)<br>
  * Random walks are generated starting at every node in the graph exactly once, though the order of the starting nodes
- * is randomized.
+ * is randomized.<br>
+ * For {@link CSRGraph}, walks are sampled directly from CSR arrays, without creating Edge objects.
  * @author Alex Black
  */
 public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
 
     private final IGraph<V, ? extends Number> graph;
+    private final CSRGraph<V> csrGraph;
     private final int walkLength;
     private final NoEdgeHandling mode;
     private final int firstVertex;
@@ -69,6 +72,7 @@ public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
     public WeightedRandomWalkIterator(IGraph<V, ? extends Number> graph, int walkLength, long rngSeed,
                     NoEdgeHandling mode, int firstVertex, int lastVertex) {
         this.graph = graph;
+        this.csrGraph = graph instanceof CSRGraph ? (CSRGraph<V>) graph : null;
         this.walkLength = walkLength;
         this.rng = new Random(rngSeed);
         this.mode = mode;
@@ -92,6 +96,9 @@ public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
         if (walkLength == 0)
             return new VertexSequence<>(graph, indices);
 
+        if (csrGraph != null)
+            return nextCSR(currVertexIdx, indices);
+
         for (int i = 1; i <= walkLength; i++) {
             List<? extends Edge<? extends Number>> edgeList = graph.getEdgesOut(currVertexIdx);
 
@@ -141,6 +148,45 @@ public class WeightedRandomWalkIterator<V> implements GraphWalkIterator<V> {
         return new VertexSequence<>(graph, indices);
     }
 
+    private IVertexSequence<V> nextCSR(int currVertexIdx, int[] indices) {
+        for (int i = 1; i <= walkLength; i++) {
+            long start = csrGraph.getOffset(currVertexIdx);
+            long end = csrGraph.getOffset(currVertexIdx + 1);
+
+            if (start == end) {
+                switch (mode) {
+                    case SELF_LOOP_ON_DISCONNECTED:
+                        for (int j = i; j < walkLength; j++)
+                            indices[j] = currVertexIdx;
+                        return new VertexSequence<>(graph, indices);
+                    case EXCEPTION_ON_DISCONNECTED:
+                        throw new NoEdgesException("Cannot conduct random walk: vertex " + currVertexIdx
+                                        + " has no outgoing edges. "
+                                        + " Set NoEdgeHandling mode to NoEdgeHandlingMode.SELF_LOOP_ON_DISCONNECTED to self loop instead of "
+                                        + "throwing an exception in this situation.");
+                    default:
+                        throw new RuntimeException("Unknown/not implemented NoEdgeHandling mode: " + mode);
+                }
+            }
+
+            double totalWeight = 0.0;
+            for (long e = start; e < end; e++)
+                totalWeight += csrGraph.getWeight(e);
+
+            double threshold = rng.nextDouble() * totalWeight;
+            double sumWeight = 0.0;
+            for (long e = start; e < end; e++) {
+                sumWeight += csrGraph.getWeight(e);
+                if (sumWeight >= threshold) {
+                    currVertexIdx = csrGraph.getTarget(e);
+                    indices[i] = currVertexIdx;
+                    break;
+                }
+            }
+        }
+        return new VertexSequence<>(graph, indices);
+    }
+
     @Override
     public boolean hasNext() {
         return position < order.length;
@@ -0,0 +1,172 @@
+package org.deeplearning4j.graph.graph;
+
+import org.deeplearning4j.graph.api.Edge;
+import org.deeplearning4j.graph.api.IGraph;
+import org.deeplearning4j.graph.api.IVertexSequence;
+import org.deeplearning4j.graph.api.NoEdgeHandling;
+import org.deeplearning4j.graph.data.GraphLoader;
+import org.deeplearning4j.graph.exception.NoEdgesException;
+import org.deeplearning4j.graph.iterator.GraphWalkIterator;
+import org.deeplearning4j.graph.iterator.RandomWalkIterator;
+import org.deeplearning4j.graph.iterator.WeightedRandomWalkIterator;
+import org.deeplearning4j.graph.vertexfactory.StringVertexFactory;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nd4j.linalg.io.ClassPathResource;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestCSRGraph {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    private File randomEdgeList(int numVertices, int numEdges, long seed) throws Exception {
+        File f = testDir.newFile();
+        Random r = new Random(seed);
+        try (PrintWriter pw = new PrintWriter(f)) {
+            for (int i = 0; i < numEdges; i++)
+                pw.println(r.nextInt(numVertices) + "," + r.nextInt(numVertices));
+        }
+        return f;
+    }
+
+    private static void assertSameAdjacency(IGraph<String, ?> expected, IGraph<String, ?> actual) {
+        assertEquals(expected.numVertices(), actual.numVertices());
+        for (int i = 0; i < expected.numVertices(); i++) {
+            assertEquals(expected.getVertex(i), actual.getVertex(i));
+            assertEquals(expected.getVertexDegree(i), actual.getVertexDegree(i));
+            assertArrayEquals(expected.getConnectedVertexIndices(i), actual.getConnectedVertexIndices(i));
+        }
+    }
+
+    private static void assertSameWalks(GraphWalkIterator<String> expected, GraphWalkIterator<String> actual) {
+        while (expected.hasNext()) {
+            assertTrue(actual.hasNext());
+            IVertexSequence<String> e = expected.next();
+            IVertexSequence<String> a = actual.next();
+            assertEquals(e.sequenceLength(), a.sequenceLength());
+            while (e.hasNext())
+                assertEquals(e.next(), a.next());
+        }
+        assertFalse(actual.hasNext());
+    }
+
+    @Test(timeout = 10000L)
+    public void testUndirectedMatchesGraph() throws Exception {
+        File f = randomEdgeList(100, 500, 12345);
+        String path = f.getAbsolutePath();
+
+        Graph<String, String> graph = GraphLoader.loadUndirectedGraphEdgeListFile(path, 100, ",");
+        CSRGraph<String> csr = GraphLoader.loadCSRGraph(path, 100, ",", false, false);
+
+        assertEquals(1000, csr.numEdges());
+        assertFalse(csr.isDirected());
+        assertFalse(csr.isWeighted());
+        assertSameAdjacency(graph, csr);
+
+        for (int i = 0; i < 100; i++) {
+            for (Edge<Float> e : csr.getEdgesOut(i)) {
+                assertEquals(i, e.getFrom());
+                assertEquals(1.0f, e.getValue(), 0.0f);
+                assertFalse(e.isDirected());
+            }
+        }
+
+        //Same rng usage: walks should be identical to walks over Graph
+        assertSameWalks(new RandomWalkIterator<>(graph, 8, 12345, NoEdgeHandling.SELF_LOOP_ON_DISCONNECTED),
+                        new RandomWalkIterator<>(csr, 8, 12345, NoEdgeHandling.SELF_LOOP_ON_DISCONNECTED));
+    }
+
+    @Test(timeout = 10000L)
+    public void testWeightedDirected() throws Exception {
+        String path = new ClassPathResource("deeplearning4j-graph/WeightedGraph.txt").getTempFileFromArchive()
+                        .getAbsolutePath();
+        int numVertices = 9;
+
+        IGraph<String, Double> graph = GraphLoader.loadWeightedEdgeListFile(path, numVertices, ",", true, "//");
+        CSRGraph<String> csr = GraphLoader.loadCSRGraph(path, numVertices, ",", true, true, "//");
+
+        assertTrue(csr.isDirected());
+        assertTrue(csr.isWeighted());
+        assertSameAdjacency(graph, csr);
+
+        for (int i = 0; i < numVertices; i++) {
+            List<Edge<Double>> expected = graph.getEdgesOut(i);
+            List<Edge<Float>> actual = csr.getEdgesOut(i);
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertEquals(expected.get(j).getTo(), actual.get(j).getTo());
+                assertEquals(expected.get(j).getValue(), actual.get(j).getValue(), 1e-6);
+            }
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertSameWalks(new WeightedRandomWalkIterator<>(graph, 10, i), new WeightedRandomWalkIterator<>(csr, 10, i));
+        }
+    }
+
+    @Test(timeout = 10000L)
+    public void testMappedFile() throws Exception {
+        File f = randomEdgeList(50, 300, 119);
+        File mapped = testDir.newFile();
+
+        CSRGraph<String> heap = GraphLoader.loadCSRGraph(f.getAbsolutePath(), 50, ",", true, false);
+        CSRGraph<String> built = GraphLoader.loadCSRGraph(f.getAbsolutePath(), 50, ",", true, false, mapped);
+        CSRGraph<String> opened = CSRGraph.open(mapped, new StringVertexFactory());
+
+        assertEquals(300, opened.numEdges());
+        assertTrue(opened.isDirected());
+        assertSameAdjacency(heap, built);
+        assertSameAdjacency(heap, opened);
+
+        //Round trip via save()
+        File saved = testDir.newFile();
+        heap.save(saved);
+        assertEquals(mapped.length(), saved.length());
+        assertSameAdjacency(heap, CSRGraph.open(saved, new StringVertexFactory()));
+    }
+
+    @Test(timeout = 10000L)
+    public void testBuilder() throws Exception {
+        CSRGraph.Builder builder = new CSRGraph.Builder(4, true, true);
+        builder.countEdge(0, 1).countEdge(0, 2).countEdge(2, 0).allocate();
+        builder.addEdge(2, 0, 3.0f).addEdge(0, 1, 1.0f).addEdge(0, 2, 2.0f);
+        CSRGraph<String> graph = builder.build(new StringVertexFactory());
+
+        assertArrayEquals(new int[] {1, 2}, graph.getConnectedVertexIndices(0));
+        assertArrayEquals(new int[] {}, graph.getConnectedVertexIndices(1));
+        assertArrayEquals(new int[] {0}, graph.getConnectedVertexIndices(2));
+        assertEquals(2.0f, graph.getWeight(graph.getOffset(0) + 1), 0.0f);
+        assertEquals(3.0f, graph.getWeight(graph.getOffset(2)), 0.0f);
+
+        try {
+            graph.getRandomConnectedVertexIndex(3, new Random(12345));
+            fail("Expected NoEdgesException");
+        } catch (NoEdgesException e) {
+            //OK
+        }
+
+        try {
+            graph.addEdge(1, 3, 1.0f, true);
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException e) {
+            //OK
+        }
+
+        CSRGraph.Builder invalid = new CSRGraph.Builder(2, true, false);
+        invalid.countEdge(0, 1).allocate();
+        try {
+            invalid.addEdge(1, 0);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            //OK
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.deeplearning4j.nearestneighbor.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and latency counters for {@link NearestNeighborsServer}.
+ * All methods are thread-safe.
+ *
+ * @author raver119@gmail.com
+ */
+public class NearestNeighborsMetrics {
+    private final long startTime = System.currentTimeMillis();
+
+    private final AtomicLong requests = new AtomicLong(0);
+    private final AtomicLong queries = new AtomicLong(0);
+    private final AtomicLong errors = new AtomicLong(0);
+    private final AtomicLong totalNanos = new AtomicLong(0);
+    private final AtomicLong maxNanos = new AtomicLong(0);
+
+    /**
+     * This method records single successfully processed request
+     *
+     * @param numQueries number of queries in the request
+     * @param nanos time spent processing request
+     */
+    public void record(int numQueries, long nanos) {
+        requests.incrementAndGet();
+        queries.addAndGet(numQueries);
+        totalNanos.addAndGet(nanos);
+
+        long max;
+        while ((max = maxNanos.get()) < nanos && !maxNanos.compareAndSet(max, nanos));
+    }
+
+    /**
+     * This method records failed request
+     */
+    public void recordError() {
+        errors.incrementAndGet();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getQueries() {
+        return queries.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * @return average request latency, in milliseconds
+     */
+    public double getAverageLatencyMs() {
+        long r = requests.get();
+        return r == 0 ? 0.0 : totalNanos.get() / (double) r / 1e6;
+    }
+
+    /**
+     * @return max request latency, in milliseconds
+     */
+    public double getMaxLatencyMs() {
+        return maxNanos.get() / 1e6;
+    }
+
+    /**
+     * @return average per-query latency, in microseconds
+     */
+    public double getAverageQueryLatencyUs() {
+        long q = queries.get();
+        return q == 0 ? 0.0 : totalNanos.get() / (double) q / 1e3;
+    }
+
+    /**
+     * @return number of queries processed per second, since server start
+     */
+    public double getQueriesPerSecond() {
+        long time = Math.max(1, System.currentTimeMillis() - startTime);
+        return queries.get() * 1000.0 / time;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("requests", getRequests());
+        map.put("queries", getQueries());
+        map.put("errors", getErrors());
+        map.put("averageLatencyMs", getAverageLatencyMs());
+        map.put("maxLatencyMs", getMaxLatencyMs());
+        map.put("averageQueryLatencyUs", getAverageQueryLatencyUs());
+        map.put("queriesPerSecond", getQueriesPerSecond());
+        return map;
+    }
+}
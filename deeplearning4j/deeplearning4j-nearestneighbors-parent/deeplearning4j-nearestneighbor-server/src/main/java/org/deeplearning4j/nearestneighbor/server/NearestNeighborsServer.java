@@ -3,11 +3,10 @@ package org.deeplearning4j.nearestneighbor.server;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
-import org.deeplearning4j.clustering.sptree.DataPoint;
 import org.deeplearning4j.clustering.vptree.VPTree;
-import org.deeplearning4j.clustering.vptree.VPTreeFillSearch;
 import org.deeplearning4j.exception.DL4JInvalidInputException;
 import org.deeplearning4j.nearestneighbor.model.*;
 import org.nd4j.linalg.api.buffer.DataBuffer;
@@ -36,6 +35,10 @@ import static play.mvc.Results.*;
  * which (based on the input schema) will automatically
  * have their values transformed.
  *
+ * Points can be split into multiple trees (shards), and batches of queries
+ * sent to /knnbatch are processed concurrently. Throughput and latency
+ * counters are available at /metrics
+ *
  * @author Adam Gibson
  */
 @Slf4j
@@ -50,8 +53,15 @@ public class NearestNeighborsServer {
     private String similarityFunction = "euclidean";
     @Parameter(names = {"--invert"}, arity = 1)
     private boolean invert = false;
+    @Parameter(names = {"--shards"}, arity = 1)
+    private int shards = 1;
+    @Parameter(names = {"--searchWorkers"}, arity = 1)
+    private int searchWorkers = Runtime.getRuntime().availableProcessors();
 
     private Server server;
+    private ShardedVPTree tree;
+    @Getter
+    private final NearestNeighborsMetrics metrics = new NearestNeighborsMetrics();
 
     public void runMain(String... args) throws Exception {
         JCommander jcmdr = new JCommander(this);
@@ -131,26 +141,29 @@ public class NearestNeighborsServer {
             System.gc();
         }
 
-        VPTree tree = new VPTree(points, similarityFunction, invert);
+        tree = new ShardedVPTree(points, shards, similarityFunction, invert, searchWorkers);
 
         RoutingDsl routingDsl = new RoutingDsl();
         //return the host information for a given id
         routingDsl.POST("/knn").routeTo(FunctionUtil.function0((() -> {
             try {
+                long time1 = System.nanoTime();
                 NearestNeighborRequest record = Json.fromJson(request().body().asJson(), NearestNeighborRequest.class);
-                NearestNeighbor nearestNeighbor =
-                                NearestNeighbor.builder().points(points).record(record).tree(tree).build();
 
                 if (record == null)
                     return badRequest(Json.toJson(Collections.singletonMap("status", "invalid json passed.")));
 
-                NearestNeighborsResults results =
-                                NearestNeighborsResults.builder().results(nearestNeighbor.search()).build();
+                INDArray input = points.slice(record.getInputIndex());
+                List<NearestNeighborsResult> nnResult = input.isVector()
+                                ? tree.search(input, record.getK(), false) : new ArrayList<>();
 
+                NearestNeighborsResults results = NearestNeighborsResults.builder().results(nnResult).build();
+                metrics.record(1, System.nanoTime() - time1);
 
                 return ok(Json.toJson(results));
 
             } catch (Throwable e) {
+                metrics.recordError();
                 log.error("Error in POST /knn",e);
                 e.printStackTrace();
                 return internalServerError(e.getMessage());
@@ -159,49 +172,63 @@ public class NearestNeighborsServer {
 
         routingDsl.POST("/knnnew").routeTo(FunctionUtil.function0((() -> {
             try {
+                long time1 = System.nanoTime();
                 Base64NDArrayBody record = Json.fromJson(request().body().asJson(), Base64NDArrayBody.class);
                 if (record == null)
                     return badRequest(Json.toJson(Collections.singletonMap("status", "invalid json passed.")));
 
                 INDArray arr = Nd4jBase64.fromBase64(record.getNdarray());
-                List<DataPoint> results;
-                List<Double> distances;
-
-                if (record.isForceFillK()) {
-                    VPTreeFillSearch vpTreeFillSearch = new VPTreeFillSearch(tree, record.getK(), arr);
-                    vpTreeFillSearch.search();
-                    results = vpTreeFillSearch.getResults();
-                    distances = vpTreeFillSearch.getDistances();
-                } else {
-                    results = new ArrayList<>();
-                    distances = new ArrayList<>();
-                    tree.search(arr, record.getK(), results, distances);
-                }
-
-                if (results.size() != distances.size()) {
-                    return internalServerError(
-                            String.format("results.size == %d != %d == distances.size",
-                                    results.size(), distances.size()));
-                }
-
-                List<NearestNeighborsResult> nnResult = new ArrayList<>();
-                for (int i=0; i<results.size(); i++) {
-                    if (!labels.isEmpty())
-                        nnResult.add(new NearestNeighborsResult(results.get(i).getIndex(), distances.get(i), labels.get(results.get(i).getIndex())));
-                    else
-                        nnResult.add(new NearestNeighborsResult(results.get(i).getIndex(), distances.get(i)));
-                }
+                List<NearestNeighborsResult> nnResult = tree.search(arr, record.getK(), record.isForceFillK());
+                attachLabels(nnResult, labels);
 
                 NearestNeighborsResults results2 = NearestNeighborsResults.builder().results(nnResult).build();
+                metrics.record(1, System.nanoTime() - time1);
+
                 return ok(Json.toJson(results2));
 
             } catch (Throwable e) {
+                metrics.recordError();
                 log.error("Error in POST /knnnew",e);
                 e.printStackTrace();
                 return internalServerError(e.getMessage());
             }
         })));
 
+        // batched version of /knnnew: ndarray holds one query per row, all rows are searched concurrently
+        routingDsl.POST("/knnbatch").routeTo(FunctionUtil.function0((() -> {
+            try {
+                long time1 = System.nanoTime();
+                Base64NDArrayBody record = Json.fromJson(request().body().asJson(), Base64NDArrayBody.class);
+                if (record == null)
+                    return badRequest(Json.toJson(Collections.singletonMap("status", "invalid json passed.")));
+
+                INDArray arr = Nd4jBase64.fromBase64(record.getNdarray());
+                if (arr.rank() == 1)
+                    arr = arr.reshape(1, arr.length());
+
+                List<List<NearestNeighborsResult>> batch = tree.searchBatch(arr, record.getK(), record.isForceFillK());
+
+                List<NearestNeighborsResults> resultsList = new ArrayList<>(batch.size());
+                for (List<NearestNeighborsResult> nnResult : batch) {
+                    attachLabels(nnResult, labels);
+                    resultsList.add(NearestNeighborsResults.builder().results(nnResult).build());
+                }
+
+                NearestNeighborsBatchResults results = NearestNeighborsBatchResults.builder().results(resultsList).build();
+                metrics.record(arr.rows(), System.nanoTime() - time1);
+
+                return ok(Json.toJson(results));
+
+            } catch (Throwable e) {
+                metrics.recordError();
+                log.error("Error in POST /knnbatch",e);
+                e.printStackTrace();
+                return internalServerError(e.getMessage());
+            }
+        })));
+
+        routingDsl.GET("/metrics").routeTo(FunctionUtil.function0((() -> ok(Json.toJson(metrics.toMap())))));
+
         //Set play secret key, if required
         //http://www.playframework.com/documentation/latest/ApplicationSecret
         String crypto = System.getProperty("play.crypto.secret");
@@ -219,6 +246,14 @@ public class NearestNeighborsServer {
 
     }
 
+    private static void attachLabels(List<NearestNeighborsResult> results, List<String> labels) {
+        if (labels.isEmpty())
+            return;
+
+        for (NearestNeighborsResult result : results)
+            result.setLabel(labels.get(result.getIndex()));
+    }
+
     /**
      * Stop the server
      */
@@ -227,6 +262,9 @@ public class NearestNeighborsServer {
             log.info("Attempting to stop server");
             server.stop();
         }
+
+        if (tree != null)
+            tree.close();
     }
 
     public static void main(String[] args) throws Exception {
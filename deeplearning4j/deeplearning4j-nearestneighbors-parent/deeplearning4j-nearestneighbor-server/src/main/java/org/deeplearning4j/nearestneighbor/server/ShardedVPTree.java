@@ -0,0 +1,202 @@
+package org.deeplearning4j.nearestneighbor.server;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.clustering.sptree.DataPoint;
+import org.deeplearning4j.clustering.vptree.VPTree;
+import org.deeplearning4j.clustering.vptree.VPTreeFillSearch;
+import org.deeplearning4j.nearestneighbor.model.NearestNeighborsResult;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.exception.ND4JIllegalStateException;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * This class holds one or more {@link VPTree}s, each built over contiguous range of rows of the points matrix,
+ * and runs searches against them concurrently. Results from different shards are merged, and indices are
+ * always reported relative to the full points matrix.
+ *
+ * Batched searches are split into chunks of query rows, and chunks are processed in parallel.
+ *
+ * @author raver119@gmail.com
+ */
+@Slf4j
+public class ShardedVPTree implements AutoCloseable {
+    @Getter
+    private final VPTree[] trees;
+    private final int[] offsets;
+    private final boolean invert;
+    @Getter
+    private final int workers;
+    private final ExecutorService executorService;
+
+    /**
+     * @param points all points, one per row
+     * @param shards number of trees to build. Each tree gets roughly points.rows() / shards rows
+     * @param similarityFunction similarity function used by trees
+     * @param invert whether to invert the distance
+     * @param workers number of threads used to build trees and to run searches
+     */
+    public ShardedVPTree(@NonNull INDArray points, int shards, String similarityFunction, boolean invert,
+                    int workers) {
+        if (shards < 1 || workers < 1)
+            throw new ND4JIllegalStateException("Number of shards and workers should be positive values");
+
+        shards = Math.min(shards, Math.max(1, points.rows()));
+
+        this.invert = invert;
+        this.workers = workers;
+        this.trees = new VPTree[shards];
+        this.offsets = new int[shards];
+        this.executorService = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = Executors.defaultThreadFactory().newThread(r);
+
+                t.setDaemon(true);
+                t.setName("NearestNeighbors search thread");
+
+                // we don't want threads to be working on different devices
+                Nd4j.getAffinityManager().attachThreadToDevice(t,
+                                Nd4j.getAffinityManager().getDeviceForCurrentThread());
+
+                return t;
+            }
+        });
+
+        int rowsPerShard = points.rows() / shards;
+        List<Future<VPTree>> futures = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            final int start = i * rowsPerShard;
+            final int end = i == shards - 1 ? points.rows() : start + rowsPerShard;
+            offsets[i] = start;
+
+            final INDArray shard = shards == 1 ? points : points.get(NDArrayIndex.interval(start, end), NDArrayIndex.all()).dup();
+            futures.add(executorService.submit(() -> new VPTree(shard, similarityFunction, invert)));
+        }
+
+        for (int i = 0; i < shards; i++)
+            trees[i] = get(futures.get(i));
+
+        log.info("Built {} VPTree shard(s) over {} points", shards, points.rows());
+    }
+
+    public int numShards() {
+        return trees.length;
+    }
+
+    /**
+     * This method returns k nearest neighbors for single query row
+     *
+     * @param query query row vector
+     * @param k number of results
+     * @param forceFillK if true, brute force search will be used, which always returns k results
+     * @return up to k results, nearest first
+     */
+    public List<NearestNeighborsResult> search(@NonNull INDArray query, int k, boolean forceFillK) {
+        List<NearestNeighborsResult> merged = new ArrayList<>();
+        for (int i = 0; i < trees.length; i++)
+            merged.addAll(searchShard(i, query, k, forceFillK));
+
+        // results are always ordered nearest first, regardless of number of shards
+        // distances are already negated by VPTree if invert is set, so lower is better in both cases
+        merged.sort(Comparator.comparingDouble(NearestNeighborsResult::getDistance));
+
+        return merged.size() > k ? new ArrayList<>(merged.subList(0, k)) : merged;
+    }
+
+    /**
+     * This method runs searches for all rows of queries matrix concurrently
+     *
+     * @param queries queries matrix, one query per row
+     * @param k number of results per query
+     * @param forceFillK if true, brute force search will be used, which always returns k results
+     * @return list of results, one entry per query row, in the same order
+     */
+    public List<List<NearestNeighborsResult>> searchBatch(@NonNull INDArray queries, int k, boolean forceFillK) {
+        if (queries.rank() != 2)
+            throw new ND4JIllegalStateException("Queries should be a matrix, with one query per row");
+
+        final int numQueries = queries.rows();
+        final List<List<NearestNeighborsResult>> results = new ArrayList<>(numQueries);
+        for (int i = 0; i < numQueries; i++)
+            results.add(null);
+
+        // few chunks per worker, so one slow chunk doesn't stall the whole batch
+        int numChunks = Math.min(numQueries, workers * 4);
+        if (numChunks <= 1) {
+            for (int i = 0; i < numQueries; i++)
+                results.set(i, search(queries.getRow(i), k, forceFillK));
+
+            return results;
+        }
+
+        int chunkSize = (numQueries + numChunks - 1) / numChunks;
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < numQueries; c += chunkSize) {
+            final int start = c;
+            final int end = Math.min(numQueries, c + chunkSize);
+            futures.add(executorService.submit(() -> {
+                for (int i = start; i < end; i++)
+                    results.set(i, search(queries.getRow(i), k, forceFillK));
+            }));
+        }
+
+        for (Future<?> future : futures)
+            get(future);
+
+        return results;
+    }
+
+    protected List<NearestNeighborsResult> searchShard(int shard, INDArray query, int k, boolean forceFillK) {
+        VPTree tree = trees[shard];
+        List<DataPoint> points;
+        List<Double> distances;
+
+        if (forceFillK) {
+            VPTreeFillSearch fillSearch = new VPTreeFillSearch(tree, Math.min(k, tree.getItems().rows()), query);
+            fillSearch.search();
+            points = fillSearch.getResults();
+            distances = fillSearch.getDistances();
+        } else {
+            points = new ArrayList<>();
+            distances = new ArrayList<>();
+            tree.search(query, k, points, distances);
+        }
+
+        if (points.size() != distances.size())
+            throw new IllegalStateException(String.format("results.size == %d != %d == distances.size",
+                            points.size(), distances.size()));
+
+        List<NearestNeighborsResult> results = new ArrayList<>(points.size());
+        for (int i = 0; i < points.size(); i++)
+            results.add(new NearestNeighborsResult(points.get(i).getIndex() + offsets[shard], distances.get(i)));
+
+        return results;
+    }
+
+    private static <T> T get(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executorService.shutdownNow();
+    }
+}
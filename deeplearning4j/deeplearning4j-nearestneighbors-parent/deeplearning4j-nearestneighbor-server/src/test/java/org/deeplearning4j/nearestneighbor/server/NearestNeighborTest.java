@@ -5,12 +5,15 @@ import org.deeplearning4j.clustering.vptree.VPTree;
 import org.deeplearning4j.clustering.vptree.VPTreeFillSearch;
 import org.deeplearning4j.nearestneighbor.client.NearestNeighborsClient;
 import org.deeplearning4j.nearestneighbor.model.NearestNeighborRequest;
+import org.deeplearning4j.nearestneighbor.model.NearestNeighborsBatchResults;
+import org.deeplearning4j.nearestneighbor.model.NearestNeighborsResult;
 import org.deeplearning4j.nearestneighbor.model.NearestNeighborsResults;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.serde.binary.BinarySerde;
 
 import java.io.File;
@@ -22,6 +25,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by agibsonccc on 4/27/17.
@@ -87,6 +91,88 @@ public class NearestNeighborTest {
     }
 
 
+    @Test
+    public void testServerBatch() throws Exception {
+        int localPort = getAvailablePort();
+        Nd4j.getRandom().setSeed(7);
+        INDArray rand = Nd4j.randn(100, 5);
+        File writeToTmp = testDir.newFile();
+        writeToTmp.deleteOnExit();
+        BinarySerde.writeArrayToDisk(rand, writeToTmp);
+        NearestNeighborsServer server = new NearestNeighborsServer();
+        server.runMain("--ndarrayPath", writeToTmp.getAbsolutePath(), "--nearestNeighborsPort",
+                String.valueOf(localPort), "--shards", "3", "--searchWorkers", "2");
+
+        try {
+            NearestNeighborsClient client = new NearestNeighborsClient("http://localhost:" + localPort);
+            INDArray queries = rand.get(NDArrayIndex.interval(0, 20), NDArrayIndex.all()).dup();
+            NearestNeighborsBatchResults result = client.knnBatch(5, queries);
+
+            assertEquals(20, result.getResults().size());
+            for (int i = 0; i < 20; i++) {
+                List<NearestNeighborsResult> r = result.getResults().get(i).getResults();
+                assertEquals(5, r.size());
+                assertEquals(i, r.get(0).getIndex());
+            }
+
+            assertEquals(1, server.getMetrics().getRequests());
+            assertEquals(20, server.getMetrics().getQueries());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testShardedSearch() throws Exception {
+        Nd4j.getRandom().setSeed(12);
+        INDArray points = Nd4j.rand(500, 8);
+        INDArray queries = Nd4j.rand(40, 8);
+
+        try (ShardedVPTree single = new ShardedVPTree(points, 1, "euclidean", false, 2);
+             ShardedVPTree sharded = new ShardedVPTree(points, 4, "euclidean", false, 4)) {
+            assertEquals(4, sharded.numShards());
+
+            List<List<NearestNeighborsResult>> batch = sharded.searchBatch(queries, 7, false);
+            assertEquals(40, batch.size());
+
+            for (int i = 0; i < queries.rows(); i++) {
+                List<NearestNeighborsResult> expected = single.search(queries.getRow(i), 7, false);
+                List<NearestNeighborsResult> actual = batch.get(i);
+                assertEquals(7, actual.size());
+
+                // both single and sharded searches return results nearest first
+                assertEquals(7, expected.size());
+                for (int j = 1; j < actual.size(); j++) {
+                    assertTrue(expected.get(j - 1).getDistance() <= expected.get(j).getDistance());
+                    assertTrue(actual.get(j - 1).getDistance() <= actual.get(j).getDistance());
+                }
+                for (int j = 0; j < actual.size(); j++)
+                    assertEquals(expected.get(j).getDistance(), actual.get(j).getDistance(), 1e-5);
+
+                for (NearestNeighborsResult r : actual) {
+                    boolean found = false;
+                    for (NearestNeighborsResult e : expected)
+                        found |= e.getIndex() == r.getIndex();
+                    assertTrue(found);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMetrics() {
+        NearestNeighborsMetrics metrics = new NearestNeighborsMetrics();
+        metrics.record(10, 2000000);
+        metrics.record(30, 6000000);
+        metrics.recordError();
+
+        assertEquals(2, metrics.getRequests());
+        assertEquals(40, metrics.getQueries());
+        assertEquals(1, metrics.getErrors());
+        assertEquals(4.0, metrics.getAverageLatencyMs(), 1e-5);
+        assertEquals(6.0, metrics.getMaxLatencyMs(), 1e-5);
+        assertEquals(200.0, metrics.getAverageQueryLatencyUs(), 1e-5);
+    }
 
     @Test
     public void testFullSearch() throws Exception {
@@ -106,6 +106,42 @@ public class NearestNeighborsClient {
         return ret;
     }
 
+    /**
+     * Run k nearest neighbors search
+     * for many NEW data points at once.
+     * All queries are processed by the server concurrently,
+     * in a single request
+     * @param k the number of results
+     *          to retrieve per query
+     * @param queries matrix with one query per row
+     * @return results, one entry per query row
+     * @throws Exception
+     */
+    public NearestNeighborsBatchResults knnBatch(int k, INDArray queries) throws Exception {
+        return knnBatch(k, queries, false);
+    }
+
+    /**
+     * Run k nearest neighbors search
+     * for many NEW data points at once.
+     * @param k the number of results
+     *          to retrieve per query
+     * @param queries matrix with one query per row
+     * @param forceFillK if true, server will always return k results per query
+     * @return results, one entry per query row
+     * @throws Exception
+     */
+    public NearestNeighborsBatchResults knnBatch(int k, INDArray queries, boolean forceFillK) throws Exception {
+        Base64NDArrayBody base64NDArrayBody = Base64NDArrayBody.builder().k(k).forceFillK(forceFillK)
+                        .ndarray(Nd4jBase64.base64String(queries)).build();
+
+        HttpRequestWithBody req = Unirest.post(url + "/knnbatch");
+        req.header("accept", "application/json")
+                .header("Content-Type", "application/json").body(base64NDArrayBody);
+        addAuthHeader(req);
+
+        return req.asObject(NearestNeighborsBatchResults.class).getBody();
+    }
 
     /**
      * Add the specified authentication header to the specified HttpRequest
@@ -0,0 +1,23 @@
+package org.deeplearning4j.nearestneighbor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Results of batched knn request: one {@link NearestNeighborsResults} per query row, in the same order
+ *
+ * @author raver119@gmail.com
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearestNeighborsBatchResults implements Serializable {
+    private List<NearestNeighborsResults> results;
+
+}
@@ -0,0 +1,770 @@
+package org.deeplearning4j.clustering.hnsw;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.clustering.sptree.DataPoint;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.exception.ND4JIllegalStateException;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hierarchical Navigable Small World graph index, for approximate nearest neighbors search.
+ *
+ * All vectors are copied into single flat float array (normalized, if cosine distance is used), and each element
+ * keeps one adjacency list per graph level it belongs to. Index can be built by multiple threads in parallel,
+ * and saved/restored without rebuilding.
+ *
+ * PLEASE NOTE: search methods are thread-safe, but only after index was built.
+ *
+ * Based on: Yu. A. Malkov, D. A. Yashunin, "Efficient and robust approximate nearest neighbor search using
+ * Hierarchical Navigable Small World graphs", https://arxiv.org/abs/1603.09320
+ *
+ * @author raver119@gmail.com
+ */
+@Slf4j
+public class HNSWIndex implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final String EUCLIDEAN = "euclidean";
+    public static final String COSINE = "cosinesimilarity";
+
+    private static final int MAGIC = 0x484E5357;
+    private static final int VERSION = 1;
+    private static final int MAX_LEVEL = 31;
+    private static final int LOCK_STRIPES = 1024;
+    private static final int[] EMPTY = new int[0];
+
+    @Getter
+    private String similarityFunction;
+    @Getter
+    private int dimensions;
+    @Getter
+    private int size;
+    @Getter
+    private int m;
+    @Getter
+    private int efConstruction;
+    @Getter
+    private volatile int ef;
+
+    private int maxM0;
+    private boolean cosine;
+    private float[] vectors;
+    private int[] levels;
+    private int[][][] links;
+    private volatile int entryPoint = -1;
+    private volatile int maxLevel = -1;
+
+    private transient volatile boolean building;
+    private transient Object globalLock;
+    private transient Object[] locks;
+    private transient ThreadLocal<VisitedList> visited;
+
+    protected HNSWIndex() {
+        // for serialization only
+        initTransients();
+    }
+
+    protected HNSWIndex(String similarityFunction, int m, int efConstruction, int ef) {
+        if (!COSINE.equalsIgnoreCase(similarityFunction) && !EUCLIDEAN.equalsIgnoreCase(similarityFunction))
+            throw new ND4JIllegalStateException("Unsupported similarity function: [" + similarityFunction + "]");
+
+        if (m < 2)
+            throw new ND4JIllegalStateException("M should be >= 2");
+
+        if (efConstruction < 1 || ef < 1)
+            throw new ND4JIllegalStateException("ef and efConstruction should be positive values");
+
+        this.similarityFunction = similarityFunction.toLowerCase();
+        this.cosine = COSINE.equals(this.similarityFunction);
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.ef = ef;
+
+        initTransients();
+    }
+
+    private void initTransients() {
+        globalLock = new Object();
+        locks = new Object[LOCK_STRIPES];
+        for (int e = 0; e < locks.length; e++)
+            locks[e] = new Object();
+
+        visited = new ThreadLocal<>();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initTransients();
+    }
+
+    /**
+     * This method sets size of dynamic candidates list used during search.
+     * Higher values give better recall at cost of query time.
+     *
+     * @param ef
+     */
+    public void setEf(int ef) {
+        if (ef < 1)
+            throw new ND4JIllegalStateException("ef should be positive value");
+
+        this.ef = ef;
+    }
+
+    /**
+     * This method returns top level of the graph
+     *
+     * @return
+     */
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * This method returns copy of the vector stored for given element, as used for distance calculation
+     * (i.e. normalized for cosine distance)
+     *
+     * @param index
+     * @return
+     */
+    public float[] getVector(int index) {
+        return Arrays.copyOfRange(vectors, index * dimensions, (index + 1) * dimensions);
+    }
+
+    protected void build(@NonNull INDArray items, int workers, long seed) {
+        if (items.rank() != 2)
+            throw new ND4JIllegalStateException("Items should be matrix, with one element per row");
+
+        this.size = items.rows();
+        this.dimensions = items.columns();
+
+        if ((long) size * dimensions > Integer.MAX_VALUE - 8)
+            throw new ND4JIllegalStateException("Index can't hold more then " + (Integer.MAX_VALUE - 8) + " values");
+
+        INDArray array = items.isView() || items.ordering() != 'c' ? items.dup('c') : items;
+        vectors = array.data().asFloat();
+        if (vectors.length < size * dimensions)
+            throw new ND4JIllegalStateException("Can't read items: buffer is too short");
+        else if (vectors.length > size * dimensions)
+            vectors = Arrays.copyOf(vectors, size * dimensions);
+
+        if (cosine)
+            for (int e = 0; e < size; e++)
+                normalize(vectors, e * dimensions, dimensions);
+
+        // levels are drawn upfront, so single-threaded builds are reproducible
+        Random rng = new Random(seed);
+        double mL = 1.0 / Math.log(m);
+        levels = new int[size];
+        links = new int[size][][];
+        for (int e = 0; e < size; e++) {
+            levels[e] = Math.min(MAX_LEVEL, (int) Math.floor(-Math.log(1.0 - rng.nextDouble()) * mL));
+            links[e] = new int[levels[e] + 1][];
+            Arrays.fill(links[e], EMPTY);
+        }
+
+        if (size == 0)
+            return;
+
+        long time1 = System.currentTimeMillis();
+        building = true;
+        try {
+            insert(0);
+
+            if (workers <= 1 || size < 1024) {
+                for (int e = 1; e < size; e++)
+                    insert(e);
+            } else {
+                buildParallel(workers);
+            }
+        } finally {
+            building = false;
+        }
+        long time2 = System.currentTimeMillis();
+
+        log.debug("HNSW index with {} elements built in {} ms", size, time2 - time1);
+    }
+
+    private void buildParallel(int workers) {
+        final AtomicInteger cursor = new AtomicInteger(1);
+        ExecutorService service = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = Executors.defaultThreadFactory().newThread(r);
+
+                t.setDaemon(true);
+                t.setName("HNSW builder thread");
+
+                return t;
+            }
+        });
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                futures.add(service.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        int e;
+                        while ((e = cursor.getAndIncrement()) < size)
+                            insert(e);
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures)
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    private void insert(int q) {
+        int level = levels[q];
+        int qOffset = q * dimensions;
+        int ep;
+        int top;
+
+        synchronized (globalLock) {
+            if (entryPoint < 0) {
+                entryPoint = q;
+                maxLevel = level;
+                return;
+            }
+
+            ep = entryPoint;
+            top = maxLevel;
+        }
+
+        float[] epDistance = new float[] {distance(vectors, qOffset, ep)};
+        for (int lc = top; lc > level; lc--)
+            ep = greedy(vectors, qOffset, ep, epDistance, lc);
+
+        for (int lc = Math.min(level, top); lc >= 0; lc--) {
+            NodeHeap results = searchLayer(vectors, qOffset, ep, epDistance[0], efConstruction, lc, q);
+            float[] distances = new float[results.size()];
+            int[] candidates = results.drainAscending(distances);
+
+            if (candidates.length == 0)
+                continue;
+
+            int[] selected = selectNeighbors(candidates, distances, m);
+            synchronized (lock(q)) {
+                links[q][lc] = selected;
+            }
+
+            int maxLinks = lc == 0 ? maxM0 : m;
+            for (int neighbor : selected)
+                connect(neighbor, q, lc, maxLinks);
+
+            ep = candidates[0];
+            epDistance[0] = distances[0];
+        }
+
+        if (level > top) {
+            synchronized (globalLock) {
+                if (level > maxLevel) {
+                    maxLevel = level;
+                    entryPoint = q;
+                }
+            }
+        }
+    }
+
+    /**
+     * This method adds link from node to newNode, shrinking adjacency list if it grows beyond maxLinks
+     */
+    private void connect(int node, int newNode, int level, int maxLinks) {
+        synchronized (lock(node)) {
+            int[] current = links[node][level];
+            for (int c : current)
+                if (c == newNode)
+                    return;
+
+            if (current.length < maxLinks) {
+                int[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = newNode;
+                links[node][level] = updated;
+                return;
+            }
+
+            int offset = node * dimensions;
+            NodeHeap heap = new NodeHeap(current.length + 1, false);
+            heap.push(newNode, distance(vectors, offset, newNode));
+            for (int c : current)
+                heap.push(c, distance(vectors, offset, c));
+
+            float[] distances = new float[heap.size()];
+            int[] candidates = heap.drainAscending(distances);
+            links[node][level] = selectNeighbors(candidates, distances, maxLinks);
+        }
+    }
+
+    /**
+     * Neighbors selection heuristic: candidate is accepted only if it's closer to the base element than to any
+     * of already accepted candidates. This keeps links spread in different directions.
+     *
+     * @param candidates candidates, sorted by ascending distance to base element
+     * @param distances distances to base element
+     * @param max maximum number of neighbors
+     * @return
+     */
+    private int[] selectNeighbors(int[] candidates, float[] distances, int max) {
+        if (candidates.length <= max)
+            return candidates;
+
+        int[] result = new int[max];
+        int count = 0;
+        for (int e = 0; e < candidates.length && count < max; e++) {
+            int candidate = candidates[e];
+            int offset = candidate * dimensions;
+            boolean good = true;
+            for (int r = 0; r < count; r++) {
+                if (distance(vectors, offset, result[r]) < distances[e]) {
+                    good = false;
+                    break;
+                }
+            }
+
+            if (good)
+                result[count++] = candidate;
+        }
+
+        return count == max ? result : Arrays.copyOf(result, count);
+    }
+
+    private int greedy(float[] query, int qOffset, int ep, float[] epDistance, int level) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int neighbor : links(ep, level)) {
+                float d = distance(query, qOffset, neighbor);
+                if (d < epDistance[0]) {
+                    epDistance[0] = d;
+                    ep = neighbor;
+                    changed = true;
+                }
+            }
+        }
+
+        return ep;
+    }
+
+    private NodeHeap searchLayer(float[] query, int qOffset, int ep, float epDistance, int ef, int level,
+                    int exclude) {
+        VisitedList visitedList = visited.get();
+        if (visitedList == null) {
+            visitedList = new VisitedList();
+            visited.set(visitedList);
+        }
+        visitedList.reset(size);
+
+        NodeHeap candidates = new NodeHeap(ef * 2, false);
+        NodeHeap results = new NodeHeap(ef + 1, true);
+
+        visitedList.visit(ep);
+        candidates.push(ep, epDistance);
+        if (ep != exclude)
+            results.push(ep, epDistance);
+
+        while (!candidates.isEmpty()) {
+            float current = candidates.peekDistance();
+            if (results.size() >= ef && current > results.peekDistance())
+                break;
+
+            int node = candidates.pop();
+            for (int neighbor : links(node, level)) {
+                if (!visitedList.visit(neighbor))
+                    continue;
+
+                float d = distance(query, qOffset, neighbor);
+                if (results.size() < ef || d < results.peekDistance()) {
+                    candidates.push(neighbor, d);
+                    if (neighbor != exclude) {
+                        results.push(neighbor, d);
+                        if (results.size() > ef)
+                            results.pop();
+                    }
+                }
+            }
+        }
+
+        return results;
+    }
+
+    private int[] links(int node, int level) {
+        if (building) {
+            synchronized (lock(node)) {
+                return links[node][level];
+            }
+        }
+
+        return links[node][level];
+    }
+
+    private Object lock(int node) {
+        return locks[node & (LOCK_STRIPES - 1)];
+    }
+
+    private float distance(float[] query, int qOffset, int node) {
+        int offset = node * dimensions;
+        if (cosine) {
+            float dot = 0.0f;
+            for (int e = 0; e < dimensions; e++)
+                dot += query[qOffset + e] * vectors[offset + e];
+
+            return 1.0f - dot;
+        } else {
+            float sum = 0.0f;
+            for (int e = 0; e < dimensions; e++) {
+                float d = query[qOffset + e] - vectors[offset + e];
+                sum += d * d;
+            }
+
+            return sum;
+        }
+    }
+
+    private static void normalize(float[] array, int offset, int length) {
+        double norm = 0.0;
+        for (int e = 0; e < length; e++)
+            norm += array[offset + e] * array[offset + e];
+
+        norm = Math.sqrt(norm);
+        if (norm == 0.0)
+            return;
+
+        for (int e = 0; e < length; e++)
+            array[offset + e] /= norm;
+    }
+
+    /**
+     * This method returns indices of k elements nearest to the query, sorted by ascending distance.
+     *
+     * @param query query vector
+     * @param k number of neighbors to return
+     * @param distances optional array, will be filled with distances to returned elements.
+     *                  For cosine similarity function distance is 1 - cosine similarity.
+     * @return
+     */
+    public int[] search(@NonNull float[] query, int k, double[] distances) {
+        if (query.length != dimensions)
+            throw new ND4JIllegalStateException("Query length [" + query.length + "] doesn't match index dimensions ["
+                            + dimensions + "]");
+
+        if (k < 1 || size == 0)
+            return new int[0];
+
+        float[] q = query;
+        if (cosine) {
+            q = Arrays.copyOf(query, query.length);
+            normalize(q, 0, q.length);
+        }
+
+        int ep = entryPoint;
+        int top = maxLevel;
+        float[] epDistance = new float[] {distance(q, 0, ep)};
+        for (int lc = top; lc > 0; lc--)
+            ep = greedy(q, 0, ep, epDistance, lc);
+
+        NodeHeap results = searchLayer(q, 0, ep, epDistance[0], Math.max(ef, k), 0, -1);
+        while (results.size() > k)
+            results.pop();
+
+        float[] raw = new float[results.size()];
+        int[] ids = results.drainAscending(raw);
+
+        if (distances != null)
+            for (int e = 0; e < ids.length && e < distances.length; e++)
+                distances[e] = cosine ? raw[e] : Math.sqrt(raw[e]);
+
+        return ids;
+    }
+
+    /**
+     * This method returns indices of k elements nearest to the query, sorted by ascending distance.
+     *
+     * @param query query vector
+     * @param k number of neighbors to return
+     * @return
+     */
+    public int[] search(@NonNull float[] query, int k) {
+        return search(query, k, null);
+    }
+
+    /**
+     * This method returns indices of k elements nearest to the query, sorted by ascending distance.
+     *
+     * @param query query vector
+     * @param k number of neighbors to return
+     * @param distances optional array, will be filled with distances to returned elements
+     * @return
+     */
+    public int[] search(@NonNull INDArray query, int k, double[] distances) {
+        if (query.length() != dimensions)
+            throw new ND4JIllegalStateException("Query length [" + query.length() + "] doesn't match index dimensions ["
+                            + dimensions + "]");
+
+        float[] q = new float[dimensions];
+        for (int e = 0; e < dimensions; e++)
+            q[e] = query.getFloat(e);
+
+        return search(q, k, distances);
+    }
+
+    /**
+     * VPTree-compatible search method
+     *
+     * @param target query vector
+     * @param k number of neighbors to return
+     * @param results list to store found elements in
+     * @param distances list to store distances in
+     */
+    public void search(@NonNull INDArray target, int k, List<DataPoint> results, List<Double> distances) {
+        results.clear();
+        distances.clear();
+
+        double[] d = new double[k];
+        int[] ids = search(target, k, d);
+        for (int e = 0; e < ids.length; e++) {
+            results.add(new DataPoint(ids[e], Nd4j.create(getVector(ids[e])), similarityFunction));
+            distances.add(d[e]);
+        }
+    }
+
+    /**
+     * This method writes index in binary format to the given stream. Stream isn't closed.
+     *
+     * @param stream
+     * @throws IOException
+     */
+    public void write(@NonNull OutputStream stream) throws IOException {
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(stream));
+
+        dos.writeInt(MAGIC);
+        dos.writeInt(VERSION);
+        dos.writeUTF(similarityFunction);
+        dos.writeInt(dimensions);
+        dos.writeInt(size);
+        dos.writeInt(m);
+        dos.writeInt(efConstruction);
+        dos.writeInt(ef);
+        dos.writeInt(entryPoint);
+        dos.writeInt(maxLevel);
+
+        for (float value : vectors)
+            dos.writeFloat(value);
+
+        for (int e = 0; e < size; e++) {
+            dos.writeByte(levels[e]);
+            for (int l = 0; l <= levels[e]; l++) {
+                int[] list = links[e][l];
+                dos.writeInt(list.length);
+                for (int neighbor : list)
+                    dos.writeInt(neighbor);
+            }
+        }
+
+        dos.flush();
+    }
+
+    /**
+     * This method restores index previously saved with write()
+     *
+     * @param stream
+     * @return
+     * @throws IOException
+     */
+    public static HNSWIndex read(@NonNull InputStream stream) throws IOException {
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(stream));
+
+        if (dis.readInt() != MAGIC)
+            throw new ND4JIllegalStateException("Stream doesn't contain HNSW index");
+
+        int version = dis.readInt();
+        if (version != VERSION)
+            throw new ND4JIllegalStateException("Unsupported HNSW index version: [" + version + "]");
+
+        String similarityFunction = dis.readUTF();
+        int dimensions = dis.readInt();
+        int size = dis.readInt();
+        int m = dis.readInt();
+        int efConstruction = dis.readInt();
+        int ef = dis.readInt();
+
+        HNSWIndex index = new HNSWIndex(similarityFunction, m, efConstruction, ef);
+        index.dimensions = dimensions;
+        index.size = size;
+        index.entryPoint = dis.readInt();
+        index.maxLevel = dis.readInt();
+
+        index.vectors = new float[size * dimensions];
+        for (int e = 0; e < index.vectors.length; e++)
+            index.vectors[e] = dis.readFloat();
+
+        index.levels = new int[size];
+        index.links = new int[size][][];
+        for (int e = 0; e < size; e++) {
+            int level = dis.readByte();
+            index.levels[e] = level;
+            index.links[e] = new int[level + 1][];
+            for (int l = 0; l <= level; l++) {
+                int[] list = new int[dis.readInt()];
+                for (int n = 0; n < list.length; n++)
+                    list[n] = dis.readInt();
+
+                index.links[e][l] = list;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Per-thread visited marks, reset in O(1) by bumping generation tag
+     */
+    private static class VisitedList {
+        private int[] marks = new int[0];
+        private int tag = 0;
+
+        void reset(int size) {
+            if (marks.length < size) {
+                marks = new int[size];
+                tag = 0;
+            }
+
+            tag++;
+            if (tag == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                tag = 1;
+            }
+        }
+
+        /**
+         * @return true if node wasn't visited before
+         */
+        boolean visit(int node) {
+            if (marks[node] == tag)
+                return false;
+
+            marks[node] = tag;
+            return true;
+        }
+    }
+
+    public static class Builder {
+        private String similarityFunction = COSINE;
+        private int m = 16;
+        private int efConstruction = 200;
+        private int ef = 50;
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private long seed = 119;
+
+        public Builder() {
+            //
+        }
+
+        /**
+         * Similarity function to use: "cosinesimilarity" or "euclidean"
+         *
+         * Default value: cosinesimilarity
+         *
+         * @param similarityFunction
+         * @return
+         */
+        public Builder similarityFunction(@NonNull String similarityFunction) {
+            this.similarityFunction = similarityFunction;
+            return this;
+        }
+
+        /**
+         * Max number of links per element on upper levels. Level 0 gets 2 * M links.
+         *
+         * Default value: 16
+         *
+         * @param m
+         * @return
+         */
+        public Builder m(int m) {
+            this.m = m;
+            return this;
+        }
+
+        /**
+         * Size of dynamic candidates list used during index construction
+         *
+         * Default value: 200
+         *
+         * @param efConstruction
+         * @return
+         */
+        public Builder efConstruction(int efConstruction) {
+            this.efConstruction = efConstruction;
+            return this;
+        }
+
+        /**
+         * Size of dynamic candidates list used during search. Can be changed later via setEf()
+         *
+         * Default value: 50
+         *
+         * @param ef
+         * @return
+         */
+        public Builder ef(int ef) {
+            this.ef = ef;
+            return this;
+        }
+
+        /**
+         * Number of threads used to build the index
+         *
+         * Default value: number of available processors
+         *
+         * @param workers
+         * @return
+         */
+        public Builder workers(int workers) {
+            this.workers = workers;
+            return this;
+        }
+
+        /**
+         * Seed for level assignment
+         *
+         * @param seed
+         * @return
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * This method builds index over given items, one element per row
+         *
+         * @param items
+         * @return
+         */
+        public HNSWIndex build(@NonNull INDArray items) {
+            HNSWIndex index = new HNSWIndex(similarityFunction, m, efConstruction, ef);
+            index.build(items, workers, seed);
+            return index;
+        }
+    }
+}
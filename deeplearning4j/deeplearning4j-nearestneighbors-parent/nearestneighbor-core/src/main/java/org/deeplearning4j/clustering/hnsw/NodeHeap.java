@@ -0,0 +1,119 @@
+package org.deeplearning4j.clustering.hnsw;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of (node, distance) pairs, backed by primitive arrays to avoid boxing on hot search paths.
+ *
+ * Depending on mode, head of the heap is either closest (min-heap) or furthest (max-heap) node.
+ *
+ * @author raver119@gmail.com
+ */
+class NodeHeap {
+    private final boolean maxHeap;
+    private int[] nodes;
+    private float[] distances;
+    private int size;
+
+    NodeHeap(int capacity, boolean maxHeap) {
+        this.maxHeap = maxHeap;
+        this.nodes = new int[Math.max(capacity, 4)];
+        this.distances = new float[nodes.length];
+    }
+
+    void push(int node, float distance) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            distances = Arrays.copyOf(distances, size * 2);
+        }
+
+        int pos = size++;
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!above(distance, distances[parent]))
+                break;
+
+            nodes[pos] = nodes[parent];
+            distances[pos] = distances[parent];
+            pos = parent;
+        }
+
+        nodes[pos] = node;
+        distances[pos] = distance;
+    }
+
+    int pop() {
+        int result = nodes[0];
+        size--;
+        if (size > 0) {
+            int node = nodes[size];
+            float distance = distances[size];
+
+            int pos = 0;
+            int half = size >>> 1;
+            while (pos < half) {
+                int child = 2 * pos + 1;
+                if (child + 1 < size && above(distances[child + 1], distances[child]))
+                    child++;
+
+                if (!above(distances[child], distance))
+                    break;
+
+                nodes[pos] = nodes[child];
+                distances[pos] = distances[child];
+                pos = child;
+            }
+
+            nodes[pos] = node;
+            distances[pos] = distance;
+        }
+
+        return result;
+    }
+
+    int peekNode() {
+        return nodes[0];
+    }
+
+    float peekDistance() {
+        return distances[0];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * This method returns node ids in order of ascending distance. Heap is emptied as result of this call.
+     */
+    int[] drainAscending(float[] outDistances) {
+        int[] result = new int[size];
+        if (maxHeap) {
+            for (int e = size - 1; e >= 0; e--) {
+                if (outDistances != null)
+                    outDistances[e] = distances[0];
+                result[e] = pop();
+            }
+        } else {
+            for (int e = 0; e < result.length; e++) {
+                if (outDistances != null)
+                    outDistances[e] = distances[0];
+                result[e] = pop();
+            }
+        }
+
+        return result;
+    }
+
+    private boolean above(float a, float b) {
+        return maxHeap ? a > b : a < b;
+    }
+}
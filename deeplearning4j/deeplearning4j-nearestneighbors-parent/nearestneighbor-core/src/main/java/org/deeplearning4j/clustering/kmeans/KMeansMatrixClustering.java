@@ -0,0 +1,599 @@
+package org.deeplearning4j.clustering.kmeans;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.exception.ND4JIllegalStateException;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * K-means working on a single [numPoints, numDimensions] matrix, instead of one {@link org.deeplearning4j.clustering.cluster.Point}
+ * per vector as {@link KMeansClustering} does.
+ *
+ * Distances are computed for blocks of points at once, via ||x||^2 - 2 x*c + ||c||^2, i.e. one gemm per block.
+ * Full-batch training ({@link #fit(INDArray)}) uses triangle inequality pruning: for every point, an upper bound on the
+ * distance to its own centroid and a lower bound on the distance to any other centroid are kept, and distances are
+ * only recomputed for points where the bounds can't rule out a reassignment. After the first few iterations, this
+ * usually skips the majority of points. Only two bounds per point are kept (Hamerly's variant), so memory use does
+ * not grow with the number of clusters.
+ *
+ * Mini-batch training ({@link #partialFit(INDArray)} and {@link #fit(DataSetIterator, int)}) follows
+ * D. Sculley, "Web-Scale K-Means Clustering", and never needs all points in memory at once.
+ *
+ * Supports euclidean distance, and cosine similarity (points and centroids are normalized to unit length).
+ *
+ * @author raver119@gmail.com
+ */
+@Slf4j
+public class KMeansMatrixClustering implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final String EUCLIDEAN = "euclidean";
+    public static final String COSINE = "cosinesimilarity";
+
+    @Getter
+    private final int numClusters;
+    @Getter
+    private final int maxIterations;
+    @Getter
+    private final double tolerance;
+    @Getter
+    private final String distanceFunction;
+    @Getter
+    private final boolean pruning;
+    @Getter
+    private final int batchSize;
+    @Getter
+    private final int initSampleSize;
+
+    private final boolean cosine;
+    private final Random random;
+
+    private int dimensions = -1;
+    // centroids, row-major [numClusters, dimensions]
+    private double[] centroidData;
+    // number of points assigned to each centroid so far, used as learning rate by mini-batch training
+    private long[] miniBatchCounts;
+
+    @Getter
+    private int iterations;
+    @Getter
+    private long distanceComputations;
+
+    private KMeansMatrixClustering(Builder builder) {
+        this.numClusters = builder.numClusters;
+        this.maxIterations = builder.maxIterations;
+        this.tolerance = builder.tolerance;
+        this.distanceFunction = builder.distanceFunction;
+        this.pruning = builder.pruning;
+        this.batchSize = builder.batchSize;
+        this.initSampleSize = builder.initSampleSize;
+        this.cosine = COSINE.equalsIgnoreCase(builder.distanceFunction);
+        this.random = new Random(builder.seed);
+    }
+
+    /**
+     * @return Centroids, as [numClusters, numDimensions] matrix, or null if not fitted yet
+     */
+    public INDArray getCentroids() {
+        if (centroidData == null)
+            return null;
+        return Nd4j.create(centroidData, new int[] {numClusters, dimensions}, 0, 'c');
+    }
+
+    /**
+     * Run full-batch k-means on the given points, starting from k-means++ initialization
+     *
+     * @param points Points, as [numPoints, numDimensions] matrix
+     * @return Cluster index for each point
+     */
+    public int[] fit(@NonNull INDArray points) {
+        INDArray x = prepare(points);
+        int n = (int) x.rows();
+        if (n < numClusters)
+            throw new ND4JIllegalStateException("Number of points (" + n + ") must be >= number of clusters ("
+                            + numClusters + ")");
+
+        double[] xNorm2 = squaredNorms(x);
+        initCentroids(x, xNorm2);
+        iterations = 0;
+        distanceComputations = 0;
+
+        int d = dimensions;
+        int k = numClusters;
+        int[] assignment = new int[n];
+        double[] upper = new double[n];
+        double[] lower = new double[n];
+        double[] sums = new double[k * d];
+        long[] counts = new long[k];
+
+        //Initial assignment: all points
+        int[] all = new int[Math.min(batchSize, n)];
+        for (int start = 0; start < n; start += batchSize) {
+            int end = Math.min(n, start + batchSize);
+            int[] idx = (end - start == all.length ? all : new int[end - start]);
+            for (int i = 0; i < idx.length; i++)
+                idx[i] = start + i;
+            assignBlock(x, xNorm2, idx, idx.length, assignment, upper, lower, sums, counts, true);
+        }
+
+        double[] movement = new double[k];
+        double[] halfMinSeparation = new double[k];
+        int[] candidates = new int[batchSize];
+        while (iterations < maxIterations) {
+            iterations++;
+
+            //Update step: centroids are the means of their points. Empty clusters keep their previous centroid
+            double maxMovement = 0.0;
+            int maxMovementIdx = -1;
+            double secondMaxMovement = 0.0;
+            for (int j = 0; j < k; j++) {
+                double[] c = new double[d];
+                if (counts[j] > 0) {
+                    for (int l = 0; l < d; l++)
+                        c[l] = sums[j * d + l] / counts[j];
+                } else {
+                    System.arraycopy(centroidData, j * d, c, 0, d);
+                }
+                if (cosine)
+                    normalize(c, 0, d);
+                double m = 0.0;
+                for (int l = 0; l < d; l++) {
+                    double diff = c[l] - centroidData[j * d + l];
+                    m += diff * diff;
+                }
+                movement[j] = Math.sqrt(m);
+                System.arraycopy(c, 0, centroidData, j * d, d);
+
+                if (movement[j] > maxMovement) {
+                    secondMaxMovement = maxMovement;
+                    maxMovement = movement[j];
+                    maxMovementIdx = j;
+                } else if (movement[j] > secondMaxMovement) {
+                    secondMaxMovement = movement[j];
+                }
+            }
+
+            if (maxMovement <= tolerance) {
+                log.debug("K-means converged after {} iterations", iterations);
+                break;
+            }
+
+            //Bounds are kept valid via the triangle inequality, given how far each centroid moved
+            for (int i = 0; i < n; i++) {
+                upper[i] += movement[assignment[i]];
+                lower[i] -= (assignment[i] == maxMovementIdx ? secondMaxMovement : maxMovement);
+            }
+
+            if (pruning)
+                centroidSeparation(halfMinSeparation);
+
+            int numCandidates = 0;
+            for (int i = 0; i < n; i++) {
+                if (pruning && upper[i] <= Math.max(halfMinSeparation[assignment[i]], lower[i]))
+                    continue;
+
+                candidates[numCandidates++] = i;
+                if (numCandidates == candidates.length) {
+                    assignBlock(x, xNorm2, candidates, numCandidates, assignment, upper, lower, sums, counts, false);
+                    numCandidates = 0;
+                }
+            }
+            if (numCandidates > 0)
+                assignBlock(x, xNorm2, candidates, numCandidates, assignment, upper, lower, sums, counts, false);
+        }
+
+        return assignment;
+    }
+
+    /**
+     * Run mini-batch k-means over the given iterator. Features of rank > 2 are flattened.
+     *
+     * @param iterator  Iterator providing the points as features
+     * @param numEpochs Number of passes over the iterator
+     */
+    public void fit(@NonNull DataSetIterator iterator, int numEpochs) {
+        for (int e = 0; e < numEpochs; e++) {
+            if (e > 0 || iterator.resetSupported()) {
+                if (!iterator.resetSupported())
+                    throw new IllegalStateException("Cannot run multiple epochs: iterator does not support reset");
+                iterator.reset();
+            }
+            while (iterator.hasNext()) {
+                DataSet ds = iterator.next();
+                INDArray f = ds.getFeatures();
+                if (f.rank() > 2)
+                    f = f.reshape('c', f.size(0), f.length() / f.size(0));
+                partialFit(f);
+            }
+        }
+    }
+
+    /**
+     * Update the centroids given one mini-batch of points. If the model hasn't been fitted yet, centroids are
+     * initialized from this batch via k-means++, hence the first batch must contain at least numClusters points.
+     *
+     * @param batch Points, as [numPoints, numDimensions] matrix
+     */
+    public void partialFit(@NonNull INDArray batch) {
+        INDArray x = prepare(batch);
+        int n = (int) x.rows();
+        double[] xNorm2 = squaredNorms(x);
+        if (centroidData == null) {
+            if (n < numClusters)
+                throw new ND4JIllegalStateException("First mini-batch must have at least numClusters (" + numClusters
+                                + ") points, got " + n);
+            initCentroids(x, xNorm2);
+        }
+        if (miniBatchCounts == null)
+            miniBatchCounts = new long[numClusters];
+
+        int d = dimensions;
+        int[] assignment = predictPrepared(x, xNorm2);
+        for (int start = 0; start < n; start += batchSize) {
+            int end = Math.min(n, start + batchSize);
+            double[] rows = rowData(x, start, end);
+            for (int i = start; i < end; i++) {
+                int j = assignment[i];
+                miniBatchCounts[j]++;
+                double eta = 1.0 / miniBatchCounts[j];
+                int off = (i - start) * d;
+                for (int l = 0; l < d; l++) {
+                    int c = j * d + l;
+                    centroidData[c] = (1.0 - eta) * centroidData[c] + eta * rows[off + l];
+                }
+            }
+        }
+        if (cosine) {
+            for (int j = 0; j < numClusters; j++)
+                normalize(centroidData, j * d, d);
+        }
+        iterations++;
+    }
+
+    /**
+     * @param points Points, as [numPoints, numDimensions] matrix
+     * @return Index of the nearest centroid, for each point
+     */
+    public int[] predict(@NonNull INDArray points) {
+        if (centroidData == null)
+            throw new IllegalStateException("Model has not been fitted yet");
+        INDArray x = prepare(points);
+        return predictPrepared(x, squaredNorms(x));
+    }
+
+    /**
+     * @param points Points, as [numPoints, numDimensions] matrix
+     * @return Sum of squared distances between the points and their nearest centroids
+     */
+    public double cost(@NonNull INDArray points) {
+        if (centroidData == null)
+            throw new IllegalStateException("Model has not been fitted yet");
+        INDArray x = prepare(points);
+        double[] xNorm2 = squaredNorms(x);
+        int n = (int) x.rows();
+        double[] cNorm2 = centroidNorms();
+        double cost = 0.0;
+        for (int start = 0; start < n; start += batchSize) {
+            int end = Math.min(n, start + batchSize);
+            double[] dots = blockDots(x.get(NDArrayIndex.interval(start, end), NDArrayIndex.all()));
+            int m = end - start;
+            for (int i = 0; i < m; i++) {
+                double best = Double.MAX_VALUE;
+                for (int j = 0; j < numClusters; j++) {
+                    double d2 = xNorm2[start + i] - 2 * dots[i + j * m] + cNorm2[j];
+                    best = Math.min(best, d2);
+                }
+                cost += Math.max(0.0, best);
+            }
+        }
+        return cost;
+    }
+
+    private int[] predictPrepared(INDArray x, double[] xNorm2) {
+        int n = (int) x.rows();
+        int[] out = new int[n];
+        double[] cNorm2 = centroidNorms();
+        for (int start = 0; start < n; start += batchSize) {
+            int end = Math.min(n, start + batchSize);
+            double[] dots = blockDots(x.get(NDArrayIndex.interval(start, end), NDArrayIndex.all()));
+            int m = end - start;
+            for (int i = 0; i < m; i++) {
+                double best = Double.MAX_VALUE;
+                int bestIdx = 0;
+                for (int j = 0; j < numClusters; j++) {
+                    double d2 = xNorm2[start + i] - 2 * dots[i + j * m] + cNorm2[j];
+                    if (d2 < best) {
+                        best = d2;
+                        bestIdx = j;
+                    }
+                }
+                out[start + i] = bestIdx;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Compute distances to all centroids for the given points, and reassign them. Updates bounds, and per-cluster
+     * sums/counts of the points that changed cluster.
+     */
+    private void assignBlock(INDArray x, double[] xNorm2, int[] idx, int numIdx, int[] assignment, double[] upper,
+                    double[] lower, double[] sums, long[] counts, boolean initial) {
+        int d = dimensions;
+        int k = numClusters;
+        INDArray rows = x.getRows(numIdx == idx.length ? idx : Arrays.copyOf(idx, numIdx));
+        double[] dots = blockDots(rows);
+        double[] cNorm2 = centroidNorms();
+        double[] rowData = null;
+        distanceComputations += (long) numIdx * k;
+
+        for (int i = 0; i < numIdx; i++) {
+            int p = idx[i];
+            double best = Double.MAX_VALUE;
+            double second = Double.MAX_VALUE;
+            int bestIdx = 0;
+            for (int j = 0; j < k; j++) {
+                double d2 = xNorm2[p] - 2 * dots[i + j * numIdx] + cNorm2[j];
+                if (d2 < best) {
+                    second = best;
+                    best = d2;
+                    bestIdx = j;
+                } else if (d2 < second) {
+                    second = d2;
+                }
+            }
+            upper[p] = Math.sqrt(Math.max(0.0, best));
+            lower[p] = (k > 1 ? Math.sqrt(Math.max(0.0, second)) : Double.MAX_VALUE);
+
+            int prev = assignment[p];
+            if (initial || prev != bestIdx) {
+                if (rowData == null)
+                    rowData = rows.dup('c').data().asDouble();
+                int off = i * d;
+                if (!initial) {
+                    counts[prev]--;
+                    for (int l = 0; l < d; l++)
+                        sums[prev * d + l] -= rowData[off + l];
+                }
+                counts[bestIdx]++;
+                for (int l = 0; l < d; l++)
+                    sums[bestIdx * d + l] += rowData[off + l];
+                assignment[p] = bestIdx;
+            }
+        }
+    }
+
+    /**
+     * @return Dot products between the given rows and all centroids, as f order [rows, numClusters] values
+     */
+    private double[] blockDots(INDArray rows) {
+        INDArray c = getCentroids();
+        INDArray dots = Nd4j.gemm(rows.isView() ? rows.dup('c') : rows, c, false, true);
+        return dots.data().asDouble();
+    }
+
+    /**
+     * Half the distance from each centroid to its nearest other centroid: a point closer than that to its own
+     * centroid can't be closer to any other centroid
+     */
+    private void centroidSeparation(double[] out) {
+        int k = numClusters;
+        INDArray c = getCentroids();
+        double[] dots = Nd4j.gemm(c, c, false, true).data().asDouble();
+        double[] cNorm2 = centroidNorms();
+        for (int a = 0; a < k; a++) {
+            double min = Double.MAX_VALUE;
+            for (int b = 0; b < k; b++) {
+                if (a == b)
+                    continue;
+                double d2 = cNorm2[a] - 2 * dots[a + b * k] + cNorm2[b];
+                min = Math.min(min, d2);
+            }
+            out[a] = 0.5 * Math.sqrt(Math.max(0.0, min));
+        }
+    }
+
+    /**
+     * k-means++ initialization, on a random sample of at most initSampleSize points
+     */
+    private void initCentroids(INDArray x, double[] xNorm2) {
+        int n = (int) x.rows();
+        int d = dimensions;
+        int[] sample;
+        if (n > initSampleSize) {
+            sample = new int[initSampleSize];
+            for (int i = 0; i < initSampleSize; i++)
+                sample[i] = random.nextInt(n);
+        } else {
+            sample = new int[n];
+            for (int i = 0; i < n; i++)
+                sample[i] = i;
+        }
+        int s = sample.length;
+        double[] data = x.getRows(sample).dup('c').data().asDouble();
+        double[] minD2 = new double[s];
+        Arrays.fill(minD2, Double.MAX_VALUE);
+
+        centroidData = new double[numClusters * d];
+        int chosen = random.nextInt(s);
+        for (int j = 0; j < numClusters; j++) {
+            System.arraycopy(data, chosen * d, centroidData, j * d, d);
+            if (j == numClusters - 1)
+                break;
+
+            double total = 0.0;
+            for (int i = 0; i < s; i++) {
+                double d2 = 0.0;
+                for (int l = 0; l < d; l++) {
+                    double diff = data[i * d + l] - centroidData[j * d + l];
+                    d2 += diff * diff;
+                }
+                minD2[i] = Math.min(minD2[i], d2);
+                total += minD2[i];
+            }
+
+            if (total <= 0.0) {
+                //Fewer distinct points than clusters (in the sample): pick uniformly
+                chosen = random.nextInt(s);
+            } else {
+                double r = random.nextDouble() * total;
+                chosen = s - 1;
+                for (int i = 0; i < s; i++) {
+                    r -= minD2[i];
+                    if (r <= 0) {
+                        chosen = i;
+                        break;
+                    }
+                }
+            }
+        }
+        miniBatchCounts = null;
+    }
+
+    private INDArray prepare(INDArray points) {
+        if (points.rank() != 2)
+            throw new ND4JIllegalStateException("Points must be a rank 2 [numPoints, numDimensions] matrix, got shape "
+                            + Arrays.toString(points.shape()));
+        if (dimensions < 0) {
+            dimensions = (int) points.columns();
+        } else if (points.columns() != dimensions) {
+            throw new ND4JIllegalStateException("Points have " + points.columns() + " dimensions, expected "
+                            + dimensions);
+        }
+
+        INDArray x = points;
+        if (cosine) {
+            x = points.divColumnVector(points.norm2(1).addi(1e-12));
+        }
+        return x;
+    }
+
+    private static double[] squaredNorms(INDArray x) {
+        return x.mul(x).sum(1).data().asDouble();
+    }
+
+    private double[] centroidNorms() {
+        int d = dimensions;
+        double[] out = new double[numClusters];
+        for (int j = 0; j < numClusters; j++) {
+            double s = 0.0;
+            for (int l = 0; l < d; l++) {
+                double v = centroidData[j * d + l];
+                s += v * v;
+            }
+            out[j] = s;
+        }
+        return out;
+    }
+
+    private static double[] rowData(INDArray x, int start, int end) {
+        return x.get(NDArrayIndex.interval(start, end), NDArrayIndex.all()).dup('c').data().asDouble();
+    }
+
+    private static void normalize(double[] v, int offset, int length) {
+        double s = 0.0;
+        for (int l = 0; l < length; l++)
+            s += v[offset + l] * v[offset + l];
+        s = Math.sqrt(s);
+        if (s > 0) {
+            for (int l = 0; l < length; l++)
+                v[offset + l] /= s;
+        }
+    }
+
+    public static class Builder {
+        private int numClusters;
+        private int maxIterations = 100;
+        private double tolerance = 1e-4;
+        private String distanceFunction = EUCLIDEAN;
+        private boolean pruning = true;
+        private int batchSize = 4096;
+        private int initSampleSize = 100000;
+        private long seed = System.currentTimeMillis();
+
+        /**
+         * @param numClusters Number of clusters (k)
+         */
+        public Builder(int numClusters) {
+            this.numClusters = numClusters;
+        }
+
+        /**
+         * Maximum number of full-batch iterations. Default: 100
+         */
+        public Builder maxIterations(int maxIterations) {
+            this.maxIterations = maxIterations;
+            return this;
+        }
+
+        /**
+         * Full-batch training stops once no centroid moved more than this distance. Default: 1e-4
+         */
+        public Builder tolerance(double tolerance) {
+            this.tolerance = tolerance;
+            return this;
+        }
+
+        /**
+         * Distance function: "euclidean" (default) or "cosinesimilarity"
+         */
+        public Builder distanceFunction(@NonNull String distanceFunction) {
+            this.distanceFunction = distanceFunction;
+            return this;
+        }
+
+        /**
+         * If true (default), use triangle inequality bounds to skip distance computations in full-batch training.
+         * Results are identical either way
+         */
+        public Builder pruning(boolean pruning) {
+            this.pruning = pruning;
+            return this;
+        }
+
+        /**
+         * Number of points for which distances are computed at once (one gemm). Default: 4096
+         */
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Maximum number of points used for k-means++ initialization. Default: 100000
+         */
+        public Builder initSampleSize(int initSampleSize) {
+            this.initSampleSize = initSampleSize;
+            return this;
+        }
+
+        /**
+         * RNG seed, for initialization
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public KMeansMatrixClustering build() {
+            if (numClusters <= 0)
+                throw new IllegalArgumentException("Number of clusters must be positive, got " + numClusters);
+            if (!EUCLIDEAN.equalsIgnoreCase(distanceFunction) && !COSINE.equalsIgnoreCase(distanceFunction))
+                throw new ND4JIllegalStateException("Unsupported distance function: [" + distanceFunction + "]");
+            if (batchSize <= 0)
+                throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+            if (initSampleSize < numClusters)
+                throw new IllegalArgumentException("Init sample size must be >= number of clusters");
+            return new KMeansMatrixClustering(this);
+        }
+    }
+}
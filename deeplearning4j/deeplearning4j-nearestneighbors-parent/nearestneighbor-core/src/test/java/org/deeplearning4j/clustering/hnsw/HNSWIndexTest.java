@@ -0,0 +1,180 @@
+package org.deeplearning4j.clustering.hnsw;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.commons.lang3.SerializationUtils;
+import org.deeplearning4j.clustering.sptree.DataPoint;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author raver119@gmail.com
+ */
+@Slf4j
+public class HNSWIndexTest {
+
+    private static int[] bruteForce(INDArray points, INDArray query, int k, boolean cosine) {
+        INDArray distances;
+        if (cosine) {
+            INDArray normalized = points.divColumnVector(points.norm2(1));
+            distances = normalized.mmul(query.div(query.norm2Number()).transpose()).neg();
+        } else {
+            distances = points.subRowVector(query).norm2(1);
+        }
+
+        int[] result = new int[k];
+        boolean[] used = new boolean[points.rows()];
+        for (int i = 0; i < k; i++) {
+            int best = -1;
+            for (int e = 0; e < points.rows(); e++) {
+                if (!used[e] && (best < 0 || distances.getDouble(e) < distances.getDouble(best)))
+                    best = e;
+            }
+            used[best] = true;
+            result[i] = best;
+        }
+
+        return result;
+    }
+
+    private static double recall(HNSWIndex index, INDArray points, INDArray queries, int k, boolean cosine) {
+        int found = 0;
+        for (int q = 0; q < queries.rows(); q++) {
+            INDArray query = queries.getRow(q).dup();
+            Set<Integer> expected = new HashSet<>();
+            for (int id : bruteForce(points, query, k, cosine))
+                expected.add(id);
+
+            for (int id : index.search(query, k, null))
+                if (expected.contains(id))
+                    found++;
+        }
+
+        return found / (double) (queries.rows() * k);
+    }
+
+    @Test
+    public void testExactMatch_1() {
+        Nd4j.getRandom().setSeed(119);
+        val points = Nd4j.rand(500, 16);
+        val index = new HNSWIndex.Builder().m(8).workers(1).build(points);
+
+        assertEquals(500, index.getSize());
+        assertEquals(16, index.getDimensions());
+
+        for (int e = 0; e < 500; e += 25) {
+            double[] distances = new double[3];
+            int[] result = index.search(points.getRow(e).dup(), 3, distances);
+            assertEquals(3, result.length);
+            assertEquals(e, result[0]);
+            assertEquals(0.0, distances[0], 1e-5);
+            assertTrue(distances[1] >= distances[0]);
+            assertTrue(distances[2] >= distances[1]);
+        }
+    }
+
+    @Test
+    public void testRecallCosine_1() {
+        Nd4j.getRandom().setSeed(119);
+        val points = Nd4j.randn(3000, 32);
+        val queries = Nd4j.randn(50, 32);
+
+        val index = new HNSWIndex.Builder().similarityFunction(HNSWIndex.COSINE).m(12).efConstruction(100).ef(64)
+                        .workers(1).build(points);
+
+        double recall = recall(index, points, queries, 10, true);
+        log.info("Cosine recall@10: {}", recall);
+        assertTrue(recall > 0.9);
+    }
+
+    @Test
+    public void testRecallEuclidean_1() {
+        Nd4j.getRandom().setSeed(119);
+        val points = Nd4j.rand(3000, 16);
+        val queries = Nd4j.rand(50, 16);
+
+        val index = new HNSWIndex.Builder().similarityFunction(HNSWIndex.EUCLIDEAN).m(12).efConstruction(100)
+                        .ef(64).workers(1).build(points);
+
+        double recall = recall(index, points, queries, 10, false);
+        log.info("Euclidean recall@10: {}", recall);
+        assertTrue(recall > 0.9);
+    }
+
+    @Test
+    public void testParallelBuild_1() {
+        Nd4j.getRandom().setSeed(119);
+        val points = Nd4j.randn(5000, 24);
+        val queries = Nd4j.randn(30, 24);
+
+        val index = new HNSWIndex.Builder().m(12).efConstruction(100).ef(64).workers(4).build(points);
+
+        double recall = recall(index, points, queries, 10, true);
+        log.info("Parallel build recall@10: {}", recall);
+        assertTrue(recall > 0.9);
+    }
+
+    @Test
+    public void testStreamSerialization_1() throws Exception {
+        Nd4j.getRandom().setSeed(119);
+        val points = Nd4j.randn(1000, 8);
+        val indexA = new HNSWIndex.Builder().m(6).workers(1).build(points);
+
+        val bos = new ByteArrayOutputStream();
+        indexA.write(bos);
+
+        val indexB = HNSWIndex.read(new ByteArrayInputStream(bos.toByteArray()));
+        assertEquals(indexA.getSize(), indexB.getSize());
+        assertEquals(indexA.getDimensions(), indexB.getDimensions());
+        assertEquals(indexA.getMaxLevel(), indexB.getMaxLevel());
+        assertEquals(indexA.getSimilarityFunction(), indexB.getSimilarityFunction());
+
+        for (int e = 0; e < 20; e++) {
+            val query = points.getRow(e * 7).dup();
+            assertArrayEquals(indexA.search(query, 5, null), indexB.search(query, 5, null));
+        }
+    }
+
+    @Test
+    public void testJavaSerialization_1() throws Exception {
+        Nd4j.getRandom().setSeed(119);
+        val points = Nd4j.randn(300, 8);
+        val indexA = new HNSWIndex.Builder().m(6).workers(1).build(points);
+
+        HNSWIndex indexB = SerializationUtils.deserialize(SerializationUtils.serialize(indexA));
+
+        val query = points.getRow(17).dup();
+        List<DataPoint> resultsA = new ArrayList<>();
+        List<Double> distancesA = new ArrayList<>();
+        List<DataPoint> resultsB = new ArrayList<>();
+        List<Double> distancesB = new ArrayList<>();
+
+        indexA.search(query, 4, resultsA, distancesA);
+        indexB.search(query, 4, resultsB, distancesB);
+
+        assertEquals(4, resultsA.size());
+        assertEquals(17, resultsA.get(0).getIndex());
+        assertEquals(distancesA, distancesB);
+        for (int e = 0; e < resultsA.size(); e++)
+            assertEquals(resultsA.get(e).getIndex(), resultsB.get(e).getIndex());
+    }
+
+    @Test
+    public void testSmallIndex_1() {
+        val points = Nd4j.create(new double[][] {{1, 0}, {0, 1}});
+        val index = new HNSWIndex.Builder().similarityFunction(HNSWIndex.EUCLIDEAN).workers(1).build(points);
+
+        int[] result = index.search(new float[] {0.9f, 0.1f}, 10);
+        assertArrayEquals(new int[] {0, 1}, result);
+    }
+}
@@ -4,11 +4,16 @@ import org.deeplearning4j.clustering.cluster.ClusterSet;
 import org.deeplearning4j.clustering.cluster.Point;
 import org.deeplearning4j.clustering.cluster.PointClassification;
 import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.ViewIterator;
 import org.nd4j.linalg.factory.Nd4j;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 /**
  * Created by agibsonccc on 7/2/17.
@@ -46,4 +51,78 @@ public class KMeansTest {
                         pointClassificationEuclidean.getCluster().getPoints().get(0));
     }
 
+    @Test
+    public void testMatrixKMeans() {
+        Nd4j.getRandom().setSeed(12345);
+        int perCluster = 200;
+        INDArray centers = Nd4j.create(new double[][] {{0, 0, 0}, {10, 10, 10}, {-10, 10, 0}, {10, -10, 5}});
+        INDArray points = blobs(centers, perCluster);
+
+        KMeansMatrixClustering noPruning = new KMeansMatrixClustering.Builder(4).seed(12345).pruning(false)
+                        .batchSize(128).build();
+        KMeansMatrixClustering pruning = new KMeansMatrixClustering.Builder(4).seed(12345).pruning(true)
+                        .batchSize(128).build();
+        int[] a1 = noPruning.fit(points);
+        int[] a2 = pruning.fit(points);
+
+        //Pruning only skips distance computations that can't change the result
+        assertArrayEquals(a1, a2);
+        assertEquals(noPruning.getIterations(), pruning.getIterations());
+        assertTrue(pruning.getDistanceComputations() < noPruning.getDistanceComputations());
+        assertEquals(noPruning.getCentroids(), pruning.getCentroids());
+
+        //Each blob should map to exactly one cluster
+        Set<Integer> seen = new HashSet<>();
+        for (int c = 0; c < 4; c++) {
+            int cluster = a1[c * perCluster];
+            for (int i = 0; i < perCluster; i++) {
+                assertEquals(cluster, a1[c * perCluster + i]);
+            }
+            assertTrue(seen.add(cluster));
+            assertEquals(0.0, centers.getRow(c).distance2(pruning.getCentroids().getRow(cluster)), 0.2);
+        }
+
+        assertArrayEquals(a1, pruning.predict(points));
+        assertEquals(pruning.cost(points), noPruning.cost(points), 1e-6);
+    }
+
+    @Test
+    public void testMatrixKMeansMiniBatch() {
+        Nd4j.getRandom().setSeed(12345);
+        int perCluster = 500;
+        INDArray centers = Nd4j.create(new double[][] {{0, 0}, {20, 20}, {-20, 20}});
+        INDArray points = blobs(centers, perCluster);
+
+        //Shuffle, so each minibatch contains points from all clusters
+        DataSet ds = new DataSet(points, Nd4j.zeros(points.rows(), 1));
+        ds.shuffle(12345);
+
+        KMeansMatrixClustering kmeans = new KMeansMatrixClustering.Builder(3).seed(12345).build();
+        kmeans.fit(new ViewIterator(ds, 100), 2);
+
+        int[] predicted = kmeans.predict(points);
+        Set<Integer> seen = new HashSet<>();
+        for (int c = 0; c < 3; c++) {
+            int cluster = predicted[c * perCluster];
+            assertTrue(seen.add(cluster));
+            assertEquals(0.0, centers.getRow(c).distance2(kmeans.getCentroids().getRow(cluster)), 0.5);
+        }
+
+        //Cost should be close to the full batch result
+        KMeansMatrixClustering full = new KMeansMatrixClustering.Builder(3).seed(12345).build();
+        full.fit(points);
+        assertEquals(full.cost(points), kmeans.cost(points), 0.05 * full.cost(points));
+    }
+
+    private static INDArray blobs(INDArray centers, int perCluster) {
+        int numCenters = (int) centers.rows();
+        INDArray out = Nd4j.randn(numCenters * perCluster, (int) centers.columns());
+        for (int c = 0; c < numCenters; c++) {
+            for (int i = 0; i < perCluster; i++) {
+                out.getRow(c * perCluster + i).addiRowVector(centers.getRow(c));
+            }
+        }
+        return out;
+    }
+
 }
@@ -29,11 +29,13 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.LineIterator;
 import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.deeplearning4j.clustering.hnsw.HNSWIndex;
 import org.deeplearning4j.exception.DL4JInvalidInputException;
 import org.deeplearning4j.models.embeddings.WeightLookupTable;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
 import org.deeplearning4j.models.embeddings.learning.impl.elements.SkipGram;
 import org.deeplearning4j.models.embeddings.reader.impl.BasicModelUtils;
+import org.deeplearning4j.models.embeddings.reader.impl.HnswModelUtils;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectors;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectorsImpl;
 import org.deeplearning4j.models.glove.Glove;
@@ -577,6 +579,17 @@ public class WordVectorSerializer {
                 IOUtils.copy(bais, zipfile);
             }
 
+            // if HNSW index was built for this model, we save it as well, so it won't be rebuilt after restore
+            if (vectors.getModelUtils() instanceof HnswModelUtils) {
+                HNSWIndex index = ((HnswModelUtils) vectors.getModelUtils()).getIndex();
+                if (index != null) {
+                    ZipEntry hnsw = new ZipEntry("hnsw.bin");
+                    zipfile.putNextEntry(hnsw);
+
+                    index.write(zipfile);
+                }
+            }
+
             zipfile.flush();
             zipfile.close();
         } finally {
@@ -872,6 +885,10 @@ public class WordVectorSerializer {
                 }
             }
 
+            HNSWIndex index = readHnswIndex(zipFile);
+            if (index != null)
+                applyHnswIndex(w2v, index);
+
             return w2v;
         } finally {
             if (originalPeriodic)
@@ -2229,6 +2246,7 @@ public class WordVectorSerializer {
         // try to load zip format
         File tmpFileSyn0 = null;
         File tmpFileConfig = null;
+        HNSWIndex hnswIndex = null;
         try {
             if (extendedModel) {
                 log.debug("Trying full model restoration...");
@@ -2271,6 +2289,8 @@ public class WordVectorSerializer {
                     configuration = VectorsConfiguration.fromJson(builder.toString().trim());
                 }
 
+                hnswIndex = readHnswIndex(zipFile);
+
                 ZipEntry ve = zipFile.getEntry("frequencies.txt");
                 if (ve != null) {
                     stream = zipFile.getInputStream(ve);
@@ -2409,9 +2429,35 @@ public class WordVectorSerializer {
 
         vec = builder.build();
 
+        if (hnswIndex != null)
+            applyHnswIndex(vec, hnswIndex);
+
         return vec;
     }
 
+    /**
+     * This method reads HNSW index saved alongside the model, if any
+     *
+     * @param zipFile
+     * @return index, or null if model has no index saved
+     * @throws IOException
+     */
+    protected static HNSWIndex readHnswIndex(ZipFile zipFile) throws IOException {
+        ZipEntry entry = zipFile.getEntry("hnsw.bin");
+        if (entry == null)
+            return null;
+
+        try (InputStream stream = zipFile.getInputStream(entry)) {
+            return HNSWIndex.read(stream);
+        }
+    }
+
+    protected static void applyHnswIndex(Word2Vec vec, HNSWIndex index) {
+        HnswModelUtils<VocabWord> utils = new HnswModelUtils<>();
+        vec.setModelUtils(utils);
+        utils.setIndex(index);
+    }
+
     protected static TokenizerFactory getTokenizerFactory(VectorsConfiguration configuration) {
         if (configuration == null)
             return null;
@@ -0,0 +1,129 @@
+package org.deeplearning4j.models.embeddings.reader.impl;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.clustering.hnsw.HNSWIndex;
+import org.deeplearning4j.models.embeddings.WeightLookupTable;
+import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.exception.ND4JIllegalStateException;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This is HNSW-based implementation for wordsNearest method, suited for large vocabularies and multiple consequent calls.
+ * Index is built upon first call to wordsNearest (using all available cores), or can be provided via setIndex().
+ *
+ * PLEASE NOTE: results are approximate, recall can be tuned via setEf()
+ *
+ * @author raver119@gmail.com
+ */
+@Slf4j
+public class HnswModelUtils<T extends SequenceElement> extends BasicModelUtils<T> {
+    protected volatile HNSWIndex index;
+
+    protected int m = 16;
+    protected int efConstruction = 200;
+    protected int ef = 100;
+    protected int workers = Runtime.getRuntime().availableProcessors();
+
+    public HnswModelUtils() {
+        //
+    }
+
+    /**
+     * @param m max number of links per element
+     * @param efConstruction size of candidates list used during index construction
+     * @param ef size of candidates list used during search
+     * @param workers number of threads used to build index
+     */
+    public HnswModelUtils(int m, int efConstruction, int ef, int workers) {
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.ef = ef;
+        this.workers = workers;
+    }
+
+    @Override
+    public void init(@NonNull WeightLookupTable<T> lookupTable) {
+        super.init(lookupTable);
+        index = null;
+    }
+
+    /**
+     * This method returns underlying index, or null if it wasn't built yet
+     *
+     * @return
+     */
+    public HNSWIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * This method allows to use previously built index, i.e. one restored alongside the model
+     *
+     * @param index
+     */
+    public void setIndex(@NonNull HNSWIndex index) {
+        if (vocabCache != null && index.getSize() < vocabCache.numWords())
+            throw new ND4JIllegalStateException("Index size [" + index.getSize() + "] doesn't match vocabulary size ["
+                            + vocabCache.numWords() + "]");
+
+        this.index = index;
+    }
+
+    /**
+     * This method sets size of candidates list used during search
+     *
+     * @param ef
+     */
+    public void setEf(int ef) {
+        this.ef = ef;
+        if (index != null)
+            index.setEf(ef);
+    }
+
+    protected HNSWIndex checkIndex() {
+        // build new index if it wasn't created before
+        if (index == null) {
+            synchronized (this) {
+                if (index == null) {
+                    INDArray vectors;
+                    if (lookupTable instanceof InMemoryLookupTable) {
+                        vectors = ((InMemoryLookupTable) lookupTable).getSyn0();
+                    } else {
+                        INDArray[] rows = new INDArray[vocabCache.numWords()];
+                        for (int e = 0; e < rows.length; e++)
+                            rows[e] = lookupTable.vector(vocabCache.wordAtIndex(e));
+
+                        vectors = Nd4j.vstack(rows);
+                    }
+
+                    index = new HNSWIndex.Builder().similarityFunction(HNSWIndex.COSINE).m(m)
+                                    .efConstruction(efConstruction).ef(ef).workers(workers).build(vectors);
+                }
+            }
+        }
+
+        return index;
+    }
+
+    @Override
+    public Collection<String> wordsNearest(INDArray words, int top) {
+        HNSWIndex index = checkIndex();
+
+        int[] ids = index.search(words, top + 2, null);
+        List<String> ret = new ArrayList<>();
+        for (int id : ids) {
+            String word = vocabCache.wordAtIndex(id);
+            if (word != null && !word.equals("UNK") && !word.equals("STOP") && ret.size() < top)
+                ret.add(word);
+        }
+
+        return ret;
+    }
+}
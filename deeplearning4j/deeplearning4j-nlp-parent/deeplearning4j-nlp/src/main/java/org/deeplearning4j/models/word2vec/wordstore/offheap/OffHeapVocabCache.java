@@ -0,0 +1,891 @@
+package org.deeplearning4j.models.word2vec.wordstore.offheap;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This is VocabCache implementation designed for huge vocabularies.
+ *
+ * Instead of keeping VocabWord object per element, this implementation keeps:
+ * - labels as UTF-8 bytes in off-heap string arena
+ * - label -> element and storageId -> element lookups as open-addressing hash tables in int arrays
+ * - frequencies, document counts, Huffman indexes, codes and points in primitive arrays
+ *
+ * So, memory footprint is few dozens bytes per element, and GC sees only a handful of large arrays.
+ *
+ * VocabWord instances returned by this cache are lightweight views, created on demand. All modifications made
+ * through them (frequencies, indexes, Huffman codes and points, flags) are written through to the cache,
+ * so this cache can be used with Word2Vec, ParagraphVectors and SequenceVectors as any other VocabCache.
+ * Views are reused via fixed-size direct-mapped cache, so frequent lookups during training don't produce garbage.
+ * Per-element AdaGrad state isn't stored by this cache.
+ *
+ * PLEASE NOTE: all modifications are synchronized, while lookups are lock-free. Lookups shouldn't be mixed with
+ * vocabulary growth from other threads.
+ *
+ * @author raver119@gmail.com
+ */
+@Slf4j
+public class OffHeapVocabCache implements VocabCache<VocabWord> {
+    private static final long serialVersionUID = 3423423421223452346L;
+
+    // number of entries in views cache, should be power of 2
+    protected static final int VIEW_CACHE_SIZE = 1 << 16;
+
+    private static final byte FLAG_REMOVED = 1;
+    private static final byte FLAG_SPECIAL = 2;
+    private static final byte FLAG_LABEL = 4;
+    private static final byte FLAG_INIT = 8;
+
+    private static final int EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+    private static final int NO_LABEL = -1;
+
+    private int chunkSize;
+
+    // label bytes live here
+    private transient StringArena arena;
+
+    // number of allocated slots, including removed ones
+    private int size = 0;
+    // number of live elements
+    private int numWords = 0;
+
+    // per-slot storage
+    private long[] labelAddress;
+    private int[] labelLength;
+    private int[] labelHash;
+    private long[] storageIds;
+    private double[] frequencies;
+    private long[] sequencesCounts;
+    private int[] indexes;
+    private byte[] flags;
+
+    // Huffman codes are stored as bitmasks, since code length is limited to 64
+    private long[] codes;
+    private byte[] codesSize;
+    private short[] codeLengths;
+
+    // Huffman points are stored in single int arena, with per-slot offset/size/capacity
+    private int[] pointsArena;
+    private int pointsArenaSize = 0;
+    private int[] pointsOffset;
+    private byte[] pointsSize;
+    private byte[] pointsCapacity;
+
+    // open-addressing hash tables, values are slot + 1
+    private int[] labelTable;
+    private int labelTableUsed = 0;
+    private int[] idTable;
+    private int idTableUsed = 0;
+
+    // Huffman index -> slot
+    private int[] indexToSlot;
+
+    // slot & (VIEW_CACHE_SIZE - 1) -> recently used view
+    private transient AtomicReferenceArray<OffHeapVocabWord> views = new AtomicReferenceArray<>(VIEW_CACHE_SIZE);
+
+    private final AtomicLong documentsCounter = new AtomicLong(0);
+    private final AtomicLong totalWordCount = new AtomicLong(0);
+
+    public OffHeapVocabCache() {
+        this(1024, 16 * 1024 * 1024);
+    }
+
+    public OffHeapVocabCache(int expectedElements, int chunkSize) {
+        int capacity = Math.max(16, expectedElements);
+        this.chunkSize = chunkSize;
+        this.arena = new StringArena(chunkSize);
+
+        labelAddress = new long[capacity];
+        labelLength = new int[capacity];
+        labelHash = new int[capacity];
+        storageIds = new long[capacity];
+        frequencies = new double[capacity];
+        sequencesCounts = new long[capacity];
+        indexes = new int[capacity];
+        flags = new byte[capacity];
+        codes = new long[capacity];
+        codesSize = new byte[capacity];
+        codeLengths = new short[capacity];
+        pointsOffset = new int[capacity];
+        pointsSize = new byte[capacity];
+        pointsCapacity = new byte[capacity];
+        pointsArena = new int[capacity * 8];
+
+        labelTable = new int[tableSizeFor(capacity)];
+        idTable = new int[tableSizeFor(capacity)];
+
+        indexToSlot = new int[capacity];
+        Arrays.fill(indexToSlot, -1);
+    }
+
+    private static int tableSizeFor(int elements) {
+        int size = 16;
+        while (size < elements * 2)
+            size <<= 1;
+
+        return size;
+    }
+
+    private static int hash(byte[] bytes) {
+        // FNV-1a, with final avalanche
+        int h = 0x811c9dc5;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(long id) {
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static byte[] bytes(String label) {
+        return label.getBytes(StringArena.UTF8);
+    }
+
+    /*
+        Lookups
+     */
+
+    private int slotOf(String label) {
+        if (label == null)
+            return -1;
+
+        byte[] bytes = bytes(label);
+        int h = hash(bytes);
+        int[] table = labelTable;
+        int mask = table.length - 1;
+        int pos = h & mask;
+        while (true) {
+            int value = table[pos];
+            if (value == EMPTY)
+                return -1;
+
+            if (value != TOMBSTONE) {
+                int slot = value - 1;
+                if (labelHash[slot] == h && arena.equals(labelAddress[slot], labelLength[slot], bytes))
+                    return slot;
+            }
+
+            pos = (pos + 1) & mask;
+        }
+    }
+
+    private int slotOf(long id) {
+        int[] table = idTable;
+        int mask = table.length - 1;
+        int pos = hash(id) & mask;
+        while (true) {
+            int value = table[pos];
+            if (value == EMPTY)
+                return -1;
+
+            if (value != TOMBSTONE && storageIds[value - 1] == id)
+                return value - 1;
+
+            pos = (pos + 1) & mask;
+        }
+    }
+
+    private int slotAtIndex(int index) {
+        int[] map = indexToSlot;
+        if (index < 0 || index >= map.length)
+            return -1;
+
+        return map[index];
+    }
+
+    private VocabWord view(int slot) {
+        if (slot < 0)
+            return null;
+
+        int pos = slot & (VIEW_CACHE_SIZE - 1);
+        OffHeapVocabWord view = views.get(pos);
+        if (view != null && view.getSlot() == slot) {
+            view.refresh();
+            return view;
+        }
+
+        String label = labelLength[slot] == NO_LABEL ? null : arena.get(labelAddress[slot], labelLength[slot]);
+        view = new OffHeapVocabWord(this, slot, label, storageIds[slot]);
+        views.set(pos, view);
+        return view;
+    }
+
+    /*
+        Insertion & removal
+     */
+
+    private void ensureCapacity(int slots) {
+        if (slots <= labelAddress.length)
+            return;
+
+        int capacity = Math.max(slots, labelAddress.length + (labelAddress.length >> 1));
+        labelAddress = Arrays.copyOf(labelAddress, capacity);
+        labelLength = Arrays.copyOf(labelLength, capacity);
+        labelHash = Arrays.copyOf(labelHash, capacity);
+        storageIds = Arrays.copyOf(storageIds, capacity);
+        frequencies = Arrays.copyOf(frequencies, capacity);
+        sequencesCounts = Arrays.copyOf(sequencesCounts, capacity);
+        indexes = Arrays.copyOf(indexes, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        codes = Arrays.copyOf(codes, capacity);
+        codesSize = Arrays.copyOf(codesSize, capacity);
+        codeLengths = Arrays.copyOf(codeLengths, capacity);
+        pointsOffset = Arrays.copyOf(pointsOffset, capacity);
+        pointsSize = Arrays.copyOf(pointsSize, capacity);
+        pointsCapacity = Arrays.copyOf(pointsCapacity, capacity);
+    }
+
+    private void ensureIndexCapacity(int index) {
+        if (index < indexToSlot.length)
+            return;
+
+        int capacity = Math.max(index + 1, indexToSlot.length + (indexToSlot.length >> 1));
+        int[] map = Arrays.copyOf(indexToSlot, capacity);
+        Arrays.fill(map, indexToSlot.length, capacity, -1);
+        indexToSlot = map;
+    }
+
+    private int[] rehash(int[] table, boolean byLabel) {
+        // load factor after rehash stays below 0.25, so growth is amortized
+        int[] result = new int[tableSizeFor(Math.max(numWords + 1, 16) * 2)];
+        int mask = result.length - 1;
+        for (int value : table) {
+            if (value == EMPTY || value == TOMBSTONE)
+                continue;
+
+            int slot = value - 1;
+            int pos = (byLabel ? labelHash[slot] : hash(storageIds[slot])) & mask;
+            while (result[pos] != EMPTY)
+                pos = (pos + 1) & mask;
+
+            result[pos] = value;
+        }
+        return result;
+    }
+
+    private void insertLabel(int slot) {
+        // rehash drops tombstones as well
+        if ((labelTableUsed + 1) * 2 > labelTable.length) {
+            labelTable = rehash(labelTable, true);
+            labelTableUsed = numWords;
+        }
+
+        int mask = labelTable.length - 1;
+        int pos = labelHash[slot] & mask;
+        while (labelTable[pos] != EMPTY && labelTable[pos] != TOMBSTONE)
+            pos = (pos + 1) & mask;
+
+        if (labelTable[pos] == EMPTY)
+            labelTableUsed++;
+        labelTable[pos] = slot + 1;
+    }
+
+    private void insertId(int slot) {
+        if ((idTableUsed + 1) * 2 > idTable.length) {
+            idTable = rehash(idTable, false);
+            idTableUsed = numWords;
+        }
+
+        int mask = idTable.length - 1;
+        int pos = hash(storageIds[slot]) & mask;
+        while (idTable[pos] != EMPTY && idTable[pos] != TOMBSTONE)
+            pos = (pos + 1) & mask;
+
+        if (idTable[pos] == EMPTY)
+            idTableUsed++;
+        idTable[pos] = slot + 1;
+    }
+
+    private static void erase(int[] table, int slot, int h) {
+        int mask = table.length - 1;
+        int pos = h & mask;
+        while (table[pos] != EMPTY) {
+            if (table[pos] == slot + 1) {
+                table[pos] = TOMBSTONE;
+                return;
+            }
+            pos = (pos + 1) & mask;
+        }
+    }
+
+    private int allocateSlot(VocabWord element) {
+        ensureCapacity(size + 1);
+        int slot = size++;
+
+        String label = element.getLabel();
+        if (label != null) {
+            byte[] bytes = bytes(label);
+            labelAddress[slot] = arena.append(bytes);
+            labelLength[slot] = bytes.length;
+            labelHash[slot] = hash(bytes);
+        } else {
+            labelLength[slot] = NO_LABEL;
+        }
+
+        storageIds[slot] = element.getStorageId();
+        frequencies[slot] = element.getElementFrequency();
+        sequencesCounts[slot] = element.getSequencesCount();
+        indexes[slot] = element.getIndex();
+
+        byte f = 0;
+        if (element.isSpecial())
+            f |= FLAG_SPECIAL;
+        if (element.isLabel())
+            f |= FLAG_LABEL;
+        if (element.isInit())
+            f |= FLAG_INIT;
+        flags[slot] = f;
+
+        setCodes(slot, element.getCodes());
+        setPoints(slot, element.getPoints());
+        codeLengths[slot] = (short) element.getCodeLength();
+
+        numWords++;
+        if (label != null)
+            insertLabel(slot);
+        insertId(slot);
+
+        return slot;
+    }
+
+    /*
+        Per-slot accessors, used by OffHeapVocabWord views
+     */
+
+    double getFrequency(int slot) {
+        return frequencies[slot];
+    }
+
+    synchronized void setFrequency(int slot, double value) {
+        frequencies[slot] = value;
+    }
+
+    synchronized double addFrequency(int slot, double value) {
+        return frequencies[slot] += value;
+    }
+
+    long getSequencesCount(int slot) {
+        return sequencesCounts[slot];
+    }
+
+    synchronized void setSequencesCount(int slot, long value) {
+        sequencesCounts[slot] = value;
+    }
+
+    synchronized long addSequencesCount(int slot, long value) {
+        return sequencesCounts[slot] += value;
+    }
+
+    int getIndex(int slot) {
+        return indexes[slot];
+    }
+
+    synchronized void setIndex(int slot, int index) {
+        indexes[slot] = index;
+    }
+
+    boolean hasFlag(int slot, byte flag) {
+        return (flags[slot] & flag) != 0;
+    }
+
+    synchronized void setFlag(int slot, byte flag, boolean value) {
+        if (value)
+            flags[slot] |= flag;
+        else
+            flags[slot] &= ~flag;
+    }
+
+    boolean isSpecial(int slot) {
+        return hasFlag(slot, FLAG_SPECIAL);
+    }
+
+    void setSpecial(int slot, boolean value) {
+        setFlag(slot, FLAG_SPECIAL, value);
+    }
+
+    boolean isLabel(int slot) {
+        return hasFlag(slot, FLAG_LABEL);
+    }
+
+    void setLabel(int slot, boolean value) {
+        setFlag(slot, FLAG_LABEL, value);
+    }
+
+    boolean isInit(int slot) {
+        return hasFlag(slot, FLAG_INIT);
+    }
+
+    void setInit(int slot, boolean value) {
+        setFlag(slot, FLAG_INIT, value);
+    }
+
+    int getCodesSize(int slot) {
+        return codesSize[slot];
+    }
+
+    byte getCode(int slot, int position) {
+        if (position < 0 || position >= codesSize[slot])
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + codesSize[slot]);
+
+        return (byte) ((codes[slot] >>> position) & 1L);
+    }
+
+    synchronized void setCode(int slot, int position, byte value) {
+        if (position < 0 || position >= codesSize[slot])
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + codesSize[slot]);
+
+        if (value != 0)
+            codes[slot] |= 1L << position;
+        else
+            codes[slot] &= ~(1L << position);
+    }
+
+    synchronized void appendCode(int slot, byte value) {
+        if (codesSize[slot] >= Long.SIZE)
+            throw new IllegalStateException("Huffman codes can't be longer then " + Long.SIZE);
+
+        codesSize[slot]++;
+        setCode(slot, codesSize[slot] - 1, value);
+    }
+
+    synchronized void setCodes(int slot, List<Byte> values) {
+        codes[slot] = 0L;
+        codesSize[slot] = 0;
+        if (values != null)
+            for (Byte value : values)
+                appendCode(slot, (byte) (value == null ? 0 : value));
+    }
+
+    int getCodeLength(int slot) {
+        return codeLengths[slot];
+    }
+
+    synchronized void setCodeLength(int slot, short codeLength) {
+        codeLengths[slot] = codeLength;
+
+        // similar to SequenceElement.setCodeLength(): codes and points are padded with zeros up to codeLength
+        while (codesSize[slot] < codeLength)
+            appendCode(slot, (byte) 0);
+
+        if (pointsSize[slot] < codeLength) {
+            // Huffman appends one more point after this call, so we reserve space for it
+            reservePoints(slot, codeLength + 1);
+            while (pointsSize[slot] < codeLength)
+                appendPoint(slot, 0);
+        }
+    }
+
+    int getPointsSize(int slot) {
+        return pointsSize[slot];
+    }
+
+    int getPoint(int slot, int position) {
+        if (position < 0 || position >= pointsSize[slot])
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + pointsSize[slot]);
+
+        return pointsArena[pointsOffset[slot] + position];
+    }
+
+    synchronized void setPoint(int slot, int position, int value) {
+        if (position < 0 || position >= pointsSize[slot])
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + pointsSize[slot]);
+
+        pointsArena[pointsOffset[slot] + position] = value;
+    }
+
+    private void reservePoints(int slot, int capacity) {
+        if (capacity <= pointsCapacity[slot])
+            return;
+
+        if (capacity > Byte.MAX_VALUE)
+            throw new IllegalStateException("Huffman points can't be longer then " + Byte.MAX_VALUE);
+
+        // we never reuse released regions: relocation only happens if points are set multiple times
+        if (pointsArenaSize + capacity > pointsArena.length) {
+            long newLength = Math.max((long) pointsArenaSize + capacity, (long) pointsArena.length * 3 / 2);
+            if (newLength > Integer.MAX_VALUE - 8)
+                throw new IllegalStateException("Huffman points storage exhausted");
+
+            pointsArena = Arrays.copyOf(pointsArena, (int) newLength);
+        }
+
+        System.arraycopy(pointsArena, pointsOffset[slot], pointsArena, pointsArenaSize, pointsSize[slot]);
+        pointsOffset[slot] = pointsArenaSize;
+        pointsCapacity[slot] = (byte) capacity;
+        pointsArenaSize += capacity;
+    }
+
+    synchronized void appendPoint(int slot, int value) {
+        if (pointsSize[slot] >= pointsCapacity[slot])
+            reservePoints(slot, Math.min(Byte.MAX_VALUE, Math.max(pointsSize[slot] + 1, pointsCapacity[slot] * 2)));
+
+        pointsArena[pointsOffset[slot] + pointsSize[slot]] = value;
+        pointsSize[slot]++;
+    }
+
+    synchronized void setPoints(int slot, List<Integer> values) {
+        pointsSize[slot] = 0;
+        if (values == null || values.isEmpty())
+            return;
+
+        reservePoints(slot, values.size());
+        for (Integer value : values)
+            appendPoint(slot, value == null ? 0 : value);
+    }
+
+    /*
+        VocabCache implementation
+     */
+
+    /**
+     * Not supported: this cache should be restored with Java serialization
+     */
+    @Override
+    public void loadVocab() {
+        throw new UnsupportedOperationException("OffHeapVocabCache doesn't support loadVocab(), use Java serialization instead");
+    }
+
+    /**
+     * Returns true, if number of elements in vocabulary > 0, false otherwise
+     *
+     * @return
+     */
+    @Override
+    public boolean vocabExists() {
+        return numWords > 0;
+    }
+
+    /**
+     * Not supported: this cache should be saved with Java serialization
+     */
+    @Override
+    public void saveVocab() {
+        throw new UnsupportedOperationException("OffHeapVocabCache doesn't support saveVocab(), use Java serialization instead");
+    }
+
+    /**
+     * Returns collection of labels available in this vocabulary. Labels are decoded from off-heap storage.
+     *
+     * @return
+     */
+    @Override
+    public Collection<String> words() {
+        List<String> result = new ArrayList<>(numWords);
+        for (int slot = 0; slot < size; slot++) {
+            if (!hasFlag(slot, FLAG_REMOVED) && labelLength[slot] != NO_LABEL)
+                result.add(arena.get(labelAddress[slot], labelLength[slot]));
+        }
+        return Collections.unmodifiableCollection(result);
+    }
+
+    @Override
+    public void incrementWordCount(String word) {
+        incrementWordCount(word, 1);
+    }
+
+    @Override
+    public synchronized void incrementWordCount(String word, int increment) {
+        int slot = slotOf(word);
+        if (slot >= 0) {
+            frequencies[slot] += increment;
+            totalWordCount.addAndGet(increment);
+        }
+    }
+
+    @Override
+    public int wordFrequency(@NonNull String word) {
+        int slot = slotOf(word);
+        return slot >= 0 ? (int) frequencies[slot] : 0;
+    }
+
+    @Override
+    public boolean containsWord(String word) {
+        return slotOf(word) >= 0;
+    }
+
+    @Override
+    public String wordAtIndex(int index) {
+        int slot = slotAtIndex(index);
+        if (slot < 0 || labelLength[slot] == NO_LABEL)
+            return null;
+
+        return arena.get(labelAddress[slot], labelLength[slot]);
+    }
+
+    @Override
+    public VocabWord elementAtIndex(int index) {
+        return view(slotAtIndex(index));
+    }
+
+    /**
+     * Returns Huffman index for specified label
+     *
+     * @param label the label to get index for
+     * @return >=0 if label exists, -1 if Huffman tree wasn't built yet, -2 if specified label wasn't found
+     */
+    @Override
+    public int indexOf(String label) {
+        int slot = slotOf(label);
+        return slot >= 0 ? indexes[slot] : -2;
+    }
+
+    /**
+     * Returns collection of views for all elements stored in this vocabulary
+     *
+     * @return
+     */
+    @Override
+    public Collection<VocabWord> vocabWords() {
+        List<VocabWord> result = new ArrayList<>(numWords);
+        for (int slot = 0; slot < size; slot++) {
+            if (!hasFlag(slot, FLAG_REMOVED))
+                result.add(view(slot));
+        }
+        return result;
+    }
+
+    @Override
+    public long totalWordOccurrences() {
+        return totalWordCount.get();
+    }
+
+    @Override
+    public VocabWord wordFor(@NonNull String word) {
+        return view(slotOf(word));
+    }
+
+    @Override
+    public VocabWord wordFor(long id) {
+        return view(slotOf(id));
+    }
+
+    @Override
+    public synchronized void addWordToIndex(int index, String word) {
+        if (index >= 0) {
+            int slot = slotOf(word);
+            if (slot >= 0) {
+                ensureIndexCapacity(index);
+                indexToSlot[index] = slot;
+                indexes[slot] = index;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void addWordToIndex(int index, long elementId) {
+        if (index >= 0) {
+            ensureIndexCapacity(index);
+            indexToSlot[index] = slotOf(elementId);
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void putVocabWord(String word) {
+        if (!containsWord(word))
+            throw new IllegalStateException("Specified label is not present in vocabulary");
+    }
+
+    @Override
+    public int numWords() {
+        return numWords;
+    }
+
+    @Override
+    public int docAppearedIn(String word) {
+        int slot = slotOf(word);
+        return slot >= 0 ? (int) sequencesCounts[slot] : -1;
+    }
+
+    @Override
+    public synchronized void incrementDocCount(String word, long howMuch) {
+        int slot = slotOf(word);
+        if (slot >= 0)
+            sequencesCounts[slot] += howMuch;
+    }
+
+    @Override
+    public synchronized void setCountForDoc(String word, long count) {
+        int slot = slotOf(word);
+        if (slot >= 0)
+            sequencesCounts[slot] = count;
+    }
+
+    @Override
+    public long totalNumberOfDocs() {
+        return documentsCounter.get();
+    }
+
+    @Override
+    public void incrementTotalDocCount() {
+        documentsCounter.incrementAndGet();
+    }
+
+    @Override
+    public void incrementTotalDocCount(long by) {
+        documentsCounter.addAndGet(by);
+    }
+
+    @Override
+    public Collection<VocabWord> tokens() {
+        return vocabWords();
+    }
+
+    /**
+     * This method adds specified element to vocabulary. Element state is copied into primitive storage,
+     * so element object itself isn't referenced by this cache.
+     *
+     * @param element the word to add
+     */
+    @Override
+    public synchronized void addToken(VocabWord element) {
+        int slot = slotOf(element.getStorageId());
+        if (slot < 0) {
+            slot = allocateSlot(element);
+        } else {
+            sequencesCounts[slot] += element.getSequencesCount();
+            frequencies[slot] += (int) element.getElementFrequency();
+        }
+        // only this call's increment, not the accumulated frequency
+        totalWordCount.addAndGet((int) element.getElementFrequency());
+    }
+
+    @Override
+    public VocabWord tokenFor(String word) {
+        return wordFor(word);
+    }
+
+    @Override
+    public VocabWord tokenFor(long id) {
+        return wordFor(id);
+    }
+
+    @Override
+    public boolean hasToken(String token) {
+        return containsWord(token);
+    }
+
+    @Override
+    public void importVocabulary(@NonNull VocabCache<VocabWord> vocabCache) {
+        for (VocabWord element : vocabCache.vocabWords()) {
+            this.addToken(element);
+        }
+        this.documentsCounter.addAndGet(vocabCache.totalNumberOfDocs());
+    }
+
+    @Override
+    public synchronized void updateWordsOccurrences() {
+        long total = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (!hasFlag(slot, FLAG_REMOVED) && frequencies[slot] > 0)
+                total += (long) frequencies[slot];
+        }
+        totalWordCount.set(total);
+        log.info("Updated counter: [" + totalWordCount.get() + "]");
+    }
+
+    @Override
+    public synchronized void removeElement(String label) {
+        int slot = slotOf(label);
+        if (slot < 0)
+            throw new IllegalStateException("Can't get label: '" + label + "'");
+
+        totalWordCount.getAndAdd((long) frequencies[slot] * -1);
+
+        int index = indexes[slot];
+        if (index >= 0 && index < indexToSlot.length && indexToSlot[index] == slot)
+            indexToSlot[index] = -1;
+
+        erase(labelTable, slot, labelHash[slot]);
+        erase(idTable, slot, hash(storageIds[slot]));
+        flags[slot] |= FLAG_REMOVED;
+        numWords--;
+    }
+
+    @Override
+    public void removeElement(VocabWord element) {
+        removeElement(element.getLabel());
+    }
+
+    /**
+     * This method returns number of bytes allocated off-heap for labels storage
+     *
+     * @return
+     */
+    public long getOffHeapBytes() {
+        return arena.getBytesAllocated();
+    }
+
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+
+        // arena isn't serializable, so labels are written as raw bytes
+        for (int slot = 0; slot < size; slot++) {
+            if (labelLength[slot] != NO_LABEL)
+                out.write(arena.getBytes(labelAddress[slot], labelLength[slot]));
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        arena = new StringArena(chunkSize);
+        views = new AtomicReferenceArray<>(VIEW_CACHE_SIZE);
+        for (int slot = 0; slot < size; slot++) {
+            if (labelLength[slot] != NO_LABEL) {
+                byte[] bytes = new byte[labelLength[slot]];
+                in.readFully(bytes);
+                labelAddress[slot] = arena.append(bytes);
+            }
+        }
+    }
+
+    public static class Builder {
+        protected int expectedElements = 1024;
+        protected int chunkSize = 16 * 1024 * 1024;
+
+        /**
+         * This method defines expected number of elements, to avoid storage growth during vocabulary building
+         *
+         * @param expectedElements
+         * @return
+         */
+        public Builder expectedElements(int expectedElements) {
+            this.expectedElements = expectedElements;
+            return this;
+        }
+
+        /**
+         * This method defines size of off-heap chunks used for labels storage, in bytes
+         *
+         * @param chunkSize
+         * @return
+         */
+        public Builder chunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        public OffHeapVocabCache build() {
+            return new OffHeapVocabCache(expectedElements, chunkSize);
+        }
+    }
+}
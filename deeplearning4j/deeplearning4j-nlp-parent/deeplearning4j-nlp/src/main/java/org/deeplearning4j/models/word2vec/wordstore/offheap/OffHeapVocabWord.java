@@ -0,0 +1,222 @@
+package org.deeplearning4j.models.word2vec.wordstore.offheap;
+
+import org.deeplearning4j.models.word2vec.VocabWord;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * VocabWord view over single element of {@link OffHeapVocabCache}.
+ *
+ * This object doesn't own any state: all getters read from the cache, and all setters write through to it.
+ * Codes and points are exposed as List views, so in-place modifications (i.e. done by Huffman) are stored as well.
+ *
+ * @author raver119@gmail.com
+ */
+public class OffHeapVocabWord extends VocabWord {
+    private static final long serialVersionUID = 2223750736522624257L;
+
+    private final transient OffHeapVocabCache cache;
+    private final int slot;
+    private transient CodesView codesView;
+    private transient PointsView pointsView;
+
+    protected OffHeapVocabWord(OffHeapVocabCache cache, int slot, String label, long storageId) {
+        super();
+        this.cache = cache;
+        this.slot = slot;
+        this.storageId = storageId;
+        setWord(label);
+
+        // keep local copy in sync, since compareTo() reads this field directly
+        this.elementFrequency.set(cache.getFrequency(slot));
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Views are reused by the cache, so local copy of frequency is updated on every lookup
+     */
+    void refresh() {
+        this.elementFrequency.set(cache.getFrequency(slot));
+    }
+
+    @Override
+    public long getSequencesCount() {
+        return cache.getSequencesCount(slot);
+    }
+
+    @Override
+    public void setSequencesCount(long count) {
+        cache.setSequencesCount(slot, count);
+    }
+
+    @Override
+    public void incrementSequencesCount() {
+        cache.addSequencesCount(slot, 1);
+    }
+
+    @Override
+    public void incrementSequencesCount(long count) {
+        cache.addSequencesCount(slot, count);
+    }
+
+    @Override
+    public boolean isLabel() {
+        return cache.isLabel(slot);
+    }
+
+    @Override
+    public void markAsLabel(boolean isLabel) {
+        cache.setLabel(slot, isLabel);
+    }
+
+    @Override
+    public boolean isSpecial() {
+        return cache.isSpecial(slot);
+    }
+
+    @Override
+    public void setSpecial(boolean special) {
+        cache.setSpecial(slot, special);
+    }
+
+    @Override
+    public boolean isInit() {
+        return cache.isInit(slot);
+    }
+
+    @Override
+    public void setInit(boolean init) {
+        cache.setInit(slot, init);
+    }
+
+    @Override
+    public double getElementFrequency() {
+        return cache.getFrequency(slot);
+    }
+
+    @Override
+    public void setElementFrequency(long value) {
+        cache.setFrequency(slot, value);
+        this.elementFrequency.set(value);
+    }
+
+    @Override
+    public void increaseElementFrequency(int by) {
+        this.elementFrequency.set(cache.addFrequency(slot, by));
+    }
+
+    @Override
+    public int getIndex() {
+        return cache.getIndex(slot);
+    }
+
+    @Override
+    public void setIndex(int index) {
+        cache.setIndex(slot, index);
+    }
+
+    @Override
+    public List<Byte> getCodes() {
+        if (codesView == null)
+            codesView = new CodesView();
+        return codesView;
+    }
+
+    @Override
+    public void setCodes(List<Byte> codes) {
+        cache.setCodes(slot, codes);
+    }
+
+    @Override
+    public List<Integer> getPoints() {
+        if (pointsView == null)
+            pointsView = new PointsView();
+        return pointsView;
+    }
+
+    @Override
+    public void setPoints(List<Integer> points) {
+        cache.setPoints(slot, points);
+    }
+
+    @Override
+    public void setPoints(int[] points) {
+        cache.setPoints(slot, null);
+        for (int point : points)
+            cache.appendPoint(slot, point);
+    }
+
+    @Override
+    public int getCodeLength() {
+        return cache.getCodeLength(slot);
+    }
+
+    @Override
+    public void setCodeLength(short codeLength) {
+        cache.setCodeLength(slot, codeLength);
+    }
+
+    @Override
+    public String toString() {
+        return "VocabWord{" + "wordFrequency=" + getElementFrequency() + ", index=" + getIndex() + ", word='"
+                        + getWord() + '\'' + ", codeLength=" + getCodeLength() + '}';
+    }
+
+    private class CodesView extends AbstractList<Byte> {
+        @Override
+        public Byte get(int index) {
+            return cache.getCode(slot, index);
+        }
+
+        @Override
+        public Byte set(int index, Byte element) {
+            byte old = cache.getCode(slot, index);
+            cache.setCode(slot, index, element);
+            return old;
+        }
+
+        @Override
+        public void add(int index, Byte element) {
+            if (index != size())
+                throw new UnsupportedOperationException("Only appends are supported");
+
+            cache.appendCode(slot, element);
+        }
+
+        @Override
+        public int size() {
+            return cache.getCodesSize(slot);
+        }
+    }
+
+    private class PointsView extends AbstractList<Integer> {
+        @Override
+        public Integer get(int index) {
+            return cache.getPoint(slot, index);
+        }
+
+        @Override
+        public Integer set(int index, Integer element) {
+            int old = cache.getPoint(slot, index);
+            cache.setPoint(slot, index, element);
+            return old;
+        }
+
+        @Override
+        public void add(int index, Integer element) {
+            if (index != size())
+                throw new UnsupportedOperationException("Only appends are supported");
+
+            cache.appendPoint(slot, element);
+        }
+
+        @Override
+        public int size() {
+            return cache.getPointsSize(slot);
+        }
+    }
+}
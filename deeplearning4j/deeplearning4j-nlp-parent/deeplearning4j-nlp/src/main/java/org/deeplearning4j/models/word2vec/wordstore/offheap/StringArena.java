@@ -0,0 +1,118 @@
+package org.deeplearning4j.models.word2vec.wordstore.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only off-heap storage for UTF-8 encoded strings.
+ *
+ * Strings are packed into direct ByteBuffer chunks, and addressed by long value: chunk number in upper 32 bits,
+ * offset within chunk in lower 32 bits. No per-string objects are kept on heap.
+ *
+ * PLEASE NOTE: this class is NOT thread-safe, access must be synchronized externally
+ *
+ * @author raver119@gmail.com
+ */
+class StringArena {
+    protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final int chunkSize;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current;
+    private long bytesUsed = 0;
+
+    StringArena(int chunkSize) {
+        if (chunkSize < 1)
+            throw new IllegalStateException("Chunk size should be positive value");
+
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * This method stores given bytes, and returns address of stored string
+     *
+     * @param bytes
+     * @return
+     */
+    long append(byte[] bytes) {
+        if (current == null || current.remaining() < bytes.length) {
+            current = ByteBuffer.allocateDirect(Math.max(chunkSize, bytes.length));
+            chunks.add(current);
+        }
+
+        long address = ((long) (chunks.size() - 1) << 32) | current.position();
+        current.put(bytes);
+        bytesUsed += bytes.length;
+        return address;
+    }
+
+    /**
+     * This method compares string stored at given address against given bytes, without decoding it
+     *
+     * @param address
+     * @param length
+     * @param bytes
+     * @return
+     */
+    boolean equals(long address, int length, byte[] bytes) {
+        if (length != bytes.length)
+            return false;
+
+        ByteBuffer chunk = chunks.get((int) (address >>> 32));
+        int offset = (int) address;
+        for (int e = 0; e < length; e++) {
+            if (chunk.get(offset + e) != bytes[e])
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * This method returns bytes of the string stored at given address
+     *
+     * @param address
+     * @param length
+     * @return
+     */
+    byte[] getBytes(long address, int length) {
+        ByteBuffer chunk = chunks.get((int) (address >>> 32));
+        int offset = (int) address;
+        byte[] result = new byte[length];
+        for (int e = 0; e < length; e++)
+            result[e] = chunk.get(offset + e);
+
+        return result;
+    }
+
+    /**
+     * This method decodes string stored at given address
+     *
+     * @param address
+     * @param length
+     * @return
+     */
+    String get(long address, int length) {
+        return new String(getBytes(address, length), UTF8);
+    }
+
+    /**
+     * @return number of bytes occupied by stored strings
+     */
+    long getBytesUsed() {
+        return bytesUsed;
+    }
+
+    /**
+     * @return number of bytes allocated off-heap
+     */
+    long getBytesAllocated() {
+        long result = 0;
+        for (ByteBuffer chunk : chunks)
+            result += chunk.capacity();
+
+        return result;
+    }
+}
@@ -0,0 +1,91 @@
+package org.deeplearning4j.models.embeddings.reader.impl;
+
+import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.models.embeddings.loader.WordVectorSerializer;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.Word2Vec;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.AbstractCache;
+import org.junit.Test;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.primitives.Pair;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author raver119@gmail.com
+ */
+public class HnswModelUtilsTest {
+
+    private static Word2Vec buildModel(int numWords, int layerSize) {
+        Nd4j.getRandom().setSeed(119);
+
+        AbstractCache<VocabWord> cache = new AbstractCache.Builder<VocabWord>().build();
+        for (int e = 0; e < numWords; e++) {
+            VocabWord word = new VocabWord(1.0, "word_" + e);
+            word.setIndex(e);
+            cache.addToken(word);
+            cache.addWordToIndex(e, word.getLabel());
+        }
+
+        InMemoryLookupTable<VocabWord> lookupTable = new InMemoryLookupTable.Builder<VocabWord>().cache(cache)
+                        .vectorLength(layerSize).useAdaGrad(false).build();
+        lookupTable.setSyn0(Nd4j.randn(numWords, layerSize));
+
+        return WordVectorSerializer.fromPair(new Pair<InMemoryLookupTable, VocabCache>(lookupTable, cache));
+    }
+
+    @Test
+    public void testWordsNearest1() throws Exception {
+        Word2Vec vec = buildModel(2000, 32);
+
+        // BasicModelUtils normalizes syn0 in place, so we're getting reference results first
+        List<Collection<String>> expected = new ArrayList<>();
+        for (int e = 0; e < 2000; e += 100)
+            expected.add(vec.wordsNearest("word_" + e, 10));
+
+        HnswModelUtils<VocabWord> utils = new HnswModelUtils<>(16, 200, 100, 2);
+        vec.setModelUtils(utils);
+
+        int matches = 0;
+        for (int e = 0; e < 2000; e += 100) {
+            Collection<String> result = vec.wordsNearest("word_" + e, 10);
+            assertEquals(10, result.size());
+            assertFalse(result.contains("word_" + e));
+
+            for (String word : result)
+                if (expected.get(e / 100).contains(word))
+                    matches++;
+        }
+
+        assertNotNull(utils.getIndex());
+        assertTrue(matches / 200.0 > 0.9);
+    }
+
+    @Test
+    public void testIndexSerialization1() throws Exception {
+        Word2Vec vec = buildModel(500, 16);
+        HnswModelUtils<VocabWord> utils = new HnswModelUtils<>(8, 100, 50, 1);
+        vec.setModelUtils(utils);
+
+        Collection<String> before = vec.wordsNearest("word_7", 5);
+
+        File tempFile = File.createTempFile("hnsw", "w2v");
+        tempFile.deleteOnExit();
+        WordVectorSerializer.writeWord2VecModel(vec, tempFile);
+
+        Word2Vec restored = WordVectorSerializer.readWord2VecModel(tempFile);
+        assertTrue(restored.getModelUtils() instanceof HnswModelUtils);
+
+        HnswModelUtils restoredUtils = (HnswModelUtils) restored.getModelUtils();
+        assertNotNull(restoredUtils.getIndex());
+        assertEquals(utils.getIndex().getSize(), restoredUtils.getIndex().getSize());
+
+        assertEquals(before, restored.wordsNearest("word_7", 5));
+    }
+}
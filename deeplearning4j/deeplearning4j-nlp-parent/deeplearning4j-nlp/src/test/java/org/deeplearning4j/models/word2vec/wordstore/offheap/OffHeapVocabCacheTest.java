@@ -0,0 +1,203 @@
+package org.deeplearning4j.models.word2vec.wordstore.offheap;
+
+import org.deeplearning4j.models.sequencevectors.iterators.AbstractSequenceIterator;
+import org.deeplearning4j.models.sequencevectors.transformers.impl.SentenceTransformer;
+import org.deeplearning4j.models.word2vec.Huffman;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.VocabConstructor;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.AbstractCache;
+import org.deeplearning4j.text.sentenceiterator.BasicLineIterator;
+import org.deeplearning4j.text.sentenceiterator.SentenceIterator;
+import org.deeplearning4j.text.tokenization.tokenizer.preprocessor.CommonPreprocessor;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.DefaultTokenizerFactory;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
+import org.junit.Test;
+import org.nd4j.linalg.io.ClassPathResource;
+import org.nd4j.linalg.util.SerializationUtils;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author raver119@gmail.com
+ */
+public class OffHeapVocabCacheTest {
+
+    @Test
+    public void testNumWords() throws Exception {
+        OffHeapVocabCache cache = new OffHeapVocabCache.Builder().build();
+
+        cache.addToken(new VocabWord(1.0, "word"));
+        cache.addToken(new VocabWord(1.0, "test"));
+        cache.addToken(new VocabWord(2.0, "test"));
+
+        assertEquals(2, cache.numWords());
+        assertEquals(3, cache.wordFrequency("test"));
+        assertEquals(4, cache.totalWordOccurrences());
+        assertTrue(cache.containsWord("word"));
+        assertFalse(cache.containsWord("tester"));
+    }
+
+    @Test
+    public void testGrowth() throws Exception {
+        OffHeapVocabCache cache = new OffHeapVocabCache.Builder().expectedElements(16).chunkSize(64).build();
+
+        for (int e = 0; e < 10000; e++)
+            cache.addToken(new VocabWord(e + 1, "word_" + e));
+
+        assertEquals(10000, cache.numWords());
+        for (int e = 0; e < 10000; e++) {
+            VocabWord word = cache.wordFor("word_" + e);
+            assertNotNull(word);
+            assertEquals("word_" + e, word.getLabel());
+            assertEquals(e + 1, word.getElementFrequency(), 1e-5);
+            assertEquals(word, cache.wordFor(word.getStorageId()));
+        }
+    }
+
+    @Test
+    public void testHuffman() throws Exception {
+        OffHeapVocabCache cache = new OffHeapVocabCache.Builder().build();
+        AbstractCache<VocabWord> reference = new AbstractCache.Builder<VocabWord>().build();
+
+        String[] words = new String[] {"word", "test", "tester", "a", "b", "c", "d", "привет"};
+        for (int e = 0; e < words.length; e++) {
+            cache.addToken(new VocabWord(e + 1, words[e]));
+            reference.addToken(new VocabWord(e + 1, words[e]));
+        }
+
+        Huffman huffman = new Huffman(cache.vocabWords());
+        huffman.build();
+        huffman.applyIndexes(cache);
+
+        Huffman refHuffman = new Huffman(reference.vocabWords());
+        refHuffman.build();
+        refHuffman.applyIndexes(reference);
+
+        for (String word : words) {
+            VocabWord exp = reference.wordFor(word);
+            VocabWord act = cache.wordFor(word);
+
+            assertEquals(exp.getIndex(), act.getIndex());
+            assertEquals(exp.getCodeLength(), act.getCodeLength());
+            assertEquals(exp.getCodes(), act.getCodes());
+            assertEquals(exp.getPoints(), act.getPoints());
+            assertEquals(word, cache.wordAtIndex(exp.getIndex()));
+            assertEquals(act, cache.elementAtIndex(exp.getIndex()));
+        }
+    }
+
+    @Test
+    public void testRemoval() throws Exception {
+        OffHeapVocabCache cache = new OffHeapVocabCache.Builder().build();
+
+        cache.addToken(new VocabWord(1.0, "word"));
+        cache.addToken(new VocabWord(2.0, "test"));
+        cache.addToken(new VocabWord(3.0, "tester"));
+
+        assertEquals(3, cache.numWords());
+        assertEquals(6, cache.totalWordOccurrences());
+
+        cache.removeElement("tester");
+        assertEquals(2, cache.numWords());
+        assertEquals(3, cache.totalWordOccurrences());
+        assertFalse(cache.containsWord("tester"));
+        assertEquals(2, cache.vocabWords().size());
+        assertEquals(2, cache.words().size());
+
+        cache.addToken(new VocabWord(5.0, "tester"));
+        assertEquals(3, cache.numWords());
+        assertEquals(5, cache.wordFrequency("tester"));
+    }
+
+    @Test
+    public void testWriteThrough() throws Exception {
+        OffHeapVocabCache cache = new OffHeapVocabCache.Builder().build();
+        cache.addToken(new VocabWord(1.0, "word"));
+
+        VocabWord word = cache.wordFor("word");
+        word.increaseElementFrequency(4);
+        word.incrementSequencesCount(3);
+        word.setSpecial(true);
+        word.markAsLabel(true);
+
+        VocabWord other = cache.wordFor("word");
+        assertEquals(5.0, other.getElementFrequency(), 1e-5);
+        assertEquals(3, other.getSequencesCount());
+        assertEquals(3, cache.docAppearedIn("word"));
+        assertTrue(other.isSpecial());
+        assertTrue(other.isLabel());
+    }
+
+    @Test
+    public void testViewsReused() throws Exception {
+        OffHeapVocabCache cache = new OffHeapVocabCache.Builder().build();
+        cache.addToken(new VocabWord(1.0, "word"));
+        cache.addWordToIndex(0, "word");
+
+        VocabWord word = cache.wordFor("word");
+        assertSame(word, cache.wordFor("word"));
+        assertSame(word, cache.wordFor(word.getStorageId()));
+        assertSame(word, cache.elementAtIndex(0));
+        assertSame(word.getCodes(), word.getCodes());
+        assertSame(word.getPoints(), word.getPoints());
+
+        // reused view still reflects updates made through the cache
+        cache.incrementWordCount("word", 2);
+        assertEquals(3.0, cache.wordFor("word").getElementFrequency(), 1e-5);
+        assertEquals(0, cache.wordFor("word").compareTo(new VocabWord(3.0, "other")));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSaveVocab() throws Exception {
+        new OffHeapVocabCache.Builder().build().saveVocab();
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        OffHeapVocabCache cache = new OffHeapVocabCache.Builder().build();
+        cache.addToken(new VocabWord(1.0, "word"));
+        cache.addToken(new VocabWord(2.0, "test"));
+        cache.addWordToIndex(0, "test");
+        cache.addWordToIndex(1, "word");
+
+        File tmp = File.createTempFile("offheapvocab", "bin");
+        tmp.deleteOnExit();
+        SerializationUtils.saveObject(cache, tmp);
+
+        OffHeapVocabCache restored = SerializationUtils.readObject(tmp);
+        assertEquals(2, restored.numWords());
+        assertEquals("test", restored.wordAtIndex(0));
+        assertEquals("word", restored.wordAtIndex(1));
+        assertEquals(2, restored.wordFrequency("test"));
+    }
+
+    @Test
+    public void testBuildJointVocabulary() throws Exception {
+        File inputFile = new ClassPathResource("big/raw_sentences.txt").getFile();
+        SentenceIterator iter = new BasicLineIterator(inputFile);
+
+        TokenizerFactory t = new DefaultTokenizerFactory();
+        t.setTokenPreProcessor(new CommonPreprocessor());
+
+        OffHeapVocabCache cache = new OffHeapVocabCache.Builder().build();
+
+        SentenceTransformer transformer = new SentenceTransformer.Builder().iterator(iter).tokenizerFactory(t).build();
+        AbstractSequenceIterator<VocabWord> sequenceIterator =
+                        new AbstractSequenceIterator.Builder<>(transformer).build();
+
+        VocabConstructor<VocabWord> constructor = new VocabConstructor.Builder<VocabWord>()
+                        .addSource(sequenceIterator, 5).useAdaGrad(false).setTargetVocabCache(cache).build();
+
+        constructor.buildJointVocabulary(false, true);
+
+        assertEquals(242, cache.numWords());
+        for (int e = 0; e < cache.numWords(); e++) {
+            VocabWord word = cache.elementAtIndex(e);
+            assertNotNull(word);
+            assertEquals(e, word.getIndex());
+            assertTrue(word.getCodeLength() > 0);
+        }
+    }
+}
@@ -28,10 +28,8 @@ import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.api.ops.impl.accum.MatchCondition;
 import org.nd4j.linalg.api.ops.impl.transforms.Not;
 import org.nd4j.linalg.factory.Nd4j;
-import org.nd4j.linalg.indexing.conditions.Conditions;
 import org.nd4j.linalg.lossfunctions.serde.RowVectorDeserializer;
 import org.nd4j.linalg.lossfunctions.serde.RowVectorSerializer;
 import org.nd4j.linalg.primitives.Counter;
@@ -78,10 +76,10 @@ import java.util.*;
  * @author Adam Gibson
  */
 @Slf4j
-@EqualsAndHashCode(callSuper = true)
+@EqualsAndHashCode(callSuper = true, exclude = {"pendingConfusion", "pendingNumClasses"})
 @Getter
 @Setter
-@JsonIgnoreProperties({"confusionMatrixMetaData"})
+@JsonIgnoreProperties({"confusionMatrixMetaData", "pendingConfusion", "pendingNumClasses"})
 public class Evaluation extends BaseEvaluation<Evaluation> {
 
     public enum Metric {ACCURACY, F1, PRECISION, RECALL, GMEASURE, MCC}
@@ -91,6 +89,9 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
 
     protected static final int CONFUSION_PRINT_MAX_CLASSES = 20;
 
+    //Above this number of classes, counts go directly to the (sparse) confusion matrix: dense counts are O(n^2) memory
+    protected static final int DENSE_CONFUSION_MAX_CLASSES = 1024;
+
     protected Integer binaryPositiveClass = 1;  //Used *only* for binary classification; default value here to 1 for legacy JSON loading
     protected final int topN;
     protected int topNCorrectCount = 0;
@@ -114,6 +115,14 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
 
     protected Map<Pair<Integer, Integer>, List<Object>> confusionMatrixMetaData; //Pair: (Actual,Predicted)
 
+    //Dense [actual * pendingNumClasses + predicted] counts, not yet added to the (map based) confusion matrix
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long[] pendingConfusion;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int pendingNumClasses;
+
     // Empty constructor
     public Evaluation() {
         this.topN = 1;
@@ -260,6 +269,7 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
     @Override
     public void reset() {
         confusion = null;
+        pendingConfusion = null;
         truePositives = new Counter<>();
         falsePositives = new Counter<>();
         trueNegatives = new Counter<>();
@@ -271,9 +281,49 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
     }
 
     private ConfusionMatrix<Integer> confusion() {
+        flushPendingConfusion();
         return confusion;
     }
 
+    /**
+     * Add any dense counts accumulated by {@link #eval(INDArray, INDArray, List)} to the confusion matrix
+     */
+    private void flushPendingConfusion() {
+        if (pendingConfusion == null || confusion == null) {
+            return;
+        }
+        long[] pending = pendingConfusion;
+        int n = pendingNumClasses;
+        pendingConfusion = null;
+        for (int actual = 0; actual < n; actual++) {
+            for (int predicted = 0; predicted < n; predicted++) {
+                long count = pending[actual * n + predicted];
+                if (count > 0) {
+                    confusion.add(actual, predicted, (int) count);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The confusion matrix, including all counts collected so far
+     */
+    public ConfusionMatrix<Integer> getConfusion() {
+        return confusion();
+    }
+
+    @Override
+    public String toJson() {
+        flushPendingConfusion();
+        return super.toJson();
+    }
+
+    @Override
+    public String toYaml() {
+        flushPendingConfusion();
+        return super.toYaml();
+    }
+
     private static List<String> createLabels(int numClasses) {
         if (numClasses == 1)
             numClasses = 2; //Binary (single output variable) case...
@@ -444,72 +494,74 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
                 //Standard case: argmax
                 guessIndex = Nd4j.argMax(guesses, 1);
             }
-            INDArray realOutcomeIndex = Nd4j.argMax(realOutcomes, 1);
-            val nExamples = guessIndex.length();
+            //Pull both index vectors once, and count into a dense matrix: the map based confusion matrix is only
+            //updated when it is actually needed (see confusion())
+            int[] actualIdxs = Nd4j.argMax(realOutcomes, 1).toIntVector();
+            int[] predictedIdxs = guessIndex.toIntVector();
+            int nExamples = actualIdxs.length;
+
+            boolean dense = nCols <= DENSE_CONFUSION_MAX_CLASSES;
+            if (pendingConfusion != null && (!dense || pendingNumClasses != nCols)) {
+                flushPendingConfusion();
+            }
+            if (dense && pendingConfusion == null) {
+                pendingConfusion = new long[(int) ((long) nCols * nCols)];
+                pendingNumClasses = nCols;
+            }
 
+            //Per class counts for this minibatch. True negatives: all examples where the class is neither the actual
+            //nor the predicted class
+            int[] tp = new int[nCols];
+            int[] fp = new int[nCols];
+            int[] fn = new int[nCols];
             for (int i = 0; i < nExamples; i++) {
-                int actual = (int) realOutcomeIndex.getDouble(i);
-                int predicted = (int) guessIndex.getDouble(i);
-                confusion().add(actual, predicted);
+                int actual = actualIdxs[i];
+                int predicted = predictedIdxs[i];
+                if (dense) {
+                    pendingConfusion[actual * nCols + predicted]++;
+                } else {
+                    confusion.add(actual, predicted);
+                }
 
                 if (recordMetaData != null && recordMetaData.size() > i) {
                     Object m = recordMetaData.get(i);
                     addToMetaConfusionMatrix(actual, predicted, m);
                 }
 
-                // instead of looping through each label for confusion
-                // matrix, instead infer those values by determining if true/false negative/positive,
-                // then just add across matrix
-
-                // if actual == predicted, then it's a true positive, assign true negative to every other label
                 if (actual == predicted) {
-                    truePositives.incrementCount(actual, 1);
-                    for (int col = 0; col < nCols; col++) {
-                        if (col == actual) {
-                            continue;
-                        }
-                        trueNegatives.incrementCount(col, 1); // all cols prior
-                    }
+                    tp[actual]++;
                 } else {
-                    falsePositives.incrementCount(predicted, 1);
-                    falseNegatives.incrementCount(actual, 1);
-
-                    // first determine intervals for adding true negatives
-                    int lesserIndex, greaterIndex;
-                    if (actual < predicted) {
-                        lesserIndex = actual;
-                        greaterIndex = predicted;
-                    } else {
-                        lesserIndex = predicted;
-                        greaterIndex = actual;
-                    }
-
-                    // now loop through intervals
-                    for (int col = 0; col < lesserIndex; col++) {
-                        trueNegatives.incrementCount(col, 1); // all cols prior
-                    }
-                    for (int col = lesserIndex + 1; col < greaterIndex; col++) {
-                        trueNegatives.incrementCount(col, 1); // all cols after
-                    }
-                    for (int col = greaterIndex + 1; col < nCols; col++) {
-                        trueNegatives.incrementCount(col, 1); // all cols after
-                    }
+                    fp[predicted]++;
+                    fn[actual]++;
                 }
             }
+
+            for (int c = 0; c < nCols; c++) {
+                if (tp[c] > 0)
+                    truePositives.incrementCount(c, tp[c]);
+                if (fp[c] > 0)
+                    falsePositives.incrementCount(c, fp[c]);
+                if (fn[c] > 0)
+                    falseNegatives.incrementCount(c, fn[c]);
+                int tn = nExamples - tp[c] - fp[c] - fn[c];
+                if (tn > 0)
+                    trueNegatives.incrementCount(c, tn);
+            }
         }
 
         if (nCols > 1 && topN > 1) {
-            //Calculate top N accuracy
-            //TODO: this could be more efficient
-            INDArray realOutcomeIndex = Nd4j.argMax(realOutcomes, 1);
-            val nExamples = realOutcomeIndex.length();
+            //Calculate top N accuracy: single copy of the predictions, instead of one op per example
+            int[] realOutcomeIndex = Nd4j.argMax(realOutcomes, 1).toIntVector();
+            double[] probs = guesses.dup('c').data().asDouble();
+            int nExamples = realOutcomeIndex.length;
             for (int i = 0; i < nExamples; i++) {
-                int labelIdx = (int) realOutcomeIndex.getDouble(i);
-                double prob = guesses.getDouble(i, labelIdx);
-                INDArray row = guesses.getRow(i);
-                int countGreaterThan = (int) Nd4j.getExecutioner()
-                                .exec(new MatchCondition(row, Conditions.greaterThan(prob)), Integer.MAX_VALUE)
-                                .getDouble(0);
+                int rowOffset = i * nCols;
+                double prob = probs[rowOffset + realOutcomeIndex[i]];
+                int countGreaterThan = 0;
+                for (int j = 0; j < nCols; j++) {
+                    if (probs[rowOffset + j] > prob)
+                        countGreaterThan++;
+                }
                 if (countGreaterThan < topN) {
                     //For example, for top 3 accuracy: can have at most 2 other probabilities larger
                     topNCorrectCount++;
@@ -704,6 +756,7 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
     public String confusionMatrix(){
         int nClasses = numClasses();
 
+        ConfusionMatrix<Integer> confusion = confusion();
         if(confusion == null){
             return "Confusion matrix: <no data>";
         }
@@ -1575,7 +1628,7 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
      * @return confusion matrix variable for this evaluation
      */
     public ConfusionMatrix<Integer> getConfusionMatrix() {
-        return confusion;
+        return confusion();
     }
 
     /**
@@ -1594,6 +1647,8 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
         trueNegatives.incrementAll(other.trueNegatives);
         falseNegatives.incrementAll(other.falseNegatives);
 
+        flushPendingConfusion();
+        other.flushPendingConfusion();
         if (confusion == null) {
             if (other.confusion != null)
                 confusion = new ConfusionMatrix<>(other.confusion);
@@ -43,6 +43,13 @@ import static org.nd4j.linalg.indexing.NDArrayIndex.interval;
  * Note that in some cases (very skewed probability predictions, for example) the threshold approach can be inaccurate,
  * often underestimating the true area.
  * <p>
+ * Additionally, a streaming mode is available via {@link #streaming(int)}: predictions are counted into a fixed number
+ * of equal-width probability buckets (separately for positive and negative examples). Memory use and serialized size
+ * are constant (2 longs per bucket) regardless of the number of examples, instances can be merged exactly (useful for
+ * distributed evaluation), and each minibatch is processed in a single pass. The AUC is computed exactly for the
+ * bucketed predictions; only the ordering of positive/negative pairs falling in the same bucket is unknown, which
+ * bounds the error - see {@link #calculateAUCErrorBound()}.
+ * <p>
  * The data is assumed to be binary classification - nColumns == 1 (single binary output variable) or nColumns == 2
  * (probability distribution over 2 classes, with column 1 being values for 'positive' examples)
  *
@@ -51,7 +58,8 @@ import static org.nd4j.linalg.indexing.NDArrayIndex.interval;
 @EqualsAndHashCode(callSuper = true,
                 exclude = {"auc", "auprc", "probAndLabel", "exactAllocBlockSize", "rocCurve", "prCurve"})
 @Data
-@ToString(exclude = {"probAndLabel", "exactAllocBlockSize", "rocCurve", "prCurve"})
+@ToString(exclude = {"probAndLabel", "exactAllocBlockSize", "rocCurve", "prCurve", "streamPositive",
+                "streamNegative"})
 @JsonIgnoreProperties({"probAndLabel", "exactAllocBlockSize"})
 @JsonSerialize(using = ROCSerializer.class)
 @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.PROPERTY)
@@ -74,6 +82,10 @@ public class ROC extends BaseEvaluation<ROC> {
     private boolean rocRemoveRedundantPts;
     private int exactAllocBlockSize;
 
+    private int streamingBuckets;
+    private long[] streamPositive;
+    private long[] streamNegative;
+
     public ROC() {
         //Default to exact
         this(0);
@@ -122,6 +134,40 @@ public class ROC extends BaseEvaluation<ROC> {
         this.exactAllocBlockSize = exactAllocBlockSize;
     }
 
+    /**
+     * Create a ROC instance in streaming mode: see {@link ROC} for details
+     *
+     * @param numBuckets Number of equal-width probability buckets. The ROC and P-R curves have numBuckets+1 points
+     */
+    public static ROC streaming(int numBuckets) {
+        return streaming(numBuckets, true);
+    }
+
+    /**
+     * Create a ROC instance in streaming mode: see {@link ROC} for details
+     *
+     * @param numBuckets            Number of equal-width probability buckets. The ROC and P-R curves have numBuckets+1 points
+     * @param rocRemoveRedundantPts Usually set to true. If true,  remove any redundant points from ROC and P-R curves
+     */
+    public static ROC streaming(int numBuckets, boolean rocRemoveRedundantPts) {
+        if (numBuckets <= 0) {
+            throw new IllegalArgumentException("Number of buckets must be positive, got " + numBuckets);
+        }
+        ROC roc = new ROC(0, rocRemoveRedundantPts);
+        roc.isExact = false;
+        roc.streamingBuckets = numBuckets;
+        roc.streamPositive = new long[numBuckets];
+        roc.streamNegative = new long[numBuckets];
+        return roc;
+    }
+
+    /**
+     * @return True if this ROC instance uses the streaming (bucketed) mode
+     */
+    public boolean isStreaming() {
+        return streamingBuckets > 0;
+    }
+
     protected INDArray getProbAndLabelUsed() {
         if (probAndLabel == null || exampleCount == 0) {
             return null;
@@ -153,6 +199,9 @@ public class ROC extends BaseEvaluation<ROC> {
 
         if (isExact) {
             probAndLabel = null;
+        } else if (isStreaming()) {
+            streamPositive = new long[streamingBuckets];
+            streamNegative = new long[streamingBuckets];
         } else {
             double step = 1.0 / thresholdSteps;
             for (int i = 0; i <= thresholdSteps; i++) {
@@ -164,6 +213,8 @@ public class ROC extends BaseEvaluation<ROC> {
         exampleCount = 0;
         auc = null;
         auprc = null;
+        rocCurve = null;
+        prCurve = null;
     }
 
     @Override
@@ -171,7 +222,11 @@ public class ROC extends BaseEvaluation<ROC> {
         StringBuilder sb = new StringBuilder();
         sb.append("AUC (Area under ROC Curve):                ").append(calculateAUC()).append("\n");
         sb.append("AUPRC (Area under Precision/Recall Curve): ").append(calculateAUCPR());
-        if(!isExact){
+        if (isStreaming()) {
+            sb.append("\n");
+            sb.append("[Note: Streaming AUC/AUPRC calculation used with ").append(streamingBuckets)
+                    .append(" buckets; AUC error bound: ").append(calculateAUCErrorBound()).append("]");
+        } else if(!isExact){
             sb.append("\n");
             sb.append("[Note: Thresholded AUC/AUPRC calculation used with ").append(thresholdSteps)
                     .append(" steps); accuracy may reduced compared to exact mode]");
@@ -242,6 +297,37 @@ public class ROC extends BaseEvaluation<ROC> {
             int countClass1CurrMinibatch = labelClass1.sumNumber().intValue();
             countActualPositive += countClass1CurrMinibatch;
             countActualNegative += labels.size(0) - countClass1CurrMinibatch;
+        } else if (isStreaming()) {
+            //Streaming approach: single pass over the minibatch, counting into fixed probability buckets
+            INDArray probClass1;
+            INDArray labelClass1;
+            if (singleOutput) {
+                probClass1 = predictions;
+                labelClass1 = labels;
+            } else {
+                probClass1 = predictions.getColumn(1);
+                labelClass1 = labels.getColumn(1);
+            }
+            double[] prob = probClass1.dup('c').data().asDouble();
+            double[] label = labelClass1.dup('c').data().asDouble();
+
+            long countPos = 0;
+            for (int i = 0; i < prob.length; i++) {
+                int bucket = (int) (prob[i] * streamingBuckets);
+                if (bucket >= streamingBuckets) {
+                    bucket = streamingBuckets - 1;
+                } else if (bucket < 0) {
+                    bucket = 0;
+                }
+                if (label[i] != 0.0) {
+                    streamPositive[bucket]++;
+                    countPos++;
+                } else {
+                    streamNegative[bucket]++;
+                }
+            }
+            countActualPositive += countPos;
+            countActualNegative += prob.length - countPos;
         } else {
             //Thresholded approach
             INDArray positivePredictedClassColumn;
@@ -427,6 +513,37 @@ public class ROC extends BaseEvaluation<ROC> {
                 fpCountOut = temp2[1];
                 fnCountOut = temp2[2];
             }
+        } else if (isStreaming()) {
+            long[][] cumulative = streamingCumulativeCounts();
+            thresholdOut = new double[streamingBuckets + 1];
+            precisionOut = new double[streamingBuckets + 1];
+            recallOut = new double[streamingBuckets + 1];
+            tpCountOut = new int[streamingBuckets + 1];
+            fpCountOut = new int[streamingBuckets + 1];
+            fnCountOut = new int[streamingBuckets + 1];
+
+            for (int i = 0; i <= streamingBuckets; i++) {
+                long tpCount = cumulative[0][i];
+                long fpCount = cumulative[1][i];
+
+                thresholdOut[i] = i / (double) streamingBuckets;
+                precisionOut[i] = (tpCount == 0 && fpCount == 0) ? 1.0 : tpCount / (double) (tpCount + fpCount);
+                recallOut[i] = countActualPositive == 0 ? 1.0 : tpCount / (double) countActualPositive;
+                tpCountOut[i] = (int) tpCount;
+                fpCountOut[i] = (int) fpCount;
+                fnCountOut[i] = (int) (countActualPositive - tpCount);
+            }
+
+            if (rocRemoveRedundantPts) {
+                Pair<double[][], int[][]> pair = removeRedundant(thresholdOut, precisionOut, recallOut, tpCountOut,
+                                fpCountOut, fnCountOut);
+                thresholdOut = pair.getFirst()[0];
+                precisionOut = pair.getFirst()[1];
+                recallOut = pair.getFirst()[2];
+                tpCountOut = pair.getSecond()[0];
+                fpCountOut = pair.getSecond()[1];
+                fnCountOut = pair.getSecond()[2];
+            }
         } else {
             thresholdOut = new double[counts.size()];
             precisionOut = new double[counts.size()];
@@ -533,6 +650,26 @@ public class ROC extends BaseEvaluation<ROC> {
 
             this.rocCurve = new RocCurve(tOut, x_fpr_out, y_tpr_out);
 
+            return rocCurve;
+        } else if (isStreaming()) {
+            long[][] cumulative = streamingCumulativeCounts();
+            double[] tOut = new double[streamingBuckets + 1];
+            double[] x_fpr_out = new double[streamingBuckets + 1];
+            double[] y_tpr_out = new double[streamingBuckets + 1];
+            for (int i = 0; i <= streamingBuckets; i++) {
+                tOut[i] = i / (double) streamingBuckets;
+                x_fpr_out[i] = cumulative[1][i] / (double) countActualNegative;
+                y_tpr_out[i] = cumulative[0][i] / (double) countActualPositive;
+            }
+
+            if (rocRemoveRedundantPts) {
+                double[][] temp = removeRedundant(tOut, x_fpr_out, y_tpr_out, null, null, null).getFirst();
+                tOut = temp[0];
+                x_fpr_out = temp[1];
+                y_tpr_out = temp[2];
+            }
+
+            this.rocCurve = new RocCurve(tOut, x_fpr_out, y_tpr_out);
             return rocCurve;
         } else {
 
@@ -552,6 +689,19 @@ public class ROC extends BaseEvaluation<ROC> {
         }
     }
 
+    /**
+     * Streaming mode only: number of true positives (return[0][i]) and false positives (return[1][i]) when predicting
+     * positive for all probabilities >= i / streamingBuckets, for i = 0..streamingBuckets
+     */
+    private long[][] streamingCumulativeCounts() {
+        long[][] out = new long[2][streamingBuckets + 1];
+        for (int i = streamingBuckets - 1; i >= 0; i--) {
+            out[0][i] = out[0][i + 1] + streamPositive[i];
+            out[1][i] = out[1][i + 1] + streamNegative[i];
+        }
+        return out;
+    }
+
     private static Pair<double[][], int[][]> removeRedundant(double[] threshold, double[] x, double[] y, int[] tpCount,
                     int[] fpCount, int[] fnCount) {
         double[] t_compacted = new double[threshold.length];
@@ -626,6 +776,29 @@ public class ROC extends BaseEvaluation<ROC> {
         return auc;
     }
 
+    /**
+     * Upper bound on the absolute error of {@link #calculateAUC()} in streaming mode, relative to the exact AUC.<br>
+     * For the pairs of positive and negative examples falling into the same bucket, the relative order of the
+     * predictions is unknown and they are counted as ties (i.e., 0.5 each); hence the error is at most
+     * 0.5 * sum_b(positive_b * negative_b) / (totalPositive * totalNegative). Returns 0 for exact mode.
+     * Note that this bound does not apply to the thresholded mode.
+     *
+     * @return AUC error bound
+     */
+    public double calculateAUCErrorBound() {
+        if (!isStreaming()) {
+            return 0.0;
+        }
+        if (countActualPositive == 0 || countActualNegative == 0) {
+            return Double.NaN;
+        }
+        double sum = 0.0;
+        for (int i = 0; i < streamingBuckets; i++) {
+            sum += streamPositive[i] * (double) streamNegative[i];
+        }
+        return 0.5 * sum / ((double) countActualPositive * countActualNegative);
+    }
+
     /**
      * Calculate the area under the precision/recall curve - aka AUCPR
      *
@@ -657,6 +830,11 @@ public class ROC extends BaseEvaluation<ROC> {
                             "Cannot merge ROC instances with different numbers of threshold steps ("
                                             + this.thresholdSteps + " vs. " + other.thresholdSteps + ")");
         }
+        if (this.streamingBuckets != other.streamingBuckets) {
+            throw new UnsupportedOperationException(
+                            "Cannot merge ROC instances with different numbers of streaming buckets ("
+                                            + this.streamingBuckets + " vs. " + other.streamingBuckets + ")");
+        }
         this.countActualPositive += other.countActualPositive;
         this.countActualNegative += other.countActualNegative;
         this.auc = null;
@@ -688,6 +866,11 @@ public class ROC extends BaseEvaluation<ROC> {
             probAndLabel.put(new INDArrayIndex[] {
                             interval(exampleCount, exampleCount + other.exampleCount), all()},
                             toPut);
+        } else if (isStreaming()) {
+            for (int i = 0; i < streamingBuckets; i++) {
+                streamPositive[i] += other.streamPositive[i];
+                streamNegative[i] += other.streamNegative[i];
+            }
         } else {
             for (Double d : this.counts.keySet()) {
                 CountsForThreshold cft = this.counts.get(d);
@@ -34,6 +34,7 @@ public class ROCBinary extends BaseEvaluation<ROCBinary> {
 
     private int thresholdSteps;
     private boolean rocRemoveRedundantPts;
+    private int streamingBuckets;
     private List<String> labels;
 
     public ROCBinary() {
@@ -56,6 +57,27 @@ public class ROCBinary extends BaseEvaluation<ROCBinary> {
         this.rocRemoveRedundantPts = rocRemoveRedundantPts;
     }
 
+    /**
+     * Create a ROCBinary instance that uses the streaming (bucketed) mode for each output - see {@link ROC#streaming(int)}
+     *
+     * @param numBuckets Number of equal-width probability buckets
+     */
+    public static ROCBinary streaming(int numBuckets) {
+        if (numBuckets <= 0) {
+            throw new IllegalArgumentException("Number of buckets must be positive, got " + numBuckets);
+        }
+        ROCBinary ret = new ROCBinary(0, true);
+        ret.streamingBuckets = numBuckets;
+        return ret;
+    }
+
+    private ROC newUnderlying() {
+        if (streamingBuckets > 0) {
+            return ROC.streaming(streamingBuckets, rocRemoveRedundantPts);
+        }
+        return new ROC(thresholdSteps, rocRemoveRedundantPts);
+    }
+
 
     @Override
     public void reset() {
@@ -84,7 +106,7 @@ public class ROCBinary extends BaseEvaluation<ROCBinary> {
         if (underlying == null) {
             underlying = new ROC[n];
             for (int i = 0; i < n; i++) {
-                underlying[i] = new ROC(thresholdSteps, rocRemoveRedundantPts);
+                underlying[i] = newUnderlying();
             }
         }
 
@@ -309,7 +331,11 @@ public class ROCBinary extends BaseEvaluation<ROCBinary> {
                                 getCountActualNegative(i)));
             }
 
-            if(thresholdSteps > 0){
+            if (streamingBuckets > 0) {
+                sb.append("\n");
+                sb.append("[Note: Streaming AUC/AUPRC calculation used with ").append(streamingBuckets)
+                        .append(" buckets; see ROC.calculateAUCErrorBound() for per-output error bounds]");
+            } else if(thresholdSteps > 0){
                 sb.append("\n");
                 sb.append("[Note: Thresholded AUC/AUPRC calculation used with ").append(thresholdSteps)
                         .append(" steps); accuracy may reduced compared to exact mode]");
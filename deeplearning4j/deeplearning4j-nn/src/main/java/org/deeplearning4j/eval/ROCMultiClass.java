@@ -27,6 +27,7 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
 
     private int thresholdSteps;
     private boolean rocRemoveRedundantPts;
+    private int streamingBuckets;
     @JsonSerialize(using = ROCArraySerializer.class)
     private ROC[] underlying;
     private List<String> labels;
@@ -52,6 +53,27 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
         this.rocRemoveRedundantPts = rocRemoveRedundantPts;
     }
 
+    /**
+     * Create a ROCMultiClass instance that uses the streaming (bucketed) mode for each output - see {@link ROC#streaming(int)}
+     *
+     * @param numBuckets Number of equal-width probability buckets
+     */
+    public static ROCMultiClass streaming(int numBuckets) {
+        if (numBuckets <= 0) {
+            throw new IllegalArgumentException("Number of buckets must be positive, got " + numBuckets);
+        }
+        ROCMultiClass ret = new ROCMultiClass(0, true);
+        ret.streamingBuckets = numBuckets;
+        return ret;
+    }
+
+    private ROC newUnderlying() {
+        if (streamingBuckets > 0) {
+            return ROC.streaming(streamingBuckets, rocRemoveRedundantPts);
+        }
+        return new ROC(thresholdSteps, rocRemoveRedundantPts);
+    }
+
     @Override
     public void reset() {
         underlying = null;
@@ -95,7 +117,11 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
 
             sb.append("Average AUC: ").append(String.format("%-12." + printPrecision + "f", calculateAverageAUC()));
 
-            if(thresholdSteps > 0){
+            if (streamingBuckets > 0) {
+                sb.append("\n");
+                sb.append("[Note: Streaming AUC/AUPRC calculation used with ").append(streamingBuckets)
+                        .append(" buckets; see ROC.calculateAUCErrorBound() for per-output error bounds]");
+            } else if(thresholdSteps > 0){
                 sb.append("\n");
                 sb.append("[Note: Thresholded AUC/AUPRC calculation used with ").append(thresholdSteps)
                         .append(" steps); accuracy may reduced compared to exact mode]");
@@ -132,7 +158,7 @@ public class ROCMultiClass extends BaseEvaluation<ROCMultiClass> {
         if (underlying == null) {
             underlying = new ROC[n];
             for (int i = 0; i < n; i++) {
-                underlying[i] = new ROC(thresholdSteps, rocRemoveRedundantPts);
+                underlying[i] = newUnderlying();
             }
         }
 
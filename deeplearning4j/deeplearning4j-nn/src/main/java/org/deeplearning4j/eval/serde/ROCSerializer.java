@@ -38,6 +38,12 @@ public class ROCSerializer extends JsonSerializer<ROC> {
             jsonGenerator.writeObjectField("rocCurve", roc.getRocCurve());
             jsonGenerator.writeObjectField("prCurve", roc.getPrecisionRecallCurve());
         }
+        if (roc.isStreaming()) {
+            //Streaming mode: bucket counts are small, and are needed for merging after deserialization
+            jsonGenerator.writeNumberField("streamingBuckets", roc.getStreamingBuckets());
+            jsonGenerator.writeObjectField("streamPositive", roc.getStreamPositive());
+            jsonGenerator.writeObjectField("streamNegative", roc.getStreamNegative());
+        }
         jsonGenerator.writeBooleanField("isExact", roc.isExact());
         jsonGenerator.writeNumberField("exampleCount", roc.getExampleCount());
         jsonGenerator.writeBooleanField("rocRemoveRedundantPts", roc.isRocRemoveRedundantPts());
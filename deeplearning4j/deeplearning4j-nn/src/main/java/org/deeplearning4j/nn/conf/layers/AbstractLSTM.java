@@ -37,11 +37,13 @@ public abstract class AbstractLSTM extends BaseRecurrentLayer {
 
     protected double forgetGateBiasInit;
     protected IActivation gateActivationFn = new ActivationSigmoid();
+    protected boolean fusedInference = false;
 
     protected AbstractLSTM(Builder builder) {
         super(builder);
         this.forgetGateBiasInit = builder.forgetGateBiasInit;
         this.gateActivationFn = builder.gateActivationFn;
+        this.fusedInference = builder.fusedInference;
     }
 
     @Override
@@ -76,6 +78,7 @@ public abstract class AbstractLSTM extends BaseRecurrentLayer {
 
         protected double forgetGateBiasInit = 1.0;
         protected IActivation gateActivationFn = new ActivationSigmoid();
+        protected boolean fusedInference = false;
 
         /** Set forget gate bias initalizations. Values in range 1-5 can potentially
          * help with learning or longer-term dependencies.
@@ -116,6 +119,18 @@ public abstract class AbstractLSTM extends BaseRecurrentLayer {
             return (T) this;
         }
 
+        /**
+         * If true: use the fused CPU implementation ({@link org.deeplearning4j.nn.layers.recurrent.FusedLSTMHelper})
+         * for the forward pass during inference and rnnTimeStep, when supported (sigmoid/hard sigmoid gates, tanh or
+         * identity activation). Training is not affected. Ignored when cuDNN is used. Default: false
+         *
+         * @param fusedInference Whether to use the fused CPU implementation for inference
+         */
+        public T fusedInference(boolean fusedInference) {
+            this.fusedInference = fusedInference;
+            return (T) this;
+        }
+
     }
 
 }
@@ -86,6 +86,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A ComputationGraph network is a neural network with arbitrary (directed acyclic graph) connection structure.
@@ -193,6 +195,12 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
     private NeuralNetConfiguration defaultConfiguration;
     private Collection<TrainingListener> trainingListeners = new ArrayList<>();
 
+    //Concurrent execution of independent vertices, for inference only. See setInferenceParallelism(int)
+    protected transient int inferenceParallelism = 0;
+    protected transient ExecutorService vertexExecutor;
+    protected transient ThreadLocal<Map<String,Pointer>> threadHelperWorkspaces;
+    protected transient int[][] inputModificationDependents;
+
 
     public ComputationGraph(ComputationGraphConfiguration configuration) {
         this.configuration = configuration;
@@ -2092,6 +2100,10 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
         //Verify that no workspace is open externally
         WorkspaceUtils.assertNoWorkspacesOpen("Expected no workspace active before call to outputOfLayersDetached");
 
+        if(inferenceParallelism > 1 && !train && fwdPassType == FwdPassType.STANDARD){
+            return outputOfLayersParallel(layerIndexes, features, clearLayerInputs);
+        }
+
 
         //First: for each vertex, determine the highest index of the vertex that consumes it's output
         //Then: for each vertex, determine the forward pass step that each vertex's output has been fully consumed on
@@ -2297,6 +2309,311 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
     }
 
 
+    /**
+     * Enable concurrent execution of independent vertices (i.e., separate branches of the graph) during inference -
+     * {@link #output(INDArray...)} and similar methods - using a bounded pool of the specified number of threads.
+     * This is mainly useful for multi-branch graphs (Inception-style, multi-tower models) with small minibatches on CPU.<br>
+     * In this mode layer activations are detached from workspaces, as they are passed between threads; each thread uses
+     * its own working memory workspace. Training, backprop and rnnTimeStep always execute vertices serially in
+     * topological order.<br>
+     * Note that each thread also executes ops with the backend's own (OpenMP) parallelism: the number of OpenMP threads
+     * may need to be reduced, to avoid oversubscription.
+     *
+     * @param numThreads Number of threads to use. Values below 2 disable concurrent vertex execution (default)
+     */
+    public synchronized void setInferenceParallelism(int numThreads) {
+        if (vertexExecutor != null && numThreads != inferenceParallelism) {
+            vertexExecutor.shutdown();
+            vertexExecutor = null;
+        }
+        this.inferenceParallelism = numThreads;
+    }
+
+    /**
+     * @return Number of threads used for concurrent execution of vertices during inference. See {@link #setInferenceParallelism(int)}
+     */
+    public int getInferenceParallelism() {
+        return inferenceParallelism;
+    }
+
+    protected synchronized ExecutorService getVertexExecutor() {
+        if (vertexExecutor == null) {
+            //Calling thread executes vertices too, hence one thread less in the pool
+            vertexExecutor = Executors.newFixedThreadPool(inferenceParallelism - 1, new ThreadFactory() {
+                private final AtomicInteger counter = new AtomicInteger(0);
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "ComputationGraph-vertex-" + counter.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return vertexExecutor;
+    }
+
+    /**
+     * Inference-only equivalent of {@link #outputOfLayersDetached(boolean, FwdPassType, int[], INDArray[], INDArray[], INDArray[], boolean, boolean)}
+     * that executes vertices as soon as all of their inputs are available, on up to {@link #getInferenceParallelism()}
+     * threads. The calling thread always executes one of the ready vertices: whenever only one vertex is ready (i.e.,
+     * dependencies force serial execution) no hand-off to other threads happens.
+     */
+    protected INDArray[] outputOfLayersParallel(@NonNull final int[] layerIndexes, @NonNull final INDArray[] features,
+                                                final boolean clearLayerInputs){
+        //Only vertices that the requested outputs depend on are executed
+        final boolean[] needed = new boolean[vertices.length];
+        Deque<Integer> toVisit = new ArrayDeque<>();
+        for(int idx : layerIndexes){
+            toVisit.add(idx);
+        }
+        while(!toVisit.isEmpty()){
+            int idx = toVisit.poll();
+            if(needed[idx])
+                continue;
+            needed[idx] = true;
+            VertexIndices[] inputsFrom = vertices[idx].getInputVertices();
+            if(inputsFrom != null){
+                for(VertexIndices vi : inputsFrom){
+                    toVisit.add(vi.getVertexIndex());
+                }
+            }
+        }
+
+        //Number of input edges that are not yet available, for each vertex - plus the other consumers of the same
+        // input that have to finish first, for layers that may modify their input in-place
+        final int[][] dependents = getInputModificationDependents();
+        int[] pending = new int[vertices.length];
+        for(int idx : topologicalOrder){
+            if(!needed[idx])
+                continue;
+            VertexIndices[] inputsFrom = vertices[idx].getInputVertices();
+            pending[idx] += (inputsFrom == null ? 0 : inputsFrom.length);
+            for(int d : dependents[idx]){
+                if(needed[d]){
+                    pending[d]++;
+                }
+            }
+        }
+
+        Deque<Integer> ready = new ArrayDeque<>();
+        int remaining = 0;
+        for(int idx : topologicalOrder){
+            if(!needed[idx])
+                continue;
+            remaining++;
+            if(pending[idx] == 0){
+                ready.add(idx);
+            }
+        }
+
+        final INDArray[] outputs = new INDArray[layerIndexes.length];
+        final boolean noWS = configuration.getInferenceWorkspaceMode() == WorkspaceMode.NONE;
+        final int deviceId = Nd4j.getAffinityManager().getDeviceForCurrentThread();
+        CompletionService<Integer> completionService = new ExecutorCompletionService<>(getVertexExecutor());
+        int inFlight = 0;
+        try {
+            while (remaining > 0) {
+                //Collect vertices completed by other threads, without blocking
+                Future<Integer> done;
+                while ((done = completionService.poll()) != null) {
+                    inFlight--;
+                    remaining--;
+                    markVertexDone(getVertexResult(done), dependents, needed, pending, ready);
+                }
+                if(remaining == 0)
+                    break;
+
+                if (ready.isEmpty()) {
+                    if (inFlight == 0) {
+                        throw new IllegalStateException("Unable to execute remaining " + remaining
+                                + " vertices: no vertices are ready for execution");
+                    }
+                    done = completionService.take();
+                    inFlight--;
+                    remaining--;
+                    markVertexDone(getVertexResult(done), dependents, needed, pending, ready);
+                    continue;
+                }
+
+                //Hand off all ready vertices but one to the pool, and execute the remaining one on this thread
+                while (ready.size() > 1) {
+                    final int idx = ready.pollLast();
+                    completionService.submit(new Callable<Integer>() {
+                        @Override
+                        public Integer call() throws Exception {
+                            Nd4j.getAffinityManager().unsafeSetDevice(deviceId);
+                            forwardVertexDetached(idx, needed, features, layerIndexes, outputs, clearLayerInputs, noWS);
+                            return idx;
+                        }
+                    });
+                    inFlight++;
+                }
+
+                int idx = ready.poll();
+                forwardVertexDetached(idx, needed, features, layerIndexes, outputs, clearLayerInputs, noWS);
+                remaining--;
+                markVertexDone(idx, dependents, needed, pending, ready);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            //Never leave tasks running against this network: on failure, wait for anything already submitted
+            while (inFlight > 0) {
+                try {
+                    completionService.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                inFlight--;
+            }
+        }
+
+        return outputs;
+    }
+
+    private void markVertexDone(int vIdx, int[][] dependents, boolean[] needed, int[] pending, Deque<Integer> ready) {
+        VertexIndices[] outputsTo = vertices[vIdx].getOutputVertices();
+        if(outputsTo != null) {
+            for (VertexIndices vi : outputsTo) {
+                int idx = vi.getVertexIndex();
+                if (needed[idx] && --pending[idx] == 0) {
+                    ready.add(idx);
+                }
+            }
+        }
+        for(int idx : dependents[vIdx]){
+            if (needed[idx] && --pending[idx] == 0) {
+                ready.add(idx);
+            }
+        }
+    }
+
+    /**
+     * Layers that consume the same input as other vertices may be allowed to modify that input in-place, if they are
+     * the last consumer in the topological order (see {@link #init()}). When vertices are executed concurrently, such
+     * layers must also wait for all other consumers of that input.
+     *
+     * @return For each vertex index: indices of layer vertices that can only be executed after this vertex
+     */
+    protected synchronized int[][] getInputModificationDependents() {
+        if(inputModificationDependents != null){
+            return inputModificationDependents;
+        }
+
+        List<List<Integer>> dependents = new ArrayList<>();
+        for(int i = 0; i < vertices.length; i++){
+            dependents.add(new ArrayList<Integer>());
+        }
+        for(GraphVertex gv : vertices){
+            VertexIndices[] inputsFrom = gv.getInputVertices();
+            if(!gv.hasLayer() || inputsFrom == null || inputsFrom.length != 1)
+                continue;
+            GraphVertex in = vertices[inputsFrom[0].getVertexIndex()];
+            if(in.isInputVertex())
+                continue;   //Input modification is never allowed for network inputs
+
+            int thisTopoPos = ArrayUtils.indexOf(topologicalOrder, gv.getVertexIndex());
+            Set<Integer> otherConsumers = new HashSet<>();
+            boolean isLast = true;
+            for(VertexIndices vi : in.getOutputVertices()){
+                if(vi.getVertexIndex() == gv.getVertexIndex())
+                    continue;
+                otherConsumers.add(vi.getVertexIndex());
+                isLast &= ArrayUtils.indexOf(topologicalOrder, vi.getVertexIndex()) < thisTopoPos;
+            }
+            if(isLast){
+                for(int c : otherConsumers){
+                    dependents.get(c).add(gv.getVertexIndex());
+                }
+            }
+        }
+
+        int[][] out = new int[vertices.length][0];
+        for(int i = 0; i < vertices.length; i++){
+            out[i] = ArrayUtils.toPrimitive(dependents.get(i).toArray(new Integer[0]));
+        }
+        inputModificationDependents = out;
+        return out;
+    }
+
+    private static int getVertexResult(Future<Integer> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Forward pass for a single vertex, with the activations detached from any workspace, and the working memory in
+     * the current thread's workspace
+     */
+    protected void forwardVertexDetached(int vIdx, boolean[] needed, INDArray[] features, int[] layerIndexes,
+                                         INDArray[] outputs, boolean clearLayerInputs, boolean noWS){
+        if(threadHelperWorkspaces == null){
+            synchronized (this){
+                if(threadHelperWorkspaces == null){
+                    threadHelperWorkspaces = new ThreadLocal<>();
+                }
+            }
+        }
+        //Helper (cuDNN etc) workspaces can't be shared between threads
+        Map<String,Pointer> helpers = threadHelperWorkspaces.get();
+        if(helpers == null){
+            helpers = new HashMap<>();
+            threadHelperWorkspaces.set(helpers);
+        }
+
+        LayerWorkspaceMgr workspaceMgr;
+        if(noWS){
+            workspaceMgr = LayerWorkspaceMgr.noWorkspaces(helpers);
+        } else {
+            workspaceMgr = LayerWorkspaceMgr.builder()
+                    .noWorkspaceFor(ArrayType.INPUT)
+                    .noWorkspaceFor(ArrayType.ACTIVATIONS)
+                    .with(ArrayType.FF_WORKING_MEM, WS_LAYER_WORKING_MEM, WS_LAYER_WORKING_MEM_CONFIG)
+                    .with(ArrayType.RNN_FF_LOOP_WORKING_MEM, WS_RNN_LOOP_WORKING_MEM, WS_RNN_LOOP_WORKING_MEM_CONFIG)
+                    .build();
+            workspaceMgr.setHelperWorkspacePointers(helpers);
+        }
+
+        GraphVertex current = vertices[vIdx];
+        try (MemoryWorkspace wsFFWorking = workspaceMgr.notifyScopeEntered(ArrayType.FF_WORKING_MEM)) {
+            INDArray out;
+            if (current.isInputVertex()) {
+                out = features[vIdx];
+            } else {
+                out = current.doForward(false, workspaceMgr);
+                validateArrayWorkspaces(workspaceMgr, out, ArrayType.ACTIVATIONS, current.getVertexName(), false, "Feed forward (inference)");
+            }
+
+            VertexIndices[] inputsTo = current.getOutputVertices();
+            if(inputsTo != null) {
+                for (VertexIndices v : inputsTo) {
+                    if(needed[v.getVertexIndex()]) {
+                        vertices[v.getVertexIndex()].setInput(v.getVertexEdgeNumber(), out, workspaceMgr);
+                    }
+                }
+            }
+
+            if(clearLayerInputs) {
+                current.clear();
+            }
+
+            int outIdx = ArrayUtils.indexOf(layerIndexes, vIdx);
+            if(outIdx >= 0){
+                outputs[outIdx] = out;
+            }
+        }
+    }
+
     /**
      * Calculate the gradient of the network with respect to some external errors.
      * Note that this is typically used for things like reinforcement learning, not typical networks that include
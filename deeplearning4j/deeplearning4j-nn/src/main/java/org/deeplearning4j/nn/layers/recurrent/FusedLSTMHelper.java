@@ -0,0 +1,225 @@
+package org.deeplearning4j.nn.layers.recurrent;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.BaseLayer;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.workspace.ArrayType;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.nd4j.linalg.activations.IActivation;
+import org.nd4j.linalg.activations.impl.ActivationHardSigmoid;
+import org.nd4j.linalg.activations.impl.ActivationIdentity;
+import org.nd4j.linalg.activations.impl.ActivationSigmoid;
+import org.nd4j.linalg.activations.impl.ActivationTanH;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.shape.Shape;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.primitives.Pair;
+
+import java.util.Map;
+
+/**
+ * Fused forward pass implementation of {@link LSTMHelper} for CPU, used for inference (including rnnTimeStep).<br>
+ * Compared to the default implementation in {@link LSTMHelpers}, each time step is a single recurrent gemm into a
+ * preallocated gates buffer, followed by a single pass over that buffer that applies the gate and cell activation
+ * functions, the peephole connections (if any), and the cell/output update. No per-gate slicing, temporary arrays
+ * or intermediate activations are created. Optionally, the input projection for all time steps is computed up front
+ * using one gemm, instead of one gemm per time step.<br>
+ * Supports sigmoid or hard sigmoid gate activations, and tanh or identity layer activations.
+ * For the backward pass (and the forward pass before it), null is returned, and the default implementation is used.
+ *
+ * @author raver119@gmail.com
+ */
+public class FusedLSTMHelper implements LSTMHelper {
+
+    private final boolean precomputeInputProjection;
+
+    public FusedLSTMHelper() {
+        this(true);
+    }
+
+    /**
+     * @param precomputeInputProjection If true: compute input x inputWeights for all time steps using a single gemm.
+     *                                  This requires a buffer of size [minibatch * timeSeriesLength, 4 * layerSize]
+     */
+    public FusedLSTMHelper(boolean precomputeInputProjection) {
+        this.precomputeInputProjection = precomputeInputProjection;
+    }
+
+    @Override
+    public boolean checkSupported(IActivation gateActivationFn, IActivation activationFn,
+                    boolean hasPeepholeConnections) {
+        boolean gatesOk = gateActivationFn instanceof ActivationSigmoid
+                        || gateActivationFn instanceof ActivationHardSigmoid;
+        boolean actOk = activationFn instanceof ActivationTanH || activationFn instanceof ActivationIdentity;
+        return gatesOk && actOk;
+    }
+
+    @Override
+    public Pair<Gradient, INDArray> backpropGradient(NeuralNetConfiguration conf, IActivation gateActivationFn,
+                    INDArray input, INDArray recurrentWeights, INDArray inputWeights, INDArray epsilon,
+                    boolean truncatedBPTT, int tbpttBackwardLength, FwdPassReturn fwdPass, boolean forwards,
+                    String inputWeightKey, String recurrentWeightKey, String biasWeightKey,
+                    Map<String, INDArray> gradientViews, INDArray maskArray, boolean hasPeepholeConnections,
+                    LayerWorkspaceMgr workspaceMgr) {
+        //Not supported: use default implementation
+        return null;
+    }
+
+    @Override
+    public FwdPassReturn activate(Layer layer, NeuralNetConfiguration conf, IActivation gateActivationFn,
+                    INDArray input, INDArray recurrentWeights, INDArray inputWeights, INDArray biases,
+                    boolean training, INDArray prevOutputActivations, INDArray prevMemCellState, boolean forBackprop,
+                    boolean forwards, String inputWeightKey, INDArray maskArray, boolean hasPeepholeConnections,
+                    LayerWorkspaceMgr workspaceMgr) {
+        if (forBackprop) {
+            //Intermediate activations are required for backprop: use default implementation
+            return null;
+        }
+
+        boolean is2dInput = input.rank() < 3;
+        int timeSeriesLength = (int) (is2dInput ? 1 : input.size(2));
+        int hiddenLayerSize = (int) recurrentWeights.size(0);
+        int miniBatchSize = (int) input.size(0);
+        int nIn = (int) input.size(1);
+        int nGates = 4 * hiddenLayerSize;
+
+        IActivation afn = ((BaseLayer) conf.getLayer()).getActivationFn();
+        if (!checkSupported(gateActivationFn, afn, hasPeepholeConnections)) {
+            return null;
+        }
+        boolean hardSigmoidGates = gateActivationFn instanceof ActivationHardSigmoid;
+        boolean tanhActivation = afn instanceof ActivationTanH;
+
+        INDArray inputWeightsMmul = Shape.toMmulCompatible(inputWeights);
+        INDArray recurrentWeightsIFOG = recurrentWeights
+                        .get(NDArrayIndex.all(), NDArrayIndex.interval(0, nGates)).dup('f');
+
+        double[] bias = biases.dup().data().asDouble();
+        double[] wFF = null;
+        double[] wOO = null;
+        double[] wGG = null;
+        if (hasPeepholeConnections) {
+            wFF = recurrentWeights.getColumn(nGates).dup().data().asDouble();
+            wOO = recurrentWeights.getColumn(nGates + 1).dup().data().asDouble();
+            wGG = recurrentWeights.getColumn(nGates + 2).dup().data().asDouble();
+        }
+
+        //All buffers are f order, zero offset: element (example r, unit k) is at index r + k * miniBatchSize
+        INDArray outputActivations = workspaceMgr.create(ArrayType.ACTIVATIONS,
+                        new int[] {miniBatchSize, hiddenLayerSize, timeSeriesLength}, 'f');
+        INDArray gates = workspaceMgr.createUninitialized(ArrayType.FF_WORKING_MEM,
+                        new int[] {miniBatchSize, nGates}, 'f');
+        INDArray h = workspaceMgr.dup(ArrayType.FF_WORKING_MEM, prevOutputActivations, 'f');
+        INDArray c = workspaceMgr.dup(ArrayType.FF_WORKING_MEM, prevMemCellState, 'f');
+
+        INDArray inputProjection = null;
+        if (precomputeInputProjection && timeSeriesLength > 1) {
+            //Rows ordered by time step, then example: row (t * miniBatchSize + r)
+            INDArray in2d = input.permute(2, 0, 1).dup('c').reshape('c', (long) timeSeriesLength * miniBatchSize, nIn);
+            inputProjection = workspaceMgr.createUninitialized(ArrayType.FF_WORKING_MEM,
+                            new long[] {(long) timeSeriesLength * miniBatchSize, nGates}, 'f');
+            Nd4j.gemm(in2d, inputWeightsMmul, inputProjection, false, false, 1.0, 0.0);
+        }
+
+        DataBuffer gatesBuf = gates.data();
+        DataBuffer hBuf = h.data();
+        DataBuffer cBuf = c.data();
+        DataBuffer outBuf = outputActivations.data();
+        DataBuffer projBuf = (inputProjection == null ? null : inputProjection.data());
+        long projRows = (long) timeSeriesLength * miniBatchSize;
+        long stepLength = (long) miniBatchSize * hiddenLayerSize;
+        double[] stepMask = (maskArray == null ? null : new double[miniBatchSize]);
+
+        for (int iTimeIndex = 0; iTimeIndex < timeSeriesLength; iTimeIndex++) {
+            int time = forwards ? iTimeIndex : timeSeriesLength - iTimeIndex - 1;
+
+            //gates = x_t * W_input + b + h_(t-1) * W_recurrent
+            if (projBuf != null) {
+                long rowOffset = (long) time * miniBatchSize;
+                for (int j = 0; j < nGates; j++) {
+                    long src = rowOffset + j * projRows;
+                    long dst = (long) j * miniBatchSize;
+                    for (int r = 0; r < miniBatchSize; r++) {
+                        gatesBuf.put(dst + r, projBuf.getDouble(src + r) + bias[j]);
+                    }
+                }
+            } else {
+                INDArray miniBatchData = (is2dInput ? input : input.tensorAlongDimension(time, 1, 0));
+                miniBatchData = Shape.toMmulCompatible(miniBatchData);
+                Nd4j.gemm(miniBatchData, inputWeightsMmul, gates, false, false, 1.0, 0.0);
+                for (int j = 0; j < nGates; j++) {
+                    long dst = (long) j * miniBatchSize;
+                    for (int r = 0; r < miniBatchSize; r++) {
+                        gatesBuf.put(dst + r, gatesBuf.getDouble(dst + r) + bias[j]);
+                    }
+                }
+            }
+            Nd4j.gemm(h, recurrentWeightsIFOG, gates, false, false, 1.0, 1.0);
+
+            if (stepMask != null) {
+                for (int r = 0; r < miniBatchSize; r++) {
+                    stepMask[r] = maskArray.getDouble(r, time);
+                }
+            }
+
+            //Fused gate activations + cell update. Gate order: [i, f, o, g]
+            long outOffset = time * stepLength;
+            for (int k = 0; k < hiddenLayerSize; k++) {
+                long iIdx = (long) k * miniBatchSize;
+                long fIdx = (long) (hiddenLayerSize + k) * miniBatchSize;
+                long oIdx = (long) (2 * hiddenLayerSize + k) * miniBatchSize;
+                long gIdx = (long) (3 * hiddenLayerSize + k) * miniBatchSize;
+                for (int r = 0; r < miniBatchSize; r++) {
+                    long idx = iIdx + r;
+                    double cPrev = cBuf.getDouble(idx);
+
+                    double ia = gatesBuf.getDouble(iIdx + r);
+                    if (tanhActivation)
+                        ia = Math.tanh(ia);
+                    double fz = gatesBuf.getDouble(fIdx + r);
+                    double gz = gatesBuf.getDouble(gIdx + r);
+                    double oz = gatesBuf.getDouble(oIdx + r);
+                    if (hasPeepholeConnections) {
+                        fz += cPrev * wFF[k];
+                        gz += cPrev * wGG[k];
+                    }
+                    double fa = gate(fz, hardSigmoidGates);
+                    double ga = gate(gz, hardSigmoidGates);
+
+                    double cCurr = fa * cPrev + ga * ia;
+                    if (hasPeepholeConnections) {
+                        oz += cCurr * wOO[k];
+                    }
+                    double oa = gate(oz, hardSigmoidGates);
+                    double hCurr = oa * (tanhActivation ? Math.tanh(cCurr) : cCurr);
+
+                    if (stepMask != null) {
+                        //Bidirectional + variable length: zero out activations and memory cells at masked steps
+                        hCurr *= stepMask[r];
+                        cCurr *= stepMask[r];
+                    }
+
+                    cBuf.put(idx, cCurr);
+                    hBuf.put(idx, hCurr);
+                    outBuf.put(outOffset + idx, hCurr);
+                }
+            }
+        }
+
+        FwdPassReturn toReturn = new FwdPassReturn();
+        toReturn.fwdPassOutput = outputActivations;
+        toReturn.lastAct = h;
+        toReturn.lastMemCell = c;
+        return toReturn;
+    }
+
+    private static double gate(double z, boolean hardSigmoid) {
+        if (hardSigmoid) {
+            return Math.min(1.0, Math.max(0.0, 0.2 * z + 0.5));
+        }
+        return 1.0 / (1.0 + Math.exp(-z));
+    }
+}
@@ -48,14 +48,28 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
     public static final String STATE_KEY_PREV_ACTIVATION = "prevAct";
     public static final String STATE_KEY_PREV_MEMCELL = "prevMem";
 
+    protected LSTMHelper helper = null;
     protected FwdPassReturn cachedFwdPass;
 
     public GravesLSTM(NeuralNetConfiguration conf) {
         super(conf);
+        initializeHelper();
     }
 
     public GravesLSTM(NeuralNetConfiguration conf, INDArray input) {
         super(conf, input);
+        initializeHelper();
+    }
+
+    void initializeHelper() {
+        if (layerConf().isFusedInference()) {
+            helper = new FusedLSTMHelper();
+            if (!helper.checkSupported(layerConf().getGateActivationFn(), layerConf().getActivationFn(), true)) {
+                log.warn("Fused LSTM inference is not supported for gate activation {} and activation {}: using "
+                        + "default implementation", layerConf().getGateActivationFn(), layerConf().getActivationFn());
+                helper = null;
+            }
+        }
     }
 
     @Override
@@ -142,7 +156,7 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
         FwdPassReturn fwd = LSTMHelpers.activateHelper(this, this.conf, this.layerConf().getGateActivationFn(),
                         this.input, recurrentWeights, inputWeights, biases, training, prevOutputActivations,
                         prevMemCellState, forBackprop || (cacheMode != CacheMode.NONE && training), true,
-                        GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, maskArray, true, null,
+                        GravesLSTMParamInitializer.INPUT_WEIGHT_KEY, maskArray, true, helper,
                         cacheMode, workspaceMgr);
 
 
@@ -80,6 +80,14 @@ public class LSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.layers.L
                 }
             }
         }
+        if (helper == null && layerConf().isFusedInference()) {
+            helper = new FusedLSTMHelper();
+            if (!helper.checkSupported(layerConf().getGateActivationFn(), layerConf().getActivationFn(), false)) {
+                log.warn("Fused LSTM inference is not supported for gate activation {} and activation {}: using "
+                        + "default implementation", layerConf().getGateActivationFn(), layerConf().getActivationFn());
+                helper = null;
+            }
+        }
     }
 
     @Override
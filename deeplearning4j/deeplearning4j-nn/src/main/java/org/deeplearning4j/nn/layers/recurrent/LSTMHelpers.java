@@ -129,6 +129,37 @@ public class LSTMHelpers {
             }
         }
 
+        Level1 l1BLAS = Nd4j.getBlasWrapper().level1();
+
+        //Input validation: check input data matches nIn
+        if (input.size(1) != inputWeights.size(0)) {
+            throw new DL4JInvalidInputException("Received input with size(1) = " + input.size(1)
+                            + " (input array shape = " + Arrays.toString(input.shape())
+                            + "); input.size(1) must match layer nIn size (nIn = " + inputWeights.size(0) + ")");
+        }
+        //Input validation: check that if past state is provided, that it has same
+        //These can be different if user forgets to call rnnClearPreviousState() between calls of rnnTimeStep
+        if (prevOutputActivations != null && prevOutputActivations.size(0) != input.size(0)) {
+            throw new DL4JInvalidInputException("Previous activations (stored state) number of examples = "
+                            + prevOutputActivations.size(0) + " but input array number of examples = " + input.size(0)
+                            + ". Possible cause: using rnnTimeStep() without calling"
+                            + " rnnClearPreviousState() between different sequences?");
+        }
+
+        //initialize prevOutputActivations to zeroes
+        if (prevOutputActivations == null) {
+            prevOutputActivations = Nd4j.zeros(new int[] {miniBatchSize, hiddenLayerSize});
+        }
+
+        if (helper != null) {
+            FwdPassReturn ret = helper.activate(layer, conf, gateActivationFn, input, recurrentWeights, inputWeights,
+                            biases, training, prevOutputActivations, prevMemCellState, forBackprop, forwards,
+                            inputWeightKey, maskArray, hasPeepholeConnections, workspaceMgr);
+            if (ret != null) {
+                return ret;
+            }
+        }
+
         //Allocate arrays for activations:
         boolean sigmoidGates = gateActivationFn instanceof ActivationSigmoid;
         IActivation afn = layer.layerConf().getActivationFn();
@@ -164,37 +195,6 @@ public class LSTMHelpers {
             toReturn.fwdPassOutput = outputActivations;
         }
 
-        Level1 l1BLAS = Nd4j.getBlasWrapper().level1();
-
-        //Input validation: check input data matches nIn
-        if (input.size(1) != inputWeights.size(0)) {
-            throw new DL4JInvalidInputException("Received input with size(1) = " + input.size(1)
-                            + " (input array shape = " + Arrays.toString(input.shape())
-                            + "); input.size(1) must match layer nIn size (nIn = " + inputWeights.size(0) + ")");
-        }
-        //Input validation: check that if past state is provided, that it has same
-        //These can be different if user forgets to call rnnClearPreviousState() between calls of rnnTimeStep
-        if (prevOutputActivations != null && prevOutputActivations.size(0) != input.size(0)) {
-            throw new DL4JInvalidInputException("Previous activations (stored state) number of examples = "
-                            + prevOutputActivations.size(0) + " but input array number of examples = " + input.size(0)
-                            + ". Possible cause: using rnnTimeStep() without calling"
-                            + " rnnClearPreviousState() between different sequences?");
-        }
-
-        //initialize prevOutputActivations to zeroes
-        if (prevOutputActivations == null) {
-            prevOutputActivations = Nd4j.zeros(new int[] {miniBatchSize, hiddenLayerSize});
-        }
-
-        if (helper != null) {
-            FwdPassReturn ret = helper.activate(layer, conf, gateActivationFn, input, recurrentWeights, inputWeights,
-                            biases, training, prevOutputActivations, prevMemCellState, forBackprop, forwards,
-                            inputWeightKey, maskArray, hasPeepholeConnections, workspaceMgr);
-            if (ret != null) {
-                return ret;
-            }
-        }
-
         for (int iTimeIndex = 0; iTimeIndex < timeSeriesLength; iTimeIndex++) {
             try(MemoryWorkspace ws = workspaceMgr.notifyScopeEntered(ArrayType.RNN_FF_LOOP_WORKING_MEM)) {
                 int time = iTimeIndex;
@@ -1,6 +1,7 @@
 package org.deeplearning4j.nn.updater;
 
 import lombok.Getter;
+import lombok.Setter;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.api.Updater;
@@ -22,6 +23,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * BaseMultiLayerUpdater - core functionality for applying updaters to MultiLayerNetwork and ComputationGraph.
@@ -32,17 +35,52 @@ import java.util.Map;
  *     however)<br>
  * are combined into a single {@link org.nd4j.linalg.learning.GradientUpdater} operation, instead of having a set of
  * smaller operations. A smaller number of larger operations improves performance, especially for GPUs.
+ * <p>
+ * Updater blocks operate on disjoint views of the gradient/updater state arrays, so they can optionally be applied
+ * concurrently: see {@link #setParallelism(int)} and {@link #PARALLELISM_PROPERTY}. Small blocks are packed into
+ * chunks of roughly equal size and executed on a shared ForkJoinPool, while large blocks (see
+ * {@link #setLargeBlockThreshold(long)}) are applied on the calling thread, relying on parallelism within the ops.
  *
  * @author Alex Black
  */
 @Getter
 public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater {
 
+    /**
+     * System property defining default number of threads used to apply updater blocks concurrently.
+     * Values below 2 (default) mean that updater blocks are applied sequentially, on the calling thread
+     */
+    public static final String PARALLELISM_PROPERTY = "org.deeplearning4j.updater.parallelism";
+
+    /**
+     * Default number of parameters, above which updater block is applied on the calling thread in parallel mode
+     */
+    public static final long DEFAULT_LARGE_BLOCK_THRESHOLD = 1L << 20;
+
+    private static volatile ForkJoinPool updaterPool;
+
     protected final T network;
     protected Map<String, Layer> layersByName;
     protected final List<UpdaterBlock> updaterBlocks;
     protected INDArray updaterStateViewArray;
 
+    /**
+     * Number of threads to apply updater blocks with. Values below 2 disable concurrent updater blocks application
+     */
+    @Setter
+    protected int parallelism = Integer.getInteger(PARALLELISM_PROPERTY, 0);
+
+    /**
+     * Updater blocks with at least this number of parameters are never split off to other threads
+     */
+    @Setter
+    protected long largeBlockThreshold = DEFAULT_LARGE_BLOCK_THRESHOLD;
+
+    /**
+     * Number of chunks of updater blocks submitted to the updater pool so far (i.e., not applied on calling thread)
+     */
+    protected long pooledChunks;
+
     public BaseMultiLayerUpdater(T network) {
         this(network, null);
     }
@@ -269,19 +307,17 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
         //Apply the updaters in blocks. This also applies LR and momentum schedules, L1 and L2
 
         workspaceMgr.assertNotOpen(ArrayType.UPDATER_WORKING_MEM, "Updater working memory");
-        for (UpdaterBlock ub : updaterBlocks) {
-            if (ub.skipDueToPretrainConfig()) {
-                //Should skip some updater blocks sometimes
-                //For example, VAE decoder params while doing supervised backprop
-                continue;
-            }
-            try(MemoryWorkspace ws = workspaceMgr.notifyScopeEntered(ArrayType.UPDATER_WORKING_MEM)){
-                if (isExternal) {
-                    //RL4J etc type case: calculate gradients in 1 net, update them in another
-                    ub.updateExternalGradient(iteration, epoch, gradient.gradient(), getParams());
-                } else {
-                    //Standard case
-                    ub.update(iteration, epoch);
+        if (parallelism > 1 && updaterBlocks.size() > 1) {
+            applyUpdaterBlocksParallel(gradient, isExternal, iteration, epoch, workspaceMgr);
+        } else {
+            for (UpdaterBlock ub : updaterBlocks) {
+                if (ub.skipDueToPretrainConfig()) {
+                    //Should skip some updater blocks sometimes
+                    //For example, VAE decoder params while doing supervised backprop
+                    continue;
+                }
+                try (MemoryWorkspace ws = workspaceMgr.notifyScopeEntered(ArrayType.UPDATER_WORKING_MEM)) {
+                    applyUpdaterBlock(ub, gradient, isExternal, iteration, epoch);
                 }
             }
         }
@@ -302,6 +338,125 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
         }
     }
 
+    protected void applyUpdaterBlock(UpdaterBlock ub, Gradient gradient, boolean isExternal, int iteration,
+                    int epoch) {
+        if (isExternal) {
+            //RL4J etc type case: calculate gradients in 1 net, update them in another
+            ub.updateExternalGradient(iteration, epoch, gradient.gradient(), getParams());
+        } else {
+            //Standard case
+            ub.update(iteration, epoch);
+        }
+    }
+
+    /**
+     * Apply updater blocks concurrently. This is safe, since blocks are operating on disjoint views of the
+     * gradient, params and updater state arrays.
+     */
+    protected void applyUpdaterBlocksParallel(Gradient gradient, boolean isExternal, int iteration, int epoch,
+                    LayerWorkspaceMgr workspaceMgr) {
+        List<UpdaterBlock> largeBlocks = new ArrayList<>();
+        List<UpdaterBlock> smallBlocks = new ArrayList<>();
+        long smallParams = 0;
+        for (UpdaterBlock ub : updaterBlocks) {
+            if (ub.skipDueToPretrainConfig())
+                continue;
+
+            long numParams = ub.getParamOffsetEnd() - ub.getParamOffsetStart();
+            if (numParams >= largeBlockThreshold) {
+                largeBlocks.add(ub);
+            } else {
+                smallBlocks.add(ub);
+                smallParams += numParams;
+            }
+        }
+
+        //Pack small blocks into chunks of roughly equal number of params, 2 chunks per thread
+        List<List<UpdaterBlock>> chunks = new ArrayList<>();
+        long chunkTarget = Math.max(1, smallParams / (2L * parallelism));
+        List<UpdaterBlock> chunk = new ArrayList<>();
+        long chunkParams = 0;
+        for (UpdaterBlock ub : smallBlocks) {
+            chunk.add(ub);
+            chunkParams += ub.getParamOffsetEnd() - ub.getParamOffsetStart();
+            if (chunkParams >= chunkTarget) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                chunkParams = 0;
+            }
+        }
+        if (!chunk.isEmpty())
+            chunks.add(chunk);
+
+        //Last chunk is applied on the calling thread, after large blocks
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        int deviceId = Nd4j.getAffinityManager().getDeviceForCurrentThread();
+        if (chunks.size() > 1) {
+            ForkJoinPool pool = getUpdaterPool(parallelism);
+            for (int i = 0; i < chunks.size() - 1; i++)
+                tasks.add(pool.submit(new UpdaterBlocksTask(chunks.get(i), gradient, isExternal, iteration, epoch,
+                                deviceId)));
+            pooledChunks += tasks.size();
+        }
+
+        if (!chunks.isEmpty())
+            largeBlocks.addAll(chunks.get(chunks.size() - 1));
+
+        for (UpdaterBlock ub : largeBlocks) {
+            try (MemoryWorkspace ws = workspaceMgr.notifyScopeEntered(ArrayType.UPDATER_WORKING_MEM)) {
+                applyUpdaterBlock(ub, gradient, isExternal, iteration, epoch);
+            }
+        }
+
+        for (ForkJoinTask<?> task : tasks)
+            task.join();
+    }
+
+    protected static ForkJoinPool getUpdaterPool(int parallelism) {
+        ForkJoinPool pool = updaterPool;
+        if (pool == null || pool.getParallelism() < parallelism) {
+            synchronized (BaseMultiLayerUpdater.class) {
+                pool = updaterPool;
+                if (pool == null || pool.getParallelism() < parallelism) {
+                    //Previous pool isn't shut down: it might still be in use, and its idle threads will expire anyway
+                    pool = new ForkJoinPool(parallelism);
+                    updaterPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    private class UpdaterBlocksTask implements Runnable {
+        private final List<UpdaterBlock> blocks;
+        private final Gradient gradient;
+        private final boolean isExternal;
+        private final int iteration;
+        private final int epoch;
+        private final int deviceId;
+
+        private UpdaterBlocksTask(List<UpdaterBlock> blocks, Gradient gradient, boolean isExternal, int iteration,
+                        int epoch, int deviceId) {
+            this.blocks = blocks;
+            this.gradient = gradient;
+            this.isExternal = isExternal;
+            this.iteration = iteration;
+            this.epoch = epoch;
+            this.deviceId = deviceId;
+        }
+
+        @Override
+        public void run() {
+            //Pool threads must use the same device as the training thread
+            Nd4j.getAffinityManager().unsafeSetDevice(deviceId);
+
+            for (UpdaterBlock ub : blocks)
+                applyUpdaterBlock(ub, gradient, isExternal, iteration, epoch);
+
+            Nd4j.getExecutioner().commit();
+        }
+    }
+
     protected boolean isSingleLayerUpdater() {
         return false;
     }
@@ -11,11 +11,12 @@ import org.deeplearning4j.optimize.api.BaseTrainingListener;
 import org.deeplearning4j.optimize.api.TrainingListener;
 import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
 
 import java.io.*;
 import java.nio.charset.Charset;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 /**
  *
@@ -65,11 +66,19 @@ import java.util.concurrent.TimeUnit;
  * {@code .saveEveryEpoch().saveEvery(15, TimeUnit.MINUTES, true)}<br>
  * Note that is this last example, the <i>sinceLast</i> parameter is true. This means the 15-minute counter will be
  * reset any time a model is saved.<br>
+ * <br>
+ * <b>Asynchronous saving</b>: for large models, writing a checkpoint can stall training for a long time. With
+ * {@code .saveAsync(true)}, the parameters and updater state are copied into preallocated off-heap buffers on the
+ * training thread, and the checkpoint file is written on a background thread. If a previous checkpoint is still being
+ * written when the next one is due, training waits for it to complete. Use {@link #waitForPendingCheckpoint()} to
+ * wait until all checkpoints have been written - for example, before loading the last one - and {@link #close()}
+ * to also stop the background thread once training is done.
+ * Combined with {@code .compress(false)}, this reduces the cost of a checkpoint on the training thread to a memory copy.
  *
  * @author Alex Black
  */
 @Slf4j
-public class CheckpointListener extends BaseTrainingListener implements Serializable {
+public class CheckpointListener extends BaseTrainingListener implements Serializable, Closeable {
 
     private enum KeepMode {ALL, LAST, LAST_AND_EVERY};
     private static final String[] MODEL_TYPES = new String[]{"MultiLayerNetwork", "ComputationGraph", "Model"};
@@ -79,6 +88,8 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
     private int keepLast;
     private int keepEvery;
     private boolean logSaving;
+    private boolean saveAsync;
+    private boolean compress;
 
     private Integer saveEveryNEpochs;
     private Integer saveEveryNIterations;
@@ -91,17 +102,27 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
     private int lastCheckpointNum = -1;
     private File checkpointRecordFile;
 
-    private Checkpoint lastCheckpoint;
+    //Also updated by the writer thread when saving asynchronously. The checkpoint record file is guarded by this
+    private volatile Checkpoint lastCheckpoint;
     private long startTime = -1;
     private int startIter = -1;
     private Long lastSaveEveryMsNoSinceLast;
 
+    //Async saving: snapshot buffers are reused between checkpoints, hence at most one write is in flight at any time
+    private transient ExecutorService saveExecutor;
+    private transient Future<?> pendingSave;
+    private transient volatile Throwable saveError;
+    private transient INDArray paramsSnapshot;
+    private transient INDArray updaterSnapshot;
+
     private CheckpointListener(Builder builder){
         this.rootDir = builder.rootDir;
         this.keepMode = builder.keepMode;
         this.keepLast = builder.keepLast;
         this.keepEvery = builder.keepEvery;
         this.logSaving = builder.logSaving;
+        this.saveAsync = builder.saveAsync;
+        this.compress = builder.compress;
 
         this.saveEveryNEpochs = builder.saveEveryNEpochs;
         this.saveEveryNIterations = builder.saveEveryNIterations;
@@ -185,17 +206,149 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
     }
 
     private void saveCheckpointHelper(Model model) throws Exception {
-        if(!checkpointRecordFile.exists()){
-            checkpointRecordFile.createNewFile();
-            write(Checkpoint.getFileHeader() + "\n", checkpointRecordFile);
+        synchronized (this) {
+            if (!checkpointRecordFile.exists()) {
+                checkpointRecordFile.createNewFile();
+                write(Checkpoint.getFileHeader() + "\n", checkpointRecordFile);
+            }
         }
 
         Checkpoint c = new Checkpoint(++lastCheckpointNum, System.currentTimeMillis(), getIter(model), getEpoch(model),
                 getModelType(model), null);
         setFileName(c);
 
-        ModelSerializer.writeModel(model, new File(rootDir, c.getFilename()), true);
+        if(saveAsync){
+            saveCheckpointAsync(model, c);
+            return;
+        }
 
+        if(compress) {
+            ModelSerializer.writeModel(model, new File(rootDir, c.getFilename()), true);
+        } else {
+            try (OutputStream os = new BufferedOutputStream(new FileOutputStream(new File(rootDir, c.getFilename())))) {
+                ModelSerializer.writeModel(getConfigJson(model), model.params(), getUpdaterState(model), null, os, false);
+            }
+        }
+        checkpointWritten(c);
+    }
+
+    private void saveCheckpointAsync(Model model, final Checkpoint c) throws Exception {
+        //Snapshot buffers can only be reused once the previous checkpoint has been written
+        waitForPendingCheckpoint();
+
+        final String json = getConfigJson(model);
+        paramsSnapshot = snapshot(model.params(), paramsSnapshot);
+        updaterSnapshot = snapshot(getUpdaterState(model), updaterSnapshot);
+        final INDArray params = paramsSnapshot;
+        final INDArray updaterState = updaterSnapshot;
+
+        //Set here (not after writing) so that "since last" save conditions don't trigger again while writing
+        this.lastCheckpoint = c;
+
+        if(saveExecutor == null){
+            saveExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "CheckpointListener-writer");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+
+        pendingSave = saveExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    //Write to a temporary file first: the checkpoint is only 'available' once it is complete
+                    File f = new File(rootDir, c.getFilename());
+                    File tmp = new File(rootDir, c.getFilename() + ".tmp");
+                    try (OutputStream os = new BufferedOutputStream(new FileOutputStream(tmp))) {
+                        ModelSerializer.writeModel(json, params, updaterState, null, os, compress);
+                    }
+                    if(!tmp.renameTo(f)){
+                        throw new IOException("Could not rename temporary checkpoint file " + tmp.getAbsolutePath()
+                                + " to " + f.getAbsolutePath());
+                    }
+                    checkpointWritten(c);
+                } catch (Throwable t){
+                    saveError = t;
+                }
+            }
+        });
+    }
+
+    /**
+     * When saving asynchronously: block until the most recent checkpoint has been fully written to disk.
+     * No-op if checkpoints are saved synchronously, or if no checkpoint is currently being written.
+     */
+    public void waitForPendingCheckpoint(){
+        if(pendingSave != null){
+            try {
+                pendingSave.get();
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e){
+                throw new RuntimeException("Error saving checkpoint", e.getCause());
+            }
+            pendingSave = null;
+        }
+
+        if(saveError != null){
+            Throwable t = saveError;
+            saveError = null;
+            throw new RuntimeException("Error saving checkpoint", t);
+        }
+    }
+
+    /**
+     * Wait for the pending checkpoint (if any) to be written, and stop the background writer thread used for
+     * asynchronous saving. The listener can still be used afterwards: a new writer thread is started when needed.
+     */
+    @Override
+    public void close() {
+        try {
+            waitForPendingCheckpoint();
+        } finally {
+            if(saveExecutor != null){
+                saveExecutor.shutdown();
+                saveExecutor = null;
+            }
+        }
+    }
+
+    private static INDArray snapshot(INDArray source, INDArray buffer){
+        if(source == null || source.length() == 0){
+            return null;
+        }
+        if(buffer == null || !Arrays.equals(buffer.shape(), source.shape())){
+            //Allocated outside of any workspace: the buffer is used by the writer thread, and between iterations
+            buffer = Nd4j.createUninitializedDetached(source.shape(), 'c');
+        }
+        buffer.assign(source);
+        return buffer;
+    }
+
+    private static String getConfigJson(Model model){
+        if (model instanceof MultiLayerNetwork) {
+            return ((MultiLayerNetwork) model).getLayerWiseConfigurations().toJson();
+        } else if (model instanceof ComputationGraph) {
+            return ((ComputationGraph) model).getConfiguration().toJson();
+        }
+        return "";
+    }
+
+    private static INDArray getUpdaterState(Model model){
+        if (model instanceof MultiLayerNetwork) {
+            return ((MultiLayerNetwork) model).getUpdater().getStateViewArray();
+        } else if (model instanceof ComputationGraph) {
+            return ((ComputationGraph) model).getUpdater().getStateViewArray();
+        }
+        return null;
+    }
+
+    private synchronized void checkpointWritten(Checkpoint c){
         String s = c.toFileString();
         write(s + "\n", checkpointRecordFile);
 
@@ -203,7 +356,9 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
             log.info("Model checkpoint saved: epoch {}, iteration {}, path: {}", c.getEpoch(), c.getIteration(),
                     new File(rootDir, c.getFilename()).getPath() );
         }
-        this.lastCheckpoint = c;
+        if(lastCheckpoint == null || lastCheckpoint.getCheckpointNum() < c.getCheckpointNum()){
+            this.lastCheckpoint = c;
+        }
 
 
         //Finally: determine if we should delete some old models...
@@ -224,7 +379,7 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
                 if(cp.getCheckpointNum() > 0 && (cp.getCheckpointNum()+1) % keepEvery == 0){
                     //One of the "every M to keep" models
                     continue;
-                } else if(cp.getCheckpointNum() > lastCheckpointNum - keepLast ){        //Example: latest is 5, keep last 2 -> keep checkpoints 4 and 5
+                } else if(cp.getCheckpointNum() > c.getCheckpointNum() - keepLast ){        //Example: latest is 5, keep last 2 -> keep checkpoints 4 and 5
                     //One of last N to keep
                     continue;
                 }
@@ -292,7 +447,7 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
      *
      * @return List of checkpoint files that can be loaded
      */
-    public List<Checkpoint> availableCheckpoints(){
+    public synchronized List<Checkpoint> availableCheckpoints(){
         if(!checkpointRecordFile.exists()){
             return Collections.emptyList();
         }
@@ -412,6 +567,8 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
         private int keepLast;
         private int keepEvery;
         private boolean logSaving = true;
+        private boolean saveAsync = false;
+        private boolean compress = true;
 
         private Integer saveEveryNEpochs;
         private Integer saveEveryNIterations;
@@ -545,6 +702,30 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
             return this;
         }
 
+        /**
+         * If true: copy the model parameters and updater state on the training thread, and write the checkpoint file
+         * on a background thread. Default: false (write checkpoints synchronously).<br>
+         * Note that asynchronous saving requires enough memory for one additional copy of the parameters and
+         * updater state.
+         *
+         * @param saveAsync Whether checkpoints should be written asynchronously
+         */
+        public Builder saveAsync(boolean saveAsync){
+            this.saveAsync = saveAsync;
+            return this;
+        }
+
+        /**
+         * If true (the default) compress the checkpoint files. Writing uncompressed checkpoints is considerably faster
+         * for large models, but results in larger files. Either type of file can be loaded using ModelSerializer.
+         *
+         * @param compress Whether checkpoint files should be compressed
+         */
+        public Builder compress(boolean compress){
+            this.compress = compress;
+            return this;
+        }
+
         public CheckpointListener build(){
             if(saveEveryNEpochs == null && saveEveryAmount == null && saveEveryNIterations == null){
                 throw new IllegalStateException("Cannot construct listener: no models will be saved (must use at least" +
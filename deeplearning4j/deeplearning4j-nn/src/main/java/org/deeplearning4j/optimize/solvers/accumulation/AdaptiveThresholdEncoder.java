@@ -0,0 +1,493 @@
+package org.deeplearning4j.optimize.solvers.accumulation;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.exception.DL4JInvalidConfigException;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.graph.vertex.GraphVertex;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.accum.MatchCondition;
+import org.nd4j.linalg.compression.ThresholdCompression;
+import org.nd4j.linalg.exception.ND4JIllegalStateException;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.indexing.conditions.Conditions;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This encoder extends threshold encoding with per-segment (i.e. per-layer) thresholds. Thresholds are adapted on
+ * each iteration, to keep fraction of encoded elements within each segment close to the target sparsity.
+ *
+ * Each segment of the residual is scaled by its own threshold, and the scaled residual is encoded with threshold 1.0:
+ * with sparse threshold encoding, or with bitmap encoding if overall density exceeds bitmapDensity.
+ * Whatever wasn't encoded stays in the residual (optionally decayed), and is sent with later updates.
+ *
+ * Message layout: [0] number of segments, [1] original length, [2] reserved, [3] ADAPTIVE_ENCODING,
+ * then (segment length, threshold as float bits) pair for each segment, followed by the inner threshold or bitmap
+ * encoded message. So messages can be decoded without knowing encoder configuration.
+ *
+ * @author raver119@gmail.com
+ */
+@Slf4j
+public class AdaptiveThresholdEncoder implements Serializable {
+    public static final int ADAPTIVE_ENCODING = 2;
+
+    // bitmap messages are decoded in threshold units here, before being scaled and added to target
+    protected static final ThreadLocal<INDArray> decodeBuffers = new ThreadLocal<>();
+
+    protected final long[] segmentLengths;
+    protected final long length;
+    protected final double initialThreshold;
+    protected final double minThreshold;
+    protected final double maxThreshold;
+    protected final double targetSparsity;
+    protected final double adaptationStep;
+    protected final double bitmapDensity;
+    protected final double residualDecay;
+
+    protected transient ThreadLocal<double[]> thresholds;
+    protected transient AtomicLong sparseMessages;
+    protected transient AtomicLong bitmapMessages;
+    protected transient AtomicLong encodedElements;
+
+    protected AdaptiveThresholdEncoder(Builder builder) {
+        this.segmentLengths = builder.segmentLengths;
+        this.initialThreshold = builder.initialThreshold;
+        this.minThreshold = builder.minThreshold;
+        this.maxThreshold = builder.maxThreshold;
+        this.targetSparsity = builder.targetSparsity;
+        this.adaptationStep = builder.adaptationStep;
+        this.bitmapDensity = builder.bitmapDensity;
+        this.residualDecay = builder.residualDecay;
+
+        long l = 0;
+        for (long s : segmentLengths)
+            l += s;
+        this.length = l;
+    }
+
+    protected synchronized void ensureInitialized() {
+        if (thresholds != null)
+            return;
+
+        sparseMessages = new AtomicLong(0);
+        bitmapMessages = new AtomicLong(0);
+        encodedElements = new AtomicLong(0);
+        thresholds = new ThreadLocal<>();
+    }
+
+    /**
+     * This method returns thresholds of the current thread, one per segment
+     */
+    public double[] currentThresholds() {
+        if (thresholds == null)
+            ensureInitialized();
+
+        double[] t = thresholds.get();
+        if (t == null) {
+            t = new double[segmentLengths.length];
+            Arrays.fill(t, initialThreshold);
+            thresholds.set(t);
+        }
+        return t;
+    }
+
+    /**
+     * This method encodes given residual. Residual is modified in place: encoded part is subtracted from it,
+     * and the rest is decayed, if residualDecay is set.
+     *
+     * @param residual flat residual array, with length equal to sum of segment lengths
+     * @return encoded message, or null if there's nothing to send
+     */
+    public INDArray encode(@NonNull INDArray residual) {
+        if (residual.lengthLong() != length)
+            throw new ND4JIllegalStateException("Residual length [" + residual.lengthLong()
+                            + "] doesn't match sum of segment lengths [" + length + "]");
+
+        double[] t = currentThresholds();
+        INDArray[] segments = segments(residual, segmentLengths);
+
+        // residual goes to threshold units, so single encoding pass covers all segments
+        long[] counts = new long[segments.length];
+        long total = 0;
+        for (int e = 0; e < segments.length; e++) {
+            segments[e].divi(t[e]);
+            counts[e] = Nd4j.getExecutioner()
+                            .exec(new MatchCondition(segments[e], Conditions.absGreaterThanOrEqual(1.0)),
+                                            Integer.MAX_VALUE)
+                            .getInt(0);
+            total += counts[e];
+        }
+
+        // thresholds of this message, before adaptation
+        float[] used = new float[t.length];
+        for (int e = 0; e < t.length; e++)
+            used[e] = (float) t[e];
+
+        INDArray inner = null;
+        if (total > 0 && total >= length * bitmapDensity) {
+            DataBuffer buffer = Nd4j.getDataBufferFactory().createInt(length / 16 + 5);
+            inner = Nd4j.createArrayFromShapeBuffer(buffer, residual.shapeInfoDataBuffer());
+            Nd4j.getExecutioner().bitmapEncode(residual, inner, 1.0);
+            bitmapMessages.incrementAndGet();
+        } else if (total > 0) {
+            // null will be returned for less than 2 elements, they'll just stay in residual
+            inner = Nd4j.getExecutioner().thresholdEncode(residual, 1.0);
+            if (inner != null)
+                sparseMessages.incrementAndGet();
+        }
+
+        // back to original units
+        for (int e = 0; e < segments.length; e++)
+            segments[e].muli(t[e]);
+
+        if (residualDecay > 0.0)
+            residual.muli(1.0 - residualDecay);
+
+        adapt(t, counts);
+
+        if (inner == null)
+            return null;
+
+        encodedElements.addAndGet(total);
+        return wrap(inner, used, residual);
+    }
+
+    /**
+     * This method moves each segment threshold one step towards target sparsity
+     */
+    protected void adapt(double[] t, long[] counts) {
+        for (int e = 0; e < t.length; e++) {
+            double density = counts[e] / (double) segmentLengths[e];
+            if (density > targetSparsity)
+                t[e] = Math.min(maxThreshold, t[e] * (1.0 + adaptationStep));
+            else if (density < targetSparsity)
+                t[e] = Math.max(minThreshold, t[e] / (1.0 + adaptationStep));
+        }
+    }
+
+    protected INDArray wrap(INDArray inner, float[] used, INDArray residual) {
+        DataBuffer innerBuffer = inner.data();
+        int headerLength = 4 + 2 * used.length;
+        long messageLength = headerLength + innerBuffer.length();
+
+        MemoryWorkspace workspace = Nd4j.getMemoryManager().getCurrentWorkspace();
+        DataBuffer buffer = workspace == null ? Nd4j.getDataBufferFactory().createInt(messageLength, false)
+                        : Nd4j.getDataBufferFactory().createInt(messageLength, false, workspace);
+
+        buffer.put(0, used.length);
+        buffer.put(1, (int) length);
+        buffer.put(2, 0);
+        buffer.put(3, ADAPTIVE_ENCODING);
+        for (int e = 0; e < used.length; e++) {
+            buffer.put(4 + 2 * e, (int) segmentLengths[e]);
+            buffer.put(5 + 2 * e, Float.floatToIntBits(used[e]));
+        }
+
+        DataBuffer payload = Nd4j.createBuffer(buffer, headerLength, innerBuffer.length());
+        Nd4j.getMemoryManager().memcpy(payload, innerBuffer);
+
+        return Nd4j.createArrayFromShapeBuffer(buffer, residual.shapeInfoDataBuffer());
+    }
+
+    /**
+     * This method decodes (adds) message produced by {@link #encode(INDArray)} into target array
+     *
+     * @param encoded encoded message
+     * @param target flat target array
+     */
+    public static void decode(@NonNull INDArray encoded, @NonNull INDArray target) {
+        DataBuffer buffer = encoded.data();
+        if (buffer.getInt(3) != ADAPTIVE_ENCODING)
+            throw new ND4JIllegalStateException("Encoded array has wrong encoding: " + buffer.getInt(3));
+
+        int numSegments = buffer.getInt(0);
+        long originalLength = buffer.getInt(1);
+        if (target.lengthLong() != originalLength)
+            throw new ND4JIllegalStateException("originalLength [" + originalLength
+                            + "] stored in encoded array doesn't match target length [" + target.lengthLong() + "]");
+
+        int headerLength = 4 + 2 * numSegments;
+        long[] lengths = new long[numSegments];
+        float[] used = new float[numSegments];
+        for (int e = 0; e < numSegments; e++) {
+            lengths[e] = buffer.getInt(4 + 2 * e);
+            used[e] = Float.intBitsToFloat(buffer.getInt(5 + 2 * e));
+        }
+
+        DataBuffer payload = Nd4j.createBuffer(buffer, headerLength, buffer.length() - headerLength);
+        int encoding = payload.getInt(3);
+        if (encoding == ThresholdCompression.FLEXIBLE_ENCODING)
+            decodeSparse(payload, lengths, used, target);
+        else if (encoding == ThresholdCompression.BITMAP_ENCODING)
+            decodeBitmap(payload, lengths, used, target);
+        else
+            throw new DL4JInvalidConfigException("Unknown compression header received: " + encoding);
+    }
+
+    /**
+     * Sparse message is split into one threshold encoded message per segment, with that segment threshold,
+     * so each one is decoded straight into target
+     */
+    protected static void decodeSparse(DataBuffer payload, long[] lengths, float[] used, INDArray target) {
+        int[] inner = payload.asInt();
+        int count = inner[0];
+
+        long[] ends = new long[lengths.length];
+        long offset = 0;
+        for (int e = 0; e < lengths.length; e++) {
+            offset += lengths[e];
+            ends[e] = offset;
+        }
+
+        // indices aren't necessarily ordered, so they are grouped by segment first
+        int[] segmentOf = new int[count];
+        int[] counts = new int[lengths.length];
+        for (int i = 0; i < count; i++) {
+            long idx = Math.abs(inner[4 + i]) - 1;
+            // ends are exclusive, so exact match belongs to the next segment
+            int e = Arrays.binarySearch(ends, idx);
+            e = Math.min(e >= 0 ? e + 1 : -e - 1, ends.length - 1);
+            segmentOf[i] = e;
+            counts[e]++;
+        }
+
+        for (int e = 0; e < lengths.length; e++) {
+            if (counts[e] == 0)
+                continue;
+
+            int[] message = new int[4 + counts[e]];
+            message[0] = counts[e];
+            message[1] = inner[1];
+            message[2] = Float.floatToIntBits(used[e]);
+            message[3] = ThresholdCompression.FLEXIBLE_ENCODING;
+            int pos = 4;
+            for (int i = 0; i < count; i++)
+                if (segmentOf[i] == e)
+                    message[pos++] = inner[4 + i];
+
+            DataBuffer buffer = Nd4j.getDataBufferFactory().createInt(message);
+            Nd4j.getExecutioner().thresholdDecode(Nd4j.createArrayFromShapeBuffer(buffer, target.shapeInfoDataBuffer()),
+                            target);
+        }
+    }
+
+    /**
+     * Bitmap message is decoded in threshold units into per-thread buffer, scaled per segment, and added to target
+     */
+    protected static void decodeBitmap(DataBuffer payload, long[] lengths, float[] used, INDArray target) {
+        INDArray units = unitsBuffer(target);
+        Nd4j.getMemoryManager().memset(units);
+
+        INDArray inner = Nd4j.createArrayFromShapeBuffer(payload, target.shapeInfoDataBuffer());
+        Nd4j.getExecutioner().bitmapDecode(inner, units);
+
+        INDArray[] segments = segments(units, lengths);
+        for (int e = 0; e < lengths.length; e++)
+            segments[e].muli(used[e]);
+
+        target.addi(units);
+    }
+
+    protected static INDArray unitsBuffer(INDArray target) {
+        INDArray units = decodeBuffers.get();
+        if (units == null || units.ordering() != target.ordering() || !Arrays.equals(units.shape(), target.shape())) {
+            // this buffer is reused by all messages decoded by this thread, so it can't live in workspace
+            try (MemoryWorkspace workspace = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                units = Nd4j.createUninitialized(target.shape(), target.ordering());
+            }
+            decodeBuffers.set(units);
+        }
+        return units;
+    }
+
+    protected static INDArray[] segments(INDArray array, long[] segmentLengths) {
+        INDArray[] result = new INDArray[segmentLengths.length];
+        if (segmentLengths.length == 1) {
+            result[0] = array;
+            return result;
+        }
+
+        INDArray flat = array.isRowVector() ? array : array.reshape(1, array.lengthLong());
+        long offset = 0;
+        for (int e = 0; e < segmentLengths.length; e++) {
+            result[e] = flat.get(NDArrayIndex.point(0), NDArrayIndex.interval(offset, offset + segmentLengths[e]));
+            offset += segmentLengths[e];
+        }
+        return result;
+    }
+
+    /**
+     * This method returns parameter count of each layer of the given model, in order of the flattened params array.
+     * Layers without parameters are skipped.
+     *
+     * @param model MultiLayerNetwork or ComputationGraph
+     */
+    public static long[] segmentLengths(@NonNull Model model) {
+        List<Long> lengths = new ArrayList<>();
+        if (model instanceof MultiLayerNetwork) {
+            for (Layer layer : ((MultiLayerNetwork) model).getLayers())
+                if (layer.numParams() > 0)
+                    lengths.add((long) layer.numParams());
+        } else if (model instanceof ComputationGraph) {
+            ComputationGraph graph = (ComputationGraph) model;
+            GraphVertex[] vertices = graph.getVertices();
+            // params are laid out in topological order
+            for (int idx : graph.topologicalSortOrder())
+                if (vertices[idx].hasLayer() && vertices[idx].getLayer().numParams() > 0)
+                    lengths.add((long) vertices[idx].getLayer().numParams());
+        }
+
+        long total = 0;
+        for (Long l : lengths)
+            total += l;
+
+        // unknown model type, or something we can't split properly: single segment then
+        if (lengths.isEmpty() || total != model.numParams())
+            return new long[] {model.numParams()};
+
+        long[] result = new long[lengths.size()];
+        for (int e = 0; e < result.length; e++)
+            result[e] = lengths.get(e);
+        return result;
+    }
+
+    /**
+     * @return number of messages encoded with sparse threshold encoding
+     */
+    public long getSparseMessages() {
+        return sparseMessages == null ? 0 : sparseMessages.get();
+    }
+
+    /**
+     * @return number of messages encoded with bitmap encoding
+     */
+    public long getBitmapMessages() {
+        return bitmapMessages == null ? 0 : bitmapMessages.get();
+    }
+
+    /**
+     * @return average fraction of elements encoded per message
+     */
+    public double getAverageDensity() {
+        long messages = getSparseMessages() + getBitmapMessages();
+        return messages == 0 ? 0.0 : encodedElements.get() / (double) messages / length;
+    }
+
+    public long[] getSegmentLengths() {
+        return segmentLengths;
+    }
+
+    public static class Builder {
+        private long[] segmentLengths;
+        private double initialThreshold = 1e-3;
+        private double minThreshold = 1e-5;
+        private double maxThreshold = 1.0;
+        private double targetSparsity = 1e-3;
+        private double adaptationStep = 0.1;
+        private double bitmapDensity = 1.0 / 16;
+        private double residualDecay = 0.0;
+
+        /**
+         * @param segmentLengths lengths of independently thresholded segments of the flattened updates
+         */
+        public Builder(@NonNull long... segmentLengths) {
+            this.segmentLengths = segmentLengths;
+        }
+
+        /**
+         * Builder with one segment per layer of the given model
+         *
+         * @param model MultiLayerNetwork or ComputationGraph
+         */
+        public Builder(@NonNull Model model) {
+            this(segmentLengths(model));
+        }
+
+        /**
+         * Threshold each segment starts with. Default value: 1e-3
+         */
+        public Builder initialThreshold(double threshold) {
+            this.initialThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * Lower and upper limits for adapted thresholds. Default values: 1e-5 and 1.0
+         */
+        public Builder thresholdLimits(double minThreshold, double maxThreshold) {
+            this.minThreshold = minThreshold;
+            this.maxThreshold = maxThreshold;
+            return this;
+        }
+
+        /**
+         * Fraction of elements within each segment, we want to be encoded on each iteration. Default value: 1e-3
+         */
+        public Builder targetSparsity(double targetSparsity) {
+            this.targetSparsity = targetSparsity;
+            return this;
+        }
+
+        /**
+         * Relative change of segment threshold per iteration. Default value: 0.1
+         */
+        public Builder adaptationStep(double adaptationStep) {
+            this.adaptationStep = adaptationStep;
+            return this;
+        }
+
+        /**
+         * Fraction of encoded elements, starting from which bitmap encoding is used instead of sparse encoding.
+         * Default value: 1/16, which is where bitmap encoding becomes smaller
+         */
+        public Builder bitmapDensity(double bitmapDensity) {
+            this.bitmapDensity = bitmapDensity;
+            return this;
+        }
+
+        /**
+         * Fraction of residual dropped after each iteration. Default value: 0.0, so residual is kept as is
+         */
+        public Builder residualDecay(double residualDecay) {
+            this.residualDecay = residualDecay;
+            return this;
+        }
+
+        public AdaptiveThresholdEncoder build() {
+            if (segmentLengths.length == 0)
+                throw new DL4JInvalidConfigException("At least one segment should be defined");
+
+            for (long l : segmentLengths)
+                if (l < 1)
+                    throw new DL4JInvalidConfigException("Segment lengths should have positive values");
+
+            if (initialThreshold <= 0.0 || minThreshold <= 0.0 || minThreshold > maxThreshold)
+                throw new DL4JInvalidConfigException("Thresholds should be positive, and minThreshold <= maxThreshold");
+
+            if (targetSparsity <= 0.0 || targetSparsity > 1.0)
+                throw new DL4JInvalidConfigException("targetSparsity should be in range (0, 1]");
+
+            if (adaptationStep < 0.0)
+                throw new DL4JInvalidConfigException("adaptationStep can't be negative");
+
+            if (bitmapDensity <= 0.0)
+                throw new DL4JInvalidConfigException("bitmapDensity should have positive value");
+
+            if (residualDecay < 0.0 || residualDecay >= 1.0)
+                throw new DL4JInvalidConfigException("residualDecay should be in range [0, 1)");
+
+            return new AdaptiveThresholdEncoder(this);
+        }
+    }
+}
@@ -6,7 +6,6 @@ import lombok.val;
 import org.deeplearning4j.exception.DL4JInvalidConfigException;
 import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.optimize.api.StepFunction;
-import org.deeplearning4j.util.ThreadUtils;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
 import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
 import org.nd4j.linalg.api.memory.enums.*;
@@ -19,15 +18,19 @@ import org.nd4j.linalg.util.AtomicThrowable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * This GradientsAccumulator is suited for CUDA backend.
  *
+ * Encoded updates are exchanged via preallocated ring buffers, one per producer: each worker publishes its own updates
+ * once, and all workers consume them from there. Workers are synchronized via park/unpark-based barrier, and time
+ * each worker spends blocked is tracked, see {@link #getBarrierStallTime(int)} and {@link #getPublishStallTime(int)}.
+ *
  * @author raver119@gmail.com
  */
 @Slf4j
@@ -36,9 +39,8 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
 
     protected int parties;
     protected MessageHandler handler;
-    protected List<BlockingQueue<INDArray>> messages = new ArrayList<>();
+    protected List<UpdatesRingBuffer> messages = new ArrayList<>();
     protected List<MemoryWorkspace> workspaces = new ArrayList<>();
-    protected List<ReentrantLock> locks = new ArrayList<>();
 
     protected AtomicInteger workersCounter = new AtomicInteger(0);
     protected ThreadLocal<Integer> index = new ThreadLocal<>();
@@ -48,17 +50,25 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
 
     protected Queue<INDArray> externalSource;
 
-    protected AtomicBoolean isFirst = new AtomicBoolean(false);
-    protected AtomicBoolean isDone = new AtomicBoolean(true);
-
-    protected AtomicInteger barrier = new AtomicInteger(0);
-    protected AtomicInteger secondary = new AtomicInteger(0);
+    protected final ParkingBarrier barrier = new ParkingBarrier();
+    protected final Queue<Thread> registrationWaiters = new ConcurrentLinkedQueue<>();
     protected AtomicBoolean registered = new AtomicBoolean(false);
     protected AtomicBoolean bypassMode = new AtomicBoolean(false);
     protected final AtomicInteger currentConsumers = new AtomicInteger(0);
 
     protected final AtomicThrowable throwable = new AtomicThrowable();
 
+    // per-worker time spent blocked, in nanoseconds
+    protected final AtomicLongArray barrierStall;
+    protected final AtomicLongArray publishStall;
+
+    protected final Runnable unregisterAction = new Runnable() {
+        @Override
+        public void run() {
+            setRegistered(false);
+        }
+    };
+
     protected boolean isDebug = false;
     protected final boolean relocatable;
 
@@ -86,6 +96,8 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
         this.initialMemory = initialMemory;
         this.queueSize = queueSize;
         this.boundary = boundary;
+        this.barrierStall = new AtomicLongArray(parties);
+        this.publishStall = new AtomicLongArray(parties);
 
         // maybe not the best idea in the world, but we'll use cyclic workspace of 25MB to receive updates
         WorkspaceConfiguration configuration = WorkspaceConfiguration.builder().initialSize(initialMemory)
@@ -104,11 +116,11 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
             throw new ND4JIllegalStateException("Number of parties [" + parties
                             + "] should be less or equal to number of devices [" + numDevices + "]");
 
-        // pre-create Queues for local workers
+        // pre-create ring buffers for local workers: each worker publishes to its own buffer, and consumes from all of them
         int curDev = Nd4j.getAffinityManager().getDeviceForCurrentThread();
 
         for (int i = 0; i < parties; i++) {
-            messages.add(new LinkedBlockingQueue<INDArray>(queueSize));
+            messages.add(new UpdatesRingBuffer(queueSize, parties));
 
             // we don't want device index to step out of boundaries here
             int cDevice = numDevices > 1 ? i % numDevices : 0;
@@ -117,8 +129,6 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
             MemoryWorkspace ws = Nd4j.getWorkspaceManager().createNewWorkspace(configuration, "CGA-" + i, cDevice);
             //ws.enableDebug(true);
             workspaces.add(ws);
-
-            locks.add(new ReentrantLock());
         }
         Nd4j.getAffinityManager().unsafeSetDevice(curDev);
 
@@ -165,11 +175,7 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
             if (isDebug)
                 log.info("Master thread locks at RC");
 
-            while (registered.get()) {
-                ThreadUtils.uncheckedSleep(1);
-                if (throwable.isTriggered())
-                    throw new RuntimeException(throwable.get());
-            }
+            awaitRegistration(false);
 
             if (isDebug)
                 log.info("Master thread unlocks at RC");
@@ -180,7 +186,38 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
             ((Registerable) externalSource).registerConsumers(numConsumers);
 
         currentConsumers.set(numConsumers);
-        registered.set(true);
+        setRegistered(true);
+    }
+
+    protected void setRegistered(boolean state) {
+        registered.set(state);
+
+        for (Thread thread : registrationWaiters)
+            LockSupport.unpark(thread);
+    }
+
+    /**
+     * This method blocks until registration state matches given one
+     *
+     * @param state
+     */
+    protected void awaitRegistration(boolean state) {
+        if (registered.get() == state)
+            return;
+
+        Thread current = Thread.currentThread();
+        registrationWaiters.add(current);
+        try {
+            // state is checked after enqueue, so we can't miss unpark
+            while (registered.get() != state) {
+                if (throwable.isTriggered())
+                    throw new RuntimeException(throwable.get());
+
+                LockSupport.parkNanos(this, ParkingBarrier.PARK_NANOS);
+            }
+        } finally {
+            registrationWaiters.remove(current);
+        }
     }
 
     protected void synchronize(int consumers) {
@@ -190,7 +227,7 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
     protected void synchronize(int consumers, boolean finalLock) {
         if (consumers == 1 || bypassMode.get()) {
             if (finalLock)
-                registered.set(false);
+                setRegistered(false);
 
             return;
         }
@@ -198,41 +235,96 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
         if (isDebug)
             log.info("thread {} locking at CGA: {}", Thread.currentThread().getId(), currentConsumers.get());
 
-        // any first thread entering this block - will reset this field to false
-        isDone.compareAndSet(true, false);
-
-        // last thread will set isDone to true
-        if (barrier.incrementAndGet() == consumers) {
-            secondary.set(0);
-            barrier.set(0);
-            isFirst.set(false);
-            isDone.set(true);
-        } else {
-            // just wait, till last thread will set isDone to true
-            while (!isDone.get()) {
-                ThreadUtils.uncheckedSleep(1);
-                if (throwable.isTriggered())
-                    throw new RuntimeException(throwable.get());
-            }
+        long time = System.nanoTime();
+
+        // last thread arriving resets registration state, if that's final barrier within cycle
+        if (!barrier.await(consumers, throwable, finalLock ? unregisterAction : null))
+            recordStall(barrierStall, System.nanoTime() - time);
+
+        if (isDebug)
+            log.info("thread {} unlocking at CGA: {}", Thread.currentThread().getId(), currentConsumers.get());
+
+    }
+
+    protected void recordStall(AtomicLongArray stats, long time) {
+        Integer idx = index.get();
+        if (idx != null && idx < stats.length())
+            stats.addAndGet(idx, time);
+    }
+
+    /**
+     * This method returns total time in nanoseconds, given worker spent waiting for other workers
+     *
+     * @param worker
+     * @return
+     */
+    public long getBarrierStallTime(int worker) {
+        return barrierStall.get(worker);
+    }
+
+    /**
+     * This method returns total time in nanoseconds, given worker spent waiting for free slots in its updates buffer,
+     * i.e. waiting for slower workers to consume previous updates
+     *
+     * @param worker
+     * @return
+     */
+    public long getPublishStallTime(int worker) {
+        return publishStall.get(worker);
+    }
+
+    /**
+     * This method resets stall time counters for all workers
+     */
+    public void resetStallStats() {
+        for (int i = 0; i < parties; i++) {
+            barrierStall.set(i, 0);
+            publishStall.set(i, 0);
         }
+    }
 
-        // second lock here needed only to ensure we won't get overrun over isDone flag
-        if (secondary.incrementAndGet() == consumers) {
-            if (finalLock)
-                registered.set(false);
+    protected void decodeUpdates(INDArray compressed, INDArray updates) {
+        int encoding = compressed.data().getInt(3);
+        if (encoding == ThresholdCompression.FLEXIBLE_ENCODING)
+            Nd4j.getExecutioner().thresholdDecode(compressed, updates);
+        else if (encoding == ThresholdCompression.BITMAP_ENCODING)
+            Nd4j.getExecutioner().bitmapDecode(compressed, updates);
+        else if (encoding == AdaptiveThresholdEncoder.ADAPTIVE_ENCODING)
+            AdaptiveThresholdEncoder.decode(compressed, updates);
+        else
+            throw new DL4JInvalidConfigException("Unknown compression header received: " + encoding);
+    }
 
-            isFirst.set(true);
-        } else {
-            while (!isFirst.get()) {
-                ThreadUtils.uncheckedSleep(1);
-                if (throwable.isTriggered())
-                    throw new RuntimeException(throwable.get());
+    /**
+     * This method decodes all pending local updates, published by all workers, into given array
+     *
+     * @param updates
+     * @return number of updates applied
+     */
+    protected int drainLocalUpdates(INDArray updates) {
+        int consumer = index.get();
+        int cnt = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            UpdatesRingBuffer buffer = messages.get(i);
+            INDArray compressed;
+            while ((compressed = buffer.peek(consumer)) != null) {
+                // if we have multiple devices without p2p support - we have to duplicate messages from other devices
+                if (relocatable && i != consumer) {
+                    try (MemoryWorkspace workspace = Nd4j.getWorkspaceManager()
+                                    .getAndActivateWorkspace(appliedConfiguration, "CGA_APPLY")) {
+                        decodeUpdates(compressed.unsafeDuplication(true), updates);
+                    }
+                } else {
+                    decodeUpdates(compressed, updates);
+                }
+
+                // message memory can be reused by producer only after it's decoded
+                buffer.release(consumer);
+                cnt++;
             }
         }
 
-        if (isDebug)
-            log.info("thread {} unlocking at CGA: {}", Thread.currentThread().getId(), currentConsumers.get());
-
+        return cnt;
     }
 
     /**
@@ -248,20 +340,7 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
             Nd4j.getMemoryManager().memset(updates);
             //updates.assign(0.0);
 
-            int cnt = 0;
-            while (!messages.get(index.get()).isEmpty()) {
-                INDArray compressed = messages.get(index.get()).poll();
-
-                int encoding = compressed.data().getInt(3);
-                if (encoding == ThresholdCompression.FLEXIBLE_ENCODING)
-                    Nd4j.getExecutioner().thresholdDecode(compressed, updates);
-                else if (encoding == ThresholdCompression.BITMAP_ENCODING)
-                    Nd4j.getExecutioner().bitmapDecode(compressed, updates);
-                else
-                    throw new DL4JInvalidConfigException("Unknown compression header received: " + encoding);
-
-                cnt++;
-            }
+            int cnt = drainLocalUpdates(updates);
 
             if (cnt > 0 && isDebug)
                 log.info("Local updates to be applied: {}", cnt);
@@ -275,25 +354,10 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
                     if (relocatable) {
                         try (MemoryWorkspace workspace = Nd4j.getWorkspaceManager()
                                         .getAndActivateWorkspace(appliedConfiguration, "CGA_APPLY")) {
-                            INDArray compressed_copy = compressed.unsafeDuplication(true);
-
-                            int encoding = compressed.data().getInt(3);
-                            if (encoding == ThresholdCompression.FLEXIBLE_ENCODING)
-                                Nd4j.getExecutioner().thresholdDecode(compressed_copy, updates);
-                            else if (encoding == ThresholdCompression.BITMAP_ENCODING)
-                                Nd4j.getExecutioner().bitmapDecode(compressed_copy, updates);
-                            else
-                                throw new DL4JInvalidConfigException(
-                                                "Unknown compression header received: " + encoding);
+                            decodeUpdates(compressed.unsafeDuplication(true), updates);
                         }
                     } else {
-                        int encoding = compressed.data().getInt(3);
-                        if (encoding == ThresholdCompression.FLEXIBLE_ENCODING)
-                            Nd4j.getExecutioner().thresholdDecode(compressed, updates);
-                        else if (encoding == ThresholdCompression.BITMAP_ENCODING)
-                            Nd4j.getExecutioner().bitmapDecode(compressed, updates);
-                        else
-                            throw new DL4JInvalidConfigException("Unknown compression header received: " + encoding);
+                        decodeUpdates(compressed, updates);
                     }
                     cnt++;
                     ent++;
@@ -332,20 +396,7 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
             Nd4j.getMemoryManager().memset(updates);
             //updates.assign(0.0);
 
-            int cnt = 0;
-            while (!messages.get(index.get()).isEmpty()) {
-                INDArray compressed = messages.get(index.get()).poll();
-
-                int encoding = compressed.data().getInt(3);
-                if (encoding == ThresholdCompression.FLEXIBLE_ENCODING)
-                    Nd4j.getExecutioner().thresholdDecode(compressed, updates);
-                else if (encoding == ThresholdCompression.BITMAP_ENCODING)
-                    Nd4j.getExecutioner().bitmapDecode(compressed, updates);
-                else
-                    throw new DL4JInvalidConfigException("Unknown compression header received: " + encoding);
-
-                cnt++;
-            }
+            int cnt = drainLocalUpdates(updates);
 
             if (cnt > 0 && isDebug)
                 log.info("Local updates to be applied: {}", cnt);
@@ -360,24 +411,10 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
                     if (relocatable) {
                         try (MemoryWorkspace workspace = Nd4j.getWorkspaceManager()
                                         .getAndActivateWorkspace(appliedConfiguration, "CGA_APPLY")) {
-                            INDArray compressed_copy = compressed.unsafeDuplication(true);
-                            int encoding = compressed.data().getInt(3);
-                            if (encoding == ThresholdCompression.FLEXIBLE_ENCODING)
-                                Nd4j.getExecutioner().thresholdDecode(compressed_copy, updates);
-                            else if (encoding == ThresholdCompression.BITMAP_ENCODING)
-                                Nd4j.getExecutioner().bitmapDecode(compressed_copy, updates);
-                            else
-                                throw new DL4JInvalidConfigException(
-                                                "Unknown compression header received: " + encoding);
+                            decodeUpdates(compressed.unsafeDuplication(true), updates);
                         }
                     } else {
-                        int encoding = compressed.data().getInt(3);
-                        if (encoding == ThresholdCompression.FLEXIBLE_ENCODING)
-                            Nd4j.getExecutioner().thresholdDecode(compressed, updates);
-                        else if (encoding == ThresholdCompression.BITMAP_ENCODING)
-                            Nd4j.getExecutioner().bitmapDecode(compressed, updates);
-                        else
-                            throw new DL4JInvalidConfigException("Unknown compression header received: " + encoding);
+                        decodeUpdates(compressed, updates);
                     }
                     cnt++;
                     ent++;
@@ -454,12 +491,11 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
                 log.info("thread {} locking at Register", Thread.currentThread().getId());
 
             // block until ParallelWrapper sends us message about number of threads in this cycle
-            if (!bypassMode.get())
-                while (!registered.get()) {
-                    ThreadUtils.uncheckedSleep(1);
-                    if (throwable.isTriggered())
-                        throw new RuntimeException(throwable.get());
-                }
+            if (!bypassMode.get() && !registered.get()) {
+                long time = System.nanoTime();
+                awaitRegistration(true);
+                recordStall(barrierStall, System.nanoTime() - time);
+            }
 
             if (isDebug)
                 log.info("thread {} unlocking at Register", Thread.currentThread().getId());
@@ -485,35 +521,26 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
     @Override
     public void receiveUpdate(INDArray array) {
         try {
-            // we're replicating COMPRESSED MESSAGES, decompression will be thread-local
-            for (int i = 0; i < parties; i++) {
-                // we don't want to have same workspace to be accessible by 2 different threads for now
-                /*
-                    With synchronized external data, it's impossible to deadlock here.
-                    Each worker is guaranteed to have at least NUM_WORKERS slots in buffer.
-                    So we use this lock just to ensure thread-safety of corresponding workspaces
-                */
-                locks.get(i).lock();
-
-                try (MemoryWorkspace workspace = workspaces.get(i).notifyScopeEntered()) {
-                    // we might just scope out of workspace here, instead of throwing error out
-                    if (array.data().length() > (initialMemory / queueSize)
-                                    / Nd4j.sizeOfDataType(array.data().dataType()))
-                        throw new ND4JIllegalStateException("Not enough memory to handle update: ["
-                                        + array.data().length() * Nd4j.sizeOfDataType(array.data().dataType())
-                                        + " bytes required]. Please increase memory amount for GradientsAccumulator");
-
-                    INDArray compressed = array.unsafeDuplication();
-                    try {
-                        messages.get(i).put(compressed);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        log.info("Something bad at index_{}", i);
-                        throw new RuntimeException(e);
-                    }
-                }
-
-                locks.get(i).unlock();
+            // updates are published once, into buffer owned by current worker. decompression will be thread-local
+            touch();
+            int producer = index.get();
+
+            // we might just scope out of workspace here, instead of throwing error out
+            if (array.data().length() > (initialMemory / queueSize) / Nd4j.sizeOfDataType(array.data().dataType()))
+                throw new ND4JIllegalStateException("Not enough memory to handle update: ["
+                                + array.data().length() * Nd4j.sizeOfDataType(array.data().dataType())
+                                + " bytes required]. Please increase memory amount for GradientsAccumulator");
+
+            UpdatesRingBuffer buffer = messages.get(producer);
+
+            // we must not touch workspace memory before oldest message there is consumed by all workers
+            long stall = buffer.awaitCapacity(throwable);
+            if (stall > 0)
+                recordStall(publishStall, stall);
+
+            try (MemoryWorkspace workspace = workspaces.get(producer).notifyScopeEntered()) {
+                INDArray compressed = array.unsafeDuplication();
+                buffer.publish(compressed);
             }
         } catch (Exception e) {
             throwable.setIfFirst(e);
@@ -535,10 +562,12 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
         // reset indexes too
         index = new ThreadLocal<>();
 
-        // throw away message queues
+        // throw away pending messages
         for (int i = 0; i < parties; i++) {
             messages.get(i).clear();
         }
+
+        resetStallStats();
     }
 
     public static class Builder {
@@ -548,6 +577,7 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
         protected int queueSize = 5;
         protected MessageHandler handler;
         protected Double boundary = null;
+        protected AdaptiveThresholdEncoder adaptiveEncoder;
 
         /**
          * This
@@ -603,6 +633,18 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
             return this;
         }
 
+        /**
+         * This method enables per-layer adaptive encoding thresholds, with bitmap encoding fallback for dense updates.
+         * Applies to EncodingHandler and its subclasses only
+         *
+         * Default value: null (single fixed threshold)
+         * @param encoder
+         * @return
+         */
+        public Builder adaptiveEncoder(@NonNull AdaptiveThresholdEncoder encoder) {
+            this.adaptiveEncoder = encoder;
+            return this;
+        }
 
         /**
          * This method allows to define buffer memory parameters for this GradientsAccumulator
@@ -626,6 +668,14 @@ public class EncodedGradientsAccumulator implements GradientsAccumulator, Regist
                     handler = new EncodingHandler(threshold, boundary);
             }
 
+            if (adaptiveEncoder != null) {
+                if (!(handler instanceof EncodingHandler))
+                    throw new DL4JInvalidConfigException("Adaptive encoder requires EncodingHandler, but got "
+                                    + handler.getClass().getSimpleName());
+
+                ((EncodingHandler) handler).setAdaptiveEncoder(adaptiveEncoder);
+            }
+
             EncodedGradientsAccumulator accumulator =
                             new EncodedGradientsAccumulator(parties, handler, initialMemory, queueSize, boundary);
 
@@ -31,6 +31,7 @@ public class EncodingHandler implements MessageHandler {
     protected Double boundary = null;
     protected NDArrayCompressor compressor;
     protected AtomicInteger atomicBoundary = new AtomicInteger(-1);
+    protected AdaptiveThresholdEncoder adaptiveEncoder;
 
     protected ThreadLocal<AtomicLong> iterations = new ThreadLocal<>();
     protected ThreadLocal<AtomicLong> lastStep = new ThreadLocal<>();
@@ -111,7 +112,24 @@ public class EncodingHandler implements MessageHandler {
         compressor.configure(threshold);
     }
 
+    /**
+     * This method enables per-layer adaptive thresholds: if set, all encoding is delegated to the given encoder,
+     * and threshold/decay settings of this handler are ignored
+     *
+     * @param adaptiveEncoder
+     */
+    public void setAdaptiveEncoder(AdaptiveThresholdEncoder adaptiveEncoder) {
+        this.adaptiveEncoder = adaptiveEncoder;
+    }
+
+    public AdaptiveThresholdEncoder getAdaptiveEncoder() {
+        return adaptiveEncoder;
+    }
+
     public INDArray encodeUpdates(INDArray updates) {
+        if (adaptiveEncoder != null)
+            return adaptiveEncoder.encode(updates);
+
         // special op should be called here for encoding
         if (bitmapMode.get() == null) {
             bitmapMode.set(new AtomicBoolean(true));
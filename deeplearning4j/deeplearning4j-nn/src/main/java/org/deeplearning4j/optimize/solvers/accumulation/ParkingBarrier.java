@@ -0,0 +1,88 @@
+package org.deeplearning4j.optimize.solvers.accumulation;
+
+import org.nd4j.linalg.util.AtomicThrowable;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reusable barrier with variable number of parties per cycle.
+ *
+ * Threads waiting for the rest of parties spin for a short while, and park afterwards.
+ * Last thread arriving runs optional barrier action and unparks everyone else.
+ *
+ * @author raver119@gmail.com
+ */
+public class ParkingBarrier {
+    protected static final int SPIN_LIMIT = 64;
+    protected static final long PARK_NANOS = 100000L;
+
+    protected final AtomicInteger arrived = new AtomicInteger(0);
+    protected final AtomicLong generation = new AtomicLong(0);
+    protected final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * This method blocks until given number of parties arrive at this barrier
+     *
+     * @param parties number of parties for this cycle
+     * @param throwable if triggered while waiting, RuntimeException will be thrown
+     * @param action optional action to be executed by last thread arriving, before other threads are released
+     * @return true for last thread arriving, false otherwise
+     */
+    public boolean await(int parties, AtomicThrowable throwable, Runnable action) {
+        long gen = generation.get();
+
+        if (arrived.incrementAndGet() >= parties) {
+            arrived.set(0);
+
+            if (action != null)
+                action.run();
+
+            generation.incrementAndGet();
+
+            Thread thread;
+            while ((thread = waiters.poll()) != null)
+                LockSupport.unpark(thread);
+
+            return true;
+        }
+
+        Thread current = Thread.currentThread();
+        boolean enqueued = false;
+        int spins = 0;
+        try {
+            while (generation.get() == gen) {
+                if (throwable != null && throwable.isTriggered())
+                    throw new RuntimeException(throwable.get());
+
+                if (spins < SPIN_LIMIT) {
+                    spins++;
+                    Thread.yield();
+                } else if (!enqueued) {
+                    // generation is checked once again after enqueue, so we can't miss unpark
+                    waiters.add(current);
+                    enqueued = true;
+                } else {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+            }
+        } finally {
+            if (enqueued)
+                waiters.remove(current);
+        }
+
+        return false;
+    }
+
+    /**
+     * This method returns number of threads currently waiting at this barrier
+     *
+     * @return
+     */
+    public int getNumberWaiting() {
+        return arrived.get();
+    }
+}
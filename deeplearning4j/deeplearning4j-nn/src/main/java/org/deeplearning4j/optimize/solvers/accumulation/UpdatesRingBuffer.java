@@ -0,0 +1,170 @@
+package org.deeplearning4j.optimize.solvers.accumulation;
+
+import lombok.NonNull;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.util.AtomicThrowable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Preallocated single-producer/multi-consumer ring buffer for encoded updates.
+ *
+ * Each consumer has its own read position, so every message published is seen by all consumers, without being
+ * replicated per consumer. Producer reuses a slot only after all consumers released it.
+ *
+ * PLEASE NOTE: awaitCapacity() and publish() are expected to be called from one thread at a time,
+ * and each consumer index is expected to be used by one thread at a time.
+ *
+ * @author raver119@gmail.com
+ */
+public class UpdatesRingBuffer {
+    protected static final int SPIN_LIMIT = 64;
+    protected static final long PARK_NANOS = 50000L;
+
+    protected final int capacity;
+    protected final AtomicReferenceArray<INDArray> slots;
+    protected final AtomicLong published = new AtomicLong(0);
+    protected final AtomicLongArray released;
+    protected volatile Thread blockedProducer;
+
+    public UpdatesRingBuffer(int capacity, int consumers) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity should be positive value");
+        if (consumers < 1)
+            throw new IllegalArgumentException("Number of consumers should be positive value");
+
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.released = new AtomicLongArray(consumers);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int numConsumers() {
+        return released.length();
+    }
+
+    protected long minReleased() {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < released.length(); i++)
+            min = Math.min(min, released.get(i));
+
+        return min;
+    }
+
+    /**
+     * This method blocks until there's at least one free slot in this buffer
+     *
+     * @param throwable if triggered while waiting, RuntimeException will be thrown
+     * @return number of nanoseconds spent waiting, 0 if slot was available immediately
+     */
+    public long awaitCapacity(AtomicThrowable throwable) {
+        long seq = published.get();
+        if (seq - minReleased() < capacity)
+            return 0;
+
+        long start = System.nanoTime();
+        blockedProducer = Thread.currentThread();
+        try {
+            int spins = 0;
+            while (seq - minReleased() >= capacity) {
+                if (throwable != null && throwable.isTriggered())
+                    throw new RuntimeException(throwable.get());
+
+                if (spins++ < SPIN_LIMIT)
+                    Thread.yield();
+                else
+                    LockSupport.parkNanos(this, PARK_NANOS);
+            }
+        } finally {
+            blockedProducer = null;
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * This method publishes message to all consumers. Caller is responsible for calling awaitCapacity() first.
+     *
+     * @param message
+     */
+    public void publish(@NonNull INDArray message) {
+        long seq = published.get();
+        if (seq - minReleased() >= capacity)
+            throw new IllegalStateException("No free slots available: awaitCapacity() should be called first");
+
+        slots.set((int) (seq % capacity), message);
+
+        // volatile write makes slot visible to consumers
+        published.set(seq + 1);
+    }
+
+    /**
+     * This method returns next message for given consumer without releasing it, or null if there's nothing to consume
+     *
+     * @param consumer
+     * @return
+     */
+    public INDArray peek(int consumer) {
+        long seq = released.get(consumer);
+        if (seq >= published.get())
+            return null;
+
+        return slots.get((int) (seq % capacity));
+    }
+
+    /**
+     * This method marks message returned by last peek() call as consumed by given consumer.
+     * Message memory can be reused by producer once all consumers released it.
+     *
+     * @param consumer
+     */
+    public void release(int consumer) {
+        long seq = released.get(consumer);
+        if (seq >= published.get())
+            throw new IllegalStateException("Consumer [" + consumer + "] has nothing to release");
+
+        released.set(consumer, seq + 1);
+
+        Thread producer = blockedProducer;
+        if (producer != null)
+            LockSupport.unpark(producer);
+    }
+
+    /**
+     * This method returns number of messages not yet consumed by given consumer
+     *
+     * @param consumer
+     * @return
+     */
+    public int size(int consumer) {
+        return (int) (published.get() - released.get(consumer));
+    }
+
+    public boolean isEmpty(int consumer) {
+        return size(consumer) == 0;
+    }
+
+    /**
+     * This method drops all pending messages for all consumers.
+     *
+     * PLEASE NOTE: this method isn't thread-safe wrt producer and consumers, it's meant to be used between cycles only
+     */
+    public void clear() {
+        long seq = published.get();
+        for (int i = 0; i < released.length(); i++)
+            released.set(i, seq);
+
+        for (int i = 0; i < capacity; i++)
+            slots.set(i, null);
+
+        Thread producer = blockedProducer;
+        if (producer != null)
+            LockSupport.unpark(producer);
+    }
+}
@@ -5,6 +5,8 @@ import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.Pointer;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.api.Updater;
@@ -14,19 +16,28 @@ import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.updater.graph.ComputationGraphUpdater;
 import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
 import org.nd4j.linalg.dataset.api.preprocessor.DataNormalization;
 import org.nd4j.linalg.dataset.api.preprocessor.Normalizer;
 import org.nd4j.linalg.dataset.api.preprocessor.serializer.NormalizerSerializer;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.heartbeat.reports.Task;
 import org.nd4j.linalg.primitives.Pair;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
@@ -45,6 +56,15 @@ public class ModelSerializer {
     public static final String COEFFICIENTS_BIN = "coefficients.bin";
     public static final String NO_PARAMS_MARKER = "noParams.marker";
     public static final String PREPROCESSOR_BIN = "preprocessor.bin";
+    public static final String COEFFICIENTS_RAW = "coefficients.raw";
+
+    //Raw coefficients entry: 64 byte header (number of elements, element size), then little-endian values
+    private static final int RAW_HEADER_BYTES = 64;
+    private static final int RAW_ALIGNMENT = 64;
+    private static final int RAW_COPY_CHUNK = 1 << 20;
+    //Raw values are written and mapped in chunks of at most this size, as NIO buffers are limited to 2GB. Tests only
+    //should change this
+    static long rawChunkBytes = Integer.MAX_VALUE;
 
     private ModelSerializer() {}
 
@@ -115,8 +135,6 @@ public class ModelSerializer {
      */
     public static void writeModel(@NonNull Model model, @NonNull OutputStream stream, boolean saveUpdater,DataNormalization dataNormalization)
             throws IOException {
-        ZipOutputStream zipfile = new ZipOutputStream(new CloseShieldOutputStream(stream));
-
         // Save configuration as JSON
         String json = "";
         if (model instanceof MultiLayerNetwork) {
@@ -124,18 +142,52 @@ public class ModelSerializer {
         } else if (model instanceof ComputationGraph) {
             json = ((ComputationGraph) model).getConfiguration().toJson();
         }
+
+        INDArray updaterState = null;
+        if (saveUpdater) {
+            if (model instanceof MultiLayerNetwork) {
+                updaterState = ((MultiLayerNetwork) model).getUpdater().getStateViewArray();
+            } else if (model instanceof ComputationGraph) {
+                updaterState = ((ComputationGraph) model).getUpdater().getStateViewArray();
+            }
+        }
+
+        writeModel(json, model.params(), updaterState, dataNormalization, stream, true);
+    }
+
+    /**
+     * Write a model to an output stream, given its configuration, parameters and (optionally) updater state.<br>
+     * This allows a model to be written from a snapshot of its state - for example, from a thread other than
+     * the one that is training the model. The output can be restored as usual via
+     * {@link #restoreMultiLayerNetwork(File)} or {@link #restoreComputationGraph(File)}
+     *
+     * @param configJson        the model configuration, as JSON
+     * @param params            the model parameters (may be null)
+     * @param updaterState      the updater state view array (may be null, if the updater should not be saved)
+     * @param dataNormalization the normalizer to save (may be null)
+     * @param stream            the output stream to write to
+     * @param compress          if false, zip entries are written without compression: this is much faster for
+     *                          large parameter arrays, at the cost of a larger file
+     * @throws IOException
+     */
+    public static void writeModel(@NonNull String configJson, INDArray params, INDArray updaterState,
+                    DataNormalization dataNormalization, @NonNull OutputStream stream, boolean compress) throws IOException {
+        ZipOutputStream zipfile = new ZipOutputStream(new CloseShieldOutputStream(stream));
+        if (!compress) {
+            zipfile.setLevel(Deflater.NO_COMPRESSION);
+        }
+
         ZipEntry config = new ZipEntry(CONFIGURATION_JSON);
         zipfile.putNextEntry(config);
-        zipfile.write(json.getBytes());
+        zipfile.write(configJson.getBytes());
 
         // Save parameters as binary
         ZipEntry coefficients = new ZipEntry(COEFFICIENTS_BIN);
         zipfile.putNextEntry(coefficients);
         DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(zipfile));
-        INDArray params = model.params();
         if(params != null) {
             try {
-                Nd4j.write(model.params(), dos);
+                Nd4j.write(params, dos);
             } finally {
                 dos.flush();
             }
@@ -144,23 +196,14 @@ public class ModelSerializer {
             zipfile.putNextEntry(noParamsMarker);
         }
 
-        if (saveUpdater) {
-            INDArray updaterState = null;
-            if (model instanceof MultiLayerNetwork) {
-                updaterState = ((MultiLayerNetwork) model).getUpdater().getStateViewArray();
-            } else if (model instanceof ComputationGraph) {
-                updaterState = ((ComputationGraph) model).getUpdater().getStateViewArray();
-            }
-
-            if (updaterState != null && updaterState.length() > 0) {
-                ZipEntry updater = new ZipEntry(UPDATER_BIN);
-                zipfile.putNextEntry(updater);
+        if (updaterState != null && updaterState.length() > 0) {
+            ZipEntry updater = new ZipEntry(UPDATER_BIN);
+            zipfile.putNextEntry(updater);
 
-                try {
-                    Nd4j.write(updaterState, dos);
-                } finally {
-                    dos.flush();
-                }
+            try {
+                Nd4j.write(updaterState, dos);
+            } finally {
+                dos.flush();
             }
         }
 
@@ -176,6 +219,275 @@ public class ModelSerializer {
         zipfile.close();
     }
 
+    /**
+     * Write a model to a file, storing the parameters as raw (uncompressed) values, at an aligned offset at the
+     * start of the file.<br>
+     * When such a file is restored via {@link #restoreMultiLayerNetwork(File, boolean)} or
+     * {@link #restoreComputationGraph(File, boolean)}, the parameters are copied from a memory mapped region of the
+     * file directly into the network's parameters array, instead of being inflated and deserialized. This reduces
+     * load time and peak memory use for large models - use loadUpdater == false when restoring for inference only.
+     *
+     * @param model       the model to write
+     * @param file        the file to write to
+     * @param saveUpdater whether to save the updater or not
+     * @throws IOException
+     */
+    public static void writeModelMappable(@NonNull Model model, @NonNull File file, boolean saveUpdater) throws IOException {
+        INDArray params = model.params();
+        if (params == null || params.length() == 0) {
+            writeModel(model, file, saveUpdater);
+            return;
+        }
+        if (params.isView() || params.ordering() != 'c') {
+            params = params.dup('c');
+        }
+
+        int elementSize = params.data().getElementSize();
+        long length = params.lengthLong();
+        long dataBytes = length * elementSize;
+
+        ByteBuffer header = ByteBuffer.allocate(RAW_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(0, length);
+        header.putInt(8, elementSize);
+
+        List<ByteBuffer> chunks = new ArrayList<>();
+        long chunkElements = rawChunkBytes / elementSize;
+        for (long i = 0; i < length; i += chunkElements) {
+            chunks.add(rawView(params, i, Math.min(chunkElements, length - i)));
+        }
+
+        //Stored entries require size and CRC before the entry is written: hence two passes over the data
+        CRC32 crc = new CRC32();
+        crc.update(header.array());
+        for (ByteBuffer chunk : chunks) {
+            copyLittleEndian(chunk, elementSize, crc, null);
+        }
+
+        ZipEntry raw = new ZipEntry(COEFFICIENTS_RAW);
+        raw.setMethod(ZipEntry.STORED);
+        raw.setSize(RAW_HEADER_BYTES + dataBytes);
+        raw.setCompressedSize(RAW_HEADER_BYTES + dataBytes);
+        raw.setCrc(crc.getValue());
+        //Pad the local file header via the extra field, so that the values are aligned within the file
+        int headerLength = 30 + COEFFICIENTS_RAW.getBytes(Charset.forName("UTF-8")).length + 4;
+        if (RAW_HEADER_BYTES + dataBytes >= 0xFFFFFFFFL) {
+            //Zip64 extra field (written before ours) for entries of 4GB or more
+            headerLength += 20;
+        }
+        int padding = (RAW_ALIGNMENT - headerLength % RAW_ALIGNMENT) % RAW_ALIGNMENT;
+        byte[] extra = new byte[4 + padding];
+        extra[0] = (byte) 0x35;     //Header ID 0xD935, as used by Android's zipalign
+        extra[1] = (byte) 0xD9;
+        extra[2] = (byte) (padding & 0xFF);
+        extra[3] = (byte) ((padding >> 8) & 0xFF);
+        raw.setExtra(extra);
+
+        String json = "";
+        INDArray updaterState = null;
+        if (model instanceof MultiLayerNetwork) {
+            json = ((MultiLayerNetwork) model).getLayerWiseConfigurations().toJson();
+            if (saveUpdater)
+                updaterState = ((MultiLayerNetwork) model).getUpdater().getStateViewArray();
+        } else if (model instanceof ComputationGraph) {
+            json = ((ComputationGraph) model).getConfiguration().toJson();
+            if (saveUpdater)
+                updaterState = ((ComputationGraph) model).getUpdater().getStateViewArray();
+        }
+
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(file));
+             ZipOutputStream zipfile = new ZipOutputStream(os)) {
+            //Must be the first entry: the data offset is found from the local file header at the start of the file
+            zipfile.putNextEntry(raw);
+            zipfile.write(header.array());
+            for (ByteBuffer chunk : chunks) {
+                copyLittleEndian(chunk, elementSize, null, zipfile);
+            }
+            zipfile.closeEntry();
+
+            zipfile.putNextEntry(new ZipEntry(CONFIGURATION_JSON));
+            zipfile.write(json.getBytes());
+
+            if (updaterState != null && updaterState.length() > 0) {
+                zipfile.putNextEntry(new ZipEntry(UPDATER_BIN));
+                DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new CloseShieldOutputStream(zipfile)));
+                Nd4j.write(updaterState, dos);
+                dos.close();
+            }
+        }
+    }
+
+    private static void copyLittleEndian(ByteBuffer data, int elementSize, CRC32 crc, OutputStream os) throws IOException {
+        ByteBuffer src = data.duplicate();
+        boolean swap = ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN;
+        byte[] chunk = new byte[RAW_COPY_CHUNK];
+        while (src.hasRemaining()) {
+            int n = Math.min(chunk.length, src.remaining());
+            src.get(chunk, 0, n);
+            if (swap) {
+                for (int i = 0; i < n; i += elementSize) {
+                    for (int j = 0; j < elementSize / 2; j++) {
+                        byte b = chunk[i + j];
+                        chunk[i + j] = chunk[i + elementSize - 1 - j];
+                        chunk[i + elementSize - 1 - j] = b;
+                    }
+                }
+            }
+            if (crc != null)
+                crc.update(chunk, 0, n);
+            if (os != null)
+                os.write(chunk, 0, n);
+        }
+    }
+
+    /**
+     * @return Native order view of n values of the (contiguous) params array, starting at the given offset
+     */
+    private static ByteBuffer rawView(INDArray params, long offset, long n) {
+        Pointer pointer = params.data().addressPointer();
+        long elementSize = params.data().getElementSize();
+        long start = (pointer.position() + offset) * elementSize;
+        BytePointer bytes = new BytePointer(pointer);
+        bytes.position(start).limit(start + n * elementSize);
+        return bytes.asByteBuffer().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Read the parameters from a {@link #COEFFICIENTS_RAW} entry. If the entry is stored at the start of the file (as
+     * written by {@link #writeModelMappable(Model, File, boolean)}) the file is memory mapped (in chunks of at most
+     * 2GB), and values are copied directly into a new parameters array. Otherwise, the entry is read as a stream.
+     */
+    private static INDArray readRawCoefficients(File file, ZipFile zipFile, ZipEntry entry) throws IOException {
+        if (entry.getMethod() == ZipEntry.STORED) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel fc = raf.getChannel()) {
+                long offset = rawDataOffset(raf);
+                if (offset >= 0) {
+                    ByteBuffer header = fc.map(FileChannel.MapMode.READ_ONLY, offset, RAW_HEADER_BYTES);
+                    INDArray params = createRawArray(header, entry.getSize());
+                    int elementSize = header.getInt(8);
+                    long length = params.lengthLong();
+                    long chunkElements = rawChunkBytes / elementSize;
+                    for (long i = 0; i < length; i += chunkElements) {
+                        long n = Math.min(chunkElements, length - i);
+                        MappedByteBuffer mapped = fc.map(FileChannel.MapMode.READ_ONLY,
+                                offset + RAW_HEADER_BYTES + i * elementSize, n * elementSize);
+                        copyRaw(mapped, elementSize, params, i, n);
+                    }
+                    return params;
+                }
+            }
+        }
+
+        try (InputStream is = zipFile.getInputStream(entry)) {
+            byte[] header = new byte[RAW_HEADER_BYTES];
+            IOUtils.readFully(is, header);
+            ByteBuffer hb = ByteBuffer.wrap(header);
+            INDArray params = createRawArray(hb, entry.getSize());
+            int elementSize = hb.getInt(8);
+            long length = params.lengthLong();
+            byte[] chunk = new byte[RAW_COPY_CHUNK];
+            long chunkElements = RAW_COPY_CHUNK / elementSize;
+            for (long i = 0; i < length; i += chunkElements) {
+                int n = (int) Math.min(chunkElements, length - i);
+                IOUtils.readFully(is, chunk, 0, n * elementSize);
+                copyRaw(ByteBuffer.wrap(chunk, 0, n * elementSize), elementSize, params, i, n);
+            }
+            return params;
+        }
+    }
+
+    /**
+     * @return Offset of the raw coefficients data, if the raw coefficients are the first (stored) entry of the file,
+     * or -1 otherwise
+     */
+    private static long rawDataOffset(RandomAccessFile raf) throws IOException {
+        byte[] name = COEFFICIENTS_RAW.getBytes(Charset.forName("UTF-8"));
+        if (raf.length() < 30 + name.length) {
+            return -1;
+        }
+        byte[] lfh = new byte[30 + name.length];
+        raf.seek(0);
+        raf.readFully(lfh);
+        ByteBuffer bb = ByteBuffer.wrap(lfh).order(ByteOrder.LITTLE_ENDIAN);
+        int signature = bb.getInt(0);
+        int method = bb.getShort(8) & 0xFFFF;
+        int nameLength = bb.getShort(26) & 0xFFFF;
+        int extraLength = bb.getShort(28) & 0xFFFF;
+        if (signature != 0x04034b50 || method != ZipEntry.STORED || nameLength != name.length) {
+            return -1;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (lfh[30 + i] != name[i])
+                return -1;
+        }
+        return 30 + nameLength + extraLength;
+    }
+
+    /**
+     * @return New (uninitialized) parameters array, for the given raw coefficients header
+     */
+    private static INDArray createRawArray(ByteBuffer header, long entrySize) {
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        long length = header.getLong(0);
+        int elementSize = header.getInt(8);
+        if (elementSize != 2 && elementSize != 4 && elementSize != 8) {
+            throw new IllegalStateException("Invalid element size: " + elementSize);
+        }
+        if (entrySize != RAW_HEADER_BYTES + length * elementSize) {
+            throw new IllegalStateException("Invalid raw coefficients entry: expected " + length + " values of "
+                    + elementSize + " bytes, got " + (entrySize - RAW_HEADER_BYTES) + " bytes");
+        }
+        return Nd4j.createUninitialized(new long[] {1, length}, 'c');
+    }
+
+    /**
+     * Copy n little-endian values from src into params, starting at the given offset
+     */
+    private static void copyRaw(ByteBuffer src, int elementSize, INDArray params, long offset, long n) {
+        src = src.slice().order(ByteOrder.LITTLE_ENDIAN);
+        DataBuffer db = params.data();
+        if (elementSize == db.getElementSize()) {
+            //Bulk copy (with byte swapping only if the platform is big endian)
+            ByteBuffer dst = rawView(params, offset, n);
+            switch (elementSize) {
+                case 8:
+                    dst.asDoubleBuffer().put(src.asDoubleBuffer());
+                    break;
+                case 4:
+                    dst.asFloatBuffer().put(src.asFloatBuffer());
+                    break;
+                default:
+                    dst.asShortBuffer().put(src.asShortBuffer());
+                    break;
+            }
+            return;
+        }
+
+        boolean floatToDouble = elementSize == 4 && db.dataType() == DataBuffer.Type.DOUBLE;
+        boolean doubleToFloat = elementSize == 8 && db.dataType() == DataBuffer.Type.FLOAT;
+        if (!floatToDouble && !doubleToFloat) {
+            throw new IllegalStateException("Cannot restore parameters with element size " + elementSize
+                    + " bytes as data type " + db.dataType());
+        }
+
+        //Type conversion: in bulk, one block of values at a time
+        int block = RAW_COPY_CHUNK / elementSize;
+        for (long i = 0; i < n; i += block) {
+            int count = (int) Math.min(block, n - i);
+            INDArray values;
+            if (floatToDouble) {
+                float[] f = new float[count];
+                src.asFloatBuffer().get(f);
+                values = Nd4j.create(f);
+            } else {
+                double[] d = new double[count];
+                src.asDoubleBuffer().get(d);
+                values = Nd4j.create(d);
+            }
+            src.position(src.position() + count * elementSize);
+            params.get(NDArrayIndex.point(0), NDArrayIndex.interval(offset + i, offset + i + count)).assign(values);
+        }
+    }
+
     /**
      * Load a multi layer network from a file
      *
@@ -231,7 +543,11 @@ public class ModelSerializer {
 
 
         ZipEntry coefficients = zipFile.getEntry(COEFFICIENTS_BIN);
-        if (coefficients != null ) {
+        ZipEntry rawCoefficients = zipFile.getEntry(COEFFICIENTS_RAW);
+        if (coefficients == null && rawCoefficients != null) {
+            params = readRawCoefficients(file, zipFile, rawCoefficients);
+            gotCoefficients = true;
+        } else if (coefficients != null ) {
             if(coefficients.getSize() > 0) {
                 InputStream stream = zipFile.getInputStream(coefficients);
                 DataInputStream dis = new DataInputStream(new BufferedInputStream(stream));
@@ -557,7 +873,11 @@ public class ModelSerializer {
 
 
         ZipEntry coefficients = zipFile.getEntry(COEFFICIENTS_BIN);
-        if (coefficients != null) {
+        ZipEntry rawCoefficients = zipFile.getEntry(COEFFICIENTS_RAW);
+        if (coefficients == null && rawCoefficients != null) {
+            params = readRawCoefficients(file, zipFile, rawCoefficients);
+            gotCoefficients = true;
+        } else if (coefficients != null) {
             if(coefficients.getSize() > 0) {
                 InputStream stream = zipFile.getInputStream(coefficients);
                 DataInputStream dis = new DataInputStream(new BufferedInputStream(stream));
@@ -0,0 +1,177 @@
+package org.deeplearning4j.optimize.solvers.accumulation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.compression.ThresholdCompression;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for per-layer adaptive threshold encoding
+ *
+ * @author raver119@gmail.com
+ */
+@Slf4j
+public class AdaptiveThresholdEncoderTest {
+
+    /**
+     * Encoded part and residual should always sum up to the original updates
+     */
+    @Test
+    public void testResidual1() throws Exception {
+        Nd4j.getRandom().setSeed(12345);
+        AdaptiveThresholdEncoder encoder = new AdaptiveThresholdEncoder.Builder(1000, 9000)
+                        .initialThreshold(1e-3).targetSparsity(1e-2).build();
+
+        INDArray residual = Nd4j.zeros(1, 10000);
+        INDArray sent = Nd4j.zeros(1, 10000);
+        INDArray total = Nd4j.zeros(1, 10000);
+
+        for (int i = 0; i < 20; i++) {
+            INDArray updates = Nd4j.randn(1, 10000).muli(1e-3);
+            // second segment gets much smaller updates
+            updates.get(NDArrayIndex.point(0), NDArrayIndex.interval(1000, 10000)).muli(1e-3);
+            total.addi(updates);
+            residual.addi(updates);
+
+            INDArray encoded = encoder.encode(residual);
+            if (encoded != null) {
+                assertEquals(AdaptiveThresholdEncoder.ADAPTIVE_ENCODING, encoded.data().getInt(3));
+                AdaptiveThresholdEncoder.decode(encoded, sent);
+            }
+        }
+
+        assertEquals(total, sent.add(residual));
+
+        // thresholds are adapted independently
+        double[] thresholds = encoder.currentThresholds();
+        assertEquals(2, thresholds.length);
+        assertTrue(thresholds[0] > thresholds[1]);
+    }
+
+    /**
+     * Dense updates should be sent as bitmap, and stay within the same size limit as regular encoding
+     */
+    @Test
+    public void testBitmapFallback1() throws Exception {
+        int numParams = 100000;
+        AdaptiveThresholdEncoder encoder =
+                        new AdaptiveThresholdEncoder.Builder(numParams).initialThreshold(1e-3).build();
+
+        INDArray residual = Nd4j.create(1, numParams).assign(2e-3);
+        INDArray encoded = encoder.encode(residual);
+
+        assertNotNull(encoded);
+        assertEquals(1, encoder.getBitmapMessages());
+        assertEquals(ThresholdCompression.BITMAP_ENCODING, encoded.data().getInt(4 + 2 + 3));
+        // bitmap itself, plus header with one segment
+        assertEquals(numParams / 16 + 5 + 4 + 2, encoded.data().length());
+
+        INDArray decoded = Nd4j.zeros(1, numParams);
+        AdaptiveThresholdEncoder.decode(encoded, decoded);
+        assertEquals(Nd4j.create(1, numParams).assign(2e-3), decoded.add(residual));
+    }
+
+    /**
+     * Each segment should be decoded with its own threshold, for both sparse and bitmap messages
+     */
+    @Test
+    public void testDecodeSegments1() throws Exception {
+        AdaptiveThresholdEncoder encoder = new AdaptiveThresholdEncoder.Builder(100, 1000, 100)
+                        .initialThreshold(1e-3).build();
+
+        for (boolean dense : new boolean[] {false, true}) {
+            INDArray updates = Nd4j.zeros(1, 1200);
+            if (dense) {
+                updates.assign(2e-3);
+            } else {
+                updates.putScalar(5, 2e-3);
+                updates.putScalar(99, -2e-3);
+                updates.putScalar(100, 2e-3);
+                updates.putScalar(1150, -2e-3);
+            }
+
+            // middle segment gets its own threshold
+            encoder.currentThresholds()[0] = 1e-3;
+            encoder.currentThresholds()[1] = 2e-3;
+            encoder.currentThresholds()[2] = 1e-3;
+            INDArray residual = updates.dup();
+            INDArray encoded = encoder.encode(residual);
+            assertNotNull(encoded);
+            assertEquals(dense ? ThresholdCompression.BITMAP_ENCODING : ThresholdCompression.FLEXIBLE_ENCODING,
+                            encoded.data().getInt(4 + 2 * 3 + 3));
+
+            // decoding twice reuses the same buffer, and should simply add the message twice
+            INDArray decoded = Nd4j.zeros(1, 1200);
+            AdaptiveThresholdEncoder.decode(encoded, decoded);
+            assertEquals(updates, decoded.add(residual));
+            INDArray first = decoded.dup();
+            AdaptiveThresholdEncoder.decode(encoded, decoded);
+            assertEquals(first.mul(2), decoded);
+        }
+    }
+
+    @Test
+    public void testSparsityTarget1() throws Exception {
+        Nd4j.getRandom().setSeed(12345);
+        int numParams = 100000;
+        double target = 1e-2;
+        AdaptiveThresholdEncoder encoder = new AdaptiveThresholdEncoder.Builder(numParams).initialThreshold(1e-5)
+                        .targetSparsity(target).build();
+
+        INDArray residual = Nd4j.zeros(1, numParams);
+        for (int i = 0; i < 100; i++) {
+            residual.addi(Nd4j.randn(1, numParams).muli(1e-3));
+            encoder.encode(residual);
+        }
+
+        // after warmup, density should stay around target
+        long before = encoder.encodedElements.get();
+        int messages = 20;
+        for (int i = 0; i < messages; i++) {
+            residual.addi(Nd4j.randn(1, numParams).muli(1e-3));
+            encoder.encode(residual);
+        }
+        double density = (encoder.encodedElements.get() - before) / (double) messages / numParams;
+        log.info("Density: {}; thresholds: {}", density, encoder.currentThresholds()[0]);
+
+        assertEquals(target, density, target);
+    }
+
+    @Test
+    public void testSegmentLengths1() throws Exception {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().list()
+                        .layer(0, new DenseLayer.Builder().nIn(10).nOut(20).build())
+                        .layer(1, new OutputLayer.Builder().nIn(20).nOut(5).build()).build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        assertArrayEquals(new long[] {10 * 20 + 20, 20 * 5 + 5}, AdaptiveThresholdEncoder.segmentLengths(net));
+    }
+
+    @Test
+    public void testAccumulator1() throws Exception {
+        int numParams = 10000;
+        AdaptiveThresholdEncoder encoder = new AdaptiveThresholdEncoder.Builder(numParams).build();
+        EncodingHandler handler = new EncodingHandler(1e-3);
+        EncodedGradientsAccumulator accumulator = new EncodedGradientsAccumulator.Builder(1).messageHandler(handler)
+                        .adaptiveEncoder(encoder).build();
+
+        assertSame(encoder, handler.getAdaptiveEncoder());
+
+        INDArray encoded = handler.encodeUpdates(Nd4j.create(1, numParams).assign(2e-3));
+        INDArray updates = Nd4j.zeros(1, numParams);
+        accumulator.decodeUpdates(encoded, updates);
+
+        // everything above threshold is sent, the rest stays in residual
+        assertEquals(1e-3, updates.meanNumber().doubleValue(), 1e-5);
+    }
+}
@@ -0,0 +1,115 @@
+package org.deeplearning4j.optimize.solvers.accumulation;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author raver119@gmail.com
+ */
+public class UpdatesRingBufferTest {
+
+    @Test
+    public void testSingleThread() {
+        UpdatesRingBuffer buffer = new UpdatesRingBuffer(2, 2);
+
+        assertEquals(0, buffer.awaitCapacity(null));
+        buffer.publish(Nd4j.scalar(1.0));
+        buffer.publish(Nd4j.scalar(2.0));
+
+        // buffer is full now
+        try {
+            buffer.publish(Nd4j.scalar(3.0));
+            fail("Exception expected");
+        } catch (IllegalStateException e) {
+            //
+        }
+
+        assertEquals(2, buffer.size(0));
+        assertEquals(1.0, buffer.peek(0).getDouble(0), 1e-5);
+        buffer.release(0);
+        assertEquals(2.0, buffer.peek(0).getDouble(0), 1e-5);
+        buffer.release(0);
+        assertNull(buffer.peek(0));
+        assertTrue(buffer.isEmpty(0));
+
+        // slot isn't free until second consumer releases it
+        assertEquals(2, buffer.size(1));
+        assertEquals(1.0, buffer.peek(1).getDouble(0), 1e-5);
+        buffer.release(1);
+
+        buffer.publish(Nd4j.scalar(3.0));
+        assertEquals(3.0, buffer.peek(0).getDouble(0), 1e-5);
+
+        buffer.clear();
+        assertTrue(buffer.isEmpty(0));
+        assertTrue(buffer.isEmpty(1));
+    }
+
+    @Test(timeout = 60000L)
+    public void testMultipleWorkers() throws Exception {
+        final int numWorkers = 4;
+        final int numIterations = 500;
+
+        final List<UpdatesRingBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < numWorkers; i++)
+            buffers.add(new UpdatesRingBuffer(2, numWorkers));
+
+        final ParkingBarrier barrier = new ParkingBarrier();
+        final AtomicLong consumed = new AtomicLong(0);
+        final AtomicInteger actions = new AtomicInteger(0);
+        final AtomicInteger failures = new AtomicInteger(0);
+
+        final Runnable action = new Runnable() {
+            @Override
+            public void run() {
+                actions.incrementAndGet();
+            }
+        };
+
+        Thread[] threads = new Thread[numWorkers];
+        for (int w = 0; w < numWorkers; w++) {
+            final int id = w;
+            threads[w] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    int[] expected = new int[numWorkers];
+                    for (int e = 0; e < numIterations; e++) {
+                        buffers.get(id).awaitCapacity(null);
+                        buffers.get(id).publish(Nd4j.scalar((double) e));
+
+                        barrier.await(numWorkers, null, null);
+
+                        for (int p = 0; p < numWorkers; p++) {
+                            INDArray message;
+                            while ((message = buffers.get(p).peek(id)) != null) {
+                                if ((int) message.getDouble(0) != expected[p]++)
+                                    failures.incrementAndGet();
+
+                                buffers.get(p).release(id);
+                                consumed.incrementAndGet();
+                            }
+                        }
+
+                        barrier.await(numWorkers, null, action);
+                    }
+                }
+            });
+            threads[w].start();
+        }
+
+        for (Thread t : threads)
+            t.join();
+
+        assertEquals(0, failures.get());
+        assertEquals(numIterations, actions.get());
+        assertEquals((long) numWorkers * numWorkers * numIterations, consumed.get());
+    }
+}
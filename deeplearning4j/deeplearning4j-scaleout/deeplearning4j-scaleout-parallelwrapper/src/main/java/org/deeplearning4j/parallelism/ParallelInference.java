@@ -8,8 +8,10 @@ import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.parallelism.inference.AdaptiveBatchController;
 import org.deeplearning4j.parallelism.inference.InferenceMode;
 import org.deeplearning4j.parallelism.inference.InferenceObservable;
+import org.deeplearning4j.parallelism.inference.InferenceWorkerMetrics;
 import org.deeplearning4j.parallelism.inference.observers.BasicInferenceObservable;
 import org.deeplearning4j.parallelism.inference.observers.BasicInferenceObserver;
 import org.deeplearning4j.parallelism.inference.observers.BatchedInferenceObservable;
@@ -23,6 +25,7 @@ import java.util.List;
 import java.util.Observer;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -41,6 +44,7 @@ public class ParallelInference {
     private int batchLimit;
     private InferenceMode inferenceMode;
     private int queueLimit;
+    private long latencyTargetNanos;
 
     // this queue
     private BlockingQueue<InferenceObservable> observables;
@@ -49,6 +53,8 @@ public class ParallelInference {
 
     private InferenceWorker[] zoo;
     private ObservablesProvider provider;
+    private AdaptiveBatchController controller;
+    private InferenceWorkerMetrics[] metrics;
 
 
 
@@ -56,6 +62,7 @@ public class ParallelInference {
     public final static int DEFAULT_BATCH_LIMIT = 32;
     public final static InferenceMode DEFAULT_INFERENCE_MODE = InferenceMode.BATCHED;
     public final static int DEFAULT_QUEUE_LIMIT = 64;
+    public final static long DEFAULT_LATENCY_TARGET_MS = 50;
 
 
 
@@ -70,13 +77,18 @@ public class ParallelInference {
         int currentDevice = Nd4j.getAffinityManager().getDeviceForCurrentThread();
         AtomicBoolean assignedRoot = new AtomicBoolean(false);
 
+        if (inferenceMode == InferenceMode.ADAPTIVE)
+            controller = new AdaptiveBatchController(latencyTargetNanos, batchLimit, observables);
+
+        metrics = new InferenceWorkerMetrics[workers];
         zoo = new InferenceWorker[workers];
         for (int i = 0; i < workers; i++) {
             int cDevice = i % numDevices;
             boolean cRoot = !assignedRoot.get() && cDevice == currentDevice;
             assignedRoot.compareAndSet(false, cRoot);
 
-            zoo[i] = new InferenceWorker(i, model, observables, cRoot);
+            metrics[i] = new InferenceWorkerMetrics(i, batchLimit);
+            zoo[i] = new InferenceWorker(i, model, observables, cRoot, metrics[i], controller);
 
             Nd4j.getAffinityManager().attachThreadToDevice(zoo[i], cDevice);
             zoo[i].setDaemon(true);
@@ -87,6 +99,10 @@ public class ParallelInference {
         if (inferenceMode == InferenceMode.BATCHED) {
             log.info("Initializing ObservablesProvider...");
             provider = new ObservablesProvider(nanos, batchLimit, observables);
+        } else if (inferenceMode == InferenceMode.ADAPTIVE) {
+            log.info("Initializing adaptive ObservablesProvider with p99 latency target of {} ms...",
+                            TimeUnit.NANOSECONDS.toMillis(latencyTargetNanos));
+            provider = new ObservablesProvider(nanos, controller, observables);
         }
     }
 
@@ -94,6 +110,36 @@ public class ParallelInference {
         return zoo[workerIdx].getCounterValue();
     }
 
+    /**
+     * This method returns metrics collected by specified worker: queue wait, model time and batch sizes
+     *
+     * @param workerIdx
+     * @return
+     */
+    public InferenceWorkerMetrics getWorkerMetrics(int workerIdx) {
+        return metrics[workerIdx];
+    }
+
+    /**
+     * This method returns current batch limit. For ADAPTIVE inference mode this value changes over time,
+     * for other modes it's equal to configured batch limit
+     *
+     * @return
+     */
+    public int getCurrentBatchLimit() {
+        return controller != null ? controller.getBatchLimit() : batchLimit;
+    }
+
+    /**
+     * This method returns current p99 latency estimate, in nanoseconds. Only available in ADAPTIVE inference mode,
+     * returns -1 otherwise
+     *
+     * @return
+     */
+    public long getP99LatencyNanos() {
+        return controller != null ? controller.getP99LatencyNanos() : -1L;
+    }
+
     /**
      * This method gracefully shuts down ParallelInference instance
      */
@@ -213,6 +259,7 @@ public class ParallelInference {
         private int batchLimit = DEFAULT_BATCH_LIMIT;
         private InferenceMode inferenceMode = DEFAULT_INFERENCE_MODE;
         private int queueLimit = DEFAULT_QUEUE_LIMIT;
+        private long latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_LATENCY_TARGET_MS);
 
         public Builder(@NonNull Model model) {
             this.model = model;
@@ -225,6 +272,8 @@ public class ParallelInference {
          * SEQUENTIAL: Input will be sent to last-used worker unmodified.
          * BATCHED: Multiple inputs will be packed into single batch, and
          * sent to last-used device.
+         * ADAPTIVE: Multiple inputs will be packed into single batch, with batch size
+         * adjusted at runtime to keep p99 latency below latencyTarget
          *
          * @param inferenceMode
          * @return
@@ -257,7 +306,8 @@ public class ParallelInference {
          * be batched within given time frame.
          *
          * PLEASE NOTE: This value has no effect in
-         * SEQUENTIAL inference mode
+         * SEQUENTIAL inference mode. In ADAPTIVE mode
+         * this value is used as upper bound for batch size
          *
          * @param limit
          * @return
@@ -286,6 +336,27 @@ public class ParallelInference {
             return this;
         }
 
+        /**
+         * This method defines p99 latency target used in ADAPTIVE inference mode.
+         * Latency is measured from the moment batch was created till the moment model returned output.
+         *
+         * Default value: 50 ms
+         *
+         * PLEASE NOTE: This value has no effect in
+         * SEQUENTIAL and BATCHED inference modes
+         *
+         * @param latency
+         * @param timeUnit
+         * @return
+         */
+        public Builder latencyTarget(long latency, @NonNull TimeUnit timeUnit) {
+            if (latency < 1)
+                throw new IllegalStateException("Latency target should be positive value");
+
+            this.latencyTargetNanos = timeUnit.toNanos(latency);
+            return this;
+        }
+
         /**
          * This method builds new ParallelInference instance
          *
@@ -298,6 +369,7 @@ public class ParallelInference {
             inference.inferenceMode = this.inferenceMode;
             inference.model = this.model;
             inference.workers = this.workers;
+            inference.latencyTargetNanos = this.latencyTargetNanos;
 
             inference.init();
 
@@ -318,11 +390,16 @@ public class ParallelInference {
         private Model replicatedModel;
         private AtomicLong counter = new AtomicLong(0);
         private boolean rootDevice;
+        private InferenceWorkerMetrics metrics;
+        private AdaptiveBatchController controller;
 
-        private InferenceWorker(int id, @NonNull Model model, @NonNull BlockingQueue inputQueue, boolean rootDevice) {
+        private InferenceWorker(int id, @NonNull Model model, @NonNull BlockingQueue inputQueue, boolean rootDevice,
+                        @NonNull InferenceWorkerMetrics metrics, AdaptiveBatchController controller) {
             this.inputQueue = inputQueue;
             this.protoModel = model;
             this.rootDevice = rootDevice;
+            this.metrics = metrics;
+            this.controller = controller;
 
             this.setDaemon(true);
             this.setName("InferenceThread-" + id);
@@ -372,6 +449,7 @@ public class ParallelInference {
 
                     if (request != null) {
                         counter.incrementAndGet();
+                        long takeTime = System.nanoTime();
 
                         // FIXME: get rid of instanceof here, model won't change during runtime anyway
                         if (replicatedModel instanceof ComputationGraph) {
@@ -402,6 +480,15 @@ public class ParallelInference {
                             }
                         }
 
+                        long modelTime = System.nanoTime() - takeTime;
+                        long queueWait = Math.max(0L, takeTime - request.getCreationTime());
+                        int batchSize = request instanceof BatchedInferenceObservable
+                                        ? ((BatchedInferenceObservable) request).getCounter() : 1;
+
+                        metrics.record(batchSize, queueWait, modelTime);
+                        if (controller != null)
+                            controller.record(batchSize, queueWait, modelTime);
+
 
                     } else {
                         // just do nothing, i guess and hope for next round?
@@ -430,6 +517,7 @@ public class ParallelInference {
         private BlockingQueue<InferenceObservable> targetQueue;
         private long nanos;
         private int batchLimit;
+        private AdaptiveBatchController controller;
 
         private volatile BatchedInferenceObservable currentObservable;
         private final Object locker = new Object();
@@ -440,6 +528,16 @@ public class ParallelInference {
             this.batchLimit = batchLimit;
         }
 
+        protected ObservablesProvider(long nanos, @NonNull AdaptiveBatchController controller,
+                        @NonNull BlockingQueue<InferenceObservable> queue) {
+            this(nanos, 1, queue);
+            this.controller = controller;
+        }
+
+        protected int getBatchLimit() {
+            return controller != null ? controller.getBatchLimit() : batchLimit;
+        }
+
         protected InferenceObservable setInput(@NonNull Observer observer, INDArray input){
             return setInput(observer, new INDArray[]{input}, null);
         }
@@ -451,7 +549,7 @@ public class ParallelInference {
         protected InferenceObservable setInput(@NonNull Observer observer, INDArray[] input, INDArray[] inputMask) {
             synchronized (locker) {
                 boolean isNew = false;
-                if (currentObservable == null || currentObservable.getCounter() >= batchLimit
+                if (currentObservable == null || currentObservable.getCounter() >= getBatchLimit()
                                 || currentObservable.isLocked()) {
                     isNew = true;
                     currentObservable = new BatchedInferenceObservable();
@@ -0,0 +1,149 @@
+package org.deeplearning4j.parallelism.inference;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class implements batch size control for ADAPTIVE inference mode.
+ *
+ * Workers report every processed batch here: its size, time spent in queue and time spent within model.
+ * Every {@code adjustmentInterval} batches controller estimates p99 request latency over sliding window and
+ * adjusts current batch limit:
+ * - if p99 latency is above target, and model time dominates it - batches are too large, so limit is halved
+ * - if p99 latency is above target, and queue wait dominates it - we're throughput bound, so limit grows
+ * - if p99 latency is well below target, and requests are queued - limit grows, since we have latency headroom
+ *
+ * Batch limit always stays within [1, maxBatchLimit] range.
+ *
+ * @author raver119@gmail.com
+ */
+@Slf4j
+public class AdaptiveBatchController {
+    public final static int DEFAULT_WINDOW_SIZE = 256;
+    public final static int DEFAULT_ADJUSTMENT_INTERVAL = 16;
+
+    private final long targetLatencyNanos;
+    private final int maxBatchLimit;
+    private final int adjustmentInterval;
+    private final BlockingQueue<?> queue;
+
+    private final AtomicInteger batchLimit;
+
+    // sliding window of recent latencies, guarded by this
+    private final long[] latencies;
+    private final long[] modelTimes;
+    private final long[] sortBuffer;
+    private int position = 0;
+    private int filled = 0;
+    private int sinceAdjustment = 0;
+
+    public AdaptiveBatchController(long targetLatencyNanos, int maxBatchLimit, @NonNull BlockingQueue<?> queue) {
+        this(targetLatencyNanos, maxBatchLimit, DEFAULT_WINDOW_SIZE, DEFAULT_ADJUSTMENT_INTERVAL, queue);
+    }
+
+    public AdaptiveBatchController(long targetLatencyNanos, int maxBatchLimit, int windowSize, int adjustmentInterval,
+                    @NonNull BlockingQueue<?> queue) {
+        if (targetLatencyNanos <= 0)
+            throw new IllegalStateException("Target latency should be positive value");
+
+        if (maxBatchLimit < 1)
+            throw new IllegalStateException("Batch limit should be positive value");
+
+        if (windowSize < 1 || adjustmentInterval < 1)
+            throw new IllegalStateException("Window size and adjustment interval should be positive values");
+
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.maxBatchLimit = maxBatchLimit;
+        this.adjustmentInterval = adjustmentInterval;
+        this.queue = queue;
+
+        this.latencies = new long[windowSize];
+        this.modelTimes = new long[windowSize];
+        this.sortBuffer = new long[windowSize];
+
+        // we start from single-request batches, and let load push limit up
+        this.batchLimit = new AtomicInteger(1);
+    }
+
+    /**
+     * This method returns current batch limit
+     *
+     * @return
+     */
+    public int getBatchLimit() {
+        return batchLimit.get();
+    }
+
+    public long getTargetLatencyNanos() {
+        return targetLatencyNanos;
+    }
+
+    /**
+     * This method records single processed batch, and adjusts batch limit if it's time to
+     *
+     * @param batchSize number of requests in the batch
+     * @param queueWaitNanos time spent by the batch in queue
+     * @param modelNanos time spent by the batch within model
+     */
+    public synchronized void record(int batchSize, long queueWaitNanos, long modelNanos) {
+        latencies[position] = queueWaitNanos + modelNanos;
+        modelTimes[position] = modelNanos;
+        position = (position + 1) % latencies.length;
+        if (filled < latencies.length)
+            filled++;
+
+        if (++sinceAdjustment >= adjustmentInterval) {
+            sinceAdjustment = 0;
+            adjust();
+        }
+    }
+
+    /**
+     * This method returns p99 latency estimate over current window, in nanoseconds
+     *
+     * @return
+     */
+    public synchronized long getP99LatencyNanos() {
+        return percentile(latencies, 0.99);
+    }
+
+    private long percentile(long[] source, double p) {
+        if (filled == 0)
+            return 0L;
+
+        System.arraycopy(source, 0, sortBuffer, 0, filled);
+        Arrays.sort(sortBuffer, 0, filled);
+
+        int idx = (int) Math.ceil(p * filled) - 1;
+        return sortBuffer[Math.max(0, Math.min(idx, filled - 1))];
+    }
+
+    private void adjust() {
+        long p99 = percentile(latencies, 0.99);
+        long modelP99 = percentile(modelTimes, 0.99);
+        int current = batchLimit.get();
+        int updated = current;
+
+        if (p99 > targetLatencyNanos) {
+            if (modelP99 * 2 > p99) {
+                // model time dominates: batches are too heavy for our target
+                updated = Math.max(1, current / 2);
+            } else {
+                // queue wait dominates: we need more throughput
+                updated = Math.min(maxBatchLimit, current + 1);
+            }
+        } else if (p99 * 2 < targetLatencyNanos && !queue.isEmpty()) {
+            // we have headroom, and there's something waiting
+            updated = Math.min(maxBatchLimit, current + 1);
+        }
+
+        if (updated != current) {
+            batchLimit.set(updated);
+            log.debug("Adjusting batch limit: {} -> {}, p99 latency: {} ns", current, updated, p99);
+        }
+    }
+}
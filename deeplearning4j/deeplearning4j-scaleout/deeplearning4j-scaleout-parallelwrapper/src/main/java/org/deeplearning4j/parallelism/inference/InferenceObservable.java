@@ -32,4 +32,12 @@ public interface InferenceObservable {
     void addObserver(Observer observer);
 
     INDArray[] getOutput();
+
+    /**
+     * This method returns System.nanoTime() value captured when this observable was created,
+     * used to measure time spent in queue
+     *
+     * @return
+     */
+    long getCreationTime();
 }
@@ -0,0 +1,122 @@
+package org.deeplearning4j.parallelism.inference;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class holds per-worker inference metrics: time spent by requests in queue,
+ * time spent within model, and histogram of batch sizes processed by the worker.
+ *
+ * All values are updated by owning worker thread, and can be read from any thread.
+ *
+ * @author raver119@gmail.com
+ */
+public class InferenceWorkerMetrics {
+    @Getter
+    private final int workerId;
+
+    private final AtomicLong batches = new AtomicLong(0);
+    private final AtomicLong examples = new AtomicLong(0);
+    private final AtomicLong queueWaitNanos = new AtomicLong(0);
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong(0);
+    private final AtomicLong modelNanos = new AtomicLong(0);
+    private final AtomicLong maxModelNanos = new AtomicLong(0);
+
+    // element i holds number of batches of size i + 1, last element holds all batches of size >= length
+    private final AtomicLongArray batchSizeHistogram;
+
+    public InferenceWorkerMetrics(int workerId, int maxBatchSize) {
+        this.workerId = workerId;
+        this.batchSizeHistogram = new AtomicLongArray(Math.max(1, maxBatchSize));
+    }
+
+    /**
+     * This method records single processed batch
+     *
+     * @param batchSize number of requests packed into the batch
+     * @param queueWaitNanos time between batch creation and the moment worker picked it up
+     * @param modelNanos time spent within model
+     */
+    public void record(int batchSize, long queueWaitNanos, long modelNanos) {
+        batches.incrementAndGet();
+        examples.addAndGet(batchSize);
+
+        this.queueWaitNanos.addAndGet(queueWaitNanos);
+        updateMax(maxQueueWaitNanos, queueWaitNanos);
+
+        this.modelNanos.addAndGet(modelNanos);
+        updateMax(maxModelNanos, modelNanos);
+
+        int bucket = Math.min(Math.max(batchSize, 1), batchSizeHistogram.length()) - 1;
+        batchSizeHistogram.incrementAndGet(bucket);
+    }
+
+    private static void updateMax(AtomicLong target, long value) {
+        long current = target.get();
+        while (value > current && !target.compareAndSet(current, value))
+            current = target.get();
+    }
+
+    public long getNumberOfBatches() {
+        return batches.get();
+    }
+
+    public long getNumberOfRequests() {
+        return examples.get();
+    }
+
+    public long getMaxQueueWaitNanos() {
+        return maxQueueWaitNanos.get();
+    }
+
+    public long getMaxModelNanos() {
+        return maxModelNanos.get();
+    }
+
+    /**
+     * @return average time batches spent in queue, in nanoseconds
+     */
+    public double getAverageQueueWaitNanos() {
+        long b = batches.get();
+        return b == 0 ? 0.0 : queueWaitNanos.get() / (double) b;
+    }
+
+    /**
+     * @return average time batches spent within model, in nanoseconds
+     */
+    public double getAverageModelNanos() {
+        long b = batches.get();
+        return b == 0 ? 0.0 : modelNanos.get() / (double) b;
+    }
+
+    /**
+     * @return average number of requests per batch
+     */
+    public double getAverageBatchSize() {
+        long b = batches.get();
+        return b == 0 ? 0.0 : examples.get() / (double) b;
+    }
+
+    /**
+     * This method returns copy of batch size histogram: element i holds number of batches of size i + 1,
+     * last element also accumulates all larger batches
+     *
+     * @return
+     */
+    public long[] getBatchSizeHistogram() {
+        long[] result = new long[batchSizeHistogram.length()];
+        for (int e = 0; e < result.length; e++)
+            result[e] = batchSizeHistogram.get(e);
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "InferenceWorkerMetrics(workerId=" + workerId + ", batches=" + batches.get() + ", requests="
+                        + examples.get() + ", avgBatchSize=" + getAverageBatchSize() + ", avgQueueWaitNanos="
+                        + getAverageQueueWaitNanos() + ", avgModelNanos=" + getAverageModelNanos() + ")";
+    }
+}
@@ -21,6 +21,8 @@ public class BasicInferenceObservable extends Observable implements InferenceObs
     private INDArray[] inputMasks;
     @Getter
     private long id;
+    @Getter
+    private final long creationTime = System.nanoTime();
     private INDArray[] output;
     protected Exception exception;
 
@@ -15,6 +15,7 @@ import org.nd4j.linalg.io.ClassPathResource;
 import org.deeplearning4j.datasets.iterator.impl.MnistDataSetIterator;
 import org.deeplearning4j.eval.Evaluation;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.parallelism.inference.AdaptiveBatchController;
 import org.deeplearning4j.parallelism.inference.InferenceMode;
 import org.deeplearning4j.parallelism.inference.InferenceObservable;
 import org.deeplearning4j.parallelism.inference.observers.BasicInferenceObserver;
@@ -33,6 +34,7 @@ import java.io.File;
 import java.lang.reflect.Field;
 import java.util.*;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
@@ -183,6 +185,46 @@ public class ParallelInferenceTest {
     }
 
 
+    @Test(timeout = 30000L)
+    public void testInferenceAdaptive1() throws Exception {
+        ParallelInference inf = new ParallelInference.Builder(model).inferenceMode(InferenceMode.ADAPTIVE).batchLimit(8)
+                .latencyTarget(500, TimeUnit.MILLISECONDS).workers(2).build();
+
+        iterator = new MnistDataSetIterator(1, false, 12345);
+
+        INDArray array1 = inf.output(iterator.next().getFeatureMatrix());
+        assertFalse(array1.isAttached());
+
+        iterator.reset();
+
+        evalClassifcationMultipleThreads(inf, iterator, 20);
+
+        long batches = inf.getWorkerMetrics(0).getNumberOfBatches() + inf.getWorkerMetrics(1).getNumberOfBatches();
+        long requests = inf.getWorkerMetrics(0).getNumberOfRequests() + inf.getWorkerMetrics(1).getNumberOfRequests();
+
+        assertTrue(batches > 0L);
+        assertTrue(requests >= batches);
+        assertTrue(inf.getCurrentBatchLimit() >= 1 && inf.getCurrentBatchLimit() <= 8);
+        assertTrue(inf.getP99LatencyNanos() > 0L);
+    }
+
+    @Test
+    public void testProviderAdaptive1() throws Exception {
+        LinkedBlockingQueue queue = new LinkedBlockingQueue();
+        BasicInferenceObserver observer = new BasicInferenceObserver();
+        AdaptiveBatchController controller = new AdaptiveBatchController(1000000L, 4, queue);
+        ParallelInference.ObservablesProvider provider =
+                        new ParallelInference.ObservablesProvider(10000000L, controller, queue);
+
+        // controller starts with batch limit of 1, so each input goes into separate batch
+        InferenceObservable observable1 = provider.setInput(observer, Nd4j.create(100).assign(1.0));
+        InferenceObservable observable2 = provider.setInput(observer, Nd4j.create(100).assign(2.0));
+
+        assertEquals(1, controller.getBatchLimit());
+        assertTrue(observable1 != observable2);
+        assertEquals(2, queue.size());
+    }
+
     @Test
     public void testProvider1() throws Exception {
         LinkedBlockingQueue queue = new LinkedBlockingQueue();
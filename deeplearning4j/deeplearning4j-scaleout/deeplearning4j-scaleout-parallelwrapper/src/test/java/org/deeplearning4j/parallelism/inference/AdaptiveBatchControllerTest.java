@@ -0,0 +1,81 @@
+package org.deeplearning4j.parallelism.inference;
+
+import org.junit.Test;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author raver119@gmail.com
+ */
+public class AdaptiveBatchControllerTest {
+
+    @Test
+    public void testGrowsUnderLoad() throws Exception {
+        LinkedBlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+        queue.add(new Object());
+
+        AdaptiveBatchController controller =
+                        new AdaptiveBatchController(TimeUnit.MILLISECONDS.toNanos(100), 8, 16, 4, queue);
+        assertEquals(1, controller.getBatchLimit());
+
+        // latency well below target, and queue isn't empty: limit should grow up to max
+        for (int e = 0; e < 100; e++)
+            controller.record(controller.getBatchLimit(), TimeUnit.MILLISECONDS.toNanos(1),
+                            TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertEquals(8, controller.getBatchLimit());
+    }
+
+    @Test
+    public void testShrinksOnSlowModel() throws Exception {
+        LinkedBlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+        queue.add(new Object());
+
+        AdaptiveBatchController controller =
+                        new AdaptiveBatchController(TimeUnit.MILLISECONDS.toNanos(10), 8, 16, 4, queue);
+
+        for (int e = 0; e < 100; e++)
+            controller.record(controller.getBatchLimit(), 0L, TimeUnit.MICROSECONDS.toNanos(100));
+
+        assertEquals(8, controller.getBatchLimit());
+
+        // model time alone exceeds target now: limit should go down
+        for (int e = 0; e < 100; e++)
+            controller.record(controller.getBatchLimit(), 0L, TimeUnit.MILLISECONDS.toNanos(50));
+
+        assertEquals(1, controller.getBatchLimit());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), controller.getP99LatencyNanos());
+    }
+
+    @Test
+    public void testStaysIdleWithoutQueue() throws Exception {
+        LinkedBlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+
+        AdaptiveBatchController controller =
+                        new AdaptiveBatchController(TimeUnit.MILLISECONDS.toNanos(100), 8, 16, 4, queue);
+
+        for (int e = 0; e < 100; e++)
+            controller.record(1, 0L, TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertEquals(1, controller.getBatchLimit());
+    }
+
+    @Test
+    public void testWorkerMetrics() throws Exception {
+        InferenceWorkerMetrics metrics = new InferenceWorkerMetrics(0, 4);
+        metrics.record(1, 10, 100);
+        metrics.record(4, 30, 300);
+        metrics.record(10, 20, 200);
+
+        assertEquals(3, metrics.getNumberOfBatches());
+        assertEquals(15, metrics.getNumberOfRequests());
+        assertEquals(20.0, metrics.getAverageQueueWaitNanos(), 1e-5);
+        assertEquals(200.0, metrics.getAverageModelNanos(), 1e-5);
+        assertEquals(30, metrics.getMaxQueueWaitNanos());
+        assertEquals(300, metrics.getMaxModelNanos());
+        assertArrayEquals(new long[] {1, 0, 0, 2}, metrics.getBatchSizeHistogram());
+    }
+}
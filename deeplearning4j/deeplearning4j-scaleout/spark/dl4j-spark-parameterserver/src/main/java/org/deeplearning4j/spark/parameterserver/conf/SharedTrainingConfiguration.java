@@ -35,6 +35,24 @@ public class SharedTrainingConfiguration implements Serializable {
     @Builder.Default
     protected int bufferSize = 0;
 
+    /**
+     * If > 0, updates are sent to other executors from a dedicated I/O thread, with at most this number of messages
+     * queued for sending. 0 means updates are sent within the training iteration
+     */
+    @Builder.Default
+    protected int maxUpdatesStaleness = 0;
+
+    /**
+     * If > 0, per-layer adaptive thresholds are used, targeting this fraction of encoded elements per layer.
+     * 0 means single threshold with decay is used
+     */
+    @Builder.Default
+    protected double targetSparsity = 0.0;
+    @Builder.Default
+    protected double bitmapDensity = 1.0 / 16;
+    @Builder.Default
+    protected double residualDecay = 0.0;
+
     // TODO: decide, if we abstract this one out, or not
     @Builder.Default protected double threshold = 1e-3;
     @Builder.Default protected double thresholdStep = 1e-5;
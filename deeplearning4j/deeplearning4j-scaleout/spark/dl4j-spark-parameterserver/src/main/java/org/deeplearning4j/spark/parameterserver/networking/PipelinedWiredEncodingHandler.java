@@ -0,0 +1,304 @@
+package org.deeplearning4j.spark.parameterserver.networking;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.spark.parameterserver.networking.messages.SilentUpdatesMessage;
+import org.nd4j.linalg.util.AtomicThrowable;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This MessageHandler implementation does the same as WiredEncodingHandler, but transmission of encoded updates to
+ * other executors happens on a dedicated I/O thread, so training threads can proceed with the next iteration while
+ * updates of the previous one are still being sent.
+ *
+ * Encoding and local propagation of updates still happen within the training iteration, so local workers stay in sync.
+ * Staleness is bounded: if maxStaleness messages are already queued, training threads block until the I/O thread
+ * picks up the oldest one.
+ *
+ * @author raver119@gmail.com
+ */
+@Slf4j
+public class PipelinedWiredEncodingHandler extends WiredEncodingHandler {
+    protected final int maxStaleness;
+
+    protected transient BlockingQueue<QueuedMessage> queue;
+    protected transient volatile Thread sender;
+    protected transient AtomicThrowable throwable;
+    protected transient Object lock;
+    protected transient AtomicLong pending;
+
+    // metrics
+    protected transient AtomicLong messagesSent;
+    protected transient AtomicLong sendTime;
+    protected transient AtomicLong latency;
+    protected transient AtomicLong maxLatency;
+    protected transient AtomicLong stalenessSum;
+    protected transient AtomicLong maxObservedStaleness;
+    protected transient AtomicLong stallTime;
+
+    /**
+     * This method builds new PipelinedWiredEncodingHandler instance
+     *
+     * @param threshold Initial encoding threshold
+     * @param minThreshold Minimal encoding threshold (for threshold decay)
+     * @param thresholdStep Decay step for threshold decay
+     * @param stepTrigger Sparse/Dense ratio that will trigger decay step. In range 0..100
+     * @param stepDelay Minimal number of iterations between decay steps
+     * @param shakeFrequency How ofter we'll be sending dense updates with lower threshold
+     * @param maxStaleness Maximal number of messages waiting to be sent, before training threads get blocked
+     */
+    public PipelinedWiredEncodingHandler(double threshold, double minThreshold, double thresholdStep,
+                    double stepTrigger, int stepDelay, int shakeFrequency, int maxStaleness) {
+        super(threshold, minThreshold, thresholdStep, stepTrigger, stepDelay, shakeFrequency);
+        if (maxStaleness < 1)
+            throw new IllegalArgumentException("maxStaleness should be positive value");
+
+        this.maxStaleness = maxStaleness;
+    }
+
+    protected synchronized void ensureStarted() {
+        if (sender != null)
+            return;
+
+        queue = new LinkedBlockingQueue<>(maxStaleness);
+        throwable = new AtomicThrowable();
+        lock = new Object();
+        pending = new AtomicLong(0);
+        messagesSent = new AtomicLong(0);
+        sendTime = new AtomicLong(0);
+        latency = new AtomicLong(0);
+        maxLatency = new AtomicLong(0);
+        stalenessSum = new AtomicLong(0);
+        maxObservedStaleness = new AtomicLong(0);
+        stallTime = new AtomicLong(0);
+
+        sender = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                sendLoop();
+            }
+        });
+        sender.setName("PipelinedUpdatesSender");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    protected void sendLoop() {
+        // transport might swallow interrupt, so sender field is checked as well
+        while (sender == Thread.currentThread() && !Thread.currentThread().isInterrupted()) {
+            QueuedMessage message;
+            try {
+                message = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (message == null)
+                continue;
+
+            try {
+                long time = System.nanoTime();
+                transmit(message.getMessage());
+                long now = System.nanoTime();
+
+                sendTime.addAndGet(now - time);
+                latency.addAndGet(now - message.getEnqueued());
+                updateMax(maxLatency, now - message.getEnqueued());
+                messagesSent.incrementAndGet();
+            } catch (Exception e) {
+                log.error("Failed to send updates", e);
+                throwable.setIfFirst(e);
+            } finally {
+                synchronized (lock) {
+                    pending.decrementAndGet();
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * This method puts given message into the outgoing queue. Blocks if maxStaleness messages are already waiting.
+     *
+     * @param message
+     */
+    @Override
+    protected void sendRemote(SilentUpdatesMessage message) {
+        ensureStarted();
+        checkThrowable();
+
+        // number of older messages that'll be sent before this one
+        long staleness = pending.incrementAndGet() - 1;
+        stalenessSum.addAndGet(staleness);
+        updateMax(maxObservedStaleness, staleness);
+
+        QueuedMessage queued = new QueuedMessage(message, System.nanoTime());
+        try {
+            if (!queue.offer(queued)) {
+                long time = System.nanoTime();
+                queue.put(queued);
+                stallTime.addAndGet(System.nanoTime() - time);
+            }
+        } catch (InterruptedException e) {
+            pending.decrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * This method does actual transmission of the message, and is called from the I/O thread only
+     *
+     * @param message
+     */
+    protected void transmit(SilentUpdatesMessage message) {
+        super.sendRemote(message);
+    }
+
+    /**
+     * This method blocks until all queued messages are sent
+     */
+    public void flush() {
+        if (sender == null)
+            return;
+
+        synchronized (lock) {
+            while (pending.get() > 0) {
+                try {
+                    lock.wait(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+
+        checkThrowable();
+    }
+
+    /**
+     * This method stops the I/O thread, and waits for it to finish. Messages that weren't sent yet are dropped,
+     * so flush() should be called first if they matter. The thread is started again on the next message.
+     */
+    public synchronized void shutdown() {
+        Thread thread = sender;
+        if (thread == null)
+            return;
+
+        sender = null;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+
+        queue.clear();
+        synchronized (lock) {
+            pending.set(0);
+            lock.notifyAll();
+        }
+    }
+
+    protected void checkThrowable() {
+        if (throwable.isTriggered())
+            throw new RuntimeException("Updates sender failed", throwable.get());
+    }
+
+    protected static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value));
+    }
+
+    /**
+     * @return number of messages sent so far
+     */
+    public long getMessagesSent() {
+        return messagesSent == null ? 0 : messagesSent.get();
+    }
+
+    /**
+     * @return average time spent in actual transmission of one message, in milliseconds
+     */
+    public double getAverageSendTimeMs() {
+        long sent = getMessagesSent();
+        return sent == 0 ? 0.0 : TimeUnit.NANOSECONDS.toMicros(sendTime.get()) / 1000.0 / sent;
+    }
+
+    /**
+     * @return average time between enqueueing of message and end of its transmission, in milliseconds
+     */
+    public double getAverageLatencyMs() {
+        long sent = getMessagesSent();
+        return sent == 0 ? 0.0 : TimeUnit.NANOSECONDS.toMicros(latency.get()) / 1000.0 / sent;
+    }
+
+    /**
+     * @return maximal time between enqueueing of message and end of its transmission, in milliseconds
+     */
+    public double getMaxLatencyMs() {
+        return maxLatency == null ? 0.0 : TimeUnit.NANOSECONDS.toMicros(maxLatency.get()) / 1000.0;
+    }
+
+    /**
+     * @return average number of older messages waiting to be sent, at the moment new message was enqueued
+     */
+    public double getAverageStaleness() {
+        long sent = getMessagesSent();
+        return sent == 0 ? 0.0 : stalenessSum.get() / (double) sent;
+    }
+
+    /**
+     * @return maximal number of older messages waiting to be sent, at the moment new message was enqueued
+     */
+    public long getMaxStaleness() {
+        return maxObservedStaleness == null ? 0 : maxObservedStaleness.get();
+    }
+
+    /**
+     * @return total time training threads spent blocked on full outgoing queue, in milliseconds
+     */
+    public long getStallTimeMs() {
+        return stallTime == null ? 0 : TimeUnit.NANOSECONDS.toMillis(stallTime.get());
+    }
+
+    /**
+     * This method resets all metrics
+     */
+    public void resetStats() {
+        if (sender == null)
+            return;
+
+        messagesSent.set(0);
+        sendTime.set(0);
+        latency.set(0);
+        maxLatency.set(0);
+        stalenessSum.set(0);
+        maxObservedStaleness.set(0);
+        stallTime.set(0);
+    }
+
+    /**
+     * @return metrics as String, suitable for logging
+     */
+    public String statsAsString() {
+        return String.format("messages sent: %d; send time: %.3f ms; latency: %.3f ms (max: %.3f ms); "
+                        + "staleness: %.2f (max: %d, limit: %d); stall time: %d ms", getMessagesSent(),
+                        getAverageSendTimeMs(), getAverageLatencyMs(), getMaxLatencyMs(), getAverageStaleness(),
+                        getMaxStaleness(), maxStaleness, getStallTimeMs());
+    }
+
+    @AllArgsConstructor
+    @Getter
+    protected static class QueuedMessage {
+        private final SilentUpdatesMessage message;
+        private final long enqueued;
+    }
+}
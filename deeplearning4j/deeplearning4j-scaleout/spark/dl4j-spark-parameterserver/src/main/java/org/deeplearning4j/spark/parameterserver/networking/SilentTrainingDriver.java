@@ -4,9 +4,11 @@ import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.exception.DL4JInvalidConfigException;
 import org.deeplearning4j.optimize.api.StepFunction;
+import org.deeplearning4j.optimize.solvers.accumulation.AdaptiveThresholdEncoder;
 import org.deeplearning4j.optimize.solvers.accumulation.FancyBlockingQueue;
 import org.deeplearning4j.optimize.solvers.accumulation.GradientsAccumulator;
 import org.deeplearning4j.spark.parameterserver.networking.messages.SilentUpdatesMessage;
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.memory.MemoryWorkspace;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.compression.ThresholdCompression;
@@ -149,6 +151,15 @@ public class SilentTrainingDriver implements TrainingDriver<SilentUpdatesMessage
                 } else if (encoding == ThresholdCompression.BITMAP_ENCODING) {
                     Nd4j.getExecutioner().bitmapDecode(message.getUpdates(), updates);
                     denseCounter.incrementAndGet();
+                } else if (encoding == AdaptiveThresholdEncoder.ADAPTIVE_ENCODING) {
+                    AdaptiveThresholdEncoder.decode(message.getUpdates(), updates);
+
+                    // inner encoding follows the header and (length, threshold) pair of each segment
+                    DataBuffer buffer = message.getUpdates().data();
+                    if (buffer.getInt(4 + 2 * buffer.getInt(0) + 3) == ThresholdCompression.BITMAP_ENCODING)
+                        denseCounter.incrementAndGet();
+                    else
+                        sparseCounter.incrementAndGet();
                 } else
                     throw new DL4JInvalidConfigException("Unknown compression header received: " + encoding);
 
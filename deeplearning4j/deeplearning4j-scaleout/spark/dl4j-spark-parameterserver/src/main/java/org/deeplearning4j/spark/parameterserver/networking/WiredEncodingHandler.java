@@ -93,12 +93,20 @@ public class WiredEncodingHandler extends EncodingHandler {
         try (MemoryWorkspace wsO = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
             long updateId = updatesCounter.getAndIncrement();
 
-            VoidParameterServer.getInstance().execDistributedImmediately(
-                            new SilentUpdatesMessage(message.unsafeDuplication(), updateId));
+            sendRemote(new SilentUpdatesMessage(message.unsafeDuplication(), updateId));
         }
 
 
         // heere we update local queue
         super.sendMessage(message);
     }
+
+    /**
+     * This method sends given encoded updates message to other executors
+     *
+     * @param message
+     */
+    protected void sendRemote(SilentUpdatesMessage message) {
+        VoidParameterServer.getInstance().execDistributedImmediately(message);
+    }
 }
@@ -8,6 +8,7 @@ import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.optimize.listeners.SleepyTrainingListener;
+import org.deeplearning4j.optimize.solvers.accumulation.AdaptiveThresholdEncoder;
 import org.deeplearning4j.optimize.solvers.accumulation.EncodedGradientsAccumulator;
 import org.deeplearning4j.optimize.solvers.accumulation.MessageHandler;
 import org.deeplearning4j.parallelism.ParallelWrapper;
@@ -15,6 +16,7 @@ import org.deeplearning4j.spark.parameterserver.conf.SharedTrainingConfiguration
 import org.deeplearning4j.spark.parameterserver.iterators.VirtualDataSetIterator;
 import org.deeplearning4j.spark.parameterserver.iterators.VirtualIterator;
 import org.deeplearning4j.spark.parameterserver.iterators.VirtualMultiDataSetIterator;
+import org.deeplearning4j.spark.parameterserver.networking.PipelinedWiredEncodingHandler;
 import org.deeplearning4j.spark.parameterserver.networking.SilentTrainingDriver;
 import org.deeplearning4j.spark.parameterserver.networking.WiredEncodingHandler;
 import org.deeplearning4j.spark.parameterserver.networking.messages.SilentIntroductoryMessage;
@@ -63,6 +65,7 @@ public class SharedTrainingWrapper {
     protected Model originalModel;
 
     protected SilentTrainingDriver driver;
+    protected PipelinedWiredEncodingHandler pipelinedHandler;
 
     protected SharedTrainingWrapper() {
         init();
@@ -169,10 +172,33 @@ public class SharedTrainingWrapper {
                 if (model == null)
                     throw new DL4JInvalidConfigException("No model was defined for training");
 
-                MessageHandler handler = new WiredEncodingHandler(trainingConfiguration.getThreshold(),
-                                trainingConfiguration.getMinThreshold(), trainingConfiguration.getThresholdStep(),
-                                trainingConfiguration.getStepTrigger(), trainingConfiguration.getStepDelay(),
-                                trainingConfiguration.getShakeFrequency());
+                MessageHandler handler;
+                if (trainingConfiguration.getMaxUpdatesStaleness() > 0) {
+                    // updates will be sent over the wire by separate thread, while next iteration is computed
+                    handler = new PipelinedWiredEncodingHandler(trainingConfiguration.getThreshold(),
+                                    trainingConfiguration.getMinThreshold(), trainingConfiguration.getThresholdStep(),
+                                    trainingConfiguration.getStepTrigger(), trainingConfiguration.getStepDelay(),
+                                    trainingConfiguration.getShakeFrequency(),
+                                    trainingConfiguration.getMaxUpdatesStaleness());
+                } else {
+                    handler = new WiredEncodingHandler(trainingConfiguration.getThreshold(),
+                                    trainingConfiguration.getMinThreshold(), trainingConfiguration.getThresholdStep(),
+                                    trainingConfiguration.getStepTrigger(), trainingConfiguration.getStepDelay(),
+                                    trainingConfiguration.getShakeFrequency());
+                }
+
+                if (trainingConfiguration.getTargetSparsity() > 0.0) {
+                    // one threshold per layer, adapted to keep sparsity of updates stable
+                    AdaptiveThresholdEncoder encoder = new AdaptiveThresholdEncoder.Builder(model)
+                                    .initialThreshold(trainingConfiguration.getThreshold())
+                                    .thresholdLimits(Math.min(trainingConfiguration.getMinThreshold(),
+                                                    trainingConfiguration.getThreshold()), 1.0)
+                                    .targetSparsity(trainingConfiguration.getTargetSparsity())
+                                    .bitmapDensity(trainingConfiguration.getBitmapDensity())
+                                    .residualDecay(trainingConfiguration.getResidualDecay()).build();
+
+                    ((WiredEncodingHandler) handler).setAdaptiveEncoder(encoder);
+                }
 
                 // this accumulator will provide sharing gradients over network, via WiredEncodedHandler. But we create it only once
                 if (accumulator == null) {
@@ -189,6 +215,9 @@ public class SharedTrainingWrapper {
                     val bufferSize = trainingConfiguration.getBufferSize() > 0 ? trainingConfiguration.getBufferSize()
                                     : EncodedGradientsAccumulator.getOptimalBufferSize(model, numWorkers, 2);
 
+                    if (handler instanceof PipelinedWiredEncodingHandler)
+                        pipelinedHandler = (PipelinedWiredEncodingHandler) handler;
+
                     accumulator = new EncodedGradientsAccumulator.Builder(numWorkers).messageHandler(handler)
                                     .encodingThreshold(trainingConfiguration.getThreshold())
                                     .memoryParameters(bufferSize, queueSize).build();
@@ -310,10 +339,21 @@ public class SharedTrainingWrapper {
             }
 
 
+            // all updates produced during this split should leave this executor before we report results
+            if (pipelinedHandler != null) {
+                pipelinedHandler.flush();
+                log.info("Pipelined updates: {}", pipelinedHandler.statsAsString());
+                pipelinedHandler.resetStats();
+            }
+
             // conditionally shutdown & reset ParallelWrapper
             if (trainingConfiguration.isEpochReset()) {
                 wrapper.shutdown();
                 wrapper = null;
+
+                // updates sender will be started again with the first message of the next split
+                if (pipelinedHandler != null)
+                    pipelinedHandler.shutdown();
             }
 
             // reset iterators too
@@ -367,6 +407,18 @@ public class SharedTrainingWrapper {
         // we're going to save this dataset into VirtualMultiDataSetIterator
     }
 
+    /**
+     * This method shuts down ParallelWrapper, and stops the updates sender thread, if any
+     */
+    public void shutdown() {
+        if (wrapper != null) {
+            wrapper.shutdown();
+            wrapper = null;
+        }
+
+        if (pipelinedHandler != null)
+            pipelinedHandler.shutdown();
+    }
 
     public void blockUntilFinished() throws InterruptedException {
         if (observer.get() != null)
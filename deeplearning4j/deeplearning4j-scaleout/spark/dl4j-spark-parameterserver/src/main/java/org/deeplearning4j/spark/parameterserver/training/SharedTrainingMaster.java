@@ -75,6 +75,10 @@ public class SharedTrainingMaster extends BaseTrainingMaster<SharedTrainingResul
     protected double stepTrigger = 0.05;
     protected int stepDelay = 50;
     protected int shakeFrequency;
+    protected int maxUpdatesStaleness = 0;
+    protected double targetSparsity = 0.0;
+    protected double bitmapDensity = 1.0 / 16;
+    protected double residualDecay = 0.0;
 
     protected Repartition repartition;
     protected RepartitionStrategy repartitionStrategy;
@@ -205,7 +209,9 @@ public class SharedTrainingMaster extends BaseTrainingMaster<SharedTrainingResul
         SharedTrainingConfiguration configuration = SharedTrainingConfiguration.builder().threshold(threshold)
                         .minThreshold(minThreshold).shakeFrequency(shakeFrequency).thresholdStep(thresholdStep)
                         .stepTrigger(stepTrigger).stepDelay(stepDelay).voidConfiguration(voidConfiguration)
-                        .debugLongerIterations(debugLongerIterations).numberOfWorkersPerNode(numWorkersPerNode).build();
+                        .debugLongerIterations(debugLongerIterations).numberOfWorkersPerNode(numWorkersPerNode)
+                        .maxUpdatesStaleness(maxUpdatesStaleness).targetSparsity(targetSparsity)
+                        .bitmapDensity(bitmapDensity).residualDecay(residualDecay).build();
 
         if (collectTrainingStats)
             stats.logBroadcastStart();
@@ -232,7 +238,9 @@ public class SharedTrainingMaster extends BaseTrainingMaster<SharedTrainingResul
         SharedTrainingConfiguration configuration = SharedTrainingConfiguration.builder().threshold(threshold)
                         .minThreshold(minThreshold).shakeFrequency(shakeFrequency).thresholdStep(thresholdStep)
                         .voidConfiguration(voidConfiguration).debugLongerIterations(debugLongerIterations)
-                        .numberOfWorkersPerNode(numWorkersPerNode).build();
+                        .numberOfWorkersPerNode(numWorkersPerNode).maxUpdatesStaleness(maxUpdatesStaleness)
+                        .targetSparsity(targetSparsity).bitmapDensity(bitmapDensity).residualDecay(residualDecay)
+                        .build();
 
         if (collectTrainingStats)
             stats.logBroadcastStart();
@@ -946,6 +954,10 @@ public class SharedTrainingMaster extends BaseTrainingMaster<SharedTrainingResul
         protected int batchSize;
         protected long debugLongerIterations = 0L;
         protected int numWorkersPerNode = -1;
+        protected int maxUpdatesStaleness = 0;
+        protected double targetSparsity = 0.0;
+        protected double bitmapDensity = 1.0 / 16;
+        protected double residualDecay = 0.0;
 
 
         public Builder(int rddDataSetNumExamples) {
@@ -1200,6 +1212,63 @@ public class SharedTrainingMaster extends BaseTrainingMaster<SharedTrainingResul
             return this;
         }
 
+        /**
+         * This method enables pipelined updates: encoded updates are sent to other executors from a dedicated I/O
+         * thread, while training threads proceed with the next iteration. Network time is hidden this way, at the cost
+         * of remote executors receiving updates a bit later.
+         *
+         * Default value: 0 (disabled, updates are sent within the training iteration)
+         *
+         * @param maxStaleness Maximal number of update messages queued for sending, before training threads get blocked
+         * @return
+         */
+        public Builder pipelinedUpdates(int maxStaleness) {
+            if (maxStaleness < 0)
+                throw new DL4JInvalidConfigException("maxStaleness should be non-negative value");
+
+            this.maxUpdatesStaleness = maxStaleness;
+            return this;
+        }
+
+        /**
+         * This method enables per-layer adaptive thresholds: each layer gets its own threshold, adapted on each
+         * iteration to keep fraction of encoded elements close to targetSparsity. Updates are bitmap encoded
+         * once they get denser than 1/16. Initial and minimal thresholds are taken from the threshold settings.
+         *
+         * Default value: 0.0 (disabled)
+         *
+         * @param targetSparsity Fraction of elements within each layer, encoded per iteration. In range (0, 1]
+         * @return
+         */
+        public Builder adaptiveThreshold(double targetSparsity) {
+            return adaptiveThreshold(targetSparsity, 1.0 / 16, 0.0);
+        }
+
+        /**
+         * This method enables per-layer adaptive thresholds: each layer gets its own threshold, adapted on each
+         * iteration to keep fraction of encoded elements close to targetSparsity.
+         *
+         * @param targetSparsity Fraction of elements within each layer, encoded per iteration. In range (0, 1]
+         * @param bitmapDensity Fraction of encoded elements, starting from which bitmap encoding is used
+         * @param residualDecay Fraction of not yet sent residual, dropped after each iteration. In range [0, 1)
+         * @return
+         */
+        public Builder adaptiveThreshold(double targetSparsity, double bitmapDensity, double residualDecay) {
+            if (targetSparsity <= 0.0 || targetSparsity > 1.0)
+                throw new DL4JInvalidConfigException("targetSparsity should be in range (0, 1]");
+
+            if (bitmapDensity <= 0.0)
+                throw new DL4JInvalidConfigException("bitmapDensity should have positive value");
+
+            if (residualDecay < 0.0 || residualDecay >= 1.0)
+                throw new DL4JInvalidConfigException("residualDecay should be in range [0, 1)");
+
+            this.targetSparsity = targetSparsity;
+            this.bitmapDensity = bitmapDensity;
+            this.residualDecay = residualDecay;
+            return this;
+        }
+
         /**
          * Optional method: Transport implementation to be used as TransportType.CUSTOM for VoidParameterAveraging method
          *
@@ -1219,6 +1288,11 @@ public class SharedTrainingMaster extends BaseTrainingMaster<SharedTrainingResul
             if (transport != null)
                 master.transport = this.transport;
 
+            master.maxUpdatesStaleness = this.maxUpdatesStaleness;
+            master.targetSparsity = this.targetSparsity;
+            master.bitmapDensity = this.bitmapDensity;
+            master.residualDecay = this.residualDecay;
+
             return master;
         }
     }
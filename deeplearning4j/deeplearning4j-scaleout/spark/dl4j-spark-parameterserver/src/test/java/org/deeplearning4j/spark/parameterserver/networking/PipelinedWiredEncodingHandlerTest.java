@@ -0,0 +1,109 @@
+package org.deeplearning4j.spark.parameterserver.networking;
+
+import org.deeplearning4j.spark.parameterserver.networking.messages.SilentUpdatesMessage;
+import org.junit.Test;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author raver119@gmail.com
+ */
+public class PipelinedWiredEncodingHandlerTest {
+
+    @Test
+    public void testPipelinedSend1() throws Exception {
+        SlowHandler handler = new SlowHandler(2, 20);
+
+        for (int i = 0; i < 10; i++)
+            handler.sendRemote(new SilentUpdatesMessage(Nd4j.create(10), i));
+
+        handler.flush();
+
+        // all messages are sent, in original order
+        assertEquals(10, handler.sent.size());
+        for (int i = 0; i < 10; i++)
+            assertEquals(i, handler.sent.get(i).longValue());
+
+        // bounded staleness: queue of 2, plus 1 message being transmitted
+        assertTrue(handler.maxInFlight.get() <= 3);
+        assertTrue(handler.getMaxStaleness() <= 3);
+        assertTrue(handler.getMaxStaleness() >= 1);
+
+        assertEquals(10, handler.getMessagesSent());
+        assertTrue(handler.getAverageSendTimeMs() >= 15.0);
+        assertTrue(handler.getAverageLatencyMs() >= handler.getAverageSendTimeMs());
+        assertTrue(handler.getStallTimeMs() > 0);
+
+        handler.resetStats();
+        assertEquals(0, handler.getMessagesSent());
+    }
+
+    @Test
+    public void testShutdown1() throws Exception {
+        SlowHandler handler = new SlowHandler(2, 20);
+        handler.sendRemote(new SilentUpdatesMessage(Nd4j.create(10), 0));
+        handler.flush();
+
+        Thread sender = handler.sender;
+        assertTrue(sender.isAlive());
+
+        handler.shutdown();
+        assertFalse(sender.isAlive());
+        assertNull(handler.sender);
+
+        // sender is started again on demand
+        handler.sendRemote(new SilentUpdatesMessage(Nd4j.create(10), 1));
+        handler.flush();
+        assertEquals(2, handler.sent.size());
+        handler.shutdown();
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testPipelinedSendFailure1() throws Exception {
+        PipelinedWiredEncodingHandler handler = new PipelinedWiredEncodingHandler(1e-3, 1e-5, 1e-5, 0.0, 3, 0, 2) {
+            @Override
+            protected void transmit(SilentUpdatesMessage message) {
+                throw new IllegalStateException("Network is down");
+            }
+        };
+
+        handler.sendRemote(new SilentUpdatesMessage(Nd4j.create(10), 0));
+
+        // failure on I/O thread should be reported back to training thread
+        handler.flush();
+    }
+
+    protected static class SlowHandler extends PipelinedWiredEncodingHandler {
+        protected final long delay;
+        protected final List<Long> sent = new CopyOnWriteArrayList<>();
+        protected final AtomicInteger maxInFlight = new AtomicInteger(0);
+
+        protected SlowHandler(int maxStaleness, long delay) {
+            super(1e-3, 1e-5, 1e-5, 0.0, 3, 0, maxStaleness);
+            this.delay = delay;
+        }
+
+        @Override
+        protected void sendRemote(SilentUpdatesMessage message) {
+            super.sendRemote(message);
+            int inFlight = (int) pending.get();
+            if (inFlight > maxInFlight.get())
+                maxInFlight.set(inFlight);
+        }
+
+        @Override
+        protected void transmit(SilentUpdatesMessage message) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            sent.add(message.getUpdateId());
+        }
+    }
+}
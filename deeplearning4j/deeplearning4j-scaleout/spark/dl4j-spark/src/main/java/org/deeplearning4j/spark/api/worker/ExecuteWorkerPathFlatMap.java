@@ -23,7 +23,17 @@ public class ExecuteWorkerPathFlatMap<R extends TrainingResult>
                 extends BaseFlatMapFunctionAdaptee<Iterator<String>, R> {
 
     public ExecuteWorkerPathFlatMap(TrainingWorker<R> worker) {
-        super(new ExecuteWorkerPathFlatMapAdapter<>(worker));
+        this(worker, false, null);
+    }
+
+    /**
+     * @param worker              Training worker
+     * @param localCache          If true: load the serialized objects via the executor-local
+     *                            {@link org.deeplearning4j.spark.data.LocalMinibatchCache}
+     * @param localCacheDirectory Base directory for the local cache. May be null (default directory)
+     */
+    public ExecuteWorkerPathFlatMap(TrainingWorker<R> worker, boolean localCache, String localCacheDirectory) {
+        super(new ExecuteWorkerPathFlatMapAdapter<>(worker, localCache, localCacheDirectory));
     }
 }
 
@@ -38,8 +48,12 @@ public class ExecuteWorkerPathFlatMap<R extends TrainingResult>
 class ExecuteWorkerPathFlatMapAdapter<R extends TrainingResult> implements FlatMapFunctionAdapter<Iterator<String>, R> {
     private final FlatMapFunctionAdapter<Iterator<DataSet>, R> workerFlatMap;
     private final int maxDataSetObjects;
+    private final boolean localCache;
+    private final String localCacheDirectory;
 
-    public ExecuteWorkerPathFlatMapAdapter(TrainingWorker<R> worker) {
+    public ExecuteWorkerPathFlatMapAdapter(TrainingWorker<R> worker, boolean localCache, String localCacheDirectory) {
+        this.localCache = localCache;
+        this.localCacheDirectory = localCacheDirectory;
         this.workerFlatMap = new ExecuteWorkerFlatMapAdapter<>(worker);
 
         //How many dataset objects of size 'dataSetObjectNumExamples' should we load?
@@ -68,6 +82,8 @@ class ExecuteWorkerPathFlatMapAdapter<R extends TrainingResult> implements FlatM
             list.add(iter.next());
         }
 
-        return workerFlatMap.call(new PathSparkDataSetIterator(list.iterator()));
+        PathSparkDataSetIterator iterator = new PathSparkDataSetIterator(list.iterator());
+        iterator.setLocalCache(localCache, localCacheDirectory);
+        return workerFlatMap.call(iterator);
     }
 }
@@ -23,7 +23,17 @@ public class ExecuteWorkerPathMDSFlatMap<R extends TrainingResult>
                 extends BaseFlatMapFunctionAdaptee<Iterator<String>, R> {
 
     public ExecuteWorkerPathMDSFlatMap(TrainingWorker<R> worker) {
-        super(new ExecuteWorkerPathMDSFlatMapAdapter<>(worker));
+        this(worker, false, null);
+    }
+
+    /**
+     * @param worker              Training worker
+     * @param localCache          If true: load the serialized objects via the executor-local
+     *                            {@link org.deeplearning4j.spark.data.LocalMinibatchCache}
+     * @param localCacheDirectory Base directory for the local cache. May be null (default directory)
+     */
+    public ExecuteWorkerPathMDSFlatMap(TrainingWorker<R> worker, boolean localCache, String localCacheDirectory) {
+        super(new ExecuteWorkerPathMDSFlatMapAdapter<>(worker, localCache, localCacheDirectory));
     }
 }
 
@@ -39,8 +49,12 @@ class ExecuteWorkerPathMDSFlatMapAdapter<R extends TrainingResult>
                 implements FlatMapFunctionAdapter<Iterator<String>, R> {
     private final FlatMapFunctionAdapter<Iterator<MultiDataSet>, R> workerFlatMap;
     private final int maxDataSetObjects;
+    private final boolean localCache;
+    private final String localCacheDirectory;
 
-    public ExecuteWorkerPathMDSFlatMapAdapter(TrainingWorker<R> worker) {
+    public ExecuteWorkerPathMDSFlatMapAdapter(TrainingWorker<R> worker, boolean localCache, String localCacheDirectory) {
+        this.localCache = localCache;
+        this.localCacheDirectory = localCacheDirectory;
         this.workerFlatMap = new ExecuteWorkerMultiDataSetFlatMapAdapter<>(worker);
 
         //How many dataset objects of size 'dataSetObjectNumExamples' should we load?
@@ -69,6 +83,8 @@ class ExecuteWorkerPathMDSFlatMapAdapter<R extends TrainingResult>
             list.add(iter.next());
         }
 
-        return workerFlatMap.call(new PathSparkMultiDataSetIterator(list.iterator()));
+        PathSparkMultiDataSetIterator iterator = new PathSparkMultiDataSetIterator(list.iterator());
+        iterator.setLocalCache(localCache, localCacheDirectory);
+        return workerFlatMap.call(iterator);
     }
 }
@@ -0,0 +1,146 @@
+package org.deeplearning4j.spark.data;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.deeplearning4j.util.UIDProvider;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An executor-local cache for serialized DataSet/MultiDataSet objects (as saved with DataSet.save(OutputStream) or
+ * MultiDataSet.save(OutputStream)) that are loaded from a path - for example, on HDFS.<br>
+ * The first time a path is loaded in a JVM, the file is copied as-is to local disk. Subsequent loads of the same path
+ * (in later epochs, or later fit calls) read the local copy, and don't touch remote storage.<br>
+ * Files are only reused within the JVM that cached them: each JVM uses its own subdirectory of the cache directory,
+ * which is deleted on JVM shutdown.
+ *
+ * @author Alex Black
+ */
+@Slf4j
+public class LocalMinibatchCache {
+
+    public static final int BUFFER_SIZE = 4194304; //4 MB
+
+    private static final Map<String, File> cached = new ConcurrentHashMap<>();
+    private static final Map<String, File> directories = new ConcurrentHashMap<>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private LocalMinibatchCache() {}
+
+    /**
+     * @return Default base cache directory: {java.io.tmpdir}/dl4j-minibatch-cache
+     */
+    public static String defaultDirectory() {
+        return new File(System.getProperty("java.io.tmpdir"), "dl4j-minibatch-cache").getAbsolutePath();
+    }
+
+    /**
+     * Open the given path for reading, via the local cache. If the path is not yet cached in this JVM, it is copied
+     * to local disk first.
+     *
+     * @param path       Path of the serialized object
+     * @param fileSystem File system for the path
+     * @param baseDir    Base cache directory, or null to use {@link #defaultDirectory()}
+     * @return Input stream for the cached local copy. Should be closed by the caller
+     */
+    public static InputStream open(@NonNull String path, @NonNull FileSystem fileSystem, String baseDir)
+                    throws IOException {
+        File dir = directory(baseDir);
+        String key = dir.getAbsolutePath() + "|" + path;
+
+        File local = cached.get(key);
+        if (local != null && local.exists()) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            local = copyToLocal(path, fileSystem, dir);
+            cached.put(key, local);
+        }
+
+        return new BufferedInputStream(new FileInputStream(local), BUFFER_SIZE);
+    }
+
+    private static File copyToLocal(String path, FileSystem fileSystem, File dir) throws IOException {
+        String name = UUID.nameUUIDFromBytes(path.getBytes(StandardCharsets.UTF_8)).toString() + ".bin";
+        File local = new File(dir, name);
+        //Copy to a temporary file first, so concurrent readers never see a partially written file
+        File temp = File.createTempFile(name, ".tmp", dir);
+        try (FSDataInputStream in = fileSystem.open(new Path(path), BUFFER_SIZE);
+                        OutputStream out = new BufferedOutputStream(new FileOutputStream(temp), BUFFER_SIZE)) {
+            IOUtils.copyLarge(in, out);
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        Files.move(temp.toPath(), local.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return local;
+    }
+
+    private static File directory(String baseDir) throws IOException {
+        String base = (baseDir == null ? defaultDirectory() : baseDir);
+        File dir = directories.get(base);
+        if (dir != null)
+            return dir;
+
+        synchronized (directories) {
+            dir = directories.get(base);
+            if (dir != null)
+                return dir;
+
+            dir = new File(base, UIDProvider.getJVMUID());
+            if (!dir.exists() && !dir.mkdirs())
+                throw new IOException("Could not create local cache directory: " + dir.getAbsolutePath());
+
+            final File toDelete = dir;
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    FileUtils.deleteQuietly(toDelete);
+                }
+            }));
+
+            log.info("Caching minibatches locally in directory: {}", dir.getAbsolutePath());
+            directories.put(base, dir);
+            return dir;
+        }
+    }
+
+    /**
+     * @return Number of loads served from the local cache, in this JVM
+     */
+    public static long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Number of loads that required a copy from remote storage, in this JVM
+     */
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Delete all cached files of this JVM
+     */
+    public static void clear() {
+        synchronized (directories) {
+            for (File dir : directories.values())
+                FileUtils.deleteQuietly(dir);
+            directories.clear();
+            cached.clear();
+        }
+    }
+}
@@ -29,6 +29,8 @@ import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingAggregationTuple;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingElementAddFunction;
 import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingElementCombineFunction;
+import org.deeplearning4j.spark.impl.paramavg.aggregator.ParameterAveragingPartitionReduceFunction;
+import org.deeplearning4j.spark.impl.paramavg.compression.ParameterDeltaEncoder;
 import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingMasterStats;
 import org.deeplearning4j.spark.util.SparkUtils;
 import org.deeplearning4j.util.UIDProvider;
@@ -74,6 +76,10 @@ public class ParameterAveragingTrainingMaster
     protected int aggregationDepth;
     protected int prefetchNumBatches;
     protected int iterationCount = 0;
+    protected Double deltaCompressionThreshold;
+    protected int deltaCompressionMaxPasses;
+    protected boolean localMinibatchCache;
+    protected String localCacheDirectory;
 
     protected Collection<TrainingHook> trainingHookList;
 
@@ -101,6 +107,10 @@ public class ParameterAveragingTrainingMaster
         this.rddTrainingApproach = builder.rddTrainingApproach;
         this.exportDirectory = builder.exportDirectory;
         this.trainingHookList = builder.trainingHooks;
+        this.deltaCompressionThreshold = builder.deltaCompressionThreshold;
+        this.deltaCompressionMaxPasses = builder.deltaCompressionMaxPasses;
+        this.localMinibatchCache = builder.localMinibatchCache;
+        this.localCacheDirectory = builder.localCacheDirectory;
 
         if (builder.rngSeed == null) {
             this.rng = new Random();
@@ -263,7 +273,7 @@ public class ParameterAveragingTrainingMaster
         WorkerConfiguration configuration = new WorkerConfiguration(false, rddDataSetNumExamples, batchSizePerWorker,
                         averagingFrequency, prefetchNumBatches, collectTrainingStats);
         return new ParameterAveragingTrainingWorker(broadcast, saveUpdater, configuration, trainingHookList, listeners,
-                        getRouterProvider());
+                        getRouterProvider(), deltaCompressionThreshold, deltaCompressionMaxPasses, trainingMasterUID);
     }
 
     @Override
@@ -280,7 +290,7 @@ public class ParameterAveragingTrainingMaster
         WorkerConfiguration configuration = new WorkerConfiguration(true, rddDataSetNumExamples, batchSizePerWorker,
                         averagingFrequency, prefetchNumBatches, collectTrainingStats);
         return new ParameterAveragingTrainingWorker(broadcast, saveUpdater, configuration, trainingHookList, listeners,
-                        getRouterProvider());
+                        getRouterProvider(), deltaCompressionThreshold, deltaCompressionMaxPasses, trainingMasterUID);
     }
 
     protected int numObjectsEachWorker(int numExamplesEachRddObject) {
@@ -704,9 +714,11 @@ public class ParameterAveragingTrainingMaster
 
         FlatMapFunction<Iterator<String>, ParameterAveragingTrainingResult> function;
         if (network != null)
-            function = new ExecuteWorkerPathFlatMap<>(getWorkerInstance(network));
+            function = new ExecuteWorkerPathFlatMap<>(getWorkerInstance(network), localMinibatchCache,
+                            localCacheDirectory);
         else
-            function = new ExecuteWorkerPathFlatMap<>(getWorkerInstance(graph));
+            function = new ExecuteWorkerPathFlatMap<>(getWorkerInstance(graph), localMinibatchCache,
+                            localCacheDirectory);
 
         JavaRDD<ParameterAveragingTrainingResult> result = splitData.mapPartitions(function);
         processResults(network, graph, result, splitNum, numSplits);
@@ -733,7 +745,8 @@ public class ParameterAveragingTrainingMaster
 
 
         FlatMapFunction<Iterator<String>, ParameterAveragingTrainingResult> function =
-                        new ExecuteWorkerPathMDSFlatMap<>(getWorkerInstance(graph));
+                        new ExecuteWorkerPathMDSFlatMap<>(getWorkerInstance(graph), localMinibatchCache,
+                                        localCacheDirectory);
 
         JavaRDD<ParameterAveragingTrainingResult> result = splitData.mapPartitions(function);
         processResults(null, graph, result, splitNum, numSplits);
@@ -797,14 +810,35 @@ public class ParameterAveragingTrainingMaster
 
         if (collectTrainingStats)
             stats.logAggregateStartTime();
-        ParameterAveragingAggregationTuple tuple =
-                        results.treeAggregate(null, new ParameterAveragingElementAddFunction(),
-                                        new ParameterAveragingElementCombineFunction(), this.aggregationDepth);
-        INDArray params = tuple.getParametersSum();
+        ParameterAveragingAggregationTuple tuple;
+        long aggregateBytes;
+        if (deltaCompressionThreshold == null) {
+            tuple = results.treeAggregate(null, new ParameterAveragingElementAddFunction(),
+                            new ParameterAveragingElementCombineFunction(), this.aggregationDepth);
+            INDArray p = tuple.getParametersSum();
+            aggregateBytes = (p == null ? 0 : (long) tuple.getAggregationsCount() * p.lengthLong()
+                            * Nd4j.sizeOfDataType(p.data().dataType()));
+        } else {
+            tuple = aggregateCompressed(results);
+            aggregateBytes = tuple.getEncodedBytes()
+                            + ParameterDeltaEncoder.sizeBytes(tuple.getEncodedParameterDeltas());
+        }
         int aggCount = tuple.getAggregationsCount();
         SparkTrainingStats aggregatedStats = tuple.getSparkTrainingStats();
-        if (collectTrainingStats)
+        if (collectTrainingStats) {
             stats.logAggregationEndTime();
+            stats.logAggregateBytes(aggregateBytes);
+        }
+
+        INDArray params = tuple.getParametersSum();
+        if (tuple.getEncodedParameterDeltas() != null) {
+            //Averaged delta, in units of the threshold: params + sum(steps) * threshold / count
+            INDArray current = (network != null ? network.getNetwork().params() : graph.getNetwork().params());
+            INDArray steps = Nd4j.zeros(1, current.length());
+            ParameterDeltaEncoder.decode(tuple.getEncodedParameterDeltas(), steps);
+            //Multiply by count here, as params are divided by the count below
+            params = steps.muli(deltaCompressionThreshold).addi(current.mul(aggCount));
+        }
 
 
         if (collectTrainingStats)
@@ -878,6 +912,31 @@ public class ParameterAveragingTrainingMaster
 
 
 
+    /**
+     * Aggregation with delta compression: results in the same JVM are first summed locally (where possible), then
+     * the encoded sums are tree aggregated
+     */
+    protected ParameterAveragingAggregationTuple aggregateCompressed(JavaRDD<ParameterAveragingTrainingResult> results) {
+        results.persist(StorageLevel.MEMORY_ONLY());
+        results.count();
+
+        //Coalescing without a shuffle groups the (now cached) partitions by location: i.e., one partition per executor
+        int numExecutors = Math.max(1, results.context().getExecutorMemoryStatus().size() - 1);
+        JavaRDD<ParameterAveragingTrainingResult> local =
+                        (results.getNumPartitions() > numExecutors ? results.coalesce(numExecutors) : results);
+        JavaRDD<ParameterAveragingAggregationTuple> preReduced =
+                        local.mapPartitions(new ParameterAveragingPartitionReduceFunction());
+
+        ParameterAveragingElementCombineFunction combine = new ParameterAveragingElementCombineFunction();
+        ParameterAveragingAggregationTuple tuple = preReduced.treeAggregate(null, combine, combine, aggregationDepth);
+        results.unpersist();
+        if (tuple == null) {
+            //No data in any partition
+            return new ParameterAveragingAggregationTuple(null, null, 0.0, 0, null, null, null, null, null, 0);
+        }
+        return tuple;
+    }
+
     protected StatsStorageRouterProvider getRouterProvider() {
         if (statsStorage == null)
             return null; //Not needed
@@ -901,6 +960,10 @@ public class ParameterAveragingTrainingMaster
         protected String exportDirectory = null;
         protected Long rngSeed;
         protected Collection<TrainingHook> trainingHooks;
+        protected Double deltaCompressionThreshold;
+        protected int deltaCompressionMaxPasses = 16;
+        protected boolean localMinibatchCache = false;
+        protected String localCacheDirectory = null;
 
 
         /**
@@ -1128,6 +1191,64 @@ public class ParameterAveragingTrainingMaster
             return this;
         }
 
+        /**
+         * Enable delta compression, with a maximum of 16 encoding passes. See {@link #deltaCompression(double, int)}
+         *
+         * @param threshold Encoding threshold
+         */
+        public Builder deltaCompression(double threshold) {
+            return deltaCompression(threshold, 16);
+        }
+
+        /**
+         * Enable delta compression: instead of the full parameters, workers return threshold or bitmap encoded
+         * parameter deltas (i.e., each element is sent as a number of +/- threshold steps), and any part of the delta
+         * smaller than the threshold is kept by the executor and added to the next delta.
+         * Deltas from workers in the same executor are summed before they are aggregated.<br>
+         * This can greatly reduce the network traffic when averaging, at the cost of some accuracy (updates smaller
+         * than the threshold are delayed). The updater state (if saved) is not compressed.<br>
+         * Default: disabled
+         *
+         * @param threshold Encoding threshold: should be small relative to the typical parameter change between
+         *                  averaging steps (for example, 1e-3)
+         * @param maxPasses Maximum number of encoding passes: elements with a change larger than maxPasses * threshold
+         *                  are only partially sent in one averaging round (the remainder is kept for the next one)
+         */
+        public Builder deltaCompression(double threshold, int maxPasses) {
+            checkArgument(threshold > 0, "Invalid input: delta compression threshold must be > 0");
+            checkArgument(maxPasses > 0, "Invalid input: delta compression max passes must be >= 1");
+            this.deltaCompressionThreshold = threshold;
+            this.deltaCompressionMaxPasses = maxPasses;
+            return this;
+        }
+
+        /**
+         * Enable the executor-local minibatch cache, using the default local directory. See
+         * {@link #localMinibatchCache(boolean, String)}
+         */
+        public Builder localMinibatchCache(boolean localMinibatchCache) {
+            return localMinibatchCache(localMinibatchCache, null);
+        }
+
+        /**
+         * Enable the executor-local minibatch cache, for training on exported data ({@link RDDTrainingApproach#Export})
+         * and on paths (fitPaths methods). Each serialized DataSet/MultiDataSet is copied to local disk of the
+         * executor the first time it is loaded, and later epochs and fit calls load it from local disk instead of
+         * remote storage.<br>
+         * Files are cached by path, and repartitioning is done as configured: a path that is assigned to a different
+         * executor in a later epoch is copied again to that executor, and read locally from then on.<br>
+         * Default: disabled
+         *
+         * @param localMinibatchCache Whether to use the local cache
+         * @param localCacheDirectory Base local directory for the cache on each executor. If null:
+         *                            {java.io.tmpdir}/dl4j-minibatch-cache
+         */
+        public Builder localMinibatchCache(boolean localMinibatchCache, String localCacheDirectory) {
+            this.localMinibatchCache = localMinibatchCache;
+            this.localCacheDirectory = localCacheDirectory;
+            return this;
+        }
+
         public ParameterAveragingTrainingMaster build() {
             return new ParameterAveragingTrainingMaster(this);
         }
@@ -8,6 +8,7 @@ import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * The results (parameters, optional updaters) returned by a {@link ParameterAveragingTrainingWorker} to the
@@ -27,6 +28,12 @@ public class ParameterAveragingTrainingResult implements TrainingResult {
     private final Collection<Persistable> listenerStaticInfo;
     private final Collection<Persistable> listenerUpdates;
 
+    /**
+     * Threshold/bitmap encoded parameter deltas. Set instead of {@link #getParameters()} when delta compression is
+     * used. See {@link org.deeplearning4j.spark.impl.paramavg.compression.ParameterDeltaEncoder}
+     */
+    private List<int[]> encodedParameterDeltas;
+
 
     public ParameterAveragingTrainingResult(INDArray parameters, INDArray updaterState, double score,
                     Collection<StorageMetaData> listenerMetaData, Collection<Persistable> listenerStaticInfo,
@@ -19,6 +19,7 @@ import org.deeplearning4j.spark.api.WorkerConfiguration;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.api.worker.NetBroadcastTuple;
 import org.deeplearning4j.spark.impl.listeners.VanillaStatsStorageRouter;
+import org.deeplearning4j.spark.impl.paramavg.compression.ParameterDeltaEncoder;
 import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingWorkerStats;
 import org.deeplearning4j.util.UIDProvider;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -47,10 +48,27 @@ public class ParameterAveragingTrainingWorker extends BaseTrainingWorker<Paramet
     private ParameterAveragingTrainingWorkerStats.ParameterAveragingTrainingWorkerStatsHelper stats = null;
     private Collection<TrainingListener> trainingListeners;
     private StatsStorageRouterProvider listenerRouterProvider;
+    private final Double deltaCompressionThreshold;
+    private final int deltaCompressionMaxPasses;
+    private final String residualKey;
 
     public ParameterAveragingTrainingWorker(Broadcast<NetBroadcastTuple> broadcast, boolean saveUpdater,
                     WorkerConfiguration configuration, Collection<TrainingHook> trainingHooks,
                     Collection<TrainingListener> listeners, StatsStorageRouterProvider routerProvider) {
+        this(broadcast, saveUpdater, configuration, trainingHooks, listeners, routerProvider, null, 0, null);
+    }
+
+    /**
+     * @param deltaCompressionThreshold If non-null: return threshold/bitmap encoded parameter deltas (relative to the
+     *                                  broadcast parameters) instead of the full parameters.
+     *                                  See {@link ParameterDeltaEncoder}
+     * @param deltaCompressionMaxPasses Maximum number of encoding passes for the parameter deltas
+     * @param residualKey               Key for storing the residual (unencoded part) of the deltas in this JVM
+     */
+    public ParameterAveragingTrainingWorker(Broadcast<NetBroadcastTuple> broadcast, boolean saveUpdater,
+                    WorkerConfiguration configuration, Collection<TrainingHook> trainingHooks,
+                    Collection<TrainingListener> listeners, StatsStorageRouterProvider routerProvider,
+                    Double deltaCompressionThreshold, int deltaCompressionMaxPasses, String residualKey) {
 
         this.broadcast = broadcast;
         this.saveUpdater = saveUpdater;
@@ -58,6 +76,9 @@ public class ParameterAveragingTrainingWorker extends BaseTrainingWorker<Paramet
         this.trainingHooks = trainingHooks;
         this.trainingListeners = listeners;
         this.listenerRouterProvider = routerProvider;
+        this.deltaCompressionThreshold = deltaCompressionThreshold;
+        this.deltaCompressionMaxPasses = deltaCompressionMaxPasses;
+        this.residualKey = residualKey;
     }
 
     /**
@@ -286,8 +307,8 @@ public class ParameterAveragingTrainingWorker extends BaseTrainingWorker<Paramet
                 listenerUpdates = ssr.getUpdates();
             }
         }
-        return new ParameterAveragingTrainingResult(network.params(), updaterState, network.score(), storageMetaData,
-                        listenerStaticInfo, listenerUpdates);
+        return createResult(network.params(), updaterState, network.score(), storageMetaData, listenerStaticInfo,
+                        listenerUpdates);
     }
 
     @Override
@@ -314,8 +335,28 @@ public class ParameterAveragingTrainingWorker extends BaseTrainingWorker<Paramet
             }
         }
 
-        return new ParameterAveragingTrainingResult(network.params(), updaterState, network.score(), storageMetaData,
-                        listenerStaticInfo, listenerUpdates);
+        return createResult(network.params(), updaterState, network.score(), storageMetaData, listenerStaticInfo,
+                        listenerUpdates);
+    }
+
+    private ParameterAveragingTrainingResult createResult(INDArray params, INDArray updaterState, double score,
+                    Collection<StorageMetaData> storageMetaData, Collection<Persistable> listenerStaticInfo,
+                    Collection<Persistable> listenerUpdates) {
+        if (deltaCompressionThreshold == null) {
+            return new ParameterAveragingTrainingResult(params, updaterState, score, storageMetaData,
+                            listenerStaticInfo, listenerUpdates);
+        }
+
+        //Encode the change in parameters since the last averaging, plus whatever couldn't be encoded last time
+        INDArray delta = params.sub(broadcast.getValue().getParameters());
+        ParameterDeltaEncoder.applyResidual(residualKey, delta);
+        List<int[]> encoded = ParameterDeltaEncoder.encode(delta, deltaCompressionThreshold, deltaCompressionMaxPasses);
+        ParameterDeltaEncoder.storeResidual(residualKey, delta);
+
+        ParameterAveragingTrainingResult result = new ParameterAveragingTrainingResult(null, updaterState, score,
+                        storageMetaData, listenerStaticInfo, listenerUpdates);
+        result.setEncodedParameterDeltas(encoded);
+        return result;
     }
 
     @Override
@@ -10,6 +10,7 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Simple helper tuple used to execute parameter averaging
@@ -28,4 +29,8 @@ public class ParameterAveragingAggregationTuple implements Serializable {
     private final Collection<StorageMetaData> listenerMetaData;
     private final Collection<Persistable> listenerStaticInfo;
     private final Collection<Persistable> listenerUpdates;
+    /** Sum of the encoded parameter deltas, if delta compression is used (instead of parametersSum) */
+    private final List<int[]> encodedParameterDeltas;
+    /** Total size of the encoded messages aggregated so far, in bytes */
+    private final long encodedBytes;
 }
@@ -30,7 +30,11 @@ public class ParameterAveragingElementAddFunction implements
                             .listenerUpdates(result.getListenerUpdates()).build();
         }
 
-        INDArray params = tuple.getParametersSum().addi(result.getParameters());
+        INDArray params = tuple.getParametersSum();
+        if (params == null)
+            params = result.getParameters();
+        else if (result.getParameters() != null)
+            params.addi(result.getParameters());
         INDArray updaterStateSum;
         if (tuple.getUpdaterStateSum() == null) {
             updaterStateSum = result.getUpdaterState();
@@ -81,6 +85,7 @@ public class ParameterAveragingElementAddFunction implements
 
 
         return new ParameterAveragingAggregationTuple(params, updaterStateSum, scoreSum,
-                        tuple.getAggregationsCount() + 1, stats, listenerMetaData, listenerStaticInfo, listenerUpdates);
+                        tuple.getAggregationsCount() + 1, stats, listenerMetaData, listenerStaticInfo, listenerUpdates,
+                        tuple.getEncodedParameterDeltas(), tuple.getEncodedBytes());
     }
 }
@@ -4,10 +4,13 @@ import org.apache.spark.api.java.function.Function2;
 import org.deeplearning4j.api.storage.Persistable;
 import org.deeplearning4j.api.storage.StorageMetaData;
 import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
+import org.deeplearning4j.spark.impl.paramavg.compression.ParameterDeltaEncoder;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Function used in ParameterAveraging TrainingMaster, for doing parameter averaging, and handling updaters
@@ -25,12 +28,34 @@ public class ParameterAveragingElementCombineFunction implements
             return v1;
 
         //Handle edge case of less data than executors: in this case, one (or both) of v1 and v2 might not have any contents...
-        if (v1.getParametersSum() == null)
+        if (v1.getParametersSum() == null && v1.getEncodedParameterDeltas() == null)
             return v2;
-        else if (v2.getParametersSum() == null)
+        else if (v2.getParametersSum() == null && v2.getEncodedParameterDeltas() == null)
             return v1;
 
-        INDArray newParams = v1.getParametersSum().addi(v2.getParametersSum());
+        INDArray newParams = null;
+        List<int[]> newEncoded = null;
+        long encodedBytes = 0;
+        if (v1.getEncodedParameterDeltas() != null || v2.getEncodedParameterDeltas() != null) {
+            //Compressed deltas: sum in dense form, then re-encode. Both inputs had to be transferred to get here
+            encodedBytes = v1.getEncodedBytes() + v2.getEncodedBytes()
+                            + ParameterDeltaEncoder.sizeBytes(v1.getEncodedParameterDeltas())
+                            + ParameterDeltaEncoder.sizeBytes(v2.getEncodedParameterDeltas());
+            long length = Math.max(ParameterDeltaEncoder.decodedLength(v1.getEncodedParameterDeltas()),
+                            ParameterDeltaEncoder.decodedLength(v2.getEncodedParameterDeltas()));
+            if (length > 0) {
+                INDArray steps = Nd4j.zeros(1, (int) length);
+                if (v1.getEncodedParameterDeltas() != null)
+                    ParameterDeltaEncoder.decode(v1.getEncodedParameterDeltas(), steps);
+                if (v2.getEncodedParameterDeltas() != null)
+                    ParameterDeltaEncoder.decode(v2.getEncodedParameterDeltas(), steps);
+                newEncoded = ParameterDeltaEncoder.encodeSteps(steps);
+            } else {
+                newEncoded = new ArrayList<>();
+            }
+        } else {
+            newParams = v1.getParametersSum().addi(v2.getParametersSum());
+        }
         INDArray updaterStateSum;
         if (v1.getUpdaterStateSum() == null) {
             updaterStateSum = v2.getUpdaterStateSum();
@@ -82,6 +107,6 @@ public class ParameterAveragingElementCombineFunction implements
         }
 
         return new ParameterAveragingAggregationTuple(newParams, updaterStateSum, scoreSum, aggregationCount, stats,
-                        listenerMetaData, listenerStaticInfo, listenerUpdates);
+                        listenerMetaData, listenerStaticInfo, listenerUpdates, newEncoded, encodedBytes);
     }
 }
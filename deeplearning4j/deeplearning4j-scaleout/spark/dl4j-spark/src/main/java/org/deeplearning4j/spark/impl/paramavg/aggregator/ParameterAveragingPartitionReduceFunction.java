@@ -0,0 +1,73 @@
+package org.deeplearning4j.spark.impl.paramavg.aggregator;
+
+import org.datavec.spark.functions.FlatMapFunctionAdapter;
+import org.datavec.spark.transform.BaseFlatMapFunctionAdaptee;
+import org.deeplearning4j.spark.impl.paramavg.ParameterAveragingTrainingResult;
+import org.deeplearning4j.spark.impl.paramavg.compression.ParameterDeltaEncoder;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Local pre-reduction of encoded parameter deltas, used by the ParameterAveragingTrainingMaster when delta compression
+ * is enabled. All results in a partition (usually: all results from one executor, after coalescing) are decoded and
+ * summed, and the sum is re-encoded before being sent on to the tree aggregation.
+ *
+ * @author Alex Black
+ */
+public class ParameterAveragingPartitionReduceFunction extends
+                BaseFlatMapFunctionAdaptee<Iterator<ParameterAveragingTrainingResult>, ParameterAveragingAggregationTuple> {
+
+    public ParameterAveragingPartitionReduceFunction() {
+        super(new ParameterAveragingPartitionReduceFunctionAdapter());
+    }
+}
+
+
+/**
+ * Local pre-reduction of encoded parameter deltas
+ *
+ * @author Alex Black
+ */
+class ParameterAveragingPartitionReduceFunctionAdapter implements
+                FlatMapFunctionAdapter<Iterator<ParameterAveragingTrainingResult>, ParameterAveragingAggregationTuple> {
+
+    @Override
+    public Iterable<ParameterAveragingAggregationTuple> call(Iterator<ParameterAveragingTrainingResult> iter)
+                    throws Exception {
+        ParameterAveragingElementAddFunction addFunction = new ParameterAveragingElementAddFunction();
+        ParameterAveragingAggregationTuple tuple = null;
+        INDArray steps = null;
+        long encodedBytes = 0;
+        while (iter.hasNext()) {
+            ParameterAveragingTrainingResult result = iter.next();
+            List<int[]> encoded = result.getEncodedParameterDeltas();
+            if (encoded == null)
+                continue; //Worker with no data
+
+            long length = ParameterDeltaEncoder.decodedLength(encoded);
+            if (length > 0) {
+                if (steps == null)
+                    steps = Nd4j.zeros(1, (int) length);
+                ParameterDeltaEncoder.decode(encoded, steps);
+            }
+            encodedBytes += ParameterDeltaEncoder.sizeBytes(encoded);
+
+            //Updater state, score, stats and listener info: same as uncompressed parameter averaging
+            tuple = addFunction.call(tuple, result);
+        }
+
+        if (tuple == null)
+            return Collections.emptyList();
+
+        List<int[]> encodedSum = (steps == null ? new ArrayList<int[]>() : ParameterDeltaEncoder.encodeSteps(steps));
+        return Collections.singletonList(new ParameterAveragingAggregationTuple(null, tuple.getUpdaterStateSum(),
+                        tuple.getScoreSum(), tuple.getAggregationsCount(), tuple.getSparkTrainingStats(),
+                        tuple.getListenerMetaData(), tuple.getListenerStaticInfo(), tuple.getListenerUpdates(),
+                        encodedSum, encodedBytes));
+    }
+}
@@ -0,0 +1,289 @@
+package org.deeplearning4j.spark.impl.paramavg.compression;
+
+import lombok.NonNull;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.accum.MatchCondition;
+import org.nd4j.linalg.api.ops.impl.indexaccum.IAMax;
+import org.nd4j.linalg.compression.ThresholdCompression;
+import org.nd4j.linalg.exception.ND4JIllegalStateException;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.conditions.Conditions;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encoding of parameter deltas for compressed parameter averaging, using nd4j threshold and bitmap encoding
+ * (see {@link ThresholdCompression}).<br>
+ * Deltas are encoded in units of the threshold: an encoded message consists of one or more threshold/bitmap encoded
+ * int arrays (one per encoding pass), each of which adds +1 or -1 to some of the elements when decoded. Bitmap
+ * encoding also adds -1/2 to elements in (-1, -1/2], hence a decoded message holds a multiple of half a step for each
+ * element. Messages can be summed and re-encoded (in steps, then half steps) without any loss of precision. If the
+ * re-encoded sum isn't smaller than the dense array, it is sent as a single dense message instead
+ * (see {@link #DENSE_ENCODING}).<br>
+ * Whatever part of a delta can't be encoded (values smaller than the threshold, or remainders after the maximum number
+ * of passes) is kept as a residual in the JVM, and added to the next delta encoded in the same JVM. Residuals that
+ * haven't been used for {@link #RESIDUAL_EXPIRY_MS} are dropped, so they don't outlive training.
+ *
+ * @author Alex Black
+ */
+public class ParameterDeltaEncoder {
+
+    /**
+     * Encoding header for dense messages: 4 header ints, followed by the float bits of each element.
+     * Not used by {@link ThresholdCompression}
+     */
+    public static final int DENSE_ENCODING = 3;
+
+    /**
+     * Residuals are dropped after this time without being used: i.e., some time after training with the training
+     * master they belong to has ended. Executors are not notified when training ends, hence residuals are expired
+     * instead.
+     */
+    public static final long RESIDUAL_EXPIRY_MS = 30 * 60 * 1000L;
+
+    //Guarded by residuals
+    private static final Map<String, INDArray> residuals = new HashMap<>();
+    private static final Map<String, Long> lastUsed = new HashMap<>();
+
+    private ParameterDeltaEncoder() {}
+
+    /**
+     * Encode the given delta. Delta is modified in place: after this method, it holds the residual (in the original
+     * units) that could not be encoded
+     *
+     * @param delta     Parameter delta to encode
+     * @param threshold Size of one encoded step
+     * @param maxPasses Maximum number of encoding passes: elements larger than maxPasses * threshold are only
+     *                  partially encoded
+     * @return Encoded delta, in units of threshold
+     */
+    public static List<int[]> encode(@NonNull INDArray delta, double threshold, int maxPasses) {
+        delta.divi(threshold);
+        List<int[]> out = encodeSteps(delta, 1.0, maxPasses);
+        delta.muli(threshold);
+        return out;
+    }
+
+    /**
+     * Encode an array holding numbers of steps, as produced by {@link #decode(List, INDArray)} - i.e., multiples of
+     * one half step. All values are encoded. If the encoded steps wouldn't be smaller than the dense array (for
+     * example, sums of many dense messages), a single dense message is returned instead.
+     *
+     * @param steps Array to encode. Is zero after this method
+     * @return Encoded array
+     */
+    public static List<int[]> encodeSteps(@NonNull INDArray steps) {
+        //Remove any floating point error (but keep half steps), to guarantee exact encoding
+        steps.muli(2.0);
+        Transforms.round(steps, false);
+        steps.divi(2.0);
+
+        long denseInts = steps.lengthLong() + 4;
+        List<int[]> out = new ArrayList<>();
+        if (encodeSteps(steps, 1.0, Integer.MAX_VALUE, out, denseInts)
+                        && encodeSteps(steps, 0.5, Integer.MAX_VALUE, out, denseInts))
+            return out;
+
+        //Not smaller than dense: restore the steps (exact, as they are multiples of half a step) and send them as is
+        decode(out, steps);
+        out.clear();
+        out.add(encodeDense(steps));
+        steps.assign(0);
+        return out;
+    }
+
+    private static List<int[]> encodeSteps(INDArray steps, double threshold, int maxPasses) {
+        List<int[]> out = new ArrayList<>();
+        encodeSteps(steps, threshold, maxPasses, out, Long.MAX_VALUE);
+        return out;
+    }
+
+    /**
+     * @return False if encoding was stopped, as the total size of out reached maxInts
+     */
+    private static boolean encodeSteps(INDArray steps, double threshold, int maxPasses, List<int[]> out,
+                    long maxInts) {
+        long length = steps.lengthLong();
+        long totalInts = sizeBytes(out) / 4;
+        for (int pass = 0; pass < maxPasses; pass++) {
+            int count = Nd4j.getExecutioner()
+                            .exec(new MatchCondition(steps, Conditions.absGreaterThanOrEqual(threshold)),
+                                            Integer.MAX_VALUE)
+                            .getInt(0);
+            if (count == 0)
+                break;
+
+            int[] encoded;
+            if (count >= length / 16) {
+                //Dense: 2 bits per element is smaller than 32 bits per encoded element
+                DataBuffer buffer = Nd4j.getDataBufferFactory().createInt(length / 16 + 5);
+                INDArray array = Nd4j.createArrayFromShapeBuffer(buffer, steps.shapeInfoDataBuffer());
+                Nd4j.getExecutioner().bitmapEncode(steps, array, threshold);
+                encoded = buffer.asInt();
+            } else if (count == 1) {
+                //thresholdEncode returns null for a single element
+                encoded = encodeSingle(steps, threshold);
+            } else {
+                encoded = Nd4j.getExecutioner().thresholdEncode(steps, threshold).data().asInt();
+            }
+            out.add(encoded);
+
+            totalInts += encoded.length;
+            if (totalInts >= maxInts)
+                return false;
+        }
+        return true;
+    }
+
+    private static int[] encodeDense(INDArray steps) {
+        float[] values = (steps.isView() ? steps.dup() : steps).data().asFloat();
+        int[] encoded = new int[values.length + 4];
+        encoded[0] = values.length;
+        encoded[1] = values.length;
+        encoded[3] = DENSE_ENCODING;
+        for (int i = 0; i < values.length; i++)
+            encoded[i + 4] = Float.floatToIntBits(values[i]);
+        return encoded;
+    }
+
+    private static int[] encodeSingle(INDArray steps, double threshold) {
+        int idx = Nd4j.getExecutioner().execAndReturn(new IAMax(steps)).getFinalResult();
+        double value = steps.getDouble(idx);
+        int sign = (value < 0 ? -1 : 1);
+        steps.putScalar(idx, value - sign * threshold);
+        //Same layout as threshold encoding: header, then +/- (index + 1)
+        return new int[] {1, (int) steps.lengthLong(), Float.floatToIntBits((float) threshold),
+                        ThresholdCompression.FLEXIBLE_ENCODING, sign * (idx + 1)};
+    }
+
+    /**
+     * Decode (add) the encoded steps to the target array
+     *
+     * @param encoded Encoded steps, as returned by {@link #encode(INDArray, double, int)} or {@link #encodeSteps(INDArray)}
+     * @param target  Target array, with the same length as the original array. Decoded steps are added to it
+     */
+    public static void decode(@NonNull List<int[]> encoded, @NonNull INDArray target) {
+        for (int[] e : encoded) {
+            if (e[1] != target.lengthLong())
+                throw new ND4JIllegalStateException("Encoded array length (" + e[1]
+                                + ") does not match target array length (" + target.lengthLong() + ")");
+
+            if (e[3] == DENSE_ENCODING) {
+                float[] values = new float[e.length - 4];
+                for (int i = 0; i < values.length; i++)
+                    values[i] = Float.intBitsToFloat(e[i + 4]);
+                target.addi(Nd4j.create(values, target.shape()));
+                continue;
+            }
+
+            DataBuffer buffer = Nd4j.getDataBufferFactory().createInt(e);
+            INDArray array = Nd4j.createArrayFromShapeBuffer(buffer, target.shapeInfoDataBuffer());
+            if (e[3] == ThresholdCompression.FLEXIBLE_ENCODING)
+                Nd4j.getExecutioner().thresholdDecode(array, target);
+            else if (e[3] == ThresholdCompression.BITMAP_ENCODING)
+                Nd4j.getExecutioner().bitmapDecode(array, target);
+            else
+                throw new ND4JIllegalStateException("Unknown encoding header: " + e[3]);
+        }
+    }
+
+    /**
+     * @return Original (decoded) length for the given encoded steps, or -1 if empty
+     */
+    public static long decodedLength(List<int[]> encoded) {
+        if (encoded == null || encoded.isEmpty())
+            return -1;
+        return encoded.get(0)[1];
+    }
+
+    /**
+     * @return Size of the encoded steps, in bytes
+     */
+    public static long sizeBytes(List<int[]> encoded) {
+        if (encoded == null)
+            return 0;
+        long bytes = 0;
+        for (int[] e : encoded)
+            bytes += 4L * e.length;
+        return bytes;
+    }
+
+    /**
+     * Add the residual stored for the given key (if any) to the delta, and remove it
+     *
+     * @param key   Key for the residual - usually the training master UID
+     * @param delta Delta to add the residual to
+     */
+    public static void applyResidual(@NonNull String key, @NonNull INDArray delta) {
+        INDArray residual;
+        synchronized (residuals) {
+            //Under the same lock as storeResidual: a residual can't be removed while another worker adds to it
+            residual = residuals.remove(key);
+        }
+        if (residual != null && residual.lengthLong() == delta.lengthLong())
+            delta.addi(residual);
+    }
+
+    /**
+     * Store the residual for the given key, to be added to the next delta encoded in this JVM. If a residual is
+     * already stored (i.e., concurrent workers in the same JVM), they are summed.<br>
+     * Residuals for other keys that haven't been used for {@link #RESIDUAL_EXPIRY_MS} are dropped.
+     */
+    public static void storeResidual(@NonNull String key, @NonNull INDArray residual) {
+        synchronized (residuals) {
+            long now = System.currentTimeMillis();
+            lastUsed.put(key, now);
+            expireResiduals(now);
+
+            INDArray existing = residuals.get(key);
+            if (existing != null && existing.lengthLong() == residual.lengthLong()) {
+                existing.addi(residual);
+            } else {
+                residuals.put(key, residual);
+            }
+        }
+    }
+
+    /**
+     * Drop all residuals that haven't been stored since (time - {@link #RESIDUAL_EXPIRY_MS})
+     *
+     * @param time Current time, in milliseconds
+     */
+    public static void expireResiduals(long time) {
+        synchronized (residuals) {
+            Iterator<Map.Entry<String, Long>> iter = lastUsed.entrySet().iterator();
+            while (iter.hasNext()) {
+                Map.Entry<String, Long> e = iter.next();
+                if (time - e.getValue() > RESIDUAL_EXPIRY_MS) {
+                    residuals.remove(e.getKey());
+                    iter.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return True if a residual is stored for the given key
+     */
+    public static boolean hasResidual(@NonNull String key) {
+        synchronized (residuals) {
+            return residuals.containsKey(key);
+        }
+    }
+
+    /**
+     * Remove the residual for the given key, if any
+     */
+    public static void clearResidual(@NonNull String key) {
+        synchronized (residuals) {
+            residuals.remove(key);
+            lastUsed.remove(key);
+        }
+    }
+}
@@ -30,6 +30,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
     public static final String FILENAME_AGGREGATE_TIME = "parameterAveragingMasterAggregateTimesMs.txt";
     public static final String FILENAME_PROCESS_PARAMS_TIME = "parameterAveragingMasterProcessParamsUpdaterTimesMs.txt";
     public static final String FILENAME_REPARTITION_STATS = "parameterAveragingMasterRepartitionTimesMs.txt";
+    public static final String FILENAME_AGGREGATE_BYTES = "parameterAveragingMasterAggregateBytes.txt";
 
     public static final String PARAMETER_AVERAGING_MASTER_EXPORT_RDD_TIMES_MS = "parameterAveragingMasterExportTimesMs";
     public static final String PARAMETER_AVERAGING_MASTER_COUNT_RDD_TIMES_MS =
@@ -46,6 +47,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                     "ParameterAveragingMasterProcessParamsUpdaterTimesMs";
     public static final String PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS =
                     "ParameterAveragingMasterRepartitionTimesMs";
+    public static final String PARAMETER_AVERAGING_MASTER_AGGREGATE_BYTES = "ParameterAveragingMasterAggregateBytes";
 
     private static Set<String> columnNames = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
                     PARAMETER_AVERAGING_MASTER_EXPORT_RDD_TIMES_MS, PARAMETER_AVERAGING_MASTER_COUNT_RDD_TIMES_MS,
@@ -53,7 +55,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                     PARAMETER_AVERAGING_MASTER_SPLIT_TIMES_MS, PARAMETER_AVERAGING_MASTER_MAP_PARTITIONS_TIMES_MS,
                     PARAMETER_AVERAGING_MASTER_AGGREGATE_TIMES_MS,
                     PARAMETER_AVERAGING_MASTER_PROCESS_PARAMS_UPDATER_TIMES_MS,
-                    PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS)));
+                    PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS, PARAMETER_AVERAGING_MASTER_AGGREGATE_BYTES)));
 
     private SparkTrainingStats workerStats;
     private List<EventStats> parameterAveragingMasterExportTimesMs;
@@ -65,6 +67,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
     private List<EventStats> paramaterAveragingMasterAggregateTimesMs;
     private List<EventStats> parameterAveragingMasterProcessParamsUpdaterTimesMs;
     private List<EventStats> parameterAveragingMasterRepartitionTimesMs;
+    private List<EventStats> parameterAveragingMasterAggregateBytes;
 
 
     public ParameterAveragingTrainingMasterStats(SparkTrainingStats workerStats,
@@ -77,6 +80,24 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                     List<EventStats> parameterAveragingMasterAggregateTimesMs,
                     List<EventStats> parameterAveragingMasterProcessParamsUpdaterTimesMs,
                     List<EventStats> parameterAveragingMasterRepartitionTimesMs) {
+        this(workerStats, parameterAveragingMasterExportTimesMs, parameterAveragingMasterCountRddSizeTimesMs,
+                        parameterAveragingMasterBroadcastCreateTimeMs, parameterAveragingMasterFitTimeMs,
+                        parameterAveragingMasterSplitTimeMs, parameterAveragingMasterMapPartitionsTimesMs,
+                        parameterAveragingMasterAggregateTimesMs, parameterAveragingMasterProcessParamsUpdaterTimesMs,
+                        parameterAveragingMasterRepartitionTimesMs, new ArrayList<EventStats>());
+    }
+
+    public ParameterAveragingTrainingMasterStats(SparkTrainingStats workerStats,
+                    List<EventStats> parameterAveragingMasterExportTimesMs,
+                    List<EventStats> parameterAveragingMasterCountRddSizeTimesMs,
+                    List<EventStats> parameterAveragingMasterBroadcastCreateTimeMs,
+                    List<EventStats> parameterAveragingMasterFitTimeMs,
+                    List<EventStats> parameterAveragingMasterSplitTimeMs,
+                    List<EventStats> parameterAveragingMasterMapPartitionsTimesMs,
+                    List<EventStats> parameterAveragingMasterAggregateTimesMs,
+                    List<EventStats> parameterAveragingMasterProcessParamsUpdaterTimesMs,
+                    List<EventStats> parameterAveragingMasterRepartitionTimesMs,
+                    List<EventStats> parameterAveragingMasterAggregateBytes) {
         this.workerStats = workerStats;
         this.parameterAveragingMasterExportTimesMs = parameterAveragingMasterExportTimesMs;
         this.parameterAveragingMasterCountRddSizeTimesMs = parameterAveragingMasterCountRddSizeTimesMs;
@@ -87,6 +108,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         this.paramaterAveragingMasterAggregateTimesMs = parameterAveragingMasterAggregateTimesMs;
         this.parameterAveragingMasterProcessParamsUpdaterTimesMs = parameterAveragingMasterProcessParamsUpdaterTimesMs;
         this.parameterAveragingMasterRepartitionTimesMs = parameterAveragingMasterRepartitionTimesMs;
+        this.parameterAveragingMasterAggregateBytes = parameterAveragingMasterAggregateBytes;
     }
 
 
@@ -119,6 +141,8 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                 return parameterAveragingMasterProcessParamsUpdaterTimesMs;
             case PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS:
                 return parameterAveragingMasterRepartitionTimesMs;
+            case PARAMETER_AVERAGING_MASTER_AGGREGATE_BYTES:
+                return parameterAveragingMasterAggregateBytes;
             default:
                 if (workerStats != null)
                     return workerStats.getValue(key);
@@ -147,6 +171,8 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
                 return "ProcessParams";
             case PARAMETER_AVERAGING_MASTER_REPARTITION_TIMES_MS:
                 return "Repartition";
+            case PARAMETER_AVERAGING_MASTER_AGGREGATE_BYTES:
+                return "AggregateBytes";
             default:
                 if (workerStats != null)
                     return workerStats.getShortNameForKey(key);
@@ -159,6 +185,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         switch (key) {
             case PARAMETER_AVERAGING_MASTER_FIT_TIMES_MS:
             case PARAMETER_AVERAGING_MASTER_MAP_PARTITIONS_TIMES_MS:
+            case PARAMETER_AVERAGING_MASTER_AGGREGATE_BYTES:
                 return false;
             case PARAMETER_AVERAGING_MASTER_EXPORT_RDD_TIMES_MS:
             case PARAMETER_AVERAGING_MASTER_COUNT_RDD_TIMES_MS:
@@ -203,6 +230,13 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
             if (o.parameterAveragingMasterRepartitionTimesMs != null)
                 parameterAveragingMasterRepartitionTimesMs.addAll(o.parameterAveragingMasterRepartitionTimesMs);
         }
+        if (parameterAveragingMasterAggregateBytes == null) {
+            if (o.parameterAveragingMasterAggregateBytes != null)
+                parameterAveragingMasterAggregateBytes = o.parameterAveragingMasterAggregateBytes;
+        } else {
+            if (o.parameterAveragingMasterAggregateBytes != null)
+                parameterAveragingMasterAggregateBytes.addAll(o.parameterAveragingMasterAggregateBytes);
+        }
     }
 
     @Override
@@ -270,6 +304,24 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
             sb.append(StatsUtils.getDurationAsString(parameterAveragingMasterProcessParamsUpdaterTimesMs, ","))
                             .append("\n");
 
+        sb.append(String.format(f, PARAMETER_AVERAGING_MASTER_AGGREGATE_BYTES));
+        if (parameterAveragingMasterAggregateBytes == null || parameterAveragingMasterAggregateBytes.isEmpty()) {
+            sb.append("-\n");
+        } else {
+            long min = Long.MAX_VALUE;
+            long max = 0;
+            long sum = 0;
+            for (EventStats e : parameterAveragingMasterAggregateBytes) {
+                long b = ((DataSizeEventStats) e).getNumBytes();
+                min = Math.min(min, b);
+                max = Math.max(max, b);
+                sum += b;
+            }
+            sb.append("min: ").append(min).append(", max: ").append(max).append(", mean: ")
+                            .append(sum / parameterAveragingMasterAggregateBytes.size()).append(", total: ")
+                            .append(sum).append("\n");
+        }
+
         if (workerStats != null)
             sb.append(workerStats.statsAsString());
 
@@ -322,6 +374,12 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
             StatsUtils.exportStats(parameterAveragingMasterRepartitionTimesMs, repartitionPath, d, sc);
         }
 
+        //Bytes transferred during aggregation
+        if (parameterAveragingMasterAggregateBytes != null) {
+            String aggregateBytesPath = FilenameUtils.concat(outputPath, FILENAME_AGGREGATE_BYTES);
+            StatsUtils.exportStats(parameterAveragingMasterAggregateBytes, aggregateBytesPath, d, sc);
+        }
+
         if (workerStats != null)
             workerStats.exportStatFiles(outputPath, sc);
     }
@@ -349,6 +407,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         private List<EventStats> mapPartitions = new ArrayList<>();
         private List<EventStats> aggregateTimes = new ArrayList<>();
         private List<EventStats> processParamsUpdaterTimes = new ArrayList<>();
+        private List<EventStats> aggregateBytes = new ArrayList<>();
 
         private final TimeSource timeSource = TimeSourceProvider.getInstance();
 
@@ -428,6 +487,14 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
             aggregateTimes.add(new BaseEventStats(lastAggregateStartTime, now - lastAggregateStartTime));
         }
 
+        /**
+         * Log the number of bytes of parameters (or encoded parameter deltas) transferred in the last aggregation
+         */
+        public void logAggregateBytes(long numBytes) {
+            long now = timeSource.currentTimeMillis();
+            aggregateBytes.add(new DataSizeEventStats(lastAggregateStartTime, now - lastAggregateStartTime, numBytes));
+        }
+
         public void logProcessParamsUpdaterStart() {
             lastProcessParamsUpdaterStartTime = timeSource.currentTimeMillis();
         }
@@ -448,7 +515,7 @@ public class ParameterAveragingTrainingMasterStats implements SparkTrainingStats
         public ParameterAveragingTrainingMasterStats build() {
             return new ParameterAveragingTrainingMasterStats(workerStats, exportTimes, countTimes, broadcastTimes,
                             fitTimes, splitTimes, mapPartitions, aggregateTimes, processParamsUpdaterTimes,
-                            repartitionTimes);
+                            repartitionTimes, aggregateBytes);
         }
 
     }
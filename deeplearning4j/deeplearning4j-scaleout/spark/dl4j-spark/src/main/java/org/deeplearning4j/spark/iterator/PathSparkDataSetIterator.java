@@ -1,12 +1,13 @@
 package org.deeplearning4j.spark.iterator;
 
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.deeplearning4j.spark.data.LocalMinibatchCache;
 import org.nd4j.linalg.dataset.DataSet;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.Collection;
@@ -22,6 +23,8 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
 
     public static final int BUFFER_SIZE = 4194304; //4 MB
     private FileSystem fileSystem;
+    private boolean localCache;
+    private String localCacheDirectory;
 
     public PathSparkDataSetIterator(Iterator<String> iter) {
         this.dataSetStreams = null;
@@ -58,6 +61,18 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
         return ds;
     }
 
+    /**
+     * Load objects via the executor-local {@link LocalMinibatchCache}: each path is copied to local disk the first
+     * time it is loaded in this JVM, and read from local disk afterwards
+     *
+     * @param localCache          Whether to use the local cache
+     * @param localCacheDirectory Base cache directory, or null for {@link LocalMinibatchCache#defaultDirectory()}
+     */
+    public void setLocalCache(boolean localCache, String localCacheDirectory) {
+        this.localCache = localCache;
+        this.localCacheDirectory = localCacheDirectory;
+    }
+
     protected synchronized DataSet load(String path) {
         if (fileSystem == null) {
             try {
@@ -68,7 +83,9 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
         }
 
         DataSet ds = new DataSet();
-        try (FSDataInputStream inputStream = fileSystem.open(new Path(path), BUFFER_SIZE)) {
+        try (InputStream inputStream = localCache
+                        ? LocalMinibatchCache.open(path, fileSystem, localCacheDirectory)
+                        : fileSystem.open(new Path(path), BUFFER_SIZE)) {
             ds.load(inputStream);
         } catch (IOException e) {
             throw new RuntimeException("Error loading DataSet at path " + path + " - DataSet may be corrupt or invalid." +
@@ -1,14 +1,15 @@
 package org.deeplearning4j.spark.iterator;
 
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.deeplearning4j.spark.data.LocalMinibatchCache;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
 import org.nd4j.linalg.dataset.api.MultiDataSetPreProcessor;
 import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.Collection;
@@ -28,6 +29,8 @@ public class PathSparkMultiDataSetIterator implements MultiDataSetIterator {
     private MultiDataSetPreProcessor preprocessor;
     private Iterator<String> iter;
     private FileSystem fileSystem;
+    private boolean localCache;
+    private String localCacheDirectory;
 
     public PathSparkMultiDataSetIterator(Iterator<String> iter) {
         this.dataSetStreams = null;
@@ -91,6 +94,18 @@ public class PathSparkMultiDataSetIterator implements MultiDataSetIterator {
     }
 
 
+    /**
+     * Load objects via the executor-local {@link LocalMinibatchCache}: each path is copied to local disk the first
+     * time it is loaded in this JVM, and read from local disk afterwards
+     *
+     * @param localCache          Whether to use the local cache
+     * @param localCacheDirectory Base cache directory, or null for {@link LocalMinibatchCache#defaultDirectory()}
+     */
+    public void setLocalCache(boolean localCache, String localCacheDirectory) {
+        this.localCache = localCache;
+        this.localCacheDirectory = localCacheDirectory;
+    }
+
     private synchronized MultiDataSet load(String path) {
         if (fileSystem == null) {
             try {
@@ -101,7 +116,9 @@ public class PathSparkMultiDataSetIterator implements MultiDataSetIterator {
         }
 
         MultiDataSet ds = new org.nd4j.linalg.dataset.MultiDataSet();
-        try (FSDataInputStream inputStream = fileSystem.open(new Path(path), BUFFER_SIZE)) {
+        try (InputStream inputStream = localCache
+                        ? LocalMinibatchCache.open(path, fileSystem, localCacheDirectory)
+                        : fileSystem.open(new Path(path), BUFFER_SIZE)) {
             ds.load(inputStream);
         } catch (IOException e) {
             throw new RuntimeException("Error loading MultiDataSet at path " + path + " - DataSet may be corrupt or invalid." +
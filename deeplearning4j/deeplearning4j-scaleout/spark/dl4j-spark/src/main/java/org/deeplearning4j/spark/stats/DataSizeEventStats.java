@@ -0,0 +1,35 @@
+package org.deeplearning4j.spark.stats;
+
+import lombok.Getter;
+
+/**
+ * Event stats implementation with a data size (in bytes), such as the amount of data transferred
+ *
+ * @author Alex Black
+ */
+public class DataSizeEventStats extends BaseEventStats {
+
+    @Getter
+    private final long numBytes;
+
+    public DataSizeEventStats(long startTime, long durationMs, long numBytes) {
+        super(startTime, durationMs);
+        this.numBytes = numBytes;
+    }
+
+    public DataSizeEventStats(String machineId, String jvmId, long threadId, long startTime, long durationMs,
+                    long numBytes) {
+        super(machineId, jvmId, threadId, startTime, durationMs);
+        this.numBytes = numBytes;
+    }
+
+    @Override
+    public String asString(String delimiter) {
+        return super.asString(delimiter) + delimiter + numBytes;
+    }
+
+    @Override
+    public String getStringHeader(String delimiter) {
+        return super.getStringHeader(delimiter) + delimiter + "numBytes";
+    }
+}
@@ -0,0 +1,149 @@
+package org.deeplearning4j.spark.data;
+
+import org.apache.spark.api.java.JavaRDD;
+import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.optimize.api.BaseTrainingListener;
+import org.deeplearning4j.spark.BaseSparkTest;
+import org.deeplearning4j.spark.api.Repartition;
+import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
+import org.deeplearning4j.spark.impl.paramavg.ParameterAveragingTrainingMaster;
+import org.deeplearning4j.spark.iterator.PathSparkDataSetIterator;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the executor-local minibatch cache
+ */
+public class TestLocalMinibatchCache extends BaseSparkTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    @After
+    public void after() {
+        LocalMinibatchCache.clear();
+        super.after();
+    }
+
+    private List<String> saveDataSets(File dir, int count) throws Exception {
+        Nd4j.getRandom().setSeed(12345);
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            File f = new File(dir, i + ".bin");
+            DataSet ds = new DataSet(Nd4j.rand(5, 10), Nd4j.rand(5, 3));
+            ds.save(f);
+            paths.add(f.toURI().toString());
+        }
+        return paths;
+    }
+
+    @Test
+    public void testIteratorLocalCache() throws Exception {
+        File dataDir = testDir.newFolder();
+        String cacheDir = testDir.newFolder().getAbsolutePath();
+        List<String> paths = saveDataSets(dataDir, 10);
+
+        List<DataSet> expected = new ArrayList<>();
+        PathSparkDataSetIterator iter = new PathSparkDataSetIterator(paths);
+        while (iter.hasNext())
+            expected.add(iter.next());
+
+        long hitsBefore = LocalMinibatchCache.getHits();
+        long missesBefore = LocalMinibatchCache.getMisses();
+
+        for (int epoch = 0; epoch < 3; epoch++) {
+            PathSparkDataSetIterator cached = new PathSparkDataSetIterator(paths);
+            cached.setLocalCache(true, cacheDir);
+            int i = 0;
+            while (cached.hasNext())
+                assertEquals(expected.get(i++), cached.next());
+            assertEquals(10, i);
+
+            if (epoch == 0) {
+                //Remote files are not needed once cached
+                for (File f : dataDir.listFiles())
+                    assertTrue(f.delete());
+            }
+        }
+
+        assertEquals(10, LocalMinibatchCache.getMisses() - missesBefore);
+        assertEquals(20, LocalMinibatchCache.getHits() - hitsBefore);
+    }
+
+    @Test
+    public void testFitPathsLocalCache() throws Exception {
+        File dataDir = testDir.newFolder();
+        String cacheDir = testDir.newFolder().getAbsolutePath();
+        int numPaths = 20;
+        int examplesPerPath = 5;
+        List<String> paths = saveDataSets(dataDir, numPaths);
+
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().list()
+                        .layer(0, new DenseLayer.Builder().nIn(10).nOut(10).activation(Activation.TANH).build())
+                        .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MSE).nIn(10).nOut(3)
+                                        .activation(Activation.IDENTITY).build())
+                        .build();
+
+        ParameterAveragingTrainingMaster tm =
+                        new ParameterAveragingTrainingMaster.Builder(numExecutors(), examplesPerPath)
+                                        .batchSizePerWorker(examplesPerPath).averagingFrequency(1)
+                                        .repartionData(Repartition.Always)
+                                        .localMinibatchCache(true, cacheDir).build();
+        SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, conf, tm);
+        sparkNet.setListeners(new ExampleCountListener());
+
+        //Number of partitions differs from number of workers
+        JavaRDD<String> pathRdd = sc.parallelize(paths, numExecutors() + 3);
+        assertNotEquals(numExecutors(), pathRdd.partitions().size());
+
+        long missesBefore = LocalMinibatchCache.getMisses();
+        long hitsBefore = LocalMinibatchCache.getHits();
+        INDArray paramsBefore = sparkNet.getNetwork().params().dup();
+        for (int epoch = 0; epoch < 3; epoch++) {
+            ExampleCountListener.examples.set(0);
+            long loadsBefore = LocalMinibatchCache.getMisses() + LocalMinibatchCache.getHits();
+
+            sparkNet.fitPaths(pathRdd);
+
+            //Every path is loaded and trained on, in every epoch
+            assertEquals(numPaths, LocalMinibatchCache.getMisses() + LocalMinibatchCache.getHits() - loadsBefore);
+            assertEquals(numPaths * examplesPerPath, ExampleCountListener.examples.get());
+        }
+        assertNotEquals(paramsBefore, sparkNet.getNetwork().params());
+
+        //Local mode: one JVM, so each path is copied exactly once
+        assertEquals(numPaths, LocalMinibatchCache.getMisses() - missesBefore);
+        assertEquals(2 * numPaths, LocalMinibatchCache.getHits() - hitsBefore);
+    }
+
+    /**
+     * Counts examples trained on, over all workers in this JVM
+     */
+    public static class ExampleCountListener extends BaseTrainingListener implements Serializable {
+        private static final AtomicLong examples = new AtomicLong();
+
+        @Override
+        public void iterationDone(Model model, int iteration, int epoch) {
+            examples.addAndGet(model.batchSize());
+        }
+    }
+}
@@ -16,8 +16,12 @@ import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
 import org.deeplearning4j.spark.api.RDDTrainingApproach;
 import org.deeplearning4j.spark.api.TrainingMaster;
+import org.deeplearning4j.spark.api.stats.SparkTrainingStats;
 import org.deeplearning4j.spark.impl.graph.SparkComputationGraph;
 import org.deeplearning4j.spark.impl.multilayer.SparkDl4jMultiLayer;
+import org.deeplearning4j.spark.impl.paramavg.stats.ParameterAveragingTrainingMasterStats;
+import org.deeplearning4j.spark.stats.DataSizeEventStats;
+import org.deeplearning4j.spark.stats.EventStats;
 import org.junit.Before;
 import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
@@ -339,6 +343,55 @@ public class TestCompareParameterAveragingSparkVsSingleMachine {
         }
     }
 
+    @Test
+    public void testAverageEveryStepDeltaCompression() {
+        //With delta compression, the result should match single machine training up to (approximately) the threshold:
+        // any part of the update smaller than the threshold is retained as a residual by the executor
+        int miniBatchSizePerWorker = 10;
+        int nWorkers = 4;
+        double threshold = 1e-3;
+
+        JavaSparkContext sc = getContext(nWorkers);
+        try {
+            int[] seeds = {1, 2, 3};
+
+            MultiLayerNetwork net = new MultiLayerNetwork(getConf(12345, new Sgd(0.5)));
+            net.init();
+            INDArray initialParams = net.params().dup();
+            for (int i = 0; i < seeds.length; i++) {
+                net.fit(getOneDataSet(miniBatchSizePerWorker * nWorkers, seeds[i]));
+            }
+            INDArray finalParams = net.params().dup();
+
+            ParameterAveragingTrainingMaster tm = new ParameterAveragingTrainingMaster.Builder(1)
+                            .averagingFrequency(1).batchSizePerWorker(miniBatchSizePerWorker).saveUpdater(true)
+                            .workerPrefetchNumBatches(0).deltaCompression(threshold, 1000).build();
+            SparkDl4jMultiLayer sparkNet = new SparkDl4jMultiLayer(sc, getConf(12345, new Sgd(0.5)), tm);
+            sparkNet.setCollectTrainingStats(true);
+            assertEquals(initialParams, sparkNet.getNetwork().params());
+
+            for (int i = 0; i < seeds.length; i++) {
+                List<DataSet> list = getOneDataSetAsIndividalExamples(miniBatchSizePerWorker * nWorkers, seeds[i]);
+                sparkNet.fit(sc.parallelize(list));
+            }
+
+            INDArray finalSparkParams = sparkNet.getNetwork().params().dup();
+            assertNotEquals(initialParams, finalSparkParams);
+            assertArrayEquals(finalParams.data().asFloat(), finalSparkParams.data().asFloat(), 1e-2f);
+
+            SparkTrainingStats stats = sparkNet.getSparkTrainingStats();
+            System.out.println(stats.statsAsString());
+            List<EventStats> bytes =
+                            stats.getValue(ParameterAveragingTrainingMasterStats.PARAMETER_AVERAGING_MASTER_AGGREGATE_BYTES);
+            assertEquals(seeds.length, bytes.size());
+            for (EventStats e : bytes) {
+                assertTrue(((DataSizeEventStats) e).getNumBytes() > 0);
+            }
+        } finally {
+            sc.stop();
+        }
+    }
+
     @Test
     public void testAverageEveryStepCNN() {
         //Idea: averaging every step with SGD (SGD updater + optimizer) is mathematically identical to doing the learning
@@ -0,0 +1,116 @@
+package org.deeplearning4j.spark.impl.paramavg;
+
+import org.deeplearning4j.spark.impl.paramavg.compression.ParameterDeltaEncoder;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.compression.ThresholdCompression;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trip tests for the threshold/bitmap encoding of parameter deltas
+ */
+public class TestParameterDeltaEncoder {
+
+    @Test
+    public void testEncodeDecode() {
+        Nd4j.getRandom().setSeed(12345);
+        double threshold = 1e-2;
+        for (double sparsity : new double[] {0.01, 0.5, 1.0}) {
+            //Mix of sparse and dense deltas, to cover both threshold and bitmap encoding
+            INDArray delta = Nd4j.rand(1, 1000).subi(0.5).muli(0.2);
+            INDArray mask = Nd4j.rand(1, 1000).lti(sparsity);
+            delta.muli(mask);
+            INDArray original = delta.dup();
+
+            List<int[]> encoded = ParameterDeltaEncoder.encode(delta, threshold, 100);
+            assertTrue(ParameterDeltaEncoder.sizeBytes(encoded) > 0);
+            assertEquals(1000, ParameterDeltaEncoder.decodedLength(encoded));
+
+            //Delta now holds the residual, which is smaller than the threshold
+            assertTrue(delta.amaxNumber().doubleValue() < threshold);
+
+            INDArray steps = Nd4j.zeros(1, 1000);
+            ParameterDeltaEncoder.decode(encoded, steps);
+            INDArray decoded = steps.mul(threshold);
+            assertArrayEquals(original.data().asFloat(), decoded.add(delta).data().asFloat(), 1e-5f);
+            if (sparsity == 1.0) {
+                //Dense delta is bitmap encoded, which also encodes half steps
+                assertEquals(ThresholdCompression.BITMAP_ENCODING, encoded.get(0)[3]);
+                INDArray frac = steps.sub(Transforms.floor(steps, true));
+                assertTrue(frac.amaxNumber().doubleValue() > 0.0);
+            }
+
+            //Decoded steps must be exact after re-encoding
+            INDArray toEncode = steps.dup();
+            List<int[]> reEncoded = ParameterDeltaEncoder.encodeSteps(toEncode);
+            assertEquals(0.0, toEncode.amaxNumber().doubleValue(), 0.0);
+            INDArray reDecoded = Nd4j.zeros(1, 1000);
+            ParameterDeltaEncoder.decode(reEncoded, reDecoded);
+            assertEquals(steps, reDecoded);
+
+            //Sum of two messages, as in the pre-reduce and combine functions
+            INDArray sum = steps.dup();
+            ParameterDeltaEncoder.decode(encoded, sum);
+            List<int[]> sumEncoded = ParameterDeltaEncoder.encodeSteps(sum.dup());
+            INDArray decodedSum = Nd4j.zeros(1, 1000);
+            ParameterDeltaEncoder.decode(sumEncoded, decodedSum);
+            assertEquals(sum, decodedSum);
+        }
+    }
+
+    @Test
+    public void testEncodeSingleElement() {
+        //Threshold encoding returns null for a single element above threshold: it must still be encoded
+        INDArray steps = Nd4j.zeros(1, 1000);
+        steps.putScalar(123, -2.5);
+        INDArray expected = steps.dup();
+
+        List<int[]> encoded = ParameterDeltaEncoder.encodeSteps(steps);
+        assertEquals(0.0, steps.amaxNumber().doubleValue(), 0.0);
+        INDArray decoded = Nd4j.zeros(1, 1000);
+        ParameterDeltaEncoder.decode(encoded, decoded);
+        assertEquals(expected, decoded);
+    }
+
+    @Test
+    public void testEncodeStepsDenseFallback() {
+        //Sum of many dense messages: large values would need many bitmap passes, more than the dense array
+        INDArray steps = Transforms.round(Nd4j.rand(1, 1000).subi(0.5).muli(200), false).divi(2);
+        INDArray expected = steps.dup();
+
+        List<int[]> encoded = ParameterDeltaEncoder.encodeSteps(steps);
+        assertEquals(1, encoded.size());
+        assertEquals(ParameterDeltaEncoder.DENSE_ENCODING, encoded.get(0)[3]);
+        assertTrue(ParameterDeltaEncoder.sizeBytes(encoded) <= 4 * (1000 + 4));
+        assertEquals(1000, ParameterDeltaEncoder.decodedLength(encoded));
+        assertEquals(0.0, steps.amaxNumber().doubleValue(), 0.0);
+
+        INDArray decoded = Nd4j.zeros(1, 1000);
+        ParameterDeltaEncoder.decode(encoded, decoded);
+        assertEquals(expected, decoded);
+    }
+
+    @Test
+    public void testResidualExpiry() {
+        String key = "testResidualExpiry";
+        ParameterDeltaEncoder.storeResidual(key, Nd4j.ones(1, 10));
+        assertTrue(ParameterDeltaEncoder.hasResidual(key));
+
+        //Still in use: kept
+        ParameterDeltaEncoder.expireResiduals(System.currentTimeMillis());
+        assertTrue(ParameterDeltaEncoder.hasResidual(key));
+
+        //Not used since training ended: dropped
+        ParameterDeltaEncoder.expireResiduals(System.currentTimeMillis() + ParameterDeltaEncoder.RESIDUAL_EXPIRY_MS + 1);
+        assertFalse(ParameterDeltaEncoder.hasResidual(key));
+
+        INDArray delta = Nd4j.zeros(1, 10);
+        ParameterDeltaEncoder.applyResidual(key, delta);
+        assertEquals(Nd4j.zeros(1, 10), delta);
+    }
+}
@@ -0,0 +1,597 @@
+package org.deeplearning4j.ui.storage;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.api.storage.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind {@link StatsStorage} wrapper: put calls only enqueue the objects, and a background thread writes them
+ * to the underlying storage in batches (one put call - i.e., a single transaction/commit for {@link FileStatsStorage}
+ * and {@link org.deeplearning4j.ui.storage.sqlite.J7FileStatsStorage} - per batch).<br>
+ * A batch is written when {@link Builder#batchSize(int)} objects are pending, or every
+ * {@link Builder#flushIntervalMs(long)} milliseconds otherwise.<br>
+ * <br>
+ * The number of pending updates is bounded ({@link Builder#queueSize(int)}); when the queue is full, the
+ * {@link OverflowPolicy} determines what happens to new updates. Storage metadata and static info are never dropped.<br>
+ * Queries are forwarded to the underlying storage directly, hence they only see objects that have been written already;
+ * use {@link #flush()} to wait for all pending objects. Listeners are registered on the underlying storage, and are
+ * notified from the background thread.
+ *
+ * @author raver119@gmail.com
+ */
+@Slf4j
+public class AsyncStatsStorage implements StatsStorage {
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 1000L;
+
+    /**
+     * What to do with a new update when the queue is full:<br>
+     * BLOCK: wait until the background thread has written some of the pending objects<br>
+     * DROP: discard the new update<br>
+     * MERGE: discard the oldest pending update with the same session, type and worker IDs (i.e., keep the most recent
+     * report only), or wait as per BLOCK if there is no such update
+     */
+    public enum OverflowPolicy {
+        BLOCK, DROP, MERGE
+    }
+
+    private enum Type {
+        META, STATIC, UPDATE
+    }
+
+    private static class Entry {
+        private final Type type;
+        private final Persistable object;
+        private final long enqueueTime;
+
+        private Entry(Type type, Persistable object) {
+            this.type = type;
+            this.object = object;
+            this.enqueueTime = System.currentTimeMillis();
+        }
+    }
+
+    @Getter
+    private final StatsStorage underlying;
+    private final int queueSize;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final OverflowPolicy overflowPolicy;
+
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger(0);
+    private final AtomicLong enqueued = new AtomicLong(0);
+    private final AtomicLong completed = new AtomicLong(0);
+    private final AtomicLong written = new AtomicLong(0);
+    private final AtomicLong dropped = new AtomicLong(0);
+    private final AtomicLong merged = new AtomicLong(0);
+    private final AtomicLong failed = new AtomicLong(0);
+    private final AtomicLong flushCount = new AtomicLong(0);
+    private final AtomicInteger flushWaiters = new AtomicInteger(0);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private volatile long lastFlushDurationMs;
+
+    //Flusher waits on this until a batch is full, or the flush interval elapses
+    private final Object flusherLock = new Object();
+    //Producers (BLOCK/MERGE policies) and flush() callers wait on this until some entries have been written
+    private final Object progressLock = new Object();
+    private final Thread flusher;
+
+    private AsyncStatsStorage(Builder builder) {
+        this.underlying = builder.storage;
+        this.queueSize = builder.queueSize;
+        this.batchSize = builder.batchSize;
+        this.flushIntervalMs = builder.flushIntervalMs;
+        this.overflowPolicy = builder.overflowPolicy;
+
+        flusher = new Thread(new FlushRunnable(), "AsyncStatsStorage-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Create an AsyncStatsStorage with the default configuration
+     *
+     * @param storage Underlying storage to write to
+     */
+    public AsyncStatsStorage(@NonNull StatsStorage storage) {
+        this(new Builder(storage));
+    }
+
+    // ----- Put methods: enqueue only -----
+
+    @Override
+    public void putStorageMetaData(StorageMetaData storageMetaData) {
+        putStorageMetaData(Collections.singletonList(storageMetaData));
+    }
+
+    @Override
+    public void putStorageMetaData(Collection<? extends StorageMetaData> storageMetaData) {
+        for (StorageMetaData m : storageMetaData) {
+            enqueue(new Entry(Type.META, m), false);
+        }
+    }
+
+    @Override
+    public void putStaticInfo(Persistable staticInfo) {
+        putStaticInfo(Collections.singletonList(staticInfo));
+    }
+
+    @Override
+    public void putStaticInfo(Collection<? extends Persistable> staticInfo) {
+        for (Persistable p : staticInfo) {
+            enqueue(new Entry(Type.STATIC, p), false);
+        }
+    }
+
+    @Override
+    public void putUpdate(Persistable update) {
+        putUpdate(Collections.singletonList(update));
+    }
+
+    @Override
+    public void putUpdate(Collection<? extends Persistable> updates) {
+        for (Persistable p : updates) {
+            if (!reserveSlot(p))
+                continue;
+            enqueue(new Entry(Type.UPDATE, p), true);
+        }
+    }
+
+    /**
+     * @param reserved Whether a slot was already reserved for this entry (i.e., counted in pending) by
+     *                 {@link #reserveSlot(Persistable)}
+     */
+    private void enqueue(Entry entry, boolean reserved) {
+        if (closed.get()) {
+            if (reserved)
+                pending.decrementAndGet();
+            throw new IllegalStateException("Cannot store stats: AsyncStatsStorage has been closed");
+        }
+
+        enqueued.incrementAndGet();
+        queue.add(entry);
+        if ((reserved ? pending.get() : pending.incrementAndGet()) >= batchSize)
+            wakeFlusher();
+    }
+
+    /**
+     * Reserve a slot in the queue for the given update (i.e., count it in pending), applying the overflow policy if
+     * the queue is full. The check and the reservation are a single CAS, so concurrent producers can't exceed queueSize
+     *
+     * @return False if the update should be discarded
+     */
+    private boolean reserveSlot(Persistable update) {
+        while (true) {
+            int current = pending.get();
+            if (current < queueSize) {
+                if (pending.compareAndSet(current, current + 1))
+                    return true;
+                continue;
+            }
+
+            if (closed.get())
+                throw new IllegalStateException("Cannot store stats: AsyncStatsStorage has been closed");
+
+            switch (overflowPolicy) {
+                case DROP:
+                    dropped.incrementAndGet();
+                    return false;
+                case MERGE:
+                    //Slot of the removed update is taken over by the new one
+                    if (removeOlderUpdate(update))
+                        return true;
+                    //No pending update to replace: fall through to blocking
+                case BLOCK:
+                default:
+                    wakeFlusher();
+                    synchronized (progressLock) {
+                        if (pending.get() >= queueSize) {
+                            try {
+                                progressLock.wait(10);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                throw new RuntimeException(e);
+                            }
+                        }
+                    }
+            }
+        }
+    }
+
+    /**
+     * Remove the oldest pending update with the same session, type and worker IDs. Its slot isn't released (pending
+     * isn't decremented), as it is reused by the new update
+     */
+    private boolean removeOlderUpdate(Persistable update) {
+        for (Entry e : queue) {
+            if (e.type == Type.UPDATE && e.object.getSessionID().equals(update.getSessionID())
+                            && e.object.getTypeID().equals(update.getTypeID())
+                            && e.object.getWorkerID().equals(update.getWorkerID())) {
+                //May fail if the flusher has taken this entry in the meantime
+                if (queue.remove(e)) {
+                    completed.incrementAndGet();
+                    merged.incrementAndGet();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void wakeFlusher() {
+        synchronized (flusherLock) {
+            flusherLock.notifyAll();
+        }
+    }
+
+    /**
+     * Block until all objects put before this call have been written to the underlying storage
+     */
+    public void flush() {
+        long target = enqueued.get();
+        flushWaiters.incrementAndGet();
+        try {
+            wakeFlusher();
+            while (completed.get() < target && flusher.isAlive()) {
+                synchronized (progressLock) {
+                    if (completed.get() < target) {
+                        try {
+                            progressLock.wait(10);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new RuntimeException(e);
+                        }
+                    }
+                }
+            }
+        } finally {
+            flushWaiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Write all currently pending objects, in batches of up to batchSize
+     */
+    private void drain() {
+        while (!queue.isEmpty()) {
+            List<StorageMetaData> meta = null;
+            List<Persistable> statics = null;
+            List<Persistable> updates = null;
+            int count = 0;
+            Entry e;
+            while (count < batchSize && (e = queue.poll()) != null) {
+                count++;
+                switch (e.type) {
+                    case META:
+                        if (meta == null)
+                            meta = new ArrayList<>();
+                        meta.add((StorageMetaData) e.object);
+                        break;
+                    case STATIC:
+                        if (statics == null)
+                            statics = new ArrayList<>();
+                        statics.add(e.object);
+                        break;
+                    default:
+                        if (updates == null)
+                            updates = new ArrayList<>();
+                        updates.add(e.object);
+                }
+            }
+            if (count == 0)
+                return;
+            pending.addAndGet(-count);
+
+            long start = System.currentTimeMillis();
+            try {
+                //Metadata and static info before updates, as readers expect these to be present first
+                if (meta != null)
+                    underlying.putStorageMetaData(meta);
+                if (statics != null)
+                    underlying.putStaticInfo(statics);
+                if (updates != null)
+                    underlying.putUpdate(updates);
+                written.addAndGet(count);
+            } catch (Throwable t) {
+                failed.addAndGet(count);
+                log.error("Error writing {} stats objects to underlying storage {}", count, underlying, t);
+            }
+            lastFlushDurationMs = System.currentTimeMillis() - start;
+            flushCount.incrementAndGet();
+            completed.addAndGet(count);
+
+            synchronized (progressLock) {
+                progressLock.notifyAll();
+            }
+        }
+    }
+
+    private class FlushRunnable implements Runnable {
+        @Override
+        public void run() {
+            while (true) {
+                synchronized (flusherLock) {
+                    if (pending.get() < batchSize && flushWaiters.get() == 0 && !closed.get()) {
+                        try {
+                            flusherLock.wait(flushIntervalMs);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }
+
+                drain();
+
+                if (closed.get() && queue.isEmpty())
+                    return;
+            }
+        }
+    }
+
+    // ----- Metrics -----
+
+    /**
+     * @return Number of objects waiting to be written to the underlying storage
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * @return Age of the oldest pending object in milliseconds, or 0 if nothing is pending
+     */
+    public long getLagMs() {
+        Entry head = queue.peek();
+        return head == null ? 0 : Math.max(0, System.currentTimeMillis() - head.enqueueTime);
+    }
+
+    /**
+     * @return Number of objects written to the underlying storage so far
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * @return Number of updates discarded due to {@link OverflowPolicy#DROP}
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return Number of pending updates replaced by a newer one, due to {@link OverflowPolicy#MERGE}
+     */
+    public long getMergedCount() {
+        return merged.get();
+    }
+
+    /**
+     * @return Number of objects that could not be written due to an exception in the underlying storage
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return Number of batches written to the underlying storage so far
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * @return Duration of the last batch write, in milliseconds
+     */
+    public long getLastFlushDurationMs() {
+        return lastFlushDurationMs;
+    }
+
+    // ----- Everything else: forwarded to the underlying storage -----
+
+    /**
+     * Write all pending objects, stop the background thread, and close the underlying storage
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed.compareAndSet(false, true))
+            return;
+
+        wakeFlusher();
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (progressLock) {
+            progressLock.notifyAll();
+        }
+        underlying.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed.get() || underlying.isClosed();
+    }
+
+    @Override
+    public List<String> listSessionIDs() {
+        return underlying.listSessionIDs();
+    }
+
+    @Override
+    public boolean sessionExists(String sessionID) {
+        return underlying.sessionExists(sessionID);
+    }
+
+    @Override
+    public Persistable getStaticInfo(String sessionID, String typeID, String workerID) {
+        return underlying.getStaticInfo(sessionID, typeID, workerID);
+    }
+
+    @Override
+    public List<Persistable> getAllStaticInfos(String sessionID, String typeID) {
+        return underlying.getAllStaticInfos(sessionID, typeID);
+    }
+
+    @Override
+    public List<String> listTypeIDsForSession(String sessionID) {
+        return underlying.listTypeIDsForSession(sessionID);
+    }
+
+    @Override
+    public List<String> listWorkerIDsForSession(String sessionID) {
+        return underlying.listWorkerIDsForSession(sessionID);
+    }
+
+    @Override
+    public List<String> listWorkerIDsForSessionAndType(String sessionID, String typeID) {
+        return underlying.listWorkerIDsForSessionAndType(sessionID, typeID);
+    }
+
+    @Override
+    public int getNumUpdateRecordsFor(String sessionID) {
+        return underlying.getNumUpdateRecordsFor(sessionID);
+    }
+
+    @Override
+    public int getNumUpdateRecordsFor(String sessionID, String typeID, String workerID) {
+        return underlying.getNumUpdateRecordsFor(sessionID, typeID, workerID);
+    }
+
+    @Override
+    public Persistable getLatestUpdate(String sessionID, String typeID, String workerID) {
+        return underlying.getLatestUpdate(sessionID, typeID, workerID);
+    }
+
+    @Override
+    public Persistable getUpdate(String sessionID, String typeId, String workerID, long timestamp) {
+        return underlying.getUpdate(sessionID, typeId, workerID, timestamp);
+    }
+
+    @Override
+    public List<Persistable> getLatestUpdateAllWorkers(String sessionID, String typeID) {
+        return underlying.getLatestUpdateAllWorkers(sessionID, typeID);
+    }
+
+    @Override
+    public List<Persistable> getAllUpdatesAfter(String sessionID, String typeID, String workerID, long timestamp) {
+        return underlying.getAllUpdatesAfter(sessionID, typeID, workerID, timestamp);
+    }
+
+    @Override
+    public List<Persistable> getAllUpdatesAfter(String sessionID, String typeID, long timestamp) {
+        return underlying.getAllUpdatesAfter(sessionID, typeID, timestamp);
+    }
+
+    @Override
+    public long[] getAllUpdateTimes(String sessionID, String typeID, String workerID) {
+        return underlying.getAllUpdateTimes(sessionID, typeID, workerID);
+    }
+
+    @Override
+    public List<Persistable> getUpdates(String sessionID, String typeID, String workerID, long[] timestamps) {
+        return underlying.getUpdates(sessionID, typeID, workerID, timestamps);
+    }
+
+    @Override
+    public StorageMetaData getStorageMetaData(String sessionID, String typeID) {
+        return underlying.getStorageMetaData(sessionID, typeID);
+    }
+
+    @Override
+    public void registerStatsStorageListener(StatsStorageListener listener) {
+        underlying.registerStatsStorageListener(listener);
+    }
+
+    @Override
+    public void deregisterStatsStorageListener(StatsStorageListener listener) {
+        underlying.deregisterStatsStorageListener(listener);
+    }
+
+    @Override
+    public void removeAllListeners() {
+        underlying.removeAllListeners();
+    }
+
+    @Override
+    public List<StatsStorageListener> getListeners() {
+        return underlying.getListeners();
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncStatsStorage(" + underlying + ")";
+    }
+
+    public static class Builder {
+        private final StatsStorage storage;
+        private int queueSize = DEFAULT_QUEUE_SIZE;
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        private long flushIntervalMs = DEFAULT_FLUSH_INTERVAL_MS;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+        /**
+         * @param storage Underlying storage to write to
+         */
+        public Builder(@NonNull StatsStorage storage) {
+            this.storage = storage;
+        }
+
+        /**
+         * Maximum number of pending updates, before the {@link OverflowPolicy} is applied. Default: 1024
+         */
+        public Builder queueSize(int queueSize) {
+            this.queueSize = queueSize;
+            return this;
+        }
+
+        /**
+         * Maximum number of objects written to the underlying storage at once. A write is also triggered as soon
+         * as this many objects are pending. Default: 64
+         */
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Maximum time between writes to the underlying storage, if fewer than batchSize objects are pending.
+         * Default: 1000 ms
+         */
+        public Builder flushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+            return this;
+        }
+
+        /**
+         * What to do with new updates when the queue is full. Default: {@link OverflowPolicy#BLOCK}
+         */
+        public Builder overflowPolicy(@NonNull OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public AsyncStatsStorage build() {
+            if (queueSize <= 0)
+                throw new IllegalArgumentException("Queue size must be positive, got " + queueSize);
+            if (batchSize <= 0)
+                throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+            if (flushIntervalMs <= 0)
+                throw new IllegalArgumentException("Flush interval must be positive, got " + flushIntervalMs);
+            return new AsyncStatsStorage(this);
+        }
+    }
+}
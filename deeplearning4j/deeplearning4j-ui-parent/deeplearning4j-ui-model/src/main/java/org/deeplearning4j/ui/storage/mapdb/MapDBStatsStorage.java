@@ -10,6 +10,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.Lock;
@@ -149,6 +151,26 @@ public class MapDBStatsStorage extends BaseCollectionStatsStorage {
         notifyListeners(sses);
     }
 
+    @Override
+    public void putStaticInfo(Collection<? extends Persistable> staticInfos) {
+        //Single commit for the whole collection, instead of one per object
+        List<StatsStorageEvent> sses = new ArrayList<>();
+        for (Persistable p : staticInfos) {
+            List<StatsStorageEvent> newIds = checkStorageEvents(p);
+            if (newIds != null)
+                sses.addAll(newIds);
+            if (!sessionIDs.contains(p.getSessionID())) {
+                sessionIDs.add(p.getSessionID());
+            }
+            this.staticInfo.put(new SessionTypeWorkerId(p.getSessionID(), p.getTypeID(), p.getWorkerID()), p);
+            if (!listeners.isEmpty())
+                sses.add(new StatsStorageEvent(this, StatsStorageListener.EventType.PostStaticInfo, p.getSessionID(),
+                                p.getTypeID(), p.getWorkerID(), p.getTimeStamp()));
+        }
+        db.commit();
+        notifyListeners(sses);
+    }
+
     @Override
     public void putUpdate(Persistable update) {
         List<StatsStorageEvent> sses = checkStorageEvents(update);
@@ -168,6 +190,24 @@ public class MapDBStatsStorage extends BaseCollectionStatsStorage {
         notifyListeners(sses);
     }
 
+    @Override
+    public void putUpdate(Collection<? extends Persistable> updates) {
+        //Single commit for the whole collection, instead of one per update
+        List<StatsStorageEvent> sses = new ArrayList<>();
+        for (Persistable update : updates) {
+            List<StatsStorageEvent> newIds = checkStorageEvents(update);
+            if (newIds != null)
+                sses.addAll(newIds);
+            getUpdateMap(update.getSessionID(), update.getTypeID(), update.getWorkerID(), true)
+                            .put(update.getTimeStamp(), update);
+            if (!listeners.isEmpty())
+                sses.add(new StatsStorageEvent(this, StatsStorageListener.EventType.PostUpdate, update.getSessionID(),
+                                update.getTypeID(), update.getWorkerID(), update.getTimeStamp()));
+        }
+        db.commit();
+        notifyListeners(sses);
+    }
+
     @Override
     public void putStorageMetaData(StorageMetaData storageMetaData) {
         List<StatsStorageEvent> sses = checkStorageEvents(storageMetaData);
@@ -187,6 +227,23 @@ public class MapDBStatsStorage extends BaseCollectionStatsStorage {
         notifyListeners(sses);
     }
 
+    @Override
+    public void putStorageMetaData(Collection<? extends StorageMetaData> storageMetaData) {
+        //Single commit for the whole collection, instead of one per object
+        List<StatsStorageEvent> sses = new ArrayList<>();
+        for (StorageMetaData m : storageMetaData) {
+            List<StatsStorageEvent> newIds = checkStorageEvents(m);
+            if (newIds != null)
+                sses.addAll(newIds);
+            this.storageMetaData.put(new SessionTypeId(m.getSessionID(), m.getTypeID()), m);
+            if (!listeners.isEmpty())
+                sses.add(new StatsStorageEvent(this, StatsStorageListener.EventType.PostMetaData, m.getSessionID(),
+                                m.getTypeID(), m.getWorkerID(), m.getTimeStamp()));
+        }
+        db.commit();
+        notifyListeners(sses);
+    }
+
 
     @Data
     public static class Builder {
@@ -104,6 +104,41 @@ public class J7FileStatsStorage implements StatsStorage {
 
     }
 
+    /**
+     * Disable autocommit (if enabled), so that all rows of a put call are written as a single transaction
+     *
+     * @return The previous autocommit setting, to be passed to {@link #endTransaction(boolean, boolean)}
+     */
+    private boolean beginTransaction() {
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit)
+                connection.setAutoCommit(false);
+            return autoCommit;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void endTransaction(boolean success, boolean autoCommit) {
+        try {
+            if (success)
+                connection.commit();
+            else
+                connection.rollback();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (autoCommit) {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+
     private static Pair<String, byte[]> serializeForDB(Object object) {
         String classStr = object.getClass().getName();
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -246,8 +281,9 @@ public class J7FileStatsStorage implements StatsStorage {
     @Override
     public void putStorageMetaData(Collection<? extends StorageMetaData> collection) {
         List<StatsStorageEvent> sses = null;
-        try {
-            PreparedStatement ps = connection.prepareStatement(INSERT_META_SQL);
+        boolean autoCommit = beginTransaction();
+        boolean success = false;
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_META_SQL)) {
 
             for (StorageMetaData storageMetaData : collection) {
                 List<StatsStorageEvent> ssesTemp = checkStorageEvents(storageMetaData);
@@ -268,7 +304,7 @@ public class J7FileStatsStorage implements StatsStorage {
                 }
 
 
-                //Normally we'd batch these... sqlite has an autocommit feature that messes up batching with .addBatch() and .executeUpdate()
+                //All rows are written in a single transaction: with autocommit, sqlite would sync to disk for each row
                 Pair<String, byte[]> p = serializeForDB(storageMetaData);
 
                 ps.setString(1, storageMetaData.getSessionID());
@@ -277,8 +313,11 @@ public class J7FileStatsStorage implements StatsStorage {
                 ps.setObject(4, p.getSecond());
                 ps.executeUpdate();
             }
+            success = true;
         } catch (SQLException e) {
             throw new RuntimeException(e);
+        } finally {
+            endTransaction(success, autoCommit);
         }
 
         notifyListeners(sses);
@@ -292,8 +331,9 @@ public class J7FileStatsStorage implements StatsStorage {
     @Override
     public void putStaticInfo(Collection<? extends Persistable> collection) {
         List<StatsStorageEvent> sses = null;
-        try {
-            PreparedStatement ps = connection.prepareStatement(INSERT_STATIC_SQL);
+        boolean autoCommit = beginTransaction();
+        boolean success = false;
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_STATIC_SQL)) {
 
             for (Persistable p : collection) {
                 List<StatsStorageEvent> ssesTemp = checkStorageEvents(p);
@@ -312,7 +352,7 @@ public class J7FileStatsStorage implements StatsStorage {
                     sses.add(sse);
                 }
 
-                //Normally we'd batch these... sqlite has an autocommit feature that messes up batching with .addBatch() and .executeUpdate()
+                //All rows are written in a single transaction: with autocommit, sqlite would sync to disk for each row
                 Pair<String, byte[]> pair = serializeForDB(p);
 
                 ps.setString(1, p.getSessionID());
@@ -322,8 +362,11 @@ public class J7FileStatsStorage implements StatsStorage {
                 ps.setBytes(5, pair.getSecond());
                 ps.executeUpdate();
             }
+            success = true;
         } catch (SQLException e) {
             throw new RuntimeException(e);
+        } finally {
+            endTransaction(success, autoCommit);
         }
 
         notifyListeners(sses);
@@ -338,8 +381,9 @@ public class J7FileStatsStorage implements StatsStorage {
     public void putUpdate(Collection<? extends Persistable> collection) {
         List<StatsStorageEvent> sses = null;
 
-        try {
-            PreparedStatement ps = connection.prepareStatement(INSERT_UPDATE_SQL);
+        boolean autoCommit = beginTransaction();
+        boolean success = false;
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_UPDATE_SQL)) {
 
             for (Persistable p : collection) {
                 List<StatsStorageEvent> ssesTemp = checkStorageEvents(p);
@@ -358,7 +402,7 @@ public class J7FileStatsStorage implements StatsStorage {
                     sses.add(sse);
                 }
 
-                //Normally we'd batch these... sqlite has an autocommit feature that messes up batching with .addBatch() and .executeUpdate()
+                //All rows are written in a single transaction: with autocommit, sqlite would sync to disk for each row
                 Pair<String, byte[]> pair = serializeForDB(p);
 
                 ps.setString(1, p.getSessionID());
@@ -369,8 +413,11 @@ public class J7FileStatsStorage implements StatsStorage {
                 ps.setObject(6, pair.getSecond());
                 ps.executeUpdate();
             }
+            success = true;
         } catch (SQLException e) {
             throw new RuntimeException(e);
+        } finally {
+            endTransaction(success, autoCommit);
         }
 
         notifyListeners(sses);
@@ -337,6 +337,110 @@ public class TestStatsStorage {
         }
     }
 
+    @Test
+    public void testAsyncStatsStorage() throws IOException {
+        for (boolean useJ7Storage : new boolean[] {false, true}) {
+            StatsStorage underlying;
+            if (useJ7Storage) {
+                File f = createTempFile("TestAsyncJ7FileStatsStore", ".db");
+                f.delete();
+                underlying = new J7FileStatsStorage(f);
+            } else {
+                underlying = new InMemoryStatsStorage();
+            }
+            AsyncStatsStorage ss = new AsyncStatsStorage.Builder(underlying).queueSize(16).batchSize(8)
+                            .flushIntervalMs(50).overflowPolicy(AsyncStatsStorage.OverflowPolicy.BLOCK).build();
+
+            CountingListener l = new CountingListener();
+            ss.registerStatsStorageListener(l);
+
+            ss.putStaticInfo(getInitReport(0, 0, 0, useJ7Storage));
+            for (int i = 0; i < 100; i++) {
+                ss.putUpdate(getReport(0, 0, 0, 1000 + i, useJ7Storage));
+            }
+            ss.flush();
+
+            assertEquals(0, ss.getPendingCount());
+            assertEquals(101, ss.getWrittenCount());
+            assertEquals(0, ss.getDroppedCount());
+            assertEquals(0, ss.getLagMs());
+            assertEquals(100, ss.getNumUpdateRecordsFor("sid0"));
+            assertEquals(getReport(0, 0, 0, 1099, useJ7Storage), ss.getLatestUpdate("sid0", "tid0", "wid0"));
+            assertEquals(getInitReport(0, 0, 0, useJ7Storage), ss.getStaticInfo("sid0", "tid0", "wid0"));
+            assertEquals(1, l.countStaticInfo);
+            assertEquals(100, l.countUpdate);
+
+            ss.close();
+            assertTrue(ss.isClosed());
+            try {
+                ss.putUpdate(getReport(0, 0, 0, 2000, useJ7Storage));
+                fail("Expected exception");
+            } catch (IllegalStateException e) {
+                //OK
+            }
+        }
+    }
+
+    @Test
+    public void testAsyncStatsStorageOverflow() throws IOException {
+        //Long flush interval and large batch size: nothing is written until flush() is called
+        AsyncStatsStorage drop = new AsyncStatsStorage.Builder(new InMemoryStatsStorage()).queueSize(10)
+                        .batchSize(100).flushIntervalMs(100000).overflowPolicy(AsyncStatsStorage.OverflowPolicy.DROP)
+                        .build();
+        for (int i = 0; i < 20; i++) {
+            drop.putUpdate(getReport(0, 0, 0, i, false));
+        }
+        assertEquals(10, drop.getDroppedCount());
+        drop.flush();
+        assertEquals(10, drop.getWrittenCount());
+        assertEquals(10, drop.getNumUpdateRecordsFor("sid0"));
+        drop.close();
+
+        AsyncStatsStorage merge = new AsyncStatsStorage.Builder(new InMemoryStatsStorage()).queueSize(4)
+                        .batchSize(100).flushIntervalMs(100000).overflowPolicy(AsyncStatsStorage.OverflowPolicy.MERGE)
+                        .build();
+        for (int i = 0; i < 20; i++) {
+            merge.putUpdate(getReport(0, 0, i % 2, i, false));
+        }
+        assertEquals(16, merge.getMergedCount());
+        merge.flush();
+        assertEquals(4, merge.getWrittenCount());
+        //Most recent updates are retained for both workers
+        assertEquals(getReport(0, 0, 0, 18, false), merge.getLatestUpdate("sid0", "tid0", "wid0"));
+        assertEquals(getReport(0, 0, 1, 19, false), merge.getLatestUpdate("sid0", "tid0", "wid1"));
+        merge.close();
+    }
+
+    @Test
+    public void testAsyncStatsStorageConcurrentOverflow() throws Exception {
+        //Concurrent producers must never exceed the queue size: slots are reserved atomically
+        final AsyncStatsStorage drop = new AsyncStatsStorage.Builder(new InMemoryStatsStorage()).queueSize(10)
+                        .batchSize(100).flushIntervalMs(100000).overflowPolicy(AsyncStatsStorage.OverflowPolicy.DROP)
+                        .build();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int wid = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 100; i++) {
+                        drop.putUpdate(getReport(0, 0, wid, i, false));
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(10, drop.getPendingCount());
+        assertEquals(8 * 100 - 10, drop.getDroppedCount());
+        drop.flush();
+        assertEquals(10, drop.getWrittenCount());
+        drop.close();
+    }
+
     private static StatsInitializationReport getInitReport(int idNumber, int tid, int wid, boolean useJ7Storage) {
         StatsInitializationReport rep;
         if (useJ7Storage) {
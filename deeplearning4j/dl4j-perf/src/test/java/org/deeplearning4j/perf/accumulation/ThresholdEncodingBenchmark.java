@@ -0,0 +1,102 @@
+package org.deeplearning4j.perf.accumulation;
+
+import org.deeplearning4j.optimize.solvers.accumulation.AdaptiveThresholdEncoder;
+import org.deeplearning4j.optimize.solvers.accumulation.EncodingHandler;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.compression.ThresholdCompression;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding/decoding throughput of gradients sharing encodings.<br>
+ * "fixed" is EncodingHandler with a single threshold, "adaptive" is AdaptiveThresholdEncoder with one threshold per
+ * segment. Density is the fraction of elements above threshold: 1/16 and above goes to bitmap encoding.
+ *
+ * @author raver119@gmail.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ThresholdEncodingBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int length;
+
+    @Param({"0.001", "0.01", "0.1"})
+    public double density;
+
+    @Param({"1", "16"})
+    public int numSegments;
+
+    private INDArray original;
+    private INDArray residual;
+    private INDArray target;
+    private INDArray fixedEncoded;
+    private INDArray adaptiveEncoded;
+    private EncodingHandler handler;
+    private AdaptiveThresholdEncoder encoder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Nd4j.getRandom().setSeed(12345);
+        // uniform in [0, 1), so fraction of elements above (1 - density) is density
+        original = Nd4j.rand(1, length);
+        residual = original.dup();
+        target = Nd4j.zeros(1, length);
+
+        double threshold = 1.0 - density;
+        handler = new EncodingHandler(threshold);
+
+        long[] segments = new long[numSegments];
+        for (int i = 0; i < numSegments; i++)
+            segments[i] = length / numSegments + (i < length % numSegments ? 1 : 0);
+
+        // no adaptation, so every invocation encodes the same data
+        encoder = new AdaptiveThresholdEncoder.Builder(segments).initialThreshold(threshold).adaptationStep(0.0)
+                        .build();
+
+        fixedEncoded = handler.encodeUpdates(original.dup());
+        adaptiveEncoded = encoder.encode(original.dup());
+    }
+
+    @Setup(Level.Invocation)
+    public void resetResidual() {
+        residual.assign(original);
+    }
+
+    @Benchmark
+    public INDArray fixedEncode() {
+        return handler.encodeUpdates(residual);
+    }
+
+    @Benchmark
+    public INDArray adaptiveEncode() {
+        return encoder.encode(residual);
+    }
+
+    @Benchmark
+    public INDArray fixedDecode() {
+        if (fixedEncoded.data().getInt(3) == ThresholdCompression.FLEXIBLE_ENCODING)
+            Nd4j.getExecutioner().thresholdDecode(fixedEncoded, target);
+        else
+            Nd4j.getExecutioner().bitmapDecode(fixedEncoded, target);
+        return target;
+    }
+
+    @Benchmark
+    public INDArray adaptiveDecode() {
+        AdaptiveThresholdEncoder.decode(adaptiveEncoded, target);
+        return target;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(ThresholdEncodingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
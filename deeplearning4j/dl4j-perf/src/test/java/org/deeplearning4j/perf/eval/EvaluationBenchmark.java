@@ -0,0 +1,82 @@
+package org.deeplearning4j.perf.eval;
+
+import org.deeplearning4j.eval.Evaluation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation.eval(INDArray, INDArray) throughput for large minibatches.<br>
+ * "perExample" is the reference: argmax, then one confusion matrix update per example, as done by eval(int, int).
+ * "batched" is the dense accumulation path used by eval(INDArray, INDArray).
+ * "batchedWithStats" also materializes the confusion matrix and calculates F1 after each minibatch.
+ *
+ * @author raver119@gmail.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    @Param({"10", "1000"})
+    public int numClasses;
+
+    @Param({"1024", "16384"})
+    public int minibatch;
+
+    @Param({"1", "5"})
+    public int topN;
+
+    private INDArray labels;
+    private INDArray predictions;
+    private Evaluation evaluation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random r = new Random(12345);
+        labels = Nd4j.zeros(minibatch, numClasses);
+        for (int i = 0; i < minibatch; i++) {
+            labels.putScalar(i, r.nextInt(numClasses), 1.0);
+        }
+        predictions = Nd4j.rand(minibatch, numClasses);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetEvaluation() {
+        evaluation = new Evaluation(numClasses, topN);
+    }
+
+    @Benchmark
+    public Evaluation perExample() {
+        int[] actual = Nd4j.argMax(labels, 1).toIntVector();
+        int[] predicted = Nd4j.argMax(predictions, 1).toIntVector();
+        for (int i = 0; i < actual.length; i++) {
+            evaluation.eval(predicted[i], actual[i]);
+        }
+        return evaluation;
+    }
+
+    @Benchmark
+    public Evaluation batched() {
+        evaluation.eval(labels, predictions);
+        return evaluation;
+    }
+
+    @Benchmark
+    public double batchedWithStats() {
+        evaluation.eval(labels, predictions);
+        return evaluation.f1();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(EvaluationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,87 @@
+package org.deeplearning4j.perf.recurrent;
+
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.GravesLSTM;
+import org.deeplearning4j.nn.conf.layers.LSTM;
+import org.deeplearning4j.nn.conf.layers.Layer;
+import org.deeplearning4j.nn.conf.layers.RnnOutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LSTM/GravesLSTM inference time for long sequences: default implementation vs. the fused CPU implementation
+ * (see {@link org.deeplearning4j.nn.layers.recurrent.FusedLSTMHelper}).
+ *
+ * @author raver119@gmail.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LSTMInferenceBenchmark {
+
+    @Param({"lstm", "graves"})
+    public String layerType;
+
+    @Param({"false", "true"})
+    public boolean fused;
+
+    @Param({"64", "256"})
+    public int layerSize;
+
+    @Param({"1000"})
+    public int tsLength;
+
+    @Param({"32"})
+    public int minibatch;
+
+    private MultiLayerNetwork net;
+    private INDArray features;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int nIn = 32;
+        Layer layer;
+        if ("graves".equals(layerType)) {
+            layer = new GravesLSTM.Builder().nIn(nIn).nOut(layerSize).activation(Activation.TANH)
+                            .fusedInference(fused).build();
+        } else {
+            layer = new LSTM.Builder().nIn(nIn).nOut(layerSize).activation(Activation.TANH).fusedInference(fused)
+                            .build();
+        }
+
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345).list().layer(layer)
+                        .layer(new RnnOutputLayer.Builder().nIn(layerSize).nOut(10).activation(Activation.SOFTMAX)
+                                        .build())
+                        .build();
+        net = new MultiLayerNetwork(conf);
+        net.init();
+
+        features = Nd4j.rand(new int[] {minibatch, nIn, tsLength});
+    }
+
+    @Benchmark
+    public INDArray output() {
+        return net.output(features);
+    }
+
+    @Benchmark
+    public INDArray rnnTimeStep() {
+        net.rnnClearPreviousState();
+        return net.rnnTimeStep(features);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(LSTMInferenceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
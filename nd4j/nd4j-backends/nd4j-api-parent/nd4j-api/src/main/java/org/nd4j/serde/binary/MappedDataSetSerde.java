@@ -0,0 +1,490 @@
+package org.nd4j.serde.binary;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.javacpp.DoublePointer;
+import org.bytedeco.javacpp.FloatPointer;
+import org.bytedeco.javacpp.IntPointer;
+import org.bytedeco.javacpp.LongPointer;
+import org.bytedeco.javacpp.Pointer;
+import org.bytedeco.javacpp.indexer.DoubleIndexer;
+import org.bytedeco.javacpp.indexer.FloatIndexer;
+import org.bytedeco.javacpp.indexer.Indexer;
+import org.bytedeco.javacpp.indexer.IntIndexer;
+import org.bytedeco.javacpp.indexer.LongIndexer;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.concurrency.AffinityManager;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.MultiDataSet;
+import org.nd4j.linalg.exception.ND4JIllegalStateException;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class provides memory-mapped binary format for {@link DataSet} and {@link MultiDataSet} objects.
+ *
+ * Unlike {@link DataSet#save(File)}, which writes arrays through {@link Nd4j#write(INDArray, java.io.DataOutputStream)},
+ * this format stores a small header followed by raw, 64-byte aligned array buffers. On load, every buffer is
+ * memory-mapped and wrapped into a {@link DataBuffer} directly, without copying data to heap or off-heap memory.
+ *
+ * Layout (header values are little-endian):
+ * - 8 bytes magic, int version, int header length, int byte order of data, int kind (DataSet/MultiDataSet)
+ * - 4 ints: number of features, labels, features masks and labels masks arrays
+ * - per array: int presence flag, and if present - int data type code, int rank, long[rank] shape, long data offset,
+ *   long length. Data type codes are fixed (see TYPE_* constants), and don't depend on DataBuffer.Type ordinals
+ * - array data, 'c' order, each buffer aligned to 64 bytes
+ *
+ * PLEASE NOTE: files are mapped in copy-on-write mode, so in-place modification of loaded arrays (i.e. by
+ * preprocessors) is allowed and never affects file contents.
+ * PLEASE NOTE: only FLOAT, DOUBLE, INT and LONG arrays are supported.
+ *
+ * @author raver119@gmail.com
+ */
+@Slf4j
+public class MappedDataSetSerde {
+    private static final byte[] MAGIC = new byte[] {'N', 'D', '4', 'J', 'M', 'M', 'D', 'S'};
+    // version 1 stored DataBuffer.Type ordinals
+    private static final int VERSION = 2;
+    private static final int ALIGNMENT = 64;
+
+    private static final int KIND_DATASET = 0;
+    private static final int KIND_MULTIDATASET = 1;
+
+    private static final int ARRAY_ABSENT = 0;
+    private static final int ARRAY_PRESENT = 1;
+    private static final int ARRAY_SAME_AS_FEATURES = 2;
+
+    private static final int ORDER_LITTLE_ENDIAN = 0;
+    private static final int ORDER_BIG_ENDIAN = 1;
+
+    private static final int TYPE_FLOAT = 0;
+    private static final int TYPE_DOUBLE = 1;
+    private static final int TYPE_INT = 2;
+    private static final int TYPE_LONG = 3;
+
+    private MappedDataSetSerde() {
+        //
+    }
+
+    /**
+     * This method checks, if given file was written in memory-mapped format
+     *
+     * @param file
+     * @return
+     */
+    public static boolean isMappedFormat(@NonNull File file) {
+        if (!file.isFile() || file.length() < MAGIC.length)
+            return false;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            byte[] magic = new byte[MAGIC.length];
+            raf.readFully(magic);
+            return Arrays.equals(MAGIC, magic);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * This method writes given DataSet to the file in memory-mapped format
+     *
+     * @param dataSet
+     * @param file
+     * @throws IOException
+     */
+    public static void write(@NonNull DataSet dataSet, @NonNull File file) throws IOException {
+        INDArray features = dataSet.getFeatures();
+        INDArray labels = dataSet.getLabels();
+        boolean sameLabels = labels != null && labels == features;
+
+        write(file, KIND_DATASET, single(features), sameLabels ? new INDArray[] {null} : single(labels),
+                        single(dataSet.getFeaturesMaskArray()), single(dataSet.getLabelsMaskArray()), sameLabels);
+    }
+
+    /**
+     * This method writes given MultiDataSet to the file in memory-mapped format
+     *
+     * @param dataSet
+     * @param file
+     * @throws IOException
+     */
+    public static void write(@NonNull org.nd4j.linalg.dataset.api.MultiDataSet dataSet, @NonNull File file)
+                    throws IOException {
+        write(file, KIND_MULTIDATASET, dataSet.getFeatures(), dataSet.getLabels(), dataSet.getFeaturesMaskArrays(),
+                        dataSet.getLabelsMaskArrays(), false);
+    }
+
+    /**
+     * This method maps DataSet stored in given file. No data is copied: arrays are backed by the mapped file.
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static DataSet readDataSet(@NonNull File file) throws IOException {
+        INDArray[][] arrays = read(file, KIND_DATASET);
+        return new DataSet(first(arrays[0]), first(arrays[1]), first(arrays[2]), first(arrays[3]));
+    }
+
+    /**
+     * This method maps MultiDataSet stored in given file. No data is copied: arrays are backed by the mapped file.
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static MultiDataSet readMultiDataSet(@NonNull File file) throws IOException {
+        INDArray[][] arrays = read(file, KIND_MULTIDATASET);
+        return new MultiDataSet(arrays[0], arrays[1], arrays[2], arrays[3]);
+    }
+
+    private static INDArray[] single(INDArray array) {
+        return array == null ? null : new INDArray[] {array};
+    }
+
+    private static INDArray first(INDArray[] arrays) {
+        return arrays == null || arrays.length == 0 ? null : arrays[0];
+    }
+
+    private static long align(long value) {
+        return (value + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static INDArray prepare(INDArray array) {
+        if (array.isCompressed())
+            array = Nd4j.getCompressor().decompress(array);
+
+        if (array.isView() || array.ordering() != 'c' || array.data().offset() != 0
+                        || array.data().length() != array.length())
+            array = array.dup('c');
+
+        switch (array.data().dataType()) {
+            case FLOAT:
+            case DOUBLE:
+            case INT:
+            case LONG:
+                break;
+            default:
+                throw new ND4JIllegalStateException(
+                                "Data type [" + array.data().dataType() + "] isn't supported by memory-mapped format");
+        }
+
+        Nd4j.getAffinityManager().ensureLocation(array, AffinityManager.Location.HOST);
+        return array;
+    }
+
+    private static void write(File file, int kind, INDArray[] features, INDArray[] labels, INDArray[] featuresMasks,
+                    INDArray[] labelsMasks, boolean labelsSameAsFeatures) throws IOException {
+        INDArray[][] groups = new INDArray[][] {features, labels, featuresMasks, labelsMasks};
+
+        // ensure all pending ops are done before we access host memory
+        Nd4j.getExecutioner().commit();
+
+        // first pass: prepare arrays and calculate header length
+        List<INDArray> prepared = new ArrayList<>();
+        int headerLength = MAGIC.length + 4 * 4 + 4 * 4;
+        for (INDArray[] group : groups) {
+            if (group == null)
+                continue;
+
+            for (INDArray array : group) {
+                headerLength += 4;
+                if (array == null) {
+                    prepared.add(null);
+                    continue;
+                }
+
+                INDArray p = prepare(array);
+                prepared.add(p);
+                headerLength += 4 + 4 + 8 * p.rank() + 8 + 8;
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(headerLength).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(headerLength);
+        header.putInt(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? ORDER_LITTLE_ENDIAN : ORDER_BIG_ENDIAN);
+        header.putInt(kind);
+        for (INDArray[] group : groups)
+            header.putInt(group == null ? 0 : group.length);
+
+        // second pass: assign offsets for data buffers
+        long[] offsets = new long[prepared.size()];
+        long[] lengths = new long[prepared.size()];
+        long position = align(headerLength);
+        int cnt = 0;
+        for (INDArray[] group : groups) {
+            if (group == null)
+                continue;
+
+            for (int e = 0; e < group.length; e++) {
+                INDArray p = prepared.get(cnt);
+                if (p == null) {
+                    // the only legit case of null labels entry in DataSet is features reuse
+                    header.putInt(labelsSameAsFeatures && group == labels ? ARRAY_SAME_AS_FEATURES : ARRAY_ABSENT);
+                } else {
+                    lengths[cnt] = p.length() * p.data().getElementSize();
+                    offsets[cnt] = position;
+                    position = align(position + lengths[cnt]);
+
+                    header.putInt(ARRAY_PRESENT);
+                    header.putInt(typeCode(p.data().dataType()));
+                    header.putInt(p.rank());
+                    for (long s : p.shape())
+                        header.putLong(s);
+                    header.putLong(offsets[cnt]);
+                    header.putLong(p.length());
+                }
+                cnt++;
+            }
+        }
+        header.flip();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            raf.setLength(0);
+
+            while (header.hasRemaining())
+                channel.write(header, header.position());
+
+            for (int e = 0; e < prepared.size(); e++) {
+                INDArray p = prepared.get(e);
+                if (p == null)
+                    continue;
+
+                ByteBuffer data = p.data().pointer().asByteBuffer();
+                if (data.capacity() < lengths[e])
+                    throw new ND4JIllegalStateException("Unable to access host buffer of array: expected "
+                                    + lengths[e] + " bytes, got " + data.capacity());
+
+                data.position(0);
+                data.limit((int) lengths[e]);
+                long filePosition = offsets[e];
+                while (data.hasRemaining())
+                    filePosition += channel.write(data, filePosition);
+            }
+
+            // make sure file length covers last aligned block
+            raf.setLength(Math.max(raf.length(), position));
+        }
+    }
+
+    private static INDArray[][] read(File file, int expectedKind) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            ByteBuffer prefix = ByteBuffer.allocate(MAGIC.length + 4 * 4).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, prefix, 0);
+            prefix.flip();
+
+            byte[] magic = new byte[MAGIC.length];
+            prefix.get(magic);
+            if (!Arrays.equals(MAGIC, magic))
+                throw new ND4JIllegalStateException("File [" + file + "] isn't in memory-mapped DataSet format");
+
+            int version = prefix.getInt();
+            if (version != VERSION)
+                throw new ND4JIllegalStateException("Unsupported memory-mapped DataSet format version: " + version);
+
+            int headerLength = prefix.getInt();
+            ByteOrder dataOrder = prefix.getInt() == ORDER_LITTLE_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            int kind = prefix.getInt();
+            if (kind != expectedKind)
+                throw new ND4JIllegalStateException("File [" + file + "] contains "
+                                + (kind == KIND_DATASET ? "DataSet" : "MultiDataSet") + ", but "
+                                + (expectedKind == KIND_DATASET ? "DataSet" : "MultiDataSet") + " was requested");
+
+            ByteBuffer header = ByteBuffer.allocate(headerLength).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0);
+            header.flip();
+            header.position(prefix.position());
+
+            int[] counts = new int[4];
+            for (int e = 0; e < counts.length; e++)
+                counts[e] = header.getInt();
+
+            INDArray[][] result = new INDArray[4][];
+            for (int g = 0; g < counts.length; g++) {
+                result[g] = counts[g] == 0 ? null : new INDArray[counts[g]];
+                for (int e = 0; e < counts[g]; e++) {
+                    int flag = header.getInt();
+                    if (flag == ARRAY_ABSENT)
+                        continue;
+
+                    if (flag == ARRAY_SAME_AS_FEATURES) {
+                        result[g][e] = result[0][0];
+                        continue;
+                    }
+
+                    DataBuffer.Type type = typeOf(header.getInt());
+                    int rank = header.getInt();
+                    long[] shape = new long[rank];
+                    for (int r = 0; r < rank; r++)
+                        shape[r] = header.getLong();
+                    long offset = header.getLong();
+                    long length = header.getLong();
+
+                    result[g][e] = map(channel, type, shape, offset, length, dataOrder);
+                }
+            }
+
+            // mappings stay valid after channel is closed
+            return result;
+        }
+    }
+
+    private static int typeCode(DataBuffer.Type type) {
+        switch (type) {
+            case FLOAT:
+                return TYPE_FLOAT;
+            case DOUBLE:
+                return TYPE_DOUBLE;
+            case INT:
+                return TYPE_INT;
+            case LONG:
+                return TYPE_LONG;
+            default:
+                throw new ND4JIllegalStateException("Data type [" + type + "] isn't supported by memory-mapped format");
+        }
+    }
+
+    private static DataBuffer.Type typeOf(int code) {
+        switch (code) {
+            case TYPE_FLOAT:
+                return DataBuffer.Type.FLOAT;
+            case TYPE_DOUBLE:
+                return DataBuffer.Type.DOUBLE;
+            case TYPE_INT:
+                return DataBuffer.Type.INT;
+            case TYPE_LONG:
+                return DataBuffer.Type.LONG;
+            default:
+                throw new ND4JIllegalStateException("Unknown data type code in memory-mapped DataSet header: " + code);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0)
+                throw new ND4JIllegalStateException("Unexpected end of file while reading memory-mapped DataSet header");
+        }
+    }
+
+    private static INDArray map(FileChannel channel, DataBuffer.Type type, long[] shape, long offset, long length,
+                    ByteOrder dataOrder) throws IOException {
+        int elementSize = type == DataBuffer.Type.DOUBLE || type == DataBuffer.Type.LONG ? 8 : 4;
+        long bytes = length * elementSize;
+        if (bytes > Integer.MAX_VALUE)
+            throw new ND4JIllegalStateException("Arrays above 2GB aren't supported by memory-mapped format");
+
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.PRIVATE, offset, bytes);
+
+        if (dataOrder != ByteOrder.nativeOrder()) {
+            // file was written on platform with different endianness, so we have to convert it once
+            log.warn("Memory-mapped DataSet was written with {} byte order, data will be copied", dataOrder);
+            buffer = swap(buffer.order(dataOrder), type, (int) bytes);
+        }
+        buffer.order(ByteOrder.nativeOrder());
+
+        Pointer pointer;
+        Indexer indexer;
+        switch (type) {
+            case FLOAT:
+                pointer = new MappedFloatPointer(buffer);
+                indexer = FloatIndexer.create((FloatPointer) pointer);
+                break;
+            case DOUBLE:
+                pointer = new MappedDoublePointer(buffer);
+                indexer = DoubleIndexer.create((DoublePointer) pointer);
+                break;
+            case INT:
+                pointer = new MappedIntPointer(buffer);
+                indexer = IntIndexer.create((IntPointer) pointer);
+                break;
+            case LONG:
+                pointer = new MappedLongPointer(buffer);
+                indexer = LongIndexer.create((LongPointer) pointer);
+                break;
+            default:
+                throw new ND4JIllegalStateException("Data type [" + type + "] isn't supported by memory-mapped format");
+        }
+
+        DataBuffer dataBuffer = Nd4j.createBuffer(pointer, type, length, indexer);
+        return Nd4j.create(dataBuffer, shape, Nd4j.getStrides(shape, 'c'), 0, 'c');
+    }
+
+    private static ByteBuffer swap(ByteBuffer source, DataBuffer.Type type, int bytes) {
+        ByteBuffer target = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        switch (type) {
+            case FLOAT:
+                target.asFloatBuffer().put(source.asFloatBuffer());
+                break;
+            case DOUBLE:
+                target.asDoubleBuffer().put(source.asDoubleBuffer());
+                break;
+            case INT:
+                target.asIntBuffer().put(source.asIntBuffer());
+                break;
+            case LONG:
+                target.asLongBuffer().put(source.asLongBuffer());
+                break;
+            default:
+                throw new ND4JIllegalStateException("Data type [" + type + "] isn't supported by memory-mapped format");
+        }
+        return target;
+    }
+
+    /**
+     * This Deallocator holds reference to the mapped buffer, so mapping stays alive as long as Pointer is reachable
+     */
+    private static class MappingHolder implements Pointer.Deallocator {
+        private ByteBuffer buffer;
+
+        private MappingHolder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void deallocate() {
+            // mapping will be released by GC once it's unreachable
+            buffer = null;
+        }
+    }
+
+    private static class MappedFloatPointer extends FloatPointer {
+        private MappedFloatPointer(ByteBuffer buffer) {
+            super(buffer.asFloatBuffer());
+            deallocator(new MappingHolder(buffer));
+        }
+    }
+
+    private static class MappedDoublePointer extends DoublePointer {
+        private MappedDoublePointer(ByteBuffer buffer) {
+            super(buffer.asDoubleBuffer());
+            deallocator(new MappingHolder(buffer));
+        }
+    }
+
+    private static class MappedIntPointer extends IntPointer {
+        private MappedIntPointer(ByteBuffer buffer) {
+            super(buffer.asIntBuffer());
+            deallocator(new MappingHolder(buffer));
+        }
+    }
+
+    private static class MappedLongPointer extends LongPointer {
+        private MappedLongPointer(ByteBuffer buffer) {
+            super(buffer.asLongBuffer());
+            deallocator(new MappingHolder(buffer));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.nd4j.serde.binary;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.MultiDataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author raver119@gmail.com
+ */
+public class MappedDataSetSerdeTest {
+
+    private static File tempFile() {
+        File tmpFile = new File(System.getProperty("java.io.tmpdir"),
+                        "mappeddataset-" + UUID.randomUUID().toString() + ".bin");
+        tmpFile.deleteOnExit();
+        return tmpFile;
+    }
+
+    @Test
+    public void testDataSetRoundTrip() throws Exception {
+        File tmpFile = tempFile();
+
+        DataSet ds = new DataSet(Nd4j.rand(10, 7), Nd4j.rand(10, 3), null, Nd4j.ones(10, 3));
+        MappedDataSetSerde.write(ds, tmpFile);
+
+        assertTrue(MappedDataSetSerde.isMappedFormat(tmpFile));
+
+        DataSet restored = MappedDataSetSerde.readDataSet(tmpFile);
+        assertEquals(ds.getFeatures(), restored.getFeatures());
+        assertEquals(ds.getLabels(), restored.getLabels());
+        assertNull(restored.getFeaturesMaskArray());
+        assertEquals(ds.getLabelsMaskArray(), restored.getLabelsMaskArray());
+    }
+
+    @Test
+    public void testStableTypeCodes() throws Exception {
+        File tmpFile = tempFile();
+
+        INDArray features = Nd4j.rand(3, 4);
+        MappedDataSetSerde.write(new DataSet(features, null), tmpFile);
+
+        // type code of features follows magic, 4 header ints, 4 array counts and presence flag
+        byte[] bytes = Files.readAllBytes(tmpFile.toPath());
+        int code = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt(8 + 4 * 4 + 4 * 4 + 4);
+        assertEquals(features.data().dataType() == DataBuffer.Type.DOUBLE ? 1 : 0, code);
+    }
+
+    @Test
+    public void testDataSetViewsAndOrders() throws Exception {
+        File tmpFile = tempFile();
+
+        INDArray features = Nd4j.rand('f', 8, 5);
+        INDArray labels = Nd4j.rand(16, 4).get(NDArrayIndex.interval(0, 8), NDArrayIndex.all());
+        DataSet ds = new DataSet(features, labels);
+        MappedDataSetSerde.write(ds, tmpFile);
+
+        DataSet restored = MappedDataSetSerde.readDataSet(tmpFile);
+        assertEquals(features, restored.getFeatures());
+        assertEquals(labels, restored.getLabels());
+        assertEquals('c', restored.getFeatures().ordering());
+    }
+
+    @Test
+    public void testDataSetSameFeaturesAndLabels() throws Exception {
+        File tmpFile = tempFile();
+
+        INDArray features = Nd4j.rand(4, 6);
+        MappedDataSetSerde.write(new DataSet(features, features), tmpFile);
+
+        DataSet restored = MappedDataSetSerde.readDataSet(tmpFile);
+        assertEquals(features, restored.getFeatures());
+        assertTrue(restored.getFeatures() == restored.getLabels());
+    }
+
+    @Test
+    public void testInPlaceModificationDoesNotAffectFile() throws Exception {
+        File tmpFile = tempFile();
+
+        INDArray features = Nd4j.rand(4, 6);
+        MappedDataSetSerde.write(new DataSet(features, Nd4j.rand(4, 2)), tmpFile);
+
+        DataSet restored = MappedDataSetSerde.readDataSet(tmpFile);
+        restored.getFeatures().addi(1.0);
+
+        DataSet second = MappedDataSetSerde.readDataSet(tmpFile);
+        assertEquals(features, second.getFeatures());
+    }
+
+    @Test
+    public void testMultiDataSetRoundTrip() throws Exception {
+        File tmpFile = tempFile();
+
+        INDArray[] features = new INDArray[] {Nd4j.rand(5, 3), Nd4j.rand(new int[] {5, 2, 4})};
+        INDArray[] labels = new INDArray[] {Nd4j.rand(5, 2)};
+        INDArray[] featuresMasks = new INDArray[] {null, Nd4j.ones(5, 4)};
+        MultiDataSet mds = new MultiDataSet(features, labels, featuresMasks, null);
+
+        MappedDataSetSerde.write(mds, tmpFile);
+        MultiDataSet restored = MappedDataSetSerde.readMultiDataSet(tmpFile);
+
+        assertArrayEquals(features, restored.getFeatures());
+        assertArrayEquals(labels, restored.getLabels());
+        assertNull(restored.getFeaturesMaskArrays()[0]);
+        assertEquals(featuresMasks[1], restored.getFeaturesMaskArrays()[1]);
+        assertNull(restored.getLabelsMaskArrays());
+    }
+
+    @Test
+    public void testLegacyFormatDetection() throws Exception {
+        File tmpFile = tempFile();
+
+        new DataSet(Nd4j.rand(3, 3), Nd4j.rand(3, 3)).save(tmpFile);
+        assertFalse(MappedDataSetSerde.isMappedFormat(tmpFile));
+    }
+}
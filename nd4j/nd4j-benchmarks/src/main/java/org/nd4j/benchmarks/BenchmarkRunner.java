@@ -0,0 +1,34 @@
+package org.nd4j.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for the shaded benchmarks jar.<br>
+ * Accepts all standard JMH command line options (i.e. "-f 1 -wi 3 GemmBenchmark"). Unless a result format/file is
+ * specified explicitly, results are written as JSON to nd4j-benchmarks.json, so runs can be compared between builds.
+ *
+ * @author raver119@gmail.com
+ */
+public class BenchmarkRunner {
+    public static final String DEFAULT_RESULT_FILE = "nd4j-benchmarks.json";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListProfilers() || cmd.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmd);
+        if (!cmd.getResultFormat().hasValue())
+            builder.resultFormat(ResultFormatType.JSON);
+        if (!cmd.getResult().hasValue())
+            builder.result(DEFAULT_RESULT_FILE);
+
+        new Runner(builder.build()).run();
+    }
+}
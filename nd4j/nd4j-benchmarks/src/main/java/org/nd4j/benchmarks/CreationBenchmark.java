@@ -0,0 +1,53 @@
+package org.nd4j.benchmarks;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Array creation: zero-filled, uninitialized and from a java array.
+ *
+ * @author raver119@gmail.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class CreationBenchmark {
+
+    @Param({"FLOAT", "DOUBLE"})
+    public String dataType;
+
+    @Param({"100", "10000", "1000000"})
+    public int length;
+
+    private double[] data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Nd4j.setDataType(DataBuffer.Type.valueOf(dataType));
+        data = new double[length];
+        for (int i = 0; i < length; i++)
+            data[i] = i;
+    }
+
+    @Benchmark
+    public INDArray create() {
+        return Nd4j.create(1, length);
+    }
+
+    @Benchmark
+    public INDArray createUninitialized() {
+        return Nd4j.createUninitialized(new int[] {1, length});
+    }
+
+    @Benchmark
+    public INDArray createFromArray() {
+        return Nd4j.create(data, new int[] {1, length});
+    }
+}
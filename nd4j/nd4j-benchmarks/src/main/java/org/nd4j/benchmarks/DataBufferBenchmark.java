@@ -0,0 +1,62 @@
+package org.nd4j.benchmarks;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Element-wise DataBuffer access, bulk conversion and buffer allocation.
+ *
+ * @author raver119@gmail.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DataBufferBenchmark {
+
+    @Param({"FLOAT", "DOUBLE"})
+    public String dataType;
+
+    @Param({"1000", "100000"})
+    public int length;
+
+    private DataBuffer buffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Nd4j.setDataType(DataBuffer.Type.valueOf(dataType));
+        buffer = Nd4j.createBuffer(length);
+        for (int i = 0; i < length; i++)
+            buffer.put(i, i);
+    }
+
+    @Benchmark
+    public double getDouble() {
+        double sum = 0;
+        for (long i = 0; i < length; i++)
+            sum += buffer.getDouble(i);
+        return sum;
+    }
+
+    @Benchmark
+    public DataBuffer put() {
+        for (long i = 0; i < length; i++)
+            buffer.put(i, 1.0);
+        return buffer;
+    }
+
+    @Benchmark
+    public double[] asDouble() {
+        return buffer.asDouble();
+    }
+
+    @Benchmark
+    public DataBuffer createBuffer() {
+        return Nd4j.createBuffer((long) length);
+    }
+}
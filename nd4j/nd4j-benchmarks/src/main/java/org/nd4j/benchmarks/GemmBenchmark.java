@@ -0,0 +1,60 @@
+package org.nd4j.benchmarks;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matrix multiplication through Nd4j.gemm, with and without a preallocated result array.
+ *
+ * @author raver119@gmail.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class GemmBenchmark {
+
+    @Param({"FLOAT", "DOUBLE"})
+    public String dataType;
+
+    @Param({"64", "256", "1024"})
+    public int size;
+
+    private INDArray a;
+    private INDArray b;
+    private INDArray c;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Nd4j.setDataType(DataBuffer.Type.valueOf(dataType));
+        a = Nd4j.rand(size, size);
+        b = Nd4j.rand(size, size);
+        c = Nd4j.create(new int[] {size, size}, 'f');
+    }
+
+    @Benchmark
+    public INDArray gemm() {
+        return Nd4j.gemm(a, b, false, false);
+    }
+
+    @Benchmark
+    public INDArray gemmTransposed() {
+        return Nd4j.gemm(a, b, true, false);
+    }
+
+    @Benchmark
+    public INDArray gemmInPlace() {
+        return Nd4j.gemm(a, b, c, false, false, 1.0, 0.0);
+    }
+
+    @Benchmark
+    public INDArray mmul() {
+        return a.mmul(b);
+    }
+}
@@ -0,0 +1,67 @@
+package org.nd4j.benchmarks;
+
+import lombok.extern.slf4j.Slf4j;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.Op;
+import org.nd4j.linalg.api.ops.impl.accum.Sum;
+import org.nd4j.linalg.api.ops.impl.broadcast.BroadcastAddOp;
+import org.nd4j.linalg.api.ops.impl.transforms.Tanh;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Broadcast, transform and reduce ops executed via the backend OpExecutioner (NativeOpExecutioner for nd4j-native).
+ *
+ * @author raver119@gmail.com
+ */
+@Slf4j
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class OpsBenchmark {
+
+    @Param({"FLOAT", "DOUBLE"})
+    public String dataType;
+
+    @Param({"128", "1024"})
+    public int size;
+
+    private INDArray matrix;
+    private INDArray row;
+    private INDArray result;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Nd4j.setDataType(DataBuffer.Type.valueOf(dataType));
+        log.info("Using OpExecutioner: {}", Nd4j.getExecutioner().getClass().getName());
+        matrix = Nd4j.rand(size, size);
+        row = Nd4j.rand(1, size);
+        result = Nd4j.create(size, size);
+    }
+
+    @Benchmark
+    public INDArray broadcastAddRow() {
+        return Nd4j.getExecutioner().exec(new BroadcastAddOp(matrix, row, result, 1), 1);
+    }
+
+    @Benchmark
+    public Op transformTanh() {
+        return Nd4j.getExecutioner().exec(new Tanh(matrix, result));
+    }
+
+    @Benchmark
+    public INDArray reduceSumAlongDimension() {
+        return Nd4j.getExecutioner().exec(new Sum(matrix), 1);
+    }
+
+    @Benchmark
+    public double reduceSumFull() {
+        return matrix.sumNumber().doubleValue();
+    }
+}
@@ -0,0 +1,71 @@
+package org.nd4j.benchmarks;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * INDArray views, dup and assign over square matrices.
+ *
+ * @author raver119@gmail.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ViewBenchmark {
+
+    @Param({"FLOAT", "DOUBLE"})
+    public String dataType;
+
+    @Param({"64", "512"})
+    public int size;
+
+    private INDArray array;
+    private INDArray target;
+    private INDArray view;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Nd4j.setDataType(DataBuffer.Type.valueOf(dataType));
+        array = Nd4j.rand(size, size);
+        target = Nd4j.create(size, size);
+        view = array.get(NDArrayIndex.interval(0, size / 2), NDArrayIndex.interval(0, size / 2));
+    }
+
+    @Benchmark
+    public INDArray intervalView() {
+        return array.get(NDArrayIndex.interval(0, size / 2), NDArrayIndex.interval(0, size / 2));
+    }
+
+    @Benchmark
+    public INDArray tensorAlongDimension() {
+        return array.tensorAlongDimension(size / 2, 1);
+    }
+
+    @Benchmark
+    public INDArray dup() {
+        return array.dup();
+    }
+
+    @Benchmark
+    public INDArray dupView() {
+        return view.dup();
+    }
+
+    @Benchmark
+    public INDArray assign() {
+        return target.assign(array);
+    }
+
+    @Benchmark
+    public INDArray assignScalar() {
+        return target.assign(1.0);
+    }
+}
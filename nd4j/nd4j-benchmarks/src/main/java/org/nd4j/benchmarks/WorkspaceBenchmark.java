@@ -0,0 +1,69 @@
+package org.nd4j.benchmarks;
+
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.memory.conf.WorkspaceConfiguration;
+import org.nd4j.linalg.api.memory.enums.AllocationPolicy;
+import org.nd4j.linalg.api.memory.enums.LearningPolicy;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation of a number of arrays within a workspace scope, compared against the same allocations without workspace.
+ *
+ * @author raver119@gmail.com
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class WorkspaceBenchmark {
+    private static final String WS_ID = "BENCHMARK_WS";
+
+    @Param({"10", "100"})
+    public int numArrays;
+
+    @Param({"1000", "100000"})
+    public int length;
+
+    private WorkspaceConfiguration configuration;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        configuration = WorkspaceConfiguration.builder().initialSize(0).policyAllocation(AllocationPolicy.STRICT)
+                        .policyLearning(LearningPolicy.FIRST_LOOP).build();
+
+        //First loop is the learning one, we don't want to measure it
+        allocateInWorkspace(null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Nd4j.getWorkspaceManager().destroyAllWorkspacesForCurrentThread();
+    }
+
+    private void allocateInWorkspace(Blackhole bh) {
+        try (MemoryWorkspace ws = Nd4j.getWorkspaceManager().getAndActivateWorkspace(configuration, WS_ID)) {
+            for (int i = 0; i < numArrays; i++) {
+                Object o = Nd4j.create(1, length);
+                if (bh != null)
+                    bh.consume(o);
+            }
+        }
+    }
+
+    @Benchmark
+    public void workspaceAllocation(Blackhole bh) {
+        allocateInWorkspace(bh);
+    }
+
+    @Benchmark
+    public void regularAllocation(Blackhole bh) {
+        for (int i = 0; i < numArrays; i++)
+            bh.consume(Nd4j.create(1, length));
+    }
+}
@@ -0,0 +1,355 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+
+/**
+ * @author raver119@gmail.com
+ *
+ * Exp Replay implementation that keeps frames in preallocated off-heap ring buffers,
+ * instead of keeping Transition objects on heap
+ *
+ * Every frame is stored only once: frames shared between consecutive transitions (i.e. history
+ * frames, or the next observation becoming the current one) are detected by reference and reused,
+ * and each transition only keeps indices of its frames. Frames can optionally be stored as bytes,
+ * which is lossless for pixel observations in range [0, 255] and takes 4x less memory than floats.
+ *
+ * If alpha > 0, transitions are sampled proportionally to priority^alpha using a {@link SumTree},
+ * and importance sampling weights are returned with every batch (https://arxiv.org/abs/1511.05952).
+ * New transitions get the max priority seen so far, priorities are updated via updatePriorities()
+ *
+ * Batches are assembled directly into a single INDArray, see {@link #sample(int)}
+ */
+@Slf4j
+public class OffHeapExpReplay implements IExpReplay<Integer> {
+
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+    private static final double PRIORITY_EPSILON = 1e-6;
+
+    final private int maxSize;
+    final private int batchSize;
+    final private Random random;
+    final private boolean byteFrames;
+    final private double alpha;
+    @Getter
+    @Setter
+    private double beta;
+
+    //per-transition data, indexed by slot = transition % maxSize
+    final private int[] actions;
+    final private float[] rewards;
+    final private boolean[] terminals;
+    final private SumTree priorities;
+    private long[] frames; //historyLength + 1 absolute frame indices per slot: observation frames, then next observation
+    private double maxPriority = 1.0;
+
+    private long stored = 0; //total number of transitions stored
+    private long firstValid = 0; //oldest transition still available for sampling
+
+    //frame ring buffer, allocated upon first store() call
+    private int historyLength;
+    private int frameLength;
+    private long[] frameShape;
+    private int frameBytes;
+    private int frameCapacity;
+    private int framesPerChunk;
+    private ByteBuffer[] chunks;
+    private long framesWritten = 0;
+    private IdentityHashMap<INDArray, Long> lastFrames = new IdentityHashMap<>();
+
+    /**
+     * Uniform sampling, frames are stored as floats
+     */
+    public OffHeapExpReplay(int maxSize, int batchSize, int seed) {
+        this(maxSize, batchSize, seed, false, 0.0, 0.0);
+    }
+
+    /**
+     * @param maxSize max number of transitions
+     * @param batchSize default batch size
+     * @param seed random seed
+     * @param byteFrames if true, frame values are rounded to bytes in range [0, 255]
+     * @param alpha prioritization exponent, 0 means uniform sampling
+     * @param beta importance sampling exponent, can be annealed towards 1 via setBeta()
+     */
+    public OffHeapExpReplay(int maxSize, int batchSize, int seed, boolean byteFrames, double alpha, double beta) {
+        if (maxSize <= 0 || batchSize <= 0)
+            throw new IllegalArgumentException("maxSize and batchSize should be positive");
+        if (alpha < 0)
+            throw new IllegalArgumentException("alpha should be non-negative");
+
+        this.maxSize = maxSize;
+        this.batchSize = batchSize;
+        this.random = new Random(seed);
+        this.byteFrames = byteFrames;
+        this.alpha = alpha;
+        this.beta = beta;
+
+        actions = new int[maxSize];
+        rewards = new float[maxSize];
+        terminals = new boolean[maxSize];
+        priorities = alpha > 0 ? new SumTree(maxSize) : null;
+    }
+
+    public boolean isPrioritized() {
+        return priorities != null;
+    }
+
+    /**
+     * @return number of transitions available for sampling
+     */
+    public int size() {
+        return (int) (stored - firstValid);
+    }
+
+    public void store(Transition<Integer> transition) {
+        INDArray[] observation = transition.getObservation();
+        if (chunks == null)
+            allocate(observation);
+        else if (observation.length != historyLength)
+            throw new IllegalArgumentException("Expected history of length " + historyLength + ", got "
+                            + observation.length);
+
+        long idx = stored++;
+        int slot = slot(idx);
+        if (stored - firstValid > maxSize)
+            firstValid = stored - maxSize;
+
+        IdentityHashMap<INDArray, Long> current = new IdentityHashMap<>();
+        int base = slot * (historyLength + 1);
+        for (int j = 0; j < historyLength; j++)
+            frames[base + j] = frame(observation[j], current);
+        frames[base + historyLength] = frame(transition.getNextObservation(), current);
+        lastFrames = current;
+
+        actions[slot] = transition.getAction();
+        rewards[slot] = (float) transition.getReward();
+        terminals[slot] = transition.isTerminal();
+        if (priorities != null)
+            priorities.set(slot, maxPriority);
+
+        //drop transitions whose frames were overwritten
+        long oldestFrame = framesWritten - frameCapacity;
+        while (firstValid < stored && minFrame(slot(firstValid)) < oldestFrame) {
+            if (priorities != null)
+                priorities.set(slot(firstValid), 0.0);
+            firstValid++;
+        }
+    }
+
+    /**
+     * Sample a batch of default size, and convert it into transitions
+     */
+    public ArrayList<Transition<Integer>> getBatch() {
+        return getBatch(batchSize);
+    }
+
+    public ArrayList<Transition<Integer>> getBatch(int size) {
+        ReplayBatch batch = sample(size);
+        float[] obs = batch.getObservations().data().asFloat();
+        float[] next = batch.getNextObservations().data().asFloat();
+        int stride = historyLength * frameLength;
+
+        ArrayList<Transition<Integer>> result = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            INDArray[] history = new INDArray[historyLength];
+            for (int j = 0; j < historyLength; j++) {
+                int from = i * stride + j * frameLength;
+                history[j] = Nd4j.create(Arrays.copyOfRange(obs, from, from + frameLength), frameShape);
+            }
+            INDArray nextObservation =
+                            Nd4j.create(Arrays.copyOfRange(next, i * stride, i * stride + frameLength), frameShape);
+
+            result.add(new Transition<Integer>(history, batch.getActions()[i], (double) batch.getRewards()[i],
+                            batch.getTerminals()[i], nextObservation));
+        }
+
+        return result;
+    }
+
+    /**
+     * Sample a batch of transitions. Observations of the batch are assembled directly into
+     * arrays of shape [size, historyLength * frameLength]
+     *
+     * @param size number of transitions to sample
+     * @return sampled batch
+     */
+    public ReplayBatch sample(int size) {
+        int available = size();
+        if (available == 0)
+            throw new IllegalStateException("Can't sample from empty replay memory");
+
+        int[] slots = new int[size];
+        double[] weights = null;
+        if (priorities == null) {
+            if (size <= available) {
+                //sample without replacement, same as ExpReplay
+                Set<Integer> intSet = new LinkedHashSet<>();
+                while (intSet.size() < size)
+                    intSet.add(random.nextInt(available));
+
+                int i = 0;
+                for (Integer offset : intSet)
+                    slots[i++] = slot(firstValid + offset);
+            } else {
+                for (int i = 0; i < size; i++)
+                    slots[i] = slot(firstValid + random.nextInt(available));
+            }
+        } else {
+            //stratified sampling: one sample per equal segment of the total priority
+            double total = priorities.total();
+            double segment = total / size;
+            double maxWeight = 0;
+            weights = new double[size];
+            for (int i = 0; i < size; i++) {
+                int slot = priorities.find(Math.min((i + random.nextDouble()) * segment, total));
+                if (priorities.get(slot) <= 0)
+                    slot = slot(firstValid + random.nextInt(available));
+
+                slots[i] = slot;
+                weights[i] = Math.pow(available * priorities.get(slot) / total, -beta);
+                maxWeight = Math.max(maxWeight, weights[i]);
+            }
+
+            for (int i = 0; i < size; i++)
+                weights[i] /= maxWeight;
+        }
+
+        int stride = historyLength * frameLength;
+        float[] obs = new float[size * stride];
+        float[] next = new float[size * stride];
+        int[] batchActions = new int[size];
+        float[] batchRewards = new float[size];
+        boolean[] batchTerminals = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            int slot = slots[i];
+            int base = slot * (historyLength + 1);
+
+            //next observation history is the observation history shifted by one, see Transition.append()
+            readFrame(frames[base + historyLength], next, i * stride);
+            for (int j = 0; j < historyLength; j++) {
+                readFrame(frames[base + j], obs, i * stride + j * frameLength);
+                if (j < historyLength - 1)
+                    readFrame(frames[base + j], next, i * stride + (j + 1) * frameLength);
+            }
+
+            batchActions[i] = actions[slot];
+            batchRewards[i] = rewards[slot];
+            batchTerminals[i] = terminals[slot];
+        }
+
+        int[] shape = new int[] {size, stride};
+        return new ReplayBatch(Nd4j.create(obs, shape), Nd4j.create(next, shape), batchActions, batchRewards,
+                        batchTerminals, slots, weights);
+    }
+
+    /**
+     * Update priorities of sampled transitions. No-op if prioritized sampling is disabled
+     *
+     * @param indices transition indices, as returned in ReplayBatch.getIndices()
+     * @param errors TD errors of these transitions
+     */
+    public void updatePriorities(int[] indices, double[] errors) {
+        if (priorities == null)
+            return;
+
+        for (int i = 0; i < indices.length; i++) {
+            //transition might have been evicted since it was sampled
+            if (priorities.get(indices[i]) <= 0)
+                continue;
+
+            double priority = Math.pow(Math.abs(errors[i]) + PRIORITY_EPSILON, alpha);
+            priorities.set(indices[i], priority);
+            maxPriority = Math.max(maxPriority, priority);
+        }
+    }
+
+    private int slot(long transition) {
+        return (int) (transition % maxSize);
+    }
+
+    private long minFrame(int slot) {
+        int base = slot * (historyLength + 1);
+        long min = frames[base];
+        for (int j = 1; j <= historyLength; j++)
+            min = Math.min(min, frames[base + j]);
+        return min;
+    }
+
+    private void allocate(INDArray[] observation) {
+        historyLength = observation.length;
+        frameShape = observation[0].shape();
+        frameLength = (int) observation[0].length();
+        frameBytes = frameLength * (byteFrames ? 1 : 4);
+        if (frameBytes > MAX_CHUNK_BYTES)
+            throw new IllegalArgumentException("Frame of " + frameBytes + " bytes is too large");
+
+        //every transition refers to at most historyLength + 1 frames written recently, so this is enough
+        //to keep frames of maxSize transitions when every step adds one new frame
+        frameCapacity = maxSize + 2 * (historyLength + 1);
+        framesPerChunk = MAX_CHUNK_BYTES / frameBytes;
+        int numChunks = (frameCapacity + framesPerChunk - 1) / framesPerChunk;
+
+        chunks = new ByteBuffer[numChunks];
+        for (int i = 0; i < numChunks; i++) {
+            int numFrames = Math.min(framesPerChunk, frameCapacity - i * framesPerChunk);
+            chunks[i] = ByteBuffer.allocateDirect(numFrames * frameBytes).order(ByteOrder.nativeOrder());
+        }
+        frames = new long[maxSize * (historyLength + 1)];
+
+        log.info("Allocated {} MB off-heap for {} frames of shape {}",
+                        (long) frameCapacity * frameBytes / (1024 * 1024), frameCapacity, Arrays.toString(frameShape));
+    }
+
+    /**
+     * Returns absolute index of the frame, writing it into the ring buffer if it wasn't written by the previous transition
+     */
+    private long frame(INDArray frame, IdentityHashMap<INDArray, Long> current) {
+        Long idx = current.get(frame);
+        if (idx == null)
+            idx = lastFrames.get(frame);
+
+        if (idx == null) {
+            if (frame.length() != frameLength)
+                throw new IllegalArgumentException("Expected frame of length " + frameLength + ", got "
+                                + frame.length());
+
+            idx = framesWritten++;
+            float[] data = frame.dup('c').data().asFloat();
+            ByteBuffer buffer = frameBuffer(idx);
+            if (byteFrames) {
+                for (int i = 0; i < frameLength; i++)
+                    buffer.put((byte) Math.max(0, Math.min(255, Math.round(data[i]))));
+            } else {
+                buffer.asFloatBuffer().put(data, 0, frameLength);
+            }
+        }
+
+        current.put(frame, idx);
+        return idx;
+    }
+
+    private void readFrame(long idx, float[] target, int offset) {
+        ByteBuffer buffer = frameBuffer(idx);
+        if (byteFrames) {
+            for (int i = 0; i < frameLength; i++)
+                target[offset + i] = buffer.get() & 0xFF;
+        } else {
+            buffer.asFloatBuffer().get(target, offset, frameLength);
+        }
+    }
+
+    private ByteBuffer frameBuffer(long idx) {
+        int position = (int) (idx % frameCapacity);
+        ByteBuffer buffer = chunks[position / framesPerChunk].duplicate().order(ByteOrder.nativeOrder());
+        buffer.position((position % framesPerChunk) * frameBytes);
+        return buffer;
+    }
+}
@@ -0,0 +1,31 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import lombok.Value;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * @author raver119@gmail.com
+ *
+ * A batch of transitions sampled from {@link OffHeapExpReplay}, already assembled into arrays
+ *
+ * observations and nextObservations have shape [batchSize, historyLength * frameLength],
+ * with frames of each history ordered from the most recent one, same as Transition.observation
+ *
+ * indices identify sampled transitions for {@link OffHeapExpReplay#updatePriorities(int[], double[])},
+ * and weights are importance sampling weights (null if prioritized sampling is disabled)
+ */
+@Value
+public class ReplayBatch {
+
+    INDArray observations;
+    INDArray nextObservations;
+    int[] actions;
+    float[] rewards;
+    boolean[] terminals;
+    int[] indices;
+    double[] weights;
+
+    public int size() {
+        return actions.length;
+    }
+}
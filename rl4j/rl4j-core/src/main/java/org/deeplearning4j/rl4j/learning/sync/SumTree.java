@@ -0,0 +1,85 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+/**
+ * @author raver119@gmail.com
+ *
+ * Binary sum tree over a fixed number of non-negative priorities, stored in a flat array.
+ *
+ * Updating a priority and finding the element by prefix sum are both O(log n), which makes
+ * proportional prioritized sampling cheap for large replay memories.
+ *
+ * https://arxiv.org/abs/1511.05952
+ */
+public class SumTree {
+
+    final private int capacity;
+    final private int leafOffset;
+    final private double[] tree;
+
+    public SumTree(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("SumTree capacity should be positive");
+
+        this.capacity = capacity;
+        int leaves = 1;
+        while (leaves < capacity)
+            leaves <<= 1;
+
+        leafOffset = leaves;
+        tree = new double[2 * leaves];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return sum of all priorities
+     */
+    public double total() {
+        return tree[1];
+    }
+
+    public double get(int index) {
+        return tree[leafOffset + index];
+    }
+
+    /**
+     * @param index element index
+     * @param priority new non-negative priority of the element
+     */
+    public void set(int index, double priority) {
+        if (index < 0 || index >= capacity)
+            throw new IllegalArgumentException("Index " + index + " is out of range [0, " + capacity + ")");
+        if (priority < 0 || Double.isNaN(priority))
+            throw new IllegalArgumentException("Priority should be a non-negative number: " + priority);
+
+        int node = leafOffset + index;
+        double delta = priority - tree[node];
+        while (node >= 1) {
+            tree[node] += delta;
+            node >>= 1;
+        }
+    }
+
+    /**
+     * Find the element i such that sum(priorities[0..i-1]) <= value < sum(priorities[0..i])
+     *
+     * @param value prefix sum, in range [0, total())
+     * @return index of the element
+     */
+    public int find(double value) {
+        int node = 1;
+        while (node < leafOffset) {
+            int left = node << 1;
+            if (value < tree[left] || tree[left + 1] <= 0) {
+                node = left;
+            } else {
+                value -= tree[left];
+                node = left + 1;
+            }
+        }
+
+        return Math.min(node - leafOffset, capacity - 1);
+    }
+}
@@ -5,6 +5,8 @@ import lombok.Setter;
 import org.nd4j.linalg.primitives.Pair;
 import org.deeplearning4j.gym.StepReply;
 import org.deeplearning4j.rl4j.learning.Learning;
+import org.deeplearning4j.rl4j.learning.sync.OffHeapExpReplay;
+import org.deeplearning4j.rl4j.learning.sync.ReplayBatch;
 import org.deeplearning4j.rl4j.learning.sync.Transition;
 import org.deeplearning4j.rl4j.learning.sync.qlearning.QLearning;
 import org.deeplearning4j.rl4j.mdp.MDP;
@@ -160,7 +162,12 @@ public abstract class QLearningDiscrete<O extends Encodable> extends QLearning<O
             getExpReplay().store(trans);
 
             if (getStepCounter() > updateStart) {
-                Pair<INDArray, INDArray> targets = setTarget(getExpReplay().getBatch());
+                Pair<INDArray, INDArray> targets;
+                if (getExpReplay() instanceof OffHeapExpReplay) {
+                    OffHeapExpReplay expReplay = (OffHeapExpReplay) getExpReplay();
+                    targets = setTarget(expReplay, expReplay.sample(getConfiguration().getBatchSize()));
+                } else
+                    targets = setTarget(getExpReplay().getBatch());
                 getCurrentDQN().fit(targets.getFirst(), targets.getSecond());
             }
 
@@ -186,12 +193,14 @@ public abstract class QLearningDiscrete<O extends Encodable> extends QLearning<O
         INDArray obs = Nd4j.create(nshape);
         INDArray nextObs = Nd4j.create(nshape);
         int[] actions = new int[size];
+        double[] rewards = new double[size];
         boolean[] areTerminal = new boolean[size];
 
         for (int i = 0; i < size; i++) {
             Transition<Integer> trans = transitions.get(i);
             areTerminal[i] = trans.isTerminal();
             actions[i] = trans.getAction();
+            rewards[i] = trans.getReward();
 
             INDArray[] obsArray = trans.getObservation();
             if (obs.rank() == 2) {
@@ -211,6 +220,44 @@ public abstract class QLearningDiscrete<O extends Encodable> extends QLearning<O
                 }
             }
         }
+
+        return setTarget(obs, nextObs, actions, rewards, areTerminal, null, null);
+    }
+
+    /**
+     * Same as {@link #setTarget(ArrayList)}, for batches sampled from {@link OffHeapExpReplay}.
+     * Priorities of sampled transitions are updated with their TD errors, and if the replay is prioritized,
+     * importance sampling weights are applied to the targets
+     */
+    protected Pair<INDArray, INDArray> setTarget(OffHeapExpReplay expReplay, ReplayBatch batch) {
+        int size = batch.size();
+        int[] shape = getHistoryProcessor() == null ? getMdp().getObservationSpace().getShape()
+                        : getHistoryProcessor().getConf().getShape();
+        int[] nshape = makeShape(size, shape);
+
+        //batch is a fresh c-order array, so reshape is a view
+        INDArray obs = batch.getObservations().reshape(nshape);
+        INDArray nextObs = batch.getNextObservations().reshape(nshape);
+
+        double[] rewards = new double[size];
+        for (int i = 0; i < size; i++)
+            rewards[i] = batch.getRewards()[i];
+
+        double[] tdErrors = new double[size];
+        Pair<INDArray, INDArray> targets = setTarget(obs, nextObs, batch.getActions(), rewards, batch.getTerminals(),
+                        batch.getWeights(), tdErrors);
+        expReplay.updatePriorities(batch.getIndices(), tdErrors);
+
+        return targets;
+    }
+
+    /**
+     * @param weights importance sampling weights, or null
+     * @param tdErrors if not null, TD errors (before clamping) are stored here
+     */
+    protected Pair<INDArray, INDArray> setTarget(INDArray obs, INDArray nextObs, int[] actions, double[] rewards,
+                    boolean[] areTerminal, double[] weights, double[] tdErrors) {
+        int size = actions.length;
         if (getHistoryProcessor() != null) {
             obs.muli(1.0 / getHistoryProcessor().getScale());
             nextObs.muli(1.0 / getHistoryProcessor().getScale());
@@ -232,7 +279,7 @@ public abstract class QLearningDiscrete<O extends Encodable> extends QLearning<O
 
 
         for (int i = 0; i < size; i++) {
-            double yTar = transitions.get(i).getReward();
+            double yTar = rewards[i];
             if (!areTerminal[i]) {
                 double q = 0;
                 if (getConfiguration().isDoubleDQN()) {
@@ -247,10 +294,17 @@ public abstract class QLearningDiscrete<O extends Encodable> extends QLearning<O
 
 
             double previousV = dqnOutputAr.getDouble(i, actions[i]);
+            if (tdErrors != null)
+                tdErrors[i] = yTar - previousV;
+
             double lowB = previousV - getConfiguration().getErrorClamp();
             double highB = previousV + getConfiguration().getErrorClamp();
             double clamped = Math.min(highB, Math.max(yTar, lowB));
 
+            //for squared error, scaling the target error is the same as scaling the gradient of the example
+            if (weights != null)
+                clamped = previousV + weights[i] * (clamped - previousV);
+
             dqnOutputAr.putScalar(i, actions[i], clamped);
         }
 
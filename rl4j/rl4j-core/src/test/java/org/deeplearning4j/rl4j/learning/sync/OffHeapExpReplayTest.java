@@ -0,0 +1,162 @@
+package org.deeplearning4j.rl4j.learning.sync;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author raver119@gmail.com
+ */
+public class OffHeapExpReplayTest {
+
+    /**
+     * Transitions of a single episode, with history shared between consecutive transitions
+     * the same way HistoryProcessor does it: transition t has frames t, t+1, ... t+historyLength-1
+     */
+    private static List<Transition<Integer>> episode(int length, int historyLength) {
+        List<INDArray> frames = new ArrayList<>();
+        for (int i = 0; i < length + historyLength; i++)
+            frames.add(Nd4j.valueArrayOf(new long[] {2, 3}, i));
+
+        List<Transition<Integer>> transitions = new ArrayList<>();
+        for (int t = 0; t < length; t++) {
+            INDArray[] history = frames.subList(t, t + historyLength).toArray(new INDArray[historyLength]);
+            transitions.add(new Transition<>(history, t % 4, (double) t, t == length - 1, frames.get(t + 1)));
+        }
+        return transitions;
+    }
+
+    @Test
+    public void testBatchContent() {
+        OffHeapExpReplay replay = new OffHeapExpReplay(100, 10, 119);
+        for (Transition<Integer> t : episode(10, 3))
+            replay.store(t);
+
+        assertEquals(10, replay.size());
+
+        ReplayBatch batch = replay.sample(10);
+        assertArrayEquals(new long[] {10, 18}, batch.getObservations().shape());
+        assertNull(batch.getWeights());
+
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            int t = (int) batch.getRewards()[i];
+            seen.add(t);
+            assertEquals(t % 4, batch.getActions()[i]);
+            assertEquals(t == 9, batch.getTerminals()[i]);
+
+            INDArray obs = batch.getObservations().getRow(i);
+            INDArray next = batch.getNextObservations().getRow(i);
+            for (int j = 0; j < 3; j++) {
+                assertEquals(t + j, obs.getDouble(j * 6), 0.0);
+                assertEquals(t + j, obs.getDouble(j * 6 + 5), 0.0);
+            }
+
+            //next history is Transition.append(observation, nextObservation)
+            assertEquals(t + 1, next.getDouble(0), 0.0);
+            assertEquals(t, next.getDouble(6), 0.0);
+            assertEquals(t + 1, next.getDouble(12), 0.0);
+        }
+        assertEquals(10, seen.size());
+    }
+
+    @Test
+    public void testTransitions() {
+        OffHeapExpReplay replay = new OffHeapExpReplay(100, 4, 119);
+        List<Transition<Integer>> episode = episode(20, 2);
+        for (Transition<Integer> t : episode)
+            replay.store(t);
+
+        ArrayList<Transition<Integer>> batch = replay.getBatch();
+        assertEquals(4, batch.size());
+        for (Transition<Integer> t : batch) {
+            Transition<Integer> original = episode.get((int) t.getReward());
+            assertEquals(original.getAction(), t.getAction());
+            assertEquals(original.getNextObservation(), t.getNextObservation());
+            for (int j = 0; j < 2; j++)
+                assertEquals(original.getObservation()[j], t.getObservation()[j]);
+        }
+    }
+
+    @Test
+    public void testEviction() {
+        OffHeapExpReplay replay = new OffHeapExpReplay(5, 5, 119);
+        //few short episodes, so frames aren't shared between them
+        for (int e = 0; e < 4; e++)
+            for (Transition<Integer> t : episode(5, 4))
+                replay.store(t);
+
+        assertTrue(replay.size() <= 5);
+        assertTrue(replay.size() > 0);
+
+        ReplayBatch batch = replay.sample(20);
+        for (int i = 0; i < batch.size(); i++) {
+            int t = (int) batch.getRewards()[i];
+            for (int j = 0; j < 4; j++)
+                assertEquals(t + j, batch.getObservations().getDouble(i, j * 6), 0.0);
+        }
+    }
+
+    @Test
+    public void testByteFrames() {
+        OffHeapExpReplay replay = new OffHeapExpReplay(10, 1, 119, true, 0.0, 0.0);
+        INDArray frame = Nd4j.create(new float[] {0.4f, 1.6f, 254.7f, 300f, -3f, 17f}, new int[] {1, 6});
+        replay.store(new Transition<>(new INDArray[] {frame}, 0, 1.0, true, frame));
+
+        INDArray obs = replay.sample(1).getObservations();
+        assertEquals(Nd4j.create(new float[] {0f, 2f, 255f, 255f, 0f, 17f}, new int[] {1, 6}), obs);
+    }
+
+    @Test
+    public void testPrioritized() {
+        OffHeapExpReplay replay = new OffHeapExpReplay(50, 32, 119, false, 0.6, 0.4);
+        for (Transition<Integer> t : episode(50, 1))
+            replay.store(t);
+
+        ReplayBatch batch = replay.sample(50);
+        assertNotNull(batch.getWeights());
+
+        int[] indices = new int[50];
+        double[] errors = new double[50];
+        for (int i = 0; i < 50; i++) {
+            indices[i] = i;
+            errors[i] = i == 7 ? 100.0 : 0.0;
+        }
+        replay.updatePriorities(indices, errors);
+
+        int hits = 0;
+        batch = replay.sample(200);
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.getRewards()[i] == 7.0f)
+                hits++;
+            assertTrue(batch.getWeights()[i] <= 1.0);
+        }
+        assertTrue(hits > 190);
+    }
+
+    @Test
+    public void testSumTree() {
+        SumTree tree = new SumTree(5);
+        tree.set(0, 1.0);
+        tree.set(2, 3.0);
+        tree.set(4, 6.0);
+
+        assertEquals(10.0, tree.total(), 1e-9);
+        assertEquals(0, tree.find(0.5));
+        assertEquals(2, tree.find(1.0));
+        assertEquals(2, tree.find(3.9));
+        assertEquals(4, tree.find(4.0));
+        assertEquals(4, tree.find(9.99));
+
+        tree.set(4, 0.0);
+        assertEquals(4.0, tree.total(), 1e-9);
+        assertEquals(2, tree.find(3.99));
+    }
+}